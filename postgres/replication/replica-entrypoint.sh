@@ -0,0 +1,20 @@
+#!/bin/sh
+# Hot standby of the postgres service: clones the primary with pg_basebackup on
+# first start (-R writes standby.signal and primary_conninfo), then runs
+# read-only, replaying the primary's WAL.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    mkdir -p "$PGDATA"
+    chown postgres:postgres "$PGDATA"
+    chmod 0700 "$PGDATA"
+    until PGPASSWORD="$REPLICATION_PASSWORD" su-exec postgres pg_basebackup \
+            --host="$PRIMARY_HOST" --username="$REPLICATION_USER" --pgdata="$PGDATA" \
+            --wal-method=stream --write-recovery-conf --progress; do
+        echo "Waiting for primary $PRIMARY_HOST ..."
+        rm -rf "${PGDATA:?}"/*
+        sleep 2
+    done
+fi
+
+exec su-exec postgres postgres -c hot_standby=on
@@ -0,0 +1,85 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.config.AllocationProperties;
+import com.antigravity.config.CorrelationRiskProperties;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import com.antigravity.risk.AllocationOptimizer;
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.PositionSizer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory stand-ins for Spring Data repositories so benchmarks measure the
+ * engine code rather than JDBC.
+ */
+final class BenchmarkStubs {
+
+    private BenchmarkStubs() {
+    }
+
+    /**
+     * A PortfolioRepository whose finders always return the given portfolio.
+     * Any other repository method is unsupported.
+     */
+    static PortfolioRepository portfolioRepository(Portfolio portfolio) {
+        Optional<Portfolio> result = Optional.of(portfolio);
+        return (PortfolioRepository) Proxy.newProxyInstance(
+                PortfolioRepository.class.getClassLoader(),
+                new Class<?>[] { PortfolioRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUserId", "findByUserIdForUpdate" -> result;
+                    case "toString" -> "PortfolioRepositoryStub";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * A transaction manager that opens no transactions, for code that wraps
+     * repository calls in a TransactionTemplate.
+     */
+    static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    static CorrelationRiskProperties correlationRiskProperties() {
+        return new CorrelationRiskProperties(Duration.ofMinutes(30), 20, new BigDecimal("0.25"),
+                new BigDecimal("0.05"));
+    }
+
+    /** A matrix over no symbols: every holding counts as uncorrelated. */
+    static CorrelationMatrix correlationMatrix() {
+        return new CorrelationMatrix(List.of(), Duration.ofMinutes(30), Duration.ofMinutes(10), Duration.ofHours(5),
+                20);
+    }
+
+    /** Sizing over {@code correlations}, with a single-threaded solver. */
+    static PositionSizer positionSizer(CorrelationMatrix correlations) {
+        return new PositionSizer(correlations, new AllocationOptimizer(Integer.MAX_VALUE, 1, 500, 1e-9),
+                new AllocationProperties(true, 0.25, 0.10, Integer.MAX_VALUE, 1, 500, 1e-9));
+    }
+}
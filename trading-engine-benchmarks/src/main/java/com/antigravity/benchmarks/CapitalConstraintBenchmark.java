@@ -0,0 +1,68 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.system.BrokerBalanceCache;
+import com.antigravity.agents.system.PortfolioIndex;
+import com.antigravity.agents.system.SystemAgentTools;
+import com.antigravity.agents.system.SystemAgentTools.CapitalVerificationRequest;
+import com.antigravity.agents.system.SystemAgentTools.CapitalVerificationResponse;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The verifyCapitalConstraint MCP tool body, minus the database round trip:
+ * the repository is an in-memory stub so only the risk arithmetic, the
+ * response allocation and the denial message building are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CapitalConstraintBenchmark {
+
+    private Function<CapitalVerificationRequest, CapitalVerificationResponse> verifyCapitalConstraint;
+
+    private final CapitalVerificationRequest approved = new CapitalVerificationRequest("usr_bench",
+            new BigDecimal("2000.0000"), new BigDecimal("50.0000"));
+    private final CapitalVerificationRequest riskDenied = new CapitalVerificationRequest("usr_bench",
+            new BigDecimal("2000.0000"), new BigDecimal("150.0000"));
+    private final CapitalVerificationRequest capitalDenied = new CapitalVerificationRequest("usr_bench",
+            new BigDecimal("12000.0000"), new BigDecimal("50.0000"));
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        Portfolio portfolio = new Portfolio("usr_bench", new BigDecimal("10000.0000"));
+        portfolio.addProfit(new BigDecimal("1000.0000"));
+        PortfolioRepository repository = BenchmarkStubs.portfolioRepository(portfolio);
+
+        SystemAgentTools tools = new SystemAgentTools(repository, null, new BrokerBalanceCache(600_000),
+                BenchmarkStubs.transactionManager(), new PortfolioIndex(null, null, null, 1000),
+                BenchmarkStubs.correlationMatrix(), BenchmarkStubs.correlationRiskProperties());
+        Field threshold = SystemAgentTools.class.getDeclaredField("cvarThresholdPercentage");
+        threshold.setAccessible(true);
+        threshold.set(tools, new BigDecimal("0.10"));
+        verifyCapitalConstraint = tools.verifyCapitalConstraint();
+    }
+
+    @Benchmark
+    public CapitalVerificationResponse approved() {
+        return verifyCapitalConstraint.apply(approved);
+    }
+
+    @Benchmark
+    public CapitalVerificationResponse deniedOnCvarThreshold() {
+        return verifyCapitalConstraint.apply(riskDenied);
+    }
+
+    @Benchmark
+    public CapitalVerificationResponse deniedOnTotalCapital() {
+        return verifyCapitalConstraint.apply(capitalDenied);
+    }
+}
@@ -0,0 +1,77 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.CorrelationMatrix.Holding;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cross-asset covariance over a watchlist of a few hundred symbols: the
+ * capital check's portfolio query (a ten-holding portfolio plus the asset
+ * being bought) and one price sample's O(n) update. The query budget is
+ * one microsecond.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorrelationMatrixBenchmark {
+
+    private static final int SAMPLES = 1 << 12;
+
+    @Param({ "100", "300" })
+    public int symbols;
+
+    private CorrelationMatrix matrix;
+    private List<String> watchlist;
+    private List<Holding> holdings;
+    private final int[] sampledSymbols = new int[SAMPLES];
+    private final double[] sampledPrices = new double[SAMPLES];
+    private long clock;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        watchlist = IntStream.range(0, symbols).mapToObj(i -> String.format("S%03d", i)).toList();
+        matrix = new CorrelationMatrix(watchlist, Duration.ofMinutes(30), Duration.ofMinutes(10),
+                Duration.ofHours(5), 20);
+        SplittableRandom random = new SplittableRandom(42);
+        double market = 0;
+        double[] idiosyncratic = new double[symbols];
+        for (int second = 0; second < 200; second++) {
+            market += random.nextGaussian() * 0.001;
+            for (int i = 0; i < symbols; i++) {
+                idiosyncratic[i] += random.nextGaussian() * 0.001;
+                matrix.observe(watchlist.get(i), second * 1000L, 100 * Math.exp(market + idiosyncratic[i]));
+            }
+        }
+        clock = 200_000L;
+        holdings = new ArrayList<>();
+        for (int k = 0; k < 10; k++) {
+            holdings.add(new Holding("CSE:" + watchlist.get(k * symbols / 10), 50, 5_000));
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            sampledSymbols[i] = random.nextInt(symbols);
+            sampledPrices[i] = 100 * Math.exp(random.nextGaussian() * 0.01);
+        }
+    }
+
+    @Benchmark
+    public CorrelationMatrix.PortfolioRisk assess() {
+        return matrix.assess(holdings, "CSE:S007", 1_000);
+    }
+
+    @Benchmark
+    public void observe() {
+        int i = cursor++ & (SAMPLES - 1);
+        matrix.observe(watchlist.get(sampledSymbols[i]), clock += 100, sampledPrices[i]);
+    }
+}
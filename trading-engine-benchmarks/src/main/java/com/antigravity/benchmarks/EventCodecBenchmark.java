@@ -0,0 +1,90 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.MarketHealthEvent;
+import com.antigravity.messaging.TradeExecutedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wire cost of agent events: the JSON strings the topics used to carry
+ * (written from the event's fields, read back with readTree as ObserverAgent
+ * did) against EventCodec. Payload sizes do not change between runs, so
+ * they are reported by {@link #main} rather than measured:
+ * {@code java -cp target/benchmarks.jar com.antigravity.benchmarks.EventCodecBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MarketHealthEvent health = new MarketHealthEvent("CSE:JKH", "2024-01-01T10:00:00Z", 0.2,
+            "BULLISH", false, "ACCUMULATE", 0.9, new BigDecimal("185.50"));
+    private final TradeExecutedEvent trade = new TradeExecutedEvent("usr_001", "CSE:JKH", "BUY",
+            new BigDecimal("900.00"), new BigDecimal("185.50"), "ACCUMULATE", new BigDecimal("180.00"),
+            1_704_103_200_000L);
+
+    private byte[] healthJson;
+    private byte[] healthBinary;
+    private byte[] tradeJson;
+    private byte[] tradeBinary;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        healthJson = objectMapper.writeValueAsBytes(health.toFields());
+        healthBinary = EventCodec.encode(health);
+        tradeJson = objectMapper.writeValueAsBytes(trade.toFields());
+        tradeBinary = EventCodec.encode(trade);
+    }
+
+    /** Prints the encoded size of each event in both formats. */
+    public static void main(String[] args) throws JsonProcessingException {
+        EventCodecBenchmark benchmark = new EventCodecBenchmark();
+        benchmark.setUp();
+        System.out.printf("MarketHealthEvent: json=%d bytes, binary=%d bytes%n", benchmark.healthJson.length,
+                benchmark.healthBinary.length);
+        System.out.printf("TradeExecutedEvent: json=%d bytes, binary=%d bytes%n", benchmark.tradeJson.length,
+                benchmark.tradeBinary.length);
+    }
+
+    @Benchmark
+    public byte[] marketHealthJsonEncode() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(health.toFields());
+    }
+
+    @Benchmark
+    public byte[] marketHealthBinaryEncode() {
+        return EventCodec.encode(health);
+    }
+
+    @Benchmark
+    public MarketHealthEvent marketHealthJsonDecode() throws IOException {
+        JsonNode root = objectMapper.readTree(healthJson);
+        return MarketHealthEvent.fromJson(root);
+    }
+
+    @Benchmark
+    public MarketHealthEvent marketHealthBinaryDecode() {
+        return EventCodec.decodeMarketHealth(healthBinary);
+    }
+
+    @Benchmark
+    public JsonNode tradeJsonDecode() throws IOException {
+        return objectMapper.readTree(tradeJson);
+    }
+
+    @Benchmark
+    public TradeExecutedEvent tradeBinaryDecode() {
+        return EventCodec.decodeTradeExecuted(tradeBinary);
+    }
+}
@@ -0,0 +1,88 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.models.AgentAuditLog;
+import com.antigravity.models.Trade;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade ledger writes through Hibernate against in-memory H2: each operation
+ * is one transaction persisting trades interleaved with audit log rows, the
+ * way a fan-out commit does. Scores are rows per second.
+ *
+ * unbatched: one statement per row; batched: hibernate.jdbc.batch_size only,
+ * so the interleaving keeps breaking the batch; ordered: batch_size plus
+ * order_inserts, as configured in application.properties. H2 has no network
+ * round trip, so the gap here understates the gap against PostgreSQL.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JpaInsertBenchmark {
+
+    private static final int ROWS = 200;
+
+    @Param({ "unbatched", "batched", "ordered" })
+    public String mode;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:jpa-insert-" + mode + ";DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, "unbatched".equals(mode) ? "1" : "50")
+                .applySetting(AvailableSettings.ORDER_INSERTS, String.valueOf("ordered".equals(mode)))
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Trade.class)
+                .addAnnotatedClass(AgentAuditLog.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        sessionFactory.inTransaction(session -> {
+            session.createMutationQuery("delete from Trade").executeUpdate();
+            session.createMutationQuery("delete from AgentAuditLog").executeUpdate();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertTradesWithAuditLogs() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int i = 0; i < ROWS / 2; i++) {
+                session.persist(new Trade("usr_" + i, "CSE:JKH", "BUY", new BigDecimal("900.00"),
+                        new BigDecimal("185.50"), "ACCUMULATE", new BigDecimal("180.00")));
+                session.persist(new AgentAuditLog("TradeAgent", "TradeExecuted",
+                        "Clear BULLISH signal for usr_" + i, 0.9));
+            }
+            transaction.commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.tracing.TraceContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer-side cost of a trade.execution.logs record: JSON encoding of the
+ * decision, the StringSerializer the KafkaTemplate uses, and the trace headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaPayloadSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringSerializer serializer = new StringSerializer();
+    private final TradeDecision decision = new TradeDecision("CSE:JKH", "BUY", new BigDecimal("1000.0000"),
+            new BigDecimal("150.0000"), "DISCRETE_SWING", new BigDecimal("10.0000"));
+
+    private String encodedDecision;
+    private TraceContext trace;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        encodedDecision = objectMapper.writeValueAsString(decision);
+        trace = TraceContext.start();
+    }
+
+    @Benchmark
+    public byte[] encodeAndSerializeDecision() throws JsonProcessingException {
+        return serializer.serialize(KafkaConfig.TOPIC_TRADE_LOGS, objectMapper.writeValueAsString(decision));
+    }
+
+    @Benchmark
+    public byte[] serializeModelPayload() {
+        return serializer.serialize(KafkaConfig.TOPIC_TRADE_LOGS, encodedDecision);
+    }
+
+    @Benchmark
+    public RecordHeaders writeTraceHeaders() {
+        RecordHeaders headers = new RecordHeaders();
+        trace.writeTo(headers);
+        return headers;
+    }
+}
@@ -0,0 +1,62 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.analysis.LocalMarketApiClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LocalMarket price response decoding as done by LocalMarketApiClient, and the
+ * Map.toString() rendering AnalysisAgent feeds into its prompt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarketDataDecodingBenchmark {
+
+    private static final String PRICE_RESPONSE = """
+            {
+              "symbol": "AAL",
+              "price_data": {
+                "symbol": "AAL",
+                "price": 185.50,
+                "open": 183.00,
+                "high": 187.25,
+                "low": 182.75,
+                "previous_close": 184.10,
+                "change": 1.40,
+                "change_percent": 0.76,
+                "volume_24h": 1250000,
+                "avg_volume_30d": 980000,
+                "bid": 185.45,
+                "ask": 185.55,
+                "timestamp": "2026-02-24T09:45:00Z"
+              },
+              "source": "localmarket"
+            }
+            """;
+
+    private LocalMarketApiClient client;
+
+    @Setup
+    public void setUp() {
+        client = new LocalMarketApiClient(WebClient.builder(), new ObjectMapper());
+    }
+
+    @Benchmark
+    public Map<String, Object> decodePriceData() throws JsonProcessingException {
+        return client.decodePriceData(PRICE_RESPONSE);
+    }
+
+    @Benchmark
+    public String decodeAndRenderForPrompt() throws JsonProcessingException {
+        return client.decodePriceData(PRICE_RESPONSE).toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.system.SystemAgentTools;
+import com.antigravity.agents.system.SystemAgentTools.CapitalVerificationResponse;
+import com.antigravity.models.ActionStatus;
+import com.antigravity.models.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The capital check's arithmetic on fixed-point {@link Money} against the
+ * BigDecimal implementation it replaced (kept here verbatim as the baseline).
+ * Run with -prof gc to compare allocation per check as well as time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyArithmeticBenchmark {
+
+    private final BigDecimal threshold = new BigDecimal("0.10");
+    private final BigDecimal profit = new BigDecimal("1000.0000");
+    private final BigDecimal total = new BigDecimal("11000.0000");
+    private final BigDecimal cash = new BigDecimal("20000.0000");
+    private final BigDecimal allocation = new BigDecimal("2000.0000");
+    private final BigDecimal approvedRisk = new BigDecimal("50.0000");
+    private final BigDecimal deniedRisk = new BigDecimal("150.0000");
+
+    private final long thresholdBasisPoints = Money.basisPoints(threshold);
+    private final Money profitMoney = Money.of(profit);
+    private final Money totalMoney = Money.of(total);
+    private final Money cashMoney = Money.of(cash);
+    private final Money allocationMoney = Money.of(allocation);
+    private final Money approvedRiskMoney = Money.of(approvedRisk);
+    private final Money deniedRiskMoney = Money.of(deniedRisk);
+
+    @Benchmark
+    public CapitalVerificationResponse bigDecimalApproved() {
+        return bigDecimalCheck(allocation, approvedRisk);
+    }
+
+    @Benchmark
+    public CapitalVerificationResponse bigDecimalDenied() {
+        return bigDecimalCheck(allocation, deniedRisk);
+    }
+
+    @Benchmark
+    public CapitalVerificationResponse moneyApproved() {
+        return SystemAgentTools.checkCapital(allocationMoney, approvedRiskMoney, profitMoney, totalMoney, cashMoney,
+                thresholdBasisPoints);
+    }
+
+    @Benchmark
+    public CapitalVerificationResponse moneyDenied() {
+        return SystemAgentTools.checkCapital(allocationMoney, deniedRiskMoney, profitMoney, totalMoney, cashMoney,
+                thresholdBasisPoints);
+    }
+
+    private CapitalVerificationResponse bigDecimalCheck(BigDecimal requestedAllocation, BigDecimal estimatedCvarRisk) {
+        BigDecimal maxAllowableRisk = profit.multiply(threshold);
+        if (maxAllowableRisk.compareTo(BigDecimal.ZERO) <= 0) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Cannot trade. No accumulated profits exist to absorb risk. The initial capital is strictly firewalled.",
+                    BigDecimal.ZERO);
+        }
+        if (estimatedCvarRisk.compareTo(maxAllowableRisk) > 0) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Risk (" + estimatedCvarRisk + ") exceeds "
+                            + (threshold.multiply(new BigDecimal(100)))
+                            + "% CVaR threshold of profit (" + maxAllowableRisk + ")",
+                    maxAllowableRisk);
+        }
+        if (requestedAllocation.compareTo(total) > 0) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Insufficient total capital in portfolio.", maxAllowableRisk);
+        }
+        if (requestedAllocation.compareTo(cash) > 0) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Allocation exceeds reconciled CDS cash balance (" + cash + ").", maxAllowableRisk);
+        }
+        return new CapitalVerificationResponse(ActionStatus.SUCCESS,
+                "APPROVED: Trade allocation is within bounds. Initial capital firewalled.", maxAllowableRisk);
+    }
+}
@@ -0,0 +1,73 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.simulation.OrderBook;
+import com.antigravity.agents.simulation.OrderBook.OrderType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order book event rate: a pre-generated stream of limit, IOC and market
+ * orders and cancels around a drifting mid, applied to one book. Scores are
+ * events per second; the book stays a few hundred levels deep, like a busy
+ * symbol during replay.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBookBenchmark {
+
+    private static final int EVENTS = 1 << 16;
+    private static final long TICK = 100; // 0.01 in Money units
+
+    private final long[] prices = new long[EVENTS];
+    private final long[] quantities = new long[EVENTS];
+    private final byte[] kinds = new byte[EVENTS];
+    private final boolean[] buys = new boolean[EVENTS];
+
+    private OrderBook book;
+    private long nextId;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        long mid = 1_855_000; // 185.50
+        for (int i = 0; i < EVENTS; i++) {
+            mid += (random.nextInt(3) - 1) * TICK;
+            boolean buy = random.nextBoolean();
+            int offset = random.nextInt(1, 40);
+            buys[i] = buy;
+            prices[i] = buy ? mid - offset * TICK : mid + offset * TICK;
+            quantities[i] = random.nextInt(1, 500);
+            int roll = random.nextInt(100);
+            // 70% passive limits, 15% cancels, 10% IOC at the touch, 5% market
+            kinds[i] = (byte) (roll < 70 ? 0 : roll < 85 ? 1 : roll < 95 ? 2 : 3);
+        }
+        nextId = 0;
+        cursor = 0;
+    }
+
+    @Benchmark
+    public long event(Blackhole blackhole) {
+        int i = cursor++ & (EVENTS - 1);
+        if (i == 0) {
+            // Start each pass over the stream from an empty book so depth stays bounded
+            book = new OrderBook("CSE:JKH");
+        }
+        OrderBook.FillListener listener = (taker, maker, price, quantity) -> blackhole.consume(quantity);
+        return switch (kinds[i]) {
+            case 0 -> book.submit(++nextId, buys[i], OrderType.LIMIT, prices[i], quantities[i], listener);
+            // Cancel an order from a few hundred events ago; many have filled already
+            case 1 -> book.cancel(Math.max(1, nextId - 300));
+            case 2 -> book.submit(++nextId, buys[i], OrderType.IOC, buys[i] ? book.bestAsk() : book.bestBid(),
+                    quantities[i], listener);
+            default -> book.submit(++nextId, buys[i], OrderType.MARKET, 0, quantities[i], listener);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.models.Portfolio;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal capital arithmetic on the Portfolio entity, as exercised by the
+ * withdrawal write path (compare against profit, subtract, add to withdrawals).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PortfolioCapitalBenchmark {
+
+    private final BigDecimal withdrawal = new BigDecimal("12.5000");
+    private final BigDecimal oversizedWithdrawal = new BigDecimal("999999999999.0000");
+
+    private Portfolio portfolio;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        portfolio = new Portfolio("usr_bench", new BigDecimal("100000.0000"));
+        // Large enough that an iteration never exhausts profit and flips to the deny path.
+        portfolio.addProfit(new BigDecimal("50000000000.0000"));
+    }
+
+    @Benchmark
+    public boolean processWithdrawalApproved() {
+        return portfolio.processWithdrawal(withdrawal);
+    }
+
+    @Benchmark
+    public boolean processWithdrawalDenied() {
+        return portfolio.processWithdrawal(oversizedWithdrawal);
+    }
+
+    @Benchmark
+    public BigDecimal totalCurrentValue() {
+        return portfolio.getTotalCurrentValue();
+    }
+}
@@ -0,0 +1,87 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.system.BrokerBalanceCache;
+import com.antigravity.agents.system.PortfolioIndex;
+import com.antigravity.agents.trade.PortfolioFanOut;
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.models.Portfolio;
+import com.antigravity.risk.CorrelationMatrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One market decision fanned out to every indexed portfolio: per-user sizing
+ * plus the capital check, with no database or model in the loop. Scores are
+ * user-decisions per second. A parallel threshold of Integer.MAX_VALUE forces
+ * the sequential path for comparison.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioFanOutBenchmark {
+
+    private static final TradeDecision MARKET = new TradeDecision("CSE:JKH", "BUY", new BigDecimal("900.00"),
+            new BigDecimal("185.50"), "ACCUMULATE", new BigDecimal("180.00"));
+
+    @Param({ "100", "1000", "10000" })
+    public int users;
+
+    @Param({ "sequential", "parallel" })
+    public String mode;
+
+    private PortfolioFanOut fanOut;
+
+    @Setup
+    public void setUp() {
+        PortfolioIndex index = new PortfolioIndex(null, null, null, 1000);
+        BrokerBalanceCache balances = new BrokerBalanceCache(600_000);
+        for (int i = 0; i < users; i++) {
+            String userId = String.format("usr_%05d", i);
+            Portfolio portfolio = new Portfolio(userId, new BigDecimal(50_000 + (i % 100) * 1_000));
+            portfolio.addProfit(new BigDecimal(500 + (i % 50) * 100));
+            index.update(portfolio);
+            if (i % 2 == 0) {
+                balances.put(userId, new BigDecimal("20000"), Instant.now());
+            }
+        }
+        CorrelationMatrix correlations = BenchmarkStubs.correlationMatrix();
+        fanOut = new PortfolioFanOut(index, balances, correlations, BenchmarkStubs.positionSizer(correlations),
+                BenchmarkStubs.correlationRiskProperties(), new SimpleMeterRegistry(), new BigDecimal("0.10"),
+                new BigDecimal("0.05"), 0, "parallel".equals(mode) ? 0 : Integer.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fanOut.close();
+    }
+
+    /**
+     * One invocation decides for every user; the userDecisions counter reports
+     * the per-user rate alongside the per-event score.
+     */
+    @Benchmark
+    public PortfolioFanOut.Result fanOut(UserDecisions decisions) {
+        PortfolioFanOut.Result result = fanOut.allocate(MARKET);
+        decisions.userDecisions += result.evaluated();
+        return result;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class UserDecisions {
+
+        public long userDecisions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            userDecisions = 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.trade.TradeDecisionEngine;
+import com.antigravity.agents.trade.TradeDecisionEngine.Decision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TradeAgent rule fast path: parse a market health event and apply the
+ * thresholds and position limit. This is the cost paid instead of an LLM
+ * round trip for clear-cut events; per-user sizing is measured separately in
+ * PortfolioFanOutBenchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradeDecisionEngineBenchmark {
+
+    private static final String TRADE_EVENT = """
+            {"timestamp":"2024-01-01T10:00:00Z","asset_id":"CSE:JKH","volatility_score":0.2,"trend":"BULLISH",
+             "anomaly_detected":false,"recommended_strategy":"ACCUMULATE","confidence":0.9,"last_price":185.5}
+            """;
+    private static final String AMBIGUOUS_EVENT = """
+            {"timestamp":"2024-01-01T10:00:00Z","asset_id":"CSE:JKH","volatility_score":0.2,"trend":"BULLISH",
+             "anomaly_detected":false,"recommended_strategy":"ACCUMULATE","confidence":0.7,"last_price":185.5}
+            """;
+
+    private TradeDecisionEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new TradeDecisionEngine(new ObjectMapper(), new SimpleMeterRegistry(), true, 0.80, 0.55, 0.60,
+                new BigDecimal("1000"), new BigDecimal("5000"));
+    }
+
+    @Benchmark
+    public Decision trade() {
+        return engine.decide(TRADE_EVENT);
+    }
+
+    @Benchmark
+    public Decision escalate() {
+        return engine.decide(AMBIGUOUS_EVENT);
+    }
+}
@@ -0,0 +1,47 @@
+package com.antigravity.benchmarks;
+
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ai.converter.BeanOutputConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Structured-output parsing of the TradeAgent's model response. Compares the
+ * shared converter TradeAgent now holds against building one per event
+ * (including getFormat() for the prompt), as it originally did.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradeDecisionParsingBenchmark {
+
+    private static final String MODEL_RESPONSE = """
+            ```json
+            {"assetId":"CSE:JKH","action":"BUY","amountAllocated":1000.0,"executionPrice":150.0,
+             "strategyUsed":"DISCRETE_SWING","cvarExposure":10.0}
+            ```
+            """;
+
+    private BeanOutputConverter<TradeDecision> sharedConverter;
+
+    @Setup
+    public void setUp() {
+        sharedConverter = new BeanOutputConverter<>(TradeDecision.class);
+    }
+
+    @Benchmark
+    public TradeDecision sharedConverter() {
+        return sharedConverter.convert(MODEL_RESPONSE);
+    }
+
+    @Benchmark
+    public TradeDecision converterPerEvent() {
+        BeanOutputConverter<TradeDecision> converter = new BeanOutputConverter<>(TradeDecision.class);
+        converter.getFormat();
+        return converter.convert(MODEL_RESPONSE);
+    }
+}
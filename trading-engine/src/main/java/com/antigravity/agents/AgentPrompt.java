@@ -0,0 +1,127 @@
+package com.antigravity.agents;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prompt assembly for an agent: the static system text is built once, and
+ * only the per-call payload is compacted down to the fields the agent
+ * actually reasons over, in canonical (sorted, null-free, minified) JSON.
+ * JSON over the size limit loses whole fields, largest first (or trailing
+ * array elements), so the model always gets valid JSON. Non-JSON payloads
+ * are whitespace-collapsed and truncated.
+ */
+public final class AgentPrompt {
+
+    private static final ObjectMapper CANONICAL = JsonMapper.builder()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .build();
+
+    private final String systemText;
+    private final Set<String> payloadFields;
+    private final int maxPayloadChars;
+
+    private AgentPrompt(String systemText, Set<String> payloadFields, int maxPayloadChars) {
+        this.systemText = systemText;
+        this.payloadFields = payloadFields;
+        this.maxPayloadChars = maxPayloadChars;
+    }
+
+    /**
+     * @param payloadFields top-level fields to keep; none keeps every field
+     */
+    public static AgentPrompt of(String systemText, int maxPayloadChars, String... payloadFields) {
+        return new AgentPrompt(systemText.strip(), Set.of(payloadFields), maxPayloadChars);
+    }
+
+    public String systemText() {
+        return systemText;
+    }
+
+    public String compact(Map<String, ?> payload) {
+        return compactNode(CANONICAL.valueToTree(payload));
+    }
+
+    public String compact(String payload) {
+        if (payload == null) {
+            return "";
+        }
+        int start = payload.indexOf('{');
+        int end = payload.lastIndexOf('}');
+        if (start >= 0 && end > start) {
+            try {
+                return compactNode(CANONICAL.readTree(payload.substring(start, end + 1)));
+            } catch (JsonProcessingException e) {
+                // Not JSON after all; fall through to plain-text trimming.
+            }
+        }
+        return truncate(payload.strip().replaceAll("\\s+", " "));
+    }
+
+    private String compactNode(JsonNode node) {
+        if (node.isArray()) {
+            ArrayNode elements = (ArrayNode) node;
+            while (elements.toString().length() > maxPayloadChars && !elements.isEmpty()) {
+                elements.remove(elements.size() - 1);
+            }
+            return elements.toString();
+        }
+        if (!node.isObject()) {
+            return truncate(node.toString());
+        }
+        Map<String, JsonNode> kept = new TreeMap<>();
+        Map<String, JsonNode> all = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+            Map.Entry<String, JsonNode> field = it.next();
+            if (field.getValue().isNull()) {
+                continue;
+            }
+            all.put(field.getKey(), field.getValue());
+            if (payloadFields.contains(field.getKey())) {
+                kept.put(field.getKey(), field.getValue());
+            }
+        }
+        // Unknown shape: keep everything rather than send the model an empty object.
+        Map<String, JsonNode> selected = kept.isEmpty() ? all : kept;
+        String json = write(selected);
+        while (json.length() > maxPayloadChars && !selected.isEmpty()) {
+            selected.remove(largestField(selected));
+            json = write(selected);
+        }
+        return json;
+    }
+
+    private static String largestField(Map<String, JsonNode> fields) {
+        String largest = null;
+        int largestSize = -1;
+        for (Map.Entry<String, JsonNode> field : fields.entrySet()) {
+            int size = field.getKey().length() + field.getValue().toString().length();
+            if (size > largestSize) {
+                largest = field.getKey();
+                largestSize = size;
+            }
+        }
+        return largest;
+    }
+
+    private static String write(Map<String, JsonNode> fields) {
+        try {
+            return CANONICAL.writeValueAsString(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("JSON tree did not serialize", e);
+        }
+    }
+
+    private String truncate(String text) {
+        return text.length() <= maxPayloadChars ? text : text.substring(0, maxPayloadChars);
+    }
+}
@@ -1,5 +1,6 @@
 package com.antigravity.agents;
 
+import com.antigravity.tracing.TokenUsageRecorder;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -8,12 +9,17 @@ import org.springframework.stereotype.Service;
 @Service
 public abstract class BaseAgent {
 
+    /** Upper bound on the per-call payload sent to the model, after field trimming. */
+    protected static final int MAX_PAYLOAD_CHARS = 2_000;
+
     protected final ChatClient chatClient;
     protected final String agentName;
+    protected final TokenUsageRecorder tokenUsageRecorder;
 
-    public BaseAgent(ChatClient.Builder chatClientBuilder, String agentName) {
+    public BaseAgent(ChatClient.Builder chatClientBuilder, String agentName, TokenUsageRecorder tokenUsageRecorder) {
         this.chatClient = chatClientBuilder.build();
         this.agentName = agentName;
+        this.tokenUsageRecorder = tokenUsageRecorder;
     }
 
     /**
@@ -22,7 +28,9 @@ public abstract class BaseAgent {
      * later.
      */
     public ChatResponse executeReasoning(Prompt prompt) {
+        long start = System.nanoTime();
         ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
+        tokenUsageRecorder.record(agentName, response, System.nanoTime() - start);
 
         // Future Integration: Ship 'response.getMetadata()' to the Observer Agent via
         // Kafka
@@ -30,6 +38,27 @@ public abstract class BaseAgent {
         return response;
     }
 
+    /**
+     * Sends the agent's precomputed system text with a per-call user message and
+     * records the prompt/completion token usage against this agent.
+     *
+     * @return the model's text output, or null if the model returned nothing
+     */
+    protected String reason(AgentPrompt prompt, String userMessage) {
+        long start = System.nanoTime();
+        ChatResponse response = chatClient.prompt()
+                .system(prompt.systemText())
+                .user(userMessage)
+                .call()
+                .chatResponse();
+        tokenUsageRecorder.record(agentName, response, System.nanoTime() - start);
+
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return null;
+        }
+        return response.getResult().getOutput().getText();
+    }
+
     public String getAgentName() {
         return agentName;
     }
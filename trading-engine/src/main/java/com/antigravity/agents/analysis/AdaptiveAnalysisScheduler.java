@@ -0,0 +1,291 @@
+package com.antigravity.agents.analysis;
+
+import com.antigravity.config.AnalysisSchedulerProperties;
+import com.antigravity.journal.EventJournal;
+import com.antigravity.journal.JournalParticipant;
+import com.antigravity.journal.JournalRecord;
+import com.antigravity.risk.CorrelationMatrix;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@link AnalysisAgent} for the watchlist. Each symbol has its own poll
+ * interval: symbols whose return or volume z-score is high are polled at the
+ * minimum interval, quiet ones back off exponentially. Nothing is polled while
+ * the exchange is closed, and analysis calls are capped by a global per-minute
+ * budget that goes to the most active symbols first.
+ *
+ * The scheduler thread only decides: fetches and model calls run on a
+ * bounded worker pool, one at a time per symbol. A fetched sample is scored
+ * on the worker and queued; the tick that picks it up spends the budget on
+ * the most active samples and hands them back to the pool for analysis.
+ *
+ * Every sample is journaled, so after a restart the activity windows are
+ * rebuilt from the {@link EventJournal} instead of warming up from empty.
+ * Samples also feed the cross-asset {@link CorrelationMatrix}.
+ */
+@Component
+public class AdaptiveAnalysisScheduler implements JournalParticipant {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveAnalysisScheduler.class);
+
+    private record Sample(SymbolActivity activity, Map<String, Object> data, double score, Instant fetchedAt) {
+    }
+
+    private final LocalMarketApiClient localMarketApiClient;
+    private final AnalysisAgent analysisAgent;
+    private final AnalysisSchedulerProperties properties;
+    private final ExchangeCalendar calendar;
+    private final LlmCallBudget budget;
+    private final EventJournal journal;
+    private final CorrelationMatrix correlations;
+    private final Clock clock;
+    private final List<SymbolActivity> symbols = new ArrayList<>();
+    private final Executor workers;
+    // Symbols with a fetch or analysis queued or running; the tick leaves them alone
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Queue<Sample> fetched = new ConcurrentLinkedQueue<>();
+
+    private final Counter analysedCounter;
+    private final Counter budgetDeferredCounter;
+    private final Counter noDataCounter;
+    private volatile boolean marketOpen = true;
+
+    @Autowired
+    public AdaptiveAnalysisScheduler(LocalMarketApiClient localMarketApiClient, AnalysisAgent analysisAgent,
+            AnalysisSchedulerProperties properties, MeterRegistry meterRegistry, EventJournal journal,
+            CorrelationMatrix correlations) {
+        this(localMarketApiClient, analysisAgent, properties, meterRegistry, journal, correlations,
+                Clock.systemUTC(), workerPool(properties));
+    }
+
+    AdaptiveAnalysisScheduler(LocalMarketApiClient localMarketApiClient, AnalysisAgent analysisAgent,
+            AnalysisSchedulerProperties properties, MeterRegistry meterRegistry, EventJournal journal,
+            CorrelationMatrix correlations, Clock clock, Executor workers) {
+        this.localMarketApiClient = localMarketApiClient;
+        this.analysisAgent = analysisAgent;
+        this.properties = properties;
+        this.calendar = new ExchangeCalendar(properties.calendar());
+        this.budget = new LlmCallBudget(properties.llmCallsPerMinute(),
+                () -> TimeUnit.MILLISECONDS.toNanos(clock.millis()));
+        this.journal = journal;
+        this.correlations = correlations;
+        this.clock = clock;
+        this.workers = workers;
+
+        Instant now = clock.instant();
+        for (String symbol : properties.watchlist()) {
+            SymbolActivity activity = new SymbolActivity(symbol, properties.signal(), properties.intervals().base(),
+                    now);
+            symbols.add(activity);
+            Gauge.builder("antigravity.analysis.poll.interval", activity, a -> a.interval().toMillis() / 1000.0)
+                    .description("Current poll interval per watched symbol")
+                    .baseUnit("seconds")
+                    .tag("symbol", symbol)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("antigravity.analysis.llm.budget.available", budget, LlmCallBudget::available)
+                .description("Analysis calls left in the per-minute budget")
+                .register(meterRegistry);
+        this.analysedCounter = pollCounter(meterRegistry, "analysed");
+        this.budgetDeferredCounter = pollCounter(meterRegistry, "budget_deferred");
+        this.noDataCounter = pollCounter(meterRegistry, "no_data");
+    }
+
+    /** At most one task per watched symbol is ever queued, so the queue never fills. */
+    private static ExecutorService workerPool(AnalysisSchedulerProperties properties) {
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(properties.workers(), properties.workers(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.watchlist().size())),
+                task -> new Thread(task, "analysis-worker-" + threads.incrementAndGet()));
+    }
+
+    @PreDestroy
+    void close() {
+        if (workers instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Counter pollCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("antigravity.analysis.polls")
+                .description("Watchlist polls by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${antigravity.agent.analysis.adaptive.tick:1s}")
+    public void tick() {
+        Instant now = clock.instant();
+        if (!calendar.isOpen(now)) {
+            if (marketOpen) {
+                log.info("[AdaptiveAnalysisScheduler] Exchange closed; pausing watchlist polling.");
+                marketOpen = false;
+            }
+            return;
+        }
+        if (!marketOpen) {
+            log.info("[AdaptiveAnalysisScheduler] Exchange open; resuming watchlist polling.");
+            marketOpen = true;
+        }
+
+        for (SymbolActivity activity : symbols) {
+            if (activity.isDue(now) && inFlight.add(activity.symbol())) {
+                dispatch(activity, () -> fetch(activity));
+            }
+        }
+
+        List<Sample> samples = new ArrayList<>();
+        for (Sample sample = fetched.poll(); sample != null; sample = fetched.poll()) {
+            samples.add(sample);
+        }
+        // Most active first, so a tight budget is spent where the signal is.
+        samples.sort(Comparator.comparingDouble((Sample s) -> Double.isNaN(s.score()) ? 0.0 : s.score())
+                .reversed());
+        for (Sample sample : samples) {
+            SymbolActivity activity = sample.activity();
+            if (!budget.tryAcquire()) {
+                budgetDeferredCounter.increment();
+                log.debug("[AdaptiveAnalysisScheduler] Analysis budget spent; deferring symbol={}",
+                        activity.symbol());
+                activity.defer(now, properties.intervals().min());
+                inFlight.remove(activity.symbol());
+                continue;
+            }
+            dispatch(activity, () -> analyse(sample));
+        }
+    }
+
+    private void dispatch(SymbolActivity activity, Runnable task) {
+        try {
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // Still due, so the next tick tries again
+                    log.error("[AdaptiveAnalysisScheduler] Poll failed for symbol={}: {}", activity.symbol(),
+                            e.getMessage());
+                    inFlight.remove(activity.symbol());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("[AdaptiveAnalysisScheduler] Worker pool refused symbol={}", activity.symbol());
+            inFlight.remove(activity.symbol());
+        }
+    }
+
+    private void fetch(SymbolActivity activity) {
+        Instant now = clock.instant();
+        Map<String, Object> data = localMarketApiClient.fetchLatestMarketData(activity.symbol());
+        if (data.isEmpty()) {
+            noDataCounter.increment();
+            activity.reschedule(Double.NaN, now, properties.intervals(), properties.signal());
+            inFlight.remove(activity.symbol());
+            return;
+        }
+        fetched.add(new Sample(activity, data, observe(activity, data, now), now));
+    }
+
+    private void analyse(Sample sample) {
+        SymbolActivity activity = sample.activity();
+        log.debug("[AdaptiveAnalysisScheduler] Analysing symbol={} score={}", activity.symbol(), sample.score());
+        analysisAgent.evaluateMarket(activity.symbol(), sample.data());
+        analysedCounter.increment();
+        activity.reschedule(sample.score(), sample.fetchedAt(), properties.intervals(), properties.signal());
+        inFlight.remove(activity.symbol());
+    }
+
+    private double observe(SymbolActivity activity, Map<String, Object> data, Instant now) {
+        double price = SymbolActivity.price(data);
+        double volume = SymbolActivity.volume(data);
+        long epochMillis = now.toEpochMilli();
+        return journal.record(JournalRecord.Type.TICK, out -> {
+            out.writeUTF(activity.symbol());
+            out.writeLong(epochMillis);
+            out.writeDouble(price);
+            out.writeDouble(volume);
+        }, () -> {
+            correlations.observe(activity.symbol(), epochMillis, price);
+            return activity.observe(price, volume);
+        });
+    }
+
+    @Override
+    public String journalName() {
+        return "analysis.symbols";
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(symbols.size());
+        for (SymbolActivity activity : symbols) {
+            activity.writeTo(out);
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String symbol = in.readUTF();
+            SymbolActivity activity = activity(symbol);
+            if (activity == null) {
+                // No longer watched; read it into a throwaway to skip it
+                activity = new SymbolActivity(symbol, properties.signal(), properties.intervals().base(),
+                        clock.instant());
+            }
+            activity.readFrom(in);
+        }
+    }
+
+    @Override
+    public void replay(JournalRecord.Type type, DataInput payload) throws IOException {
+        if (type != JournalRecord.Type.TICK) {
+            return;
+        }
+        SymbolActivity activity = activity(payload.readUTF());
+        payload.readLong();
+        double price = payload.readDouble();
+        double volume = payload.readDouble();
+        if (activity != null) {
+            activity.observe(price, volume);
+        }
+    }
+
+    private SymbolActivity activity(String symbol) {
+        for (SymbolActivity activity : symbols) {
+            if (activity.symbol().equals(symbol)) {
+                return activity;
+            }
+        }
+        return null;
+    }
+}
@@ -1,13 +1,20 @@
 package com.antigravity.agents.analysis;
 
+import com.antigravity.agents.AgentPrompt;
 import com.antigravity.agents.BaseAgent;
 import com.antigravity.config.KafkaConfig;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.EventPublisher;
+import com.antigravity.messaging.MarketHealthEvent;
+import com.antigravity.tracing.LatencyTraceCollector;
+import com.antigravity.tracing.TokenUsageRecorder;
+import com.antigravity.tracing.TraceContext;
+import com.antigravity.tracing.TraceStage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -17,74 +24,88 @@ public class AnalysisAgent extends BaseAgent {
 
     private static final Logger log = LoggerFactory.getLogger(AnalysisAgent.class);
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final LocalMarketApiClient localMarketApiClient;
+    private static final AgentPrompt PROMPT = AgentPrompt.of("""
+            You are the Antigravity Analysis Agent.
+            You receive raw LocalMarket data and must analyse it for trading signals.
+            Return ONLY a valid JSON object matching the market.analysis.health schema:
+            {
+              "timestamp": "<ISO8601>",
+              "asset_id": "<string>",
+              "volatility_score": <double 0.0-1.0>,
+              "trend": "BULLISH|BEARISH|NEUTRAL",
+              "anomaly_detected": <boolean>,
+              "recommended_strategy": "DISCRETE_SWING|HOLD|ACCUMULATE",
+              "confidence": <double 0.0-1.0>,
+              "last_price": <double, latest traded price from the data>
+            }
+            Rules:
+            - anomaly_detected must be true if volume_24h is 3x the normal range.
+            - If anomaly_detected is true, recommended_strategy must always be HOLD.
+            """,
+            MAX_PAYLOAD_CHARS,
+            "asset_id", "symbol", "timestamp", "price", "last_price", "open", "high", "low", "close",
+            "previous_close", "change", "change_percent", "volume", "volume_24h", "avg_volume_30d");
 
-    @Value("${antigravity.api.localmarket.url}")
-    private String localMarketEndpoint;
+    private final EventPublisher eventPublisher;
+    private final LatencyTraceCollector latencyTraceCollector;
+    private final ObjectMapper objectMapper;
 
     public AnalysisAgent(ChatClient.Builder chatClientBuilder,
-            KafkaTemplate<String, String> kafkaTemplate,
-            LocalMarketApiClient localMarketApiClient) {
-        super(chatClientBuilder, "AnalysisAgent");
-        this.kafkaTemplate = kafkaTemplate;
-        this.localMarketApiClient = localMarketApiClient;
+            EventPublisher eventPublisher,
+            LatencyTraceCollector latencyTraceCollector,
+            ObjectMapper objectMapper,
+            TokenUsageRecorder tokenUsageRecorder) {
+        super(chatClientBuilder, "AnalysisAgent", tokenUsageRecorder);
+        this.eventPublisher = eventPublisher;
+        this.latencyTraceCollector = latencyTraceCollector;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Scheduled poll of the LocalMarket backend.
-     * Rate configured by antigravity.agent.analysis.poll-rate-ms in
-     * application.properties.
-     * The real market data is fetched via LocalMarketApiClient, then passed to the
-     * AI
-     * for structured analysis before emitting to the Kafka market.analysis.health
-     * topic.
+     * Analyses one LocalMarket sample for a watched symbol. Called by
+     * {@link AdaptiveAnalysisScheduler}, which decides when each symbol is due
+     * and whether the analysis budget allows a model call.
      */
-    @Scheduled(fixedRateString = "${antigravity.agent.analysis.poll-rate-ms:60000}")
-    public void evaluateMarket() {
-        log.info("[AnalysisAgent] Starting scheduled market evaluation cycle.");
-        try {
-            Map<String, Object> rawData = localMarketApiClient.fetchLatestMarketData("AAL");
-            processMarketData(rawData.toString());
-        } catch (Exception e) {
-            log.error("[AnalysisAgent] Market evaluation cycle failed.", e);
-        }
+    public void evaluateMarket(String assetId, Map<String, Object> rawData) {
+        log.info("[AnalysisAgent] Starting market evaluation for assetId={}.", assetId);
+        analyse(PROMPT.compact(rawData), TraceContext.start());
     }
 
     /**
-     * Public entry point for simulation mode.
+     * Public entry point for simulation mode. The injected block counts as the
+     * ingested tick, so a new trace starts here.
      */
     public void processMarketData(String rawDataString) {
-        log.debug("[AnalysisAgent] Processing market block: {}", rawDataString);
-        try {
+        processMarketData(rawDataString, TraceContext.start());
+    }
 
-            String systemPrompt = """
-                    You are the Antigravity Analysis Agent.
-                    You receive raw LocalMarket data and must analyse it for trading signals.
-                    Return ONLY a valid JSON object matching the market.analysis.health schema:
-                    {
-                      "timestamp": "<ISO8601>",
-                      "asset_id": "<string>",
-                      "volatility_score": <double 0.0-1.0>,
-                      "trend": "BULLISH|BEARISH|NEUTRAL",
-                      "anomaly_detected": <boolean>,
-                      "recommended_strategy": "DISCRETE_SWING|HOLD|ACCUMULATE",
-                      "confidence": <double 0.0-1.0>
-                    }
-                    Rules:
-                    - anomaly_detected must be true if volume_24h is 3x the normal range.
-                    - If anomaly_detected is true, recommended_strategy must always be HOLD.
-                    """;
+    /**
+     * Derives market health for a tick and publishes it with the trace headers
+     * attached, so downstream agents can continue the same trace.
+     */
+    public void processMarketData(String rawDataString, TraceContext trace) {
+        log.debug("[AnalysisAgent] Processing market block: {}", rawDataString);
+        analyse(PROMPT.compact(rawDataString), trace);
+    }
 
-            String eventPayload = this.chatClient.prompt()
-                    .system(systemPrompt)
-                    .user("Raw LocalMarket Data: " + rawDataString)
-                    .call()
-                    .content();
+    /** @param compactData the sample already compacted by {@link #PROMPT} */
+    private void analyse(String compactData, TraceContext trace) {
+        try {
+            String eventPayload = reason(PROMPT, "Raw LocalMarket Data: " + compactData);
+            MarketHealthEvent event = MarketHealthEvent.parse(objectMapper, eventPayload);
+            if (event == null || event.assetId() == null) {
+                log.warn("[AnalysisAgent] Model output is not a market health object. Skipping this cycle: {}",
+                        eventPayload);
+                return;
+            }
 
-            log.info("[AnalysisAgent] Market health derived. Emitting to Kafka topic={}.",
-                    KafkaConfig.TOPIC_MARKET_HEALTH);
-            kafkaTemplate.send(KafkaConfig.TOPIC_MARKET_HEALTH, eventPayload);
+            latencyTraceCollector.record(trace, TraceStage.ANALYSIS_COMPLETED);
+            log.info("[AnalysisAgent] Market health derived. Emitting to Kafka topic={} traceId={}.",
+                    KafkaConfig.TOPIC_MARKET_HEALTH, trace.getTraceId());
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(KafkaConfig.TOPIC_MARKET_HEALTH,
+                    event.assetId(), EventCodec.encode(event));
+            trace.writeTo(record.headers());
+            eventPublisher.publish(record);
 
         } catch (Exception e) {
             log.error("[AnalysisAgent] Market evaluation cycle failed. Skipping this cycle.", e);
@@ -0,0 +1,41 @@
+package com.antigravity.agents.analysis;
+
+import com.antigravity.config.AnalysisSchedulerProperties;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+/**
+ * Regular trading session of one exchange: open on the configured weekdays
+ * between open (inclusive) and close (exclusive) local time, except holidays.
+ */
+class ExchangeCalendar {
+
+    private final ZoneId zone;
+    private final LocalTime open;
+    private final LocalTime close;
+    private final Set<DayOfWeek> tradingDays;
+    private final Set<LocalDate> holidays;
+
+    ExchangeCalendar(AnalysisSchedulerProperties.Calendar calendar) {
+        this.zone = ZoneId.of(calendar.zone());
+        this.open = calendar.open();
+        this.close = calendar.close();
+        this.tradingDays = Set.copyOf(calendar.tradingDays());
+        this.holidays = Set.copyOf(calendar.holidays());
+    }
+
+    boolean isOpen(Instant now) {
+        ZonedDateTime local = now.atZone(zone);
+        if (!tradingDays.contains(local.getDayOfWeek()) || holidays.contains(local.toLocalDate())) {
+            return false;
+        }
+        LocalTime time = local.toLocalTime();
+        return !time.isBefore(open) && time.isBefore(close);
+    }
+}
@@ -0,0 +1,43 @@
+package com.antigravity.agents.analysis;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket for model calls: refills continuously at
+ * {@code callsPerMinute} per minute and holds at most that many tokens, so a
+ * quiet spell can be followed by a burst of one minute's worth of calls.
+ */
+class LlmCallBudget {
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefill;
+
+    LlmCallBudget(int callsPerMinute, LongSupplier nanoClock) {
+        this.capacity = callsPerMinute;
+        this.tokensPerNano = callsPerMinute / (double) NANOS_PER_MINUTE;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    synchronized boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    synchronized int available() {
+        return (int) tokens;
+    }
+}
@@ -1,5 +1,6 @@
 package com.antigravity.agents.analysis;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -48,10 +49,7 @@ public class LocalMarketApiClient {
                 return Collections.emptyMap();
             }
 
-            Map<String, Object> root = objectMapper.readValue(response, new TypeReference<>() {
-            });
-            @SuppressWarnings("unchecked")
-            Map<String, Object> data = (Map<String, Object>) root.getOrDefault("price_data", Collections.emptyMap());
+            Map<String, Object> data = decodePriceData(response);
             log.debug("[LocalMarketApiClient] Price data extracted for assetId={}: {}", assetId, data);
             return data;
 
@@ -60,4 +58,17 @@ public class LocalMarketApiClient {
             return Collections.emptyMap();
         }
     }
+
+    /**
+     * Decodes a LocalMarket price response body and extracts its price_data
+     * block. Kept separate from the HTTP call so the decode cost can be measured
+     * on its own.
+     */
+    public Map<String, Object> decodePriceData(String response) throws JsonProcessingException {
+        Map<String, Object> root = objectMapper.readValue(response, new TypeReference<>() {
+        });
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) root.getOrDefault("price_data", Collections.emptyMap());
+        return data;
+    }
 }
@@ -0,0 +1,240 @@
+package com.antigravity.agents.analysis;
+
+import com.antigravity.config.AnalysisSchedulerProperties;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Per-symbol polling state for {@link AdaptiveAnalysisScheduler}: a rolling
+ * window of absolute log returns and traded volumes, and the interval until
+ * the next poll. Not thread-safe; the scheduler hands each symbol to one
+ * worker at a time, and journal snapshots and replay hold the journal's lock.
+ */
+class SymbolActivity {
+
+    private final String symbol;
+    private final RollingWindow returns;
+    private final RollingWindow volumes;
+    private final int minSamples;
+
+    private double lastPrice = Double.NaN;
+    private Duration interval;
+    private Instant nextDue;
+
+    SymbolActivity(String symbol, AnalysisSchedulerProperties.Signal signal, Duration initialInterval, Instant now) {
+        this.symbol = symbol;
+        this.returns = new RollingWindow(signal.window());
+        this.volumes = new RollingWindow(signal.window());
+        this.minSamples = signal.minSamples();
+        this.interval = initialInterval;
+        this.nextDue = now;
+    }
+
+    String symbol() {
+        return symbol;
+    }
+
+    Duration interval() {
+        return interval;
+    }
+
+    boolean isDue(Instant now) {
+        return !now.isBefore(nextDue);
+    }
+
+    /**
+     * Adds one market data sample and scores it: the larger of the
+     * absolute-return and volume z-scores against the samples seen before it.
+     * Returns NaN until the window holds enough samples to be meaningful.
+     */
+    double observe(Map<String, Object> data) {
+        return observe(price(data), volume(data));
+    }
+
+    /** As {@link #observe(Map)}, for a sample already reduced to price and volume; negative means absent. */
+    double observe(double price, double volume) {
+        double score = Double.NaN;
+        if (price > 0) {
+            if (lastPrice > 0) {
+                double absReturn = Math.abs(Math.log(price / lastPrice));
+                score = max(score, returns.zScore(absReturn, minSamples));
+                returns.add(absReturn);
+            }
+            lastPrice = price;
+        }
+        if (volume >= 0) {
+            score = max(score, volumes.zScore(volume, minSamples));
+            volumes.add(volume);
+        }
+        return score;
+    }
+
+    static double price(Map<String, Object> data) {
+        return number(data, "price", "last_price", "close");
+    }
+
+    static double volume(Map<String, Object> data) {
+        return number(data, "volume_24h", "volume");
+    }
+
+    /** Writes the scoring state (last price and both windows); the poll schedule is not kept. */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(symbol);
+        out.writeDouble(lastPrice);
+        returns.writeTo(out);
+        volumes.writeTo(out);
+    }
+
+    /**
+     * Restores state written by {@link #writeTo}, after its symbol has been
+     * read. Windows of a different size than configured now are skipped, so
+     * the symbol warms up again instead of scoring against a resized window.
+     */
+    void readFrom(DataInput in) throws IOException {
+        double price = in.readDouble();
+        boolean restored = returns.readFrom(in) & volumes.readFrom(in);
+        if (restored) {
+            lastPrice = price;
+        } else {
+            returns.clear();
+            volumes.clear();
+        }
+    }
+
+    /**
+     * Hot symbols drop to the minimum interval; quiet ones back off
+     * exponentially from the base interval up to the maximum; anything in
+     * between, or not yet scored, is polled at the base interval.
+     */
+    void reschedule(double score, Instant now, AnalysisSchedulerProperties.Intervals intervals,
+            AnalysisSchedulerProperties.Signal signal) {
+        if (Double.isNaN(score) || score >= signal.quietZScore() && score < signal.hotZScore()) {
+            interval = intervals.base();
+        } else if (score >= signal.hotZScore()) {
+            interval = intervals.min();
+        } else {
+            long backedOff = (long) (Math.max(interval.toMillis(), intervals.base().toMillis())
+                    * intervals.backoffMultiplier());
+            interval = Duration.ofMillis(Math.min(backedOff, intervals.max().toMillis()));
+        }
+        nextDue = now.plus(interval);
+    }
+
+    /** Tries again after {@code delay} without changing the interval. */
+    void defer(Instant now, Duration delay) {
+        nextDue = now.plus(delay);
+    }
+
+    private static double max(double current, double candidate) {
+        if (Double.isNaN(current)) {
+            return candidate;
+        }
+        return Double.isNaN(candidate) ? current : Math.max(current, candidate);
+    }
+
+    private static double number(Map<String, Object> data, String... keys) {
+        for (String key : keys) {
+            Object value = data.get(key);
+            if (value instanceof Number n) {
+                return n.doubleValue();
+            }
+            if (value instanceof String s) {
+                try {
+                    return Double.parseDouble(s);
+                } catch (NumberFormatException ignored) {
+                    // try the next key
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Fixed-size ring of samples with running sum and sum of squares. */
+    private static final class RollingWindow {
+
+        private final double[] samples;
+        private int count;
+        private int next;
+        private double sum;
+        private double sumSquares;
+
+        RollingWindow(int size) {
+            this.samples = new double[size];
+        }
+
+        void add(double value) {
+            if (count == samples.length) {
+                double evicted = samples[next];
+                sum -= evicted;
+                sumSquares -= evicted * evicted;
+            } else {
+                count++;
+            }
+            samples[next] = value;
+            next = (next + 1) % samples.length;
+            sum += value;
+            sumSquares += value * value;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeInt(samples.length);
+            out.writeInt(count);
+            out.writeInt(next);
+            for (double sample : samples) {
+                out.writeDouble(sample);
+            }
+        }
+
+        /** Reads a window written by {@link #writeTo}; returns false, consuming it, if its size differs. */
+        boolean readFrom(DataInput in) throws IOException {
+            int size = in.readInt();
+            int storedCount = in.readInt();
+            int storedNext = in.readInt();
+            double[] stored = new double[size];
+            for (int i = 0; i < size; i++) {
+                stored[i] = in.readDouble();
+            }
+            if (size != samples.length) {
+                return false;
+            }
+            System.arraycopy(stored, 0, samples, 0, size);
+            count = storedCount;
+            next = storedNext;
+            sum = 0;
+            sumSquares = 0;
+            for (int i = 0; i < count; i++) {
+                sum += samples[i];
+                sumSquares += samples[i] * samples[i];
+            }
+            return true;
+        }
+
+        void clear() {
+            count = 0;
+            next = 0;
+            sum = 0;
+            sumSquares = 0;
+        }
+
+        double zScore(double value, int minSamples) {
+            if (count < minSamples) {
+                return Double.NaN;
+            }
+            double mean = sum / count;
+            double variance = Math.max(0.0, sumSquares / count - mean * mean);
+            double stdDev = Math.sqrt(variance);
+            double deviation = value - mean;
+            if (stdDev < 1e-12) {
+                // A flat window: any rise above it is notable.
+                return deviation > 1e-12 ? Double.POSITIVE_INFINITY : 0.0;
+            }
+            // Signed: only moves and volumes above the usual level count as activity.
+            return deviation / stdDev;
+        }
+    }
+}
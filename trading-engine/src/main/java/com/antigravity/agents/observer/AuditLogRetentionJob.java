@@ -0,0 +1,183 @@
+package com.antigravity.agents.observer;
+
+import com.antigravity.models.AgentAuditLogRepository;
+import com.antigravity.models.ProcessedEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps agent_audit_logs bounded. On PostgreSQL, where the table is
+ * range-partitioned by day (schema-postgresql.sql), each run creates the
+ * partitions for the coming days and detaches and drops whole partitions past
+ * the retention window, optionally archiving them to gzipped JSON lines first.
+ * Expired rows in the default partition, and on unpartitioned databases, are
+ * deleted instead. Audited event ids in processed_events are kept for the
+ * same window.
+ */
+@Component
+public class AuditLogRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogRetentionJob.class);
+
+    static final String TABLE = "agent_audit_logs";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final Pattern DAILY_PARTITION = Pattern.compile(TABLE + "_p(\\d{8})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    public record Result(int created, int dropped, int archived, int deletedRows) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AgentAuditLogRepository auditRepository;
+    private final ProcessedEventRepository processedEvents;
+    private final ObjectMapper objectMapper;
+    private final int retentionDays;
+    private final int premakeDays;
+    private final Path archiveDir;
+
+    public AuditLogRetentionJob(JdbcTemplate jdbcTemplate,
+            AgentAuditLogRepository auditRepository,
+            ProcessedEventRepository processedEvents,
+            ObjectMapper objectMapper,
+            @Value("${antigravity.audit.retention-days:30}") int retentionDays,
+            @Value("${antigravity.audit.premake-days:7}") int premakeDays,
+            @Value("${antigravity.audit.archive-dir:}") String archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditRepository = auditRepository;
+        this.processedEvents = processedEvents;
+        this.objectMapper = objectMapper;
+        this.retentionDays = retentionDays;
+        this.premakeDays = premakeDays;
+        this.archiveDir = archiveDir == null || archiveDir.isBlank() ? null : Path.of(archiveDir);
+    }
+
+    @Scheduled(cron = "${antigravity.audit.retention-cron:0 15 0 * * *}")
+    public void scheduledMaintenance() {
+        Result result = maintain(LocalDate.now());
+        log.info("[AuditLogRetentionJob] Partitions created={}, dropped={}, archived={}; rows deleted={}",
+                result.created(), result.dropped(), result.archived(), result.deletedRows());
+        int pruned = processedEvents.deleteProcessedBefore(LocalDate.now().minusDays(retentionDays).atStartOfDay());
+        log.info("[AuditLogRetentionJob] Processed event ids pruned={}", pruned);
+    }
+
+    Result maintain(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retentionDays);
+        if (!isPartitioned()) {
+            return new Result(0, 0, 0, auditRepository.deleteOlderThan(cutoff.atStartOfDay()));
+        }
+
+        int created = 0;
+        for (int i = 0; i <= premakeDays; i++) {
+            if (createPartition(today.plusDays(i))) {
+                created++;
+            }
+        }
+
+        int dropped = 0;
+        int archived = 0;
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?""", String.class, TABLE);
+        for (String partition : partitions) {
+            Matcher matcher = DAILY_PARTITION.matcher(partition);
+            if (!matcher.matches() || !LocalDate.parse(matcher.group(1), SUFFIX).isBefore(cutoff)) {
+                continue;
+            }
+            if (archiveDir != null) {
+                archive(partition);
+                archived++;
+            }
+            // Detach first so the drop never holds a lock on the parent table.
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION \"" + partition + "\"");
+            jdbcTemplate.execute("DROP TABLE \"" + partition + "\"");
+            dropped++;
+        }
+
+        int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE \"timestamp\" < ?",
+                Timestamp.valueOf(cutoff.atStartOfDay()));
+        return new Result(created, dropped, archived, deleted);
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return false;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT 1 FROM pg_class WHERE relname = ? AND relkind = 'p'")) {
+                statement.setString(1, TABLE);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private boolean createPartition(LocalDate day) {
+        String name = TABLE + "_p" + day.format(SUFFIX);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS \"" + name + "\" PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+            return true;
+        } catch (DataAccessException e) {
+            // Rows for this day already sit in the default partition; they age out from there.
+            log.warn("[AuditLogRetentionJob] Could not create partition {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void archive(String partition) {
+        Path file = archiveDir.resolve(partition + ".jsonl.gz");
+        try {
+            Files.createDirectories(archiveDir);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+                jdbcTemplate.query("SELECT id, agent_name, action_type, reasoning_body, confidence_score, "
+                        + "\"timestamp\" FROM \"" + partition + "\"", rs -> {
+                            Map<String, Object> row = new LinkedHashMap<>();
+                            row.put("id", rs.getString(1));
+                            row.put("agentName", rs.getString(2));
+                            row.put("actionType", rs.getString(3));
+                            row.put("reasoningBody", rs.getString(4));
+                            row.put("confidenceScore", rs.getDouble(5));
+                            row.put("timestamp", rs.getTimestamp(6).toLocalDateTime().toString());
+                            try {
+                                out.write(objectMapper.writeValueAsBytes(row));
+                                out.write('\n');
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive " + partition + " to " + file, e);
+        }
+        log.info("[AuditLogRetentionJob] Archived {} to {}", partition, file);
+    }
+}
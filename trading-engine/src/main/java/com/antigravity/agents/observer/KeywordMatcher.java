@@ -0,0 +1,117 @@
+package com.antigravity.agents.observer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Case-insensitive, whole-word multi-keyword matcher (Aho-Corasick). The
+ * automaton is built once; each scan is a single pass over the text no matter
+ * how many keywords there are. Keywords are ASCII; any other character acts
+ * as a word separator.
+ */
+final class KeywordMatcher {
+
+    private static final int ALPHABET = 128;
+
+    // goTo[state][c] is the next state on character c, with failure links
+    // already folded in, so scanning never backtracks.
+    private final int[][] goTo;
+    private final int[] fail;
+    // Keyword indexes recognised on reaching each state (via failure links too).
+    private final int[][] output;
+    private final String[] keywords;
+
+    KeywordMatcher(Collection<String> keywords) {
+        this.keywords = keywords.stream()
+                .map(k -> k.trim().toLowerCase(Locale.ROOT))
+                .filter(k -> !k.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+
+        List<int[]> transitions = new ArrayList<>();
+        List<List<Integer>> outputs = new ArrayList<>();
+        transitions.add(newState());
+        outputs.add(new ArrayList<>());
+        for (int k = 0; k < this.keywords.length; k++) {
+            int state = 0;
+            for (char c : this.keywords[k].toCharArray()) {
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Keyword must be ASCII: " + this.keywords[k]);
+                }
+                if (transitions.get(state)[c] < 0) {
+                    transitions.get(state)[c] = transitions.size();
+                    transitions.add(newState());
+                    outputs.add(new ArrayList<>());
+                }
+                state = transitions.get(state)[c];
+            }
+            outputs.get(state).add(k);
+        }
+
+        int states = transitions.size();
+        this.goTo = transitions.toArray(new int[0][]);
+        this.fail = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (goTo[0][c] < 0) {
+                goTo[0][c] = 0;
+            } else {
+                queue.add(goTo[0][c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs.get(state).addAll(outputs.get(fail[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = goTo[state][c];
+                if (next < 0) {
+                    goTo[state][c] = goTo[fail[state]][c];
+                } else {
+                    fail[next] = goTo[fail[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+        this.output = outputs.stream()
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+    }
+
+    private static int[] newState() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * Distinct keywords that occur in {@code text} as whole words, in the order
+     * they were first found.
+     */
+    Set<String> findIn(CharSequence text) {
+        Set<String> found = new LinkedHashSet<>();
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            state = c < ALPHABET ? goTo[state][c] : 0;
+            for (int k : output[state]) {
+                int start = i - keywords[k].length() + 1;
+                if (isBoundary(text, start - 1) && isBoundary(text, i + 1)) {
+                    found.add(keywords[k]);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean isBoundary(CharSequence text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+}
@@ -1,16 +1,40 @@
 package com.antigravity.agents.observer;
 
+import com.antigravity.agents.AgentPrompt;
 import com.antigravity.agents.BaseAgent;
 import com.antigravity.config.KafkaConfig;
+import com.antigravity.messaging.AgentEvent;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.OutboxRelay;
 import com.antigravity.models.AgentAuditLog;
 import com.antigravity.models.AgentAuditLogRepository;
+import com.antigravity.models.ProcessedEvent;
+import com.antigravity.models.ProcessedEventRepository;
+import com.antigravity.tracing.LatencyTraceCollector;
+import com.antigravity.tracing.TokenUsageRecorder;
+import com.antigravity.tracing.TraceContext;
+import com.antigravity.tracing.TraceStage;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 @Service
 public class ObserverAgent extends BaseAgent {
@@ -19,53 +43,183 @@ public class ObserverAgent extends BaseAgent {
 
     private final AgentAuditLogRepository auditRepository;
     private final ObjectMapper objectMapper;
+    private final LatencyTraceCollector latencyTraceCollector;
+    private final ObserverRuleStage ruleStage;
 
     // Threshold from GEMINI.md: isolate sub-agents if confidence < 0.85
     private static final double CONFIDENCE_THRESHOLD = 0.85;
 
+    private final ProcessedEventRepository processedEvents;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final AgentPrompt PROMPT = AgentPrompt.of("""
+            You are the Antigravity Observer Agent enforcing the rules defined in GEMINI.md.
+            Analyze the payload and return ONLY a valid JSON object with the following schema:
+            {
+              "confidence_score": <double 0.0 to 1.0>,
+              "hallucination_detected": <boolean>,
+              "reasoning": "<one-sentence explanation>",
+              "origin_agent": "<agent name if identifiable, else 'unknown'>"
+            }
+            Rules:
+            - Deduct from confidence if Azure, AWS, non-GCP, or non-LocalMarket references are found.
+            - Deduct from confidence if capital constraint logic appears missing or incorrect.
+            - A confidence_score below 0.85 must set hallucination_detected to true.
+            """,
+            MAX_PAYLOAD_CHARS,
+            "assetId", "action", "amountAllocated", "executionPrice", "strategyUsed", "cvarExposure",
+            "agent", "origin_agent", "status", "message", "reasoning",
+            "type", "userId", "brokerBalance", "expectedValue", "drift");
+
     public ObserverAgent(ChatClient.Builder chatClientBuilder,
             AgentAuditLogRepository auditRepository,
-            ObjectMapper objectMapper) {
-        super(chatClientBuilder, "ObserverAgent");
+            ObjectMapper objectMapper,
+            LatencyTraceCollector latencyTraceCollector,
+            ObserverRuleStage ruleStage,
+            TokenUsageRecorder tokenUsageRecorder,
+            ProcessedEventRepository processedEvents,
+            PlatformTransactionManager transactionManager) {
+        super(chatClientBuilder, "ObserverAgent", tokenUsageRecorder);
         this.auditRepository = auditRepository;
         this.objectMapper = objectMapper;
+        this.latencyTraceCollector = latencyTraceCollector;
+        this.ruleStage = ruleStage;
+        this.processedEvents = processedEvents;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Listens to Trade Execution Logs and the generic Audit Traces topic.
-     * Evaluates each payload against the GEMINI.md constraints with a structured AI
-     * evaluation:
+     * Evaluates each payload against the GEMINI.md constraints, first with
+     * {@link ObserverRuleStage} and then, for flagged or sampled records, with
+     * a structured AI evaluation:
      * - Cloud provider hallucinations (Azure, GCP references)
      * - LocalMarket specification compliance
      * - Confidence scoring for sub-agent isolation
+     * If the model cannot be reached the record moves to the source topic's
+     * retry chain (non-blocking, exponential back-off) and ends in its -dlt.
+     *
+     * Outbox events are audited once: the event id is stored in
+     * processed_events in the audit row's transaction, and redeliveries of a
+     * stored id are dropped, across restarts too. The model call runs before
+     * that transaction, so no connection is held while it waits; a duplicate
+     * evaluated concurrently fails on the primary key and is dropped.
      */
+    @RetryableTopic(
+            attempts = "${antigravity.kafka.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${antigravity.kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${antigravity.kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${antigravity.kafka.retry.max-delay-ms:30000}"),
+            numPartitions = "3",
+            replicationFactor = "1",
+            retryTopicSuffix = KafkaConfig.RETRY_TOPIC_SUFFIX,
+            dltTopicSuffix = KafkaConfig.DLT_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            exclude = { IllegalArgumentException.class, NonTransientAiException.class },
+            traversingCauses = "true")
     @KafkaListener(topics = { KafkaConfig.TOPIC_AUDIT_TRACES,
             KafkaConfig.TOPIC_TRADE_LOGS }, groupId = "antigravity-agents")
-    public void monitorAgentActivities(String payload) {
-        log.debug("[ObserverAgent] Intercepted event payload for GEMINI.md audit checks.");
-
-        String systemPrompt = """
-                You are the Antigravity Observer Agent enforcing the rules defined in GEMINI.md.
-                Analyze the payload and return ONLY a valid JSON object with the following schema:
-                {
-                  "confidence_score": <double 0.0 to 1.0>,
-                  "hallucination_detected": <boolean>,
-                  "reasoning": "<one-sentence explanation>",
-                  "origin_agent": "<agent name if identifiable, else 'unknown'>"
-                }
-                Rules:
-                - Deduct from confidence if Azure, AWS, non-GCP, or non-LocalMarket references are found.
-                - Deduct from confidence if capital constraint logic appears missing or incorrect.
-                - A confidence_score below 0.85 must set hallucination_detected to true.
-                """;
+    public void onAgentEvent(ConsumerRecord<String, byte[]> record) {
+        Header eventIdHeader = record.headers().lastHeader(OutboxRelay.HEADER_EVENT_ID);
+        if (eventIdHeader == null) {
+            auditRepository.save(observe(record));
+            return;
+        }
+        String eventId = new String(eventIdHeader.value(), StandardCharsets.UTF_8);
+        if (processedEvents.existsById(eventId)) {
+            log.debug("[ObserverAgent] Dropping redelivered event {}", eventId);
+            return;
+        }
+        // A failed model call throws before anything is written, so the copy on the retry topic is audited
+        AgentAuditLog audit = observe(record);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                processedEvents.saveAndFlush(new ProcessedEvent(eventId));
+                auditRepository.save(audit);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("[ObserverAgent] Dropping event {} audited concurrently", eventId);
+        }
+    }
+
+    /**
+     * Records that exhausted their retries are kept as a DeadLetter audit row
+     * so the gap in the audit trail is visible.
+     */
+    @DltHandler
+    public void onAgentEventDeadLetter(ConsumerRecord<String, byte[]> record) {
+        Header reason = record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE);
+        log.error("[ObserverAgent] Event dead-lettered on topic={}: {}", record.topic(),
+                reason == null ? "unknown" : new String(reason.value(), StandardCharsets.UTF_8));
+        auditRepository.save(new AgentAuditLog("unknown", "DeadLetter",
+                Base64.getEncoder().encodeToString(record.value()), 0.0));
+    }
 
+    /** Evaluates the record and returns its audit row, unsaved. */
+    private AgentAuditLog observe(ConsumerRecord<String, byte[]> record) {
+        TraceContext trace = TraceContext.fromHeaders(record.headers());
+        if (!EventCodec.isEncoded(record.value())) {
+            // Published before the agent topics went binary.
+            return audit(new String(record.value(), StandardCharsets.UTF_8), trace);
+        }
+        AgentEvent event;
         try {
-            String evaluation = this.chatClient.prompt()
-                    .system(systemPrompt)
-                    .user("Evaluate the following agent payload:\n" + payload)
-                    .call()
-                    .content();
+            event = EventCodec.decode(record.value());
+        } catch (IllegalArgumentException e) {
+            log.error("[ObserverAgent] Undecodable event on topic={}: {}", record.topic(), e.getMessage());
+            return new AgentAuditLog("unknown", "ParseFailure", Base64.getEncoder().encodeToString(record.value()),
+                    0.0);
+        }
+        return audit(event, trace);
+    }
 
+    public void monitorAgentActivities(String payload) {
+        monitorAgentActivities(payload, TraceContext.start());
+    }
+
+    public void monitorAgentActivities(String payload, TraceContext trace) {
+        auditRepository.save(audit(payload, trace));
+    }
+
+    public void monitorAgentActivities(AgentEvent event, TraceContext trace) {
+        auditRepository.save(audit(event, trace));
+    }
+
+    private AgentAuditLog audit(String payload, TraceContext trace) {
+        latencyTraceCollector.record(trace, TraceStage.OBSERVER_RECEIVED);
+        return evaluateWithModel(ruleStage.evaluate(payload), PROMPT.compact(payload), payload, trace);
+    }
+
+    /**
+     * Rules first: records that pass every rule and are not sampled are
+     * audited without a model call.
+     */
+    private AgentAuditLog audit(AgentEvent event, TraceContext trace) {
+        latencyTraceCollector.record(trace, TraceStage.OBSERVER_RECEIVED);
+        ObserverRuleStage.Verdict verdict = ruleStage.evaluate(event);
+        if (!verdict.escalate()) {
+            log.debug("[ObserverAgent] Agent='{}' passed rule checks. traceId={}", verdict.originAgent(),
+                    trace.getTraceId());
+            latencyTraceCollector.record(trace, TraceStage.OBSERVER_EVALUATED);
+            return new AgentAuditLog(verdict.originAgent(), "RuleCheck", event.toString(), 1.0);
+        }
+        return evaluateWithModel(verdict, PROMPT.compact(event.toFields()), event.toString(), trace);
+    }
+
+    private AgentAuditLog evaluateWithModel(ObserverRuleStage.Verdict verdict, String compactPayload, String rawPayload,
+            TraceContext trace) {
+        log.debug("[ObserverAgent] Escalating {} payload to model audit. Findings={} traceId={}",
+                verdict.escalation(), verdict.findings(), trace.getTraceId());
+
+        String findings = verdict.findings().isEmpty() ? ""
+                : "\nRule findings:\n- " + String.join("\n- ", verdict.findings());
+        // A failed model call propagates to the listener's retry topics; only an
+        // unusable evaluation is recorded as a ParseFailure.
+        long start = System.nanoTime();
+        String evaluation = reason(PROMPT, "Evaluate the following agent payload:\n" + compactPayload + findings);
+        long modelNanos = System.nanoTime() - start;
+        try {
             log.debug("[ObserverAgent] AI evaluation received. Parsing structured response.");
 
             JsonNode root = objectMapper.readTree(evaluation);
@@ -74,25 +228,27 @@ public class ObserverAgent extends BaseAgent {
             String reasoning = root.path("reasoning").asText("N/A");
             String originAgent = root.path("origin_agent").asText("unknown");
 
-            if (hallucinationDetected || confidenceScore < CONFIDENCE_THRESHOLD) {
+            boolean issueFound = hallucinationDetected || confidenceScore < CONFIDENCE_THRESHOLD;
+            ruleStage.recordModelVerdict(verdict, issueFound, modelNanos);
+            if (issueFound) {
                 log.warn("[ObserverAgent] ALERT: Confidence={} for agent='{}'. Reason: {}. " +
                         "Consider context reset per GEMINI.md rules.", confidenceScore, originAgent, reasoning);
             } else {
                 log.info("[ObserverAgent] Agent='{}' passed validation. Confidence={}.", originAgent, confidenceScore);
             }
 
-            AgentAuditLog auditRecord = new AgentAuditLog(
+            latencyTraceCollector.record(trace, TraceStage.OBSERVER_EVALUATED);
+            return new AgentAuditLog(
                     originAgent,
                     "KafkaEventTrace",
                     evaluation,
                     confidenceScore);
-            auditRepository.save(auditRecord);
 
         } catch (Exception e) {
             log.error(
                     "[ObserverAgent] Failed to parse or evaluate agent payload. Storing raw payload for manual audit.",
                     e);
-            auditRepository.save(new AgentAuditLog("unknown", "ParseFailure", payload, 0.0));
+            return new AgentAuditLog("unknown", "ParseFailure", rawPayload, 0.0);
         }
     }
 }
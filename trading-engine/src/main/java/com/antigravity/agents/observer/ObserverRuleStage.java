@@ -0,0 +1,245 @@
+package com.antigravity.agents.observer;
+
+import com.antigravity.messaging.AgentEvent;
+import com.antigravity.messaging.AuditTraceEvent;
+import com.antigravity.messaging.MarketHealthEvent;
+import com.antigravity.messaging.TradeExecutedEvent;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * First tier of the observer: mechanical GEMINI.md checks that need no model.
+ * Cloud-provider and foreign-exchange keywords are found in one Aho-Corasick
+ * pass, each schema's required fields and numeric ranges are checked, and
+ * trades are bounded against the user's real Portfolio. Only records with a
+ * finding, plus a random sample of clean ones, are escalated to the model.
+ */
+@Component
+public class ObserverRuleStage {
+
+    public enum Escalation {
+        /** A rule fired; the model confirms or clears it. */
+        FLAGGED,
+        /** Clean under the rules; picked at random to measure what the rules miss. */
+        SAMPLED,
+        NONE
+    }
+
+    public record Verdict(String originAgent, List<String> findings, Escalation escalation) {
+
+        public boolean escalate() {
+            return escalation != Escalation.NONE;
+        }
+    }
+
+    // GEMINI.md: confidence below this isolates the sub-agent.
+    private static final double CONFIDENCE_THRESHOLD = 0.85;
+    private static final Set<String> TRADE_ACTIONS = Set.of("BUY", "SELL");
+
+    private final PortfolioRepository portfolioRepository;
+    private final KeywordMatcher keywordMatcher;
+    private final BigDecimal cvarThresholdPercentage;
+    private final double sampleRate;
+    private final DoubleSupplier random;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer rulesTimer;
+    private final Timer modelTimer;
+    private final Counter rulesPassed;
+    private final Counter rulesFlagged;
+    private final Map<String, Counter> modelOutcomes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ObserverRuleStage(PortfolioRepository portfolioRepository, MeterRegistry meterRegistry,
+            @Value("${antigravity.observer.rules.keywords:azure,aws,amazon web services,microsoft cloud,"
+                    + "oracle cloud,ibm cloud,alibaba cloud,nyse,nasdaq}") List<String> keywords,
+            @Value("${antigravity.observer.llm-sample-rate:0.05}") double sampleRate,
+            @Value("${antigravity.risk.cvar-threshold-percentage:0.10}") BigDecimal cvarThresholdPercentage) {
+        this(portfolioRepository, meterRegistry, keywords, sampleRate, cvarThresholdPercentage,
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    ObserverRuleStage(PortfolioRepository portfolioRepository, MeterRegistry meterRegistry, List<String> keywords,
+            double sampleRate, BigDecimal cvarThresholdPercentage, DoubleSupplier random) {
+        this.portfolioRepository = portfolioRepository;
+        this.keywordMatcher = new KeywordMatcher(keywords);
+        this.sampleRate = sampleRate;
+        this.cvarThresholdPercentage = cvarThresholdPercentage;
+        this.random = random;
+        this.meterRegistry = meterRegistry;
+        this.rulesTimer = tierTimer(meterRegistry, "rules");
+        this.modelTimer = tierTimer(meterRegistry, "llm");
+        this.rulesPassed = rulesCounter(meterRegistry, "passed");
+        this.rulesFlagged = rulesCounter(meterRegistry, "flagged");
+    }
+
+    private static Timer tierTimer(MeterRegistry registry, String tier) {
+        return Timer.builder("antigravity.observer.tier.duration")
+                .description("Time spent per record in each observer tier")
+                .tag("tier", tier)
+                .register(registry);
+    }
+
+    private static Counter rulesCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("antigravity.observer.rules.records")
+                .description("Records checked by the rule tier")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public Verdict evaluate(AgentEvent event) {
+        long start = System.nanoTime();
+        List<String> findings = new ArrayList<>();
+        String origin = switch (event) {
+            case TradeExecutedEvent trade -> {
+                checkTrade(trade, findings);
+                yield "TradeAgent";
+            }
+            case AuditTraceEvent audit -> {
+                checkAudit(audit, findings);
+                yield audit.agent() == null ? "unknown" : audit.agent();
+            }
+            case MarketHealthEvent health -> {
+                checkMarketHealth(health, findings);
+                yield "AnalysisAgent";
+            }
+        };
+        for (Object value : event.toFields().values()) {
+            if (value instanceof String text) {
+                scanKeywords(text, findings);
+            }
+        }
+        return conclude(origin, findings, start);
+    }
+
+    /**
+     * Payloads published before the topics carried a versioned schema cannot
+     * be checked field by field, so they are always escalated.
+     */
+    public Verdict evaluate(String payload) {
+        long start = System.nanoTime();
+        List<String> findings = new ArrayList<>();
+        findings.add("Unversioned payload; schema checks not applicable.");
+        scanKeywords(payload, findings);
+        return conclude("unknown", findings, start);
+    }
+
+    /**
+     * Records what the model made of an escalated record, so the rules'
+     * precision (flagged and confirmed) and miss rate (sampled and confirmed)
+     * can be read off the metrics.
+     */
+    public void recordModelVerdict(Verdict verdict, boolean issueFound, long durationNanos) {
+        modelTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        String source = verdict.escalation().name().toLowerCase(Locale.ROOT);
+        String outcome = issueFound ? "confirmed" : "cleared";
+        modelOutcomes.computeIfAbsent(source + '|' + outcome,
+                key -> Counter.builder("antigravity.observer.llm.records")
+                        .description("Records evaluated by the model tier, by escalation reason and result")
+                        .tag("source", source)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Verdict conclude(String origin, List<String> findings, long start) {
+        Escalation escalation;
+        if (!findings.isEmpty()) {
+            rulesFlagged.increment();
+            escalation = Escalation.FLAGGED;
+        } else {
+            rulesPassed.increment();
+            escalation = random.getAsDouble() < sampleRate ? Escalation.SAMPLED : Escalation.NONE;
+        }
+        rulesTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Verdict(origin, List.copyOf(findings), escalation);
+    }
+
+    private void scanKeywords(String text, List<String> findings) {
+        for (String keyword : keywordMatcher.findIn(text)) {
+            findings.add("Prohibited reference: " + keyword);
+        }
+    }
+
+    private void checkTrade(TradeExecutedEvent trade, List<String> findings) {
+        require(trade.userId(), "userId", findings);
+        require(trade.assetId(), "assetId", findings);
+        require(trade.strategyUsed(), "strategyUsed", findings);
+        if (trade.action() == null || !TRADE_ACTIONS.contains(trade.action())) {
+            findings.add("Unknown trade action: " + trade.action());
+        }
+        positive(trade.amountAllocated(), "amountAllocated", findings);
+        positive(trade.executionPrice(), "executionPrice", findings);
+        if (trade.cvarExposure() == null) {
+            findings.add("No CVaR exposure; capital constraint check not evidenced.");
+        }
+        if (trade.userId() == null) {
+            return;
+        }
+
+        Optional<Portfolio> portfolio = portfolioRepository.findByUserId(trade.userId());
+        if (portfolio.isEmpty()) {
+            findings.add("No portfolio for user " + trade.userId());
+            return;
+        }
+        if (trade.amountAllocated() != null
+                && trade.amountAllocated().compareTo(portfolio.get().getTotalCurrentValue()) > 0) {
+            findings.add("Allocation exceeds total portfolio value.");
+        }
+        BigDecimal maxRisk = portfolio.get().getAccumulatedProfit().multiply(cvarThresholdPercentage);
+        if (trade.cvarExposure() != null && trade.cvarExposure().abs().compareTo(maxRisk) > 0) {
+            findings.add("CVaR exposure exceeds the threshold share of accumulated profit.");
+        }
+    }
+
+    private static void checkAudit(AuditTraceEvent audit, List<String> findings) {
+        require(audit.type(), "type", findings);
+        require(audit.agent(), "agent", findings);
+        require(audit.status(), "status", findings);
+    }
+
+    private static void checkMarketHealth(MarketHealthEvent health, List<String> findings) {
+        require(health.assetId(), "asset_id", findings);
+        if (health.volatilityScore() != null && (health.volatilityScore() < 0 || health.volatilityScore() > 1)) {
+            findings.add("volatility_score outside [0, 1].");
+        }
+        if (health.confidence() == null || health.confidence() < CONFIDENCE_THRESHOLD) {
+            findings.add("Confidence below " + CONFIDENCE_THRESHOLD);
+        }
+        if (Boolean.TRUE.equals(health.anomalyDetected()) && !"HOLD".equals(health.recommendedStrategy())) {
+            findings.add("Anomaly detected but strategy is not HOLD.");
+        }
+    }
+
+    private static void require(Object value, String field, List<String> findings) {
+        if (value == null) {
+            findings.add("Missing field: " + field);
+        }
+    }
+
+    private static void positive(BigDecimal value, String field, List<String> findings) {
+        if (value == null) {
+            findings.add("Missing field: " + field);
+        } else if (value.signum() <= 0) {
+            findings.add("Non-positive " + field);
+        }
+    }
+}
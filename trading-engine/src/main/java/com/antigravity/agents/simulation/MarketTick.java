@@ -0,0 +1,20 @@
+package com.antigravity.agents.simulation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A top-of-book quote from market data. Replayed into
+ * {@link OrderBookSimulator}, it replaces the simulated market maker's
+ * liquidity for the symbol; a null or zero-sized side withdraws that side.
+ */
+public record MarketTick(
+        @JsonProperty("asset_id") String symbol,
+        Instant timestamp,
+        BigDecimal bid,
+        @JsonProperty("bid_size") long bidSize,
+        BigDecimal ask,
+        @JsonProperty("ask_size") long askSize) {
+}
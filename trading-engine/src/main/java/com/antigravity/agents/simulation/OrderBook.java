@@ -0,0 +1,281 @@
+package com.antigravity.agents.simulation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Price-time priority limit order book for one symbol. Prices are
+ * {@link com.antigravity.models.Money} units (four decimals) and quantities
+ * whole shares, both as primitive longs.
+ *
+ * Each side keeps its price levels in a sorted array with the best price
+ * last, so the levels touched by almost every order are at the cheap end of
+ * any insert or removal. Orders at a level form an intrusive doubly linked
+ * FIFO queue: the order is its own list node, so queueing, matching and
+ * cancelling allocate nothing beyond the order itself.
+ *
+ * Not thread-safe; {@link OrderBookSimulator} serializes access per book.
+ */
+public class OrderBook {
+
+    public enum OrderType {
+        /** Rests whatever does not match immediately. */
+        LIMIT,
+        /** Matches at any price; the unmatched remainder is cancelled. */
+        MARKET,
+        /** Matches up to its limit price; the unmatched remainder is cancelled. */
+        IOC
+    }
+
+    /** Receives each match as it happens, in execution order. */
+    @FunctionalInterface
+    public interface FillListener {
+        void onFill(long takerId, long makerId, long price, long quantity);
+    }
+
+    static final class Order {
+        final long id;
+        final boolean buy;
+        final long price;
+        long remaining;
+        Level level;
+        Order prev;
+        Order next;
+
+        Order(long id, boolean buy, long price, long remaining) {
+            this.id = id;
+            this.buy = buy;
+            this.price = price;
+            this.remaining = remaining;
+        }
+    }
+
+    static final class Level {
+        final long price;
+        long quantity;
+        Order head;
+        Order tail;
+
+        Level(long price) {
+            this.price = price;
+        }
+
+        void append(Order order) {
+            order.level = this;
+            order.prev = tail;
+            if (tail == null) {
+                head = order;
+            } else {
+                tail.next = order;
+            }
+            tail = order;
+            quantity += order.remaining;
+        }
+
+        void unlink(Order order) {
+            if (order.prev == null) {
+                head = order.next;
+            } else {
+                order.prev.next = order.next;
+            }
+            if (order.next == null) {
+                tail = order.prev;
+            } else {
+                order.next.prev = order.prev;
+            }
+            order.prev = null;
+            order.next = null;
+            order.level = null;
+        }
+    }
+
+    /**
+     * Levels of one side in a sorted array with the best price at
+     * {@code size - 1}: bids ascending, asks descending.
+     */
+    static final class Side {
+        private final boolean bids;
+        private long[] prices = new long[16];
+        private Level[] levels = new Level[16];
+        private int size;
+
+        Side(boolean bids) {
+            this.bids = bids;
+        }
+
+        Level best() {
+            return size == 0 ? null : levels[size - 1];
+        }
+
+        Level levelFor(long price) {
+            int index = search(price);
+            if (index >= 0) {
+                return levels[index];
+            }
+            int insertAt = -index - 1;
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                levels = Arrays.copyOf(levels, size * 2);
+            }
+            System.arraycopy(prices, insertAt, prices, insertAt + 1, size - insertAt);
+            System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+            Level level = new Level(price);
+            prices[insertAt] = price;
+            levels[insertAt] = level;
+            size++;
+            return level;
+        }
+
+        void remove(Level level) {
+            int index = search(level.price);
+            System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+            System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+            levels[--size] = null;
+        }
+
+        long quantityAt(int depth) {
+            return depth < size ? levels[size - 1 - depth].quantity : 0;
+        }
+
+        long priceAt(int depth) {
+            return depth < size ? prices[size - 1 - depth] : 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Asks are stored descending; negating them lets one ascending search serve both sides
+        private int search(long price) {
+            long key = bids ? price : -price;
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = bids ? prices[mid] : -prices[mid];
+                if (value < key) {
+                    low = mid + 1;
+                } else if (value > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    private final String symbol;
+    private final Side bids = new Side(true);
+    private final Side asks = new Side(false);
+    private final Map<Long, Order> resting = new HashMap<>();
+
+    public OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    /**
+     * Matches an incoming order against the opposite side and, for a limit
+     * order, rests the remainder. Makers always fill at their own price.
+     * Market orders ignore {@code price}.
+     *
+     * @return the quantity filled immediately
+     */
+    public long submit(long id, boolean buy, OrderType type, long price, long quantity, FillListener listener) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        if (type == OrderType.LIMIT && resting.containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate resting order id: " + id);
+        }
+        Side opposite = buy ? asks : bids;
+        long remaining = quantity;
+        Level level;
+        while (remaining > 0 && (level = opposite.best()) != null
+                && (type == OrderType.MARKET || (buy ? level.price <= price : level.price >= price))) {
+            remaining = matchAt(opposite, level, id, remaining, listener);
+        }
+        if (remaining > 0 && type == OrderType.LIMIT) {
+            Order order = new Order(id, buy, price, remaining);
+            (buy ? bids : asks).levelFor(price).append(order);
+            resting.put(id, order);
+        }
+        return quantity - remaining;
+    }
+
+    private long matchAt(Side side, Level level, long takerId, long remaining, FillListener listener) {
+        Order maker = level.head;
+        while (maker != null && remaining > 0) {
+            long fill = Math.min(remaining, maker.remaining);
+            remaining -= fill;
+            maker.remaining -= fill;
+            level.quantity -= fill;
+            listener.onFill(takerId, maker.id, level.price, fill);
+            Order next = maker.next;
+            if (maker.remaining == 0) {
+                level.unlink(maker);
+                resting.remove(maker.id);
+            }
+            maker = next;
+        }
+        if (level.head == null) {
+            side.remove(level);
+        }
+        return remaining;
+    }
+
+    /**
+     * Removes a resting order and returns its unfilled quantity, or 0 if it
+     * is no longer resting.
+     */
+    public long cancel(long id) {
+        Order order = resting.remove(id);
+        if (order == null) {
+            return 0;
+        }
+        Level level = order.level;
+        level.quantity -= order.remaining;
+        level.unlink(order);
+        if (level.head == null) {
+            (order.buy ? bids : asks).remove(level);
+        }
+        return order.remaining;
+    }
+
+    public boolean isResting(long id) {
+        return resting.containsKey(id);
+    }
+
+    /** Best bid price, or 0 when there are no bids. */
+    public long bestBid() {
+        return bids.priceAt(0);
+    }
+
+    /** Best ask price, or 0 when there are no asks. */
+    public long bestAsk() {
+        return asks.priceAt(0);
+    }
+
+    /** Resting quantity at the {@code depth}-th best bid level, 0-based. */
+    public long bidQuantity(int depth) {
+        return bids.quantityAt(depth);
+    }
+
+    /** Resting quantity at the {@code depth}-th best ask level, 0-based. */
+    public long askQuantity(int depth) {
+        return asks.quantityAt(depth);
+    }
+
+    public int bidLevels() {
+        return bids.size();
+    }
+
+    public int askLevels() {
+        return asks.size();
+    }
+}
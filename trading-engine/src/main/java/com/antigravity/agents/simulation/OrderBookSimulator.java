@@ -0,0 +1,271 @@
+package com.antigravity.agents.simulation;
+
+import com.antigravity.agents.simulation.OrderBook.OrderType;
+import com.antigravity.models.Money;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sandbox execution venue: one {@link OrderBook} per symbol, with liquidity
+ * from a simulated market maker that quotes whatever the latest
+ * {@link MarketTick} says. Client orders queue behind, and trade against,
+ * that liquidity and each other, so fill rates and slippage depend on order
+ * type, size and timing rather than every order filling at its own price.
+ *
+ * A symbol that has never had a tick is quoted around the first priced order
+ * it sees, {@code seed-spread-bps} wide and {@code seed-depth} shares deep on
+ * each side. Access to each book is serialized; different symbols proceed in
+ * parallel.
+ */
+@Component
+@Profile("sandbox-mock")
+public class OrderBookSimulator {
+
+    public enum Status { OPEN, PARTIALLY_FILLED, FILLED, CANCELLED }
+
+    /**
+     * An order's state when it was read.
+     *
+     * @param referencePrice the price slippage is measured from: the order's
+     *                       own price, or the mid when a market order had none
+     * @param slippageBps    how much worse than the reference the average fill
+     *                       was, in basis points; null until something fills
+     */
+    public record Execution(long orderId, String symbol, boolean buy, OrderType type, long quantity, long filled,
+            BigDecimal averagePrice, BigDecimal referencePrice, Double slippageBps, Status status) {
+    }
+
+    private final class OrderState {
+        final Book book;
+        final long id;
+        final boolean buy;
+        final OrderType type;
+        final long quantity;
+        final long referencePrice;
+        long filled;
+        long notional;
+        Status status = Status.OPEN;
+
+        OrderState(Book book, long id, boolean buy, OrderType type, long quantity, long referencePrice) {
+            this.book = book;
+            this.id = id;
+            this.buy = buy;
+            this.type = type;
+            this.quantity = quantity;
+            this.referencePrice = referencePrice;
+        }
+
+        Double slippageBps() {
+            if (filled == 0 || referencePrice == 0) {
+                return null;
+            }
+            double average = (double) notional / filled;
+            double worse = buy ? average - referencePrice : referencePrice - average;
+            return worse / referencePrice * 10_000;
+        }
+    }
+
+    private final class Book implements OrderBook.FillListener {
+        final OrderBook orderBook;
+        final Map<Long, OrderState> live = new HashMap<>();
+        long makerBidId;
+        long makerAskId;
+        boolean quoted;
+
+        Book(String symbol) {
+            this.orderBook = new OrderBook(symbol);
+        }
+
+        @Override
+        public void onFill(long takerId, long makerId, long price, long quantity) {
+            record(live.get(takerId), price, quantity);
+            OrderState maker = live.get(makerId);
+            if (record(maker, price, quantity)) {
+                if (maker.filled == maker.quantity) {
+                    complete(maker, Status.FILLED);
+                } else {
+                    maker.status = Status.PARTIALLY_FILLED;
+                }
+            }
+        }
+
+        private boolean record(OrderState state, long price, long quantity) {
+            if (state == null) {
+                return false;
+            }
+            state.filled += quantity;
+            state.notional = Math.addExact(state.notional, Math.multiplyExact(price, quantity));
+            return true;
+        }
+    }
+
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+    private final Map<Long, OrderState> history;
+    private final AtomicLong clientIds = new AtomicLong();
+    private final AtomicLong makerIds = new AtomicLong();
+    private final long seedHalfSpreadBps;
+    private final long seedDepth;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary slippage;
+    private final DistributionSummary fillRatio;
+
+    public OrderBookSimulator(MeterRegistry meterRegistry,
+            @Value("${antigravity.sandbox.book.seed-spread-bps:10}") long seedSpreadBps,
+            @Value("${antigravity.sandbox.book.seed-depth:10000}") long seedDepth,
+            @Value("${antigravity.sandbox.book.retained-orders:100000}") int retainedOrders) {
+        this.seedHalfSpreadBps = seedSpreadBps / 2;
+        this.seedDepth = seedDepth;
+        this.meterRegistry = meterRegistry;
+        Map<Long, OrderState> retained = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, OrderState> eldest) {
+                return size() > retainedOrders;
+            }
+        };
+        this.history = Collections.synchronizedMap(retained);
+        this.slippage = DistributionSummary.builder("antigravity.sandbox.book.slippage")
+                .description("Average fill price versus the order's reference price; positive is worse")
+                .baseUnit("bps")
+                .register(meterRegistry);
+        this.fillRatio = DistributionSummary.builder("antigravity.sandbox.book.fill.ratio")
+                .description("Filled share of each completed order's quantity")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replaces the market maker's quotes for the tick's symbol. A new quote
+     * that crosses resting client orders fills them at their own prices.
+     */
+    public void onTick(MarketTick tick) {
+        Book book = books.computeIfAbsent(tick.symbol(), Book::new);
+        synchronized (book) {
+            quote(book, price(tick.bid()), tick.bidSize(), price(tick.ask()), tick.askSize());
+        }
+    }
+
+    public void replay(Iterable<MarketTick> ticks) {
+        for (MarketTick tick : ticks) {
+            onTick(tick);
+        }
+    }
+
+    /**
+     * Submits a client order and returns its state once it has matched what
+     * it can. A limit order's remainder keeps resting and may fill on later
+     * ticks or orders; {@link #execution(long)} reports its progress.
+     *
+     * @param price the limit price; for a market order, optional and used
+     *              only as the slippage reference and to seed an empty book
+     */
+    public Execution submit(String symbol, boolean buy, OrderType type, long quantity, BigDecimal price) {
+        if (type != OrderType.MARKET && price == null) {
+            throw new IllegalArgumentException(type + " orders need a limit price.");
+        }
+        long limit = price(price);
+        long id = clientIds.incrementAndGet();
+        Book book = books.computeIfAbsent(symbol, Book::new);
+        synchronized (book) {
+            if (!book.quoted && limit > 0) {
+                long halfSpread = Math.max(1, limit * seedHalfSpreadBps / 10_000);
+                quote(book, limit - halfSpread, seedDepth, limit + halfSpread, seedDepth);
+            }
+            long reference = limit > 0 ? limit : mid(book.orderBook);
+            OrderState state = new OrderState(book, id, buy, type, quantity, reference);
+            book.live.put(id, state);
+            history.put(id, state);
+            book.orderBook.submit(id, buy, type, limit, quantity, book);
+            if (state.filled == quantity) {
+                complete(state, Status.FILLED);
+            } else if (type != OrderType.LIMIT) {
+                complete(state, Status.CANCELLED);
+            } else if (state.filled > 0) {
+                state.status = Status.PARTIALLY_FILLED;
+            }
+            return snapshot(state);
+        }
+    }
+
+    /** Cancels what is left of a resting order. */
+    public Execution cancel(long orderId) {
+        OrderState state = history.get(orderId);
+        if (state == null) {
+            return null;
+        }
+        synchronized (state.book) {
+            if (state.book.live.containsKey(orderId)) {
+                state.book.orderBook.cancel(orderId);
+                complete(state, Status.CANCELLED);
+            }
+            return snapshot(state);
+        }
+    }
+
+    /** The current state of a recent order, or null once it has aged out. */
+    public Execution execution(long orderId) {
+        OrderState state = history.get(orderId);
+        if (state == null) {
+            return null;
+        }
+        synchronized (state.book) {
+            return snapshot(state);
+        }
+    }
+
+    private void quote(Book book, long bid, long bidSize, long ask, long askSize) {
+        OrderBook orderBook = book.orderBook;
+        orderBook.cancel(book.makerBidId);
+        orderBook.cancel(book.makerAskId);
+        // Maker ids are negative so they never collide with client orders
+        if (bid > 0 && bidSize > 0) {
+            book.makerBidId = -makerIds.incrementAndGet();
+            orderBook.submit(book.makerBidId, true, OrderType.LIMIT, bid, bidSize, book);
+        }
+        if (ask > 0 && askSize > 0) {
+            book.makerAskId = -makerIds.incrementAndGet();
+            orderBook.submit(book.makerAskId, false, OrderType.LIMIT, ask, askSize, book);
+        }
+        book.quoted = true;
+    }
+
+    private void complete(OrderState state, Status status) {
+        state.status = status;
+        state.book.live.remove(state.id);
+        fillRatio.record((double) state.filled / state.quantity);
+        Double slippageBps = state.slippageBps();
+        if (slippageBps != null) {
+            slippage.record(slippageBps);
+        }
+        meterRegistry.counter("antigravity.sandbox.book.orders", "type", state.type.name().toLowerCase(),
+                "status", status.name().toLowerCase()).increment();
+    }
+
+    private static Execution snapshot(OrderState state) {
+        BigDecimal average = state.filled == 0 ? null
+                : Money.ofUnits(Math.round((double) state.notional / state.filled)).toBigDecimal();
+        BigDecimal reference = state.referencePrice == 0 ? null
+                : Money.ofUnits(state.referencePrice).toBigDecimal();
+        return new Execution(state.id, state.book.orderBook.symbol(), state.buy, state.type, state.quantity, state.filled,
+                average, reference, state.slippageBps(), state.status);
+    }
+
+    private static long mid(OrderBook orderBook) {
+        long bid = orderBook.bestBid();
+        long ask = orderBook.bestAsk();
+        return bid > 0 && ask > 0 ? (bid + ask) / 2 : 0;
+    }
+
+    private static long price(BigDecimal price) {
+        return price == null ? 0 : Money.of(price).units();
+    }
+}
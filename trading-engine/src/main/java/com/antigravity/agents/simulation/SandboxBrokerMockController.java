@@ -0,0 +1,111 @@
+package com.antigravity.agents.simulation;
+
+import com.antigravity.agents.simulation.OrderBook.OrderType;
+import com.antigravity.agents.simulation.OrderBookSimulator.Execution;
+import com.antigravity.agents.trade.SandboxBrokerClient.OrderRequest;
+import com.antigravity.agents.trade.SandboxBrokerClient.OrderResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process stand-in for the sandbox broker's order API, including the bulk
+ * order route, so order batching can be exercised without the paper-trading
+ * container. Orders are matched by {@link OrderBookSimulator}, so market
+ * orders pay the spread, limit orders can rest unfilled and large orders walk
+ * the book; historical quotes are replayed through {@code POST /ticks}.
+ */
+@RestController
+@RequestMapping("/sandbox-mock")
+@Profile("sandbox-mock")
+public class SandboxBrokerMockController {
+
+    private static final BigDecimal MOCK_BALANCE = new BigDecimal("100000.00");
+
+    private final OrderBookSimulator simulator;
+
+    public SandboxBrokerMockController(OrderBookSimulator simulator) {
+        this.simulator = simulator;
+    }
+
+    @PostMapping("/orders")
+    public OrderResponse placeOrder(@RequestBody OrderRequest request) {
+        return fill(request);
+    }
+
+    @PostMapping("/orders/bulk")
+    public List<OrderResponse> placeOrders(@RequestBody List<OrderRequest> requests) {
+        return requests.stream().map(this::fill).toList();
+    }
+
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<OrderResponse> getOrder(@PathVariable long orderId) {
+        Execution execution = simulator.execution(orderId);
+        return execution == null ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(new OrderResponse(true, render(execution), message(execution)));
+    }
+
+    @DeleteMapping("/orders/{orderId}")
+    public ResponseEntity<OrderResponse> cancelOrder(@PathVariable long orderId) {
+        Execution execution = simulator.cancel(orderId);
+        return execution == null ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(new OrderResponse(true, render(execution), message(execution)));
+    }
+
+    @PostMapping("/ticks")
+    public Map<String, Object> replayTicks(@RequestBody List<MarketTick> ticks) {
+        simulator.replay(ticks);
+        return Map.of("replayed", ticks.size());
+    }
+
+    @GetMapping("/account/balance")
+    public Map<String, Object> balance(@RequestParam(name = "account_id", required = false) String accountId) {
+        return Map.of("account_id", accountId == null ? "default" : accountId, "balance", MOCK_BALANCE);
+    }
+
+    private OrderResponse fill(OrderRequest request) {
+        OrderType type = switch (request.condition() == null ? OrderRequest.MARKET : request.condition()) {
+            case OrderRequest.MARKET -> OrderType.MARKET;
+            case OrderRequest.LIMIT -> OrderType.LIMIT;
+            case OrderRequest.IMMEDIATE_OR_CANCEL -> OrderType.IOC;
+            default -> null;
+        };
+        if (type == null || request.quantity() <= 0 || request.orderType() == null
+                || (type != OrderType.MARKET && request.price() == null)) {
+            return new OrderResponse(false, null, "Order rejected: unsupported condition, side, quantity or price.");
+        }
+        Execution execution = simulator.submit(request.symbol(), "buy".equals(request.orderType()), type,
+                request.quantity(), request.price());
+        return new OrderResponse(true, render(execution), message(execution));
+    }
+
+    private static Map<String, Object> render(Execution execution) {
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("id", String.valueOf(execution.orderId()));
+        order.put("symbol", execution.symbol());
+        order.put("order_type", execution.buy() ? "buy" : "sell");
+        order.put("condition", execution.type().name().toLowerCase());
+        order.put("quantity", execution.quantity());
+        order.put("filled_quantity", execution.filled());
+        order.put("price", execution.referencePrice());
+        order.put("average_price", execution.averagePrice());
+        order.put("slippage_bps", execution.slippageBps());
+        order.put("status", execution.status().name().toLowerCase());
+        return order;
+    }
+
+    private static String message(Execution execution) {
+        return switch (execution.status()) {
+            case FILLED -> "Order filled.";
+            case PARTIALLY_FILLED -> "Order partially filled; remainder resting.";
+            case OPEN -> "Order resting.";
+            case CANCELLED -> execution.filled() > 0 ? "Order partially filled; remainder cancelled."
+                    : "Order cancelled.";
+        };
+    }
+}
@@ -1,11 +1,14 @@
 package com.antigravity.agents.simulation;
 
 import com.antigravity.agents.analysis.AnalysisAgent;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
 
+// Built on the first injection rather than at startup; only test tooling calls it.
+@Lazy
 @RestController
 @RequestMapping("/api/v1/simulation")
 @CrossOrigin(origins = "*")
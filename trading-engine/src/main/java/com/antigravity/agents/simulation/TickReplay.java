@@ -0,0 +1,87 @@
+package com.antigravity.agents.simulation;
+
+import com.antigravity.agents.simulation.OrderBook.OrderType;
+import com.antigravity.agents.simulation.OrderBookSimulator.Execution;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Replays historical ticks and timestamped orders through an
+ * {@link OrderBookSimulator} in time order. Each order reaches the book
+ * {@code latency} after it was decided, so it trades against whatever the
+ * market had moved to by then, which is what makes latency show up in the
+ * fill rate and slippage.
+ */
+public class TickReplay {
+
+    /** An order as decided at {@code decidedAt}, before any latency. */
+    public record TimedOrder(Instant decidedAt, String symbol, boolean buy, OrderType type, long quantity,
+            BigDecimal price) {
+    }
+
+    /**
+     * @param fillRate       filled share of all ordered quantity
+     * @param slippageBps    fill-weighted average slippage of everything
+     *                       that filled; positive is worse
+     */
+    public record Report(List<Execution> executions, double fillRate, double slippageBps) {
+    }
+
+    private final OrderBookSimulator simulator;
+    private final Duration latency;
+
+    public TickReplay(OrderBookSimulator simulator, Duration latency) {
+        this.simulator = simulator;
+        this.latency = latency;
+    }
+
+    /**
+     * Runs the replay. An order arriving at the same instant as a tick is
+     * applied after it. Limit orders still resting at the end are reported as
+     * they stand and left on the book.
+     */
+    public Report run(List<MarketTick> ticks, List<TimedOrder> orders) {
+        List<MarketTick> byTime = ticks.stream().sorted(Comparator.comparing(MarketTick::timestamp)).toList();
+        List<TimedOrder> byArrival = orders.stream().sorted(Comparator.comparing(TimedOrder::decidedAt)).toList();
+        List<Long> ids = new ArrayList<>(byArrival.size());
+        int next = 0;
+        for (MarketTick tick : byTime) {
+            while (next < byArrival.size() && arrival(byArrival.get(next)).isBefore(tick.timestamp())) {
+                ids.add(submit(byArrival.get(next++)));
+            }
+            simulator.onTick(tick);
+        }
+        while (next < byArrival.size()) {
+            ids.add(submit(byArrival.get(next++)));
+        }
+
+        List<Execution> executions = new ArrayList<>(ids.size());
+        long ordered = 0;
+        long filled = 0;
+        double weightedSlippage = 0;
+        for (long id : ids) {
+            Execution execution = simulator.execution(id);
+            executions.add(execution);
+            ordered += execution.quantity();
+            filled += execution.filled();
+            if (execution.slippageBps() != null) {
+                weightedSlippage += execution.slippageBps() * execution.filled();
+            }
+        }
+        return new Report(executions, ordered == 0 ? 0 : (double) filled / ordered,
+                filled == 0 ? 0 : weightedSlippage / filled);
+    }
+
+    private Instant arrival(TimedOrder order) {
+        return order.decidedAt().plus(latency);
+    }
+
+    private long submit(TimedOrder order) {
+        return simulator.submit(order.symbol(), order.buy(), order.type(), order.quantity(), order.price()).orderId();
+    }
+}
@@ -0,0 +1,49 @@
+package com.antigravity.agents.system;
+
+import com.antigravity.models.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last CDS cash balance fetched from the broker per user, filled by
+ * {@link CdsReconciliationJob}. Capital checks read from here so they never
+ * wait on the broker; entries older than the max age are ignored.
+ */
+@Component
+public class BrokerBalanceCache {
+
+    private record CachedBalance(Money cash, long fetchedAtMillis) {
+    }
+
+    private final Map<String, CachedBalance> balances = new ConcurrentHashMap<>();
+    private final long maxAgeMillis;
+
+    public BrokerBalanceCache(@Value("${antigravity.agent.cds.max-balance-age-ms:600000}") long maxAgeMs) {
+        this.maxAgeMillis = maxAgeMs;
+    }
+
+    public void put(String userId, BigDecimal balance, Instant fetchedAt) {
+        balances.put(userId, new CachedBalance(Money.of(balance), fetchedAt.toEpochMilli()));
+    }
+
+    /**
+     * The cached cash balance if it was fetched within the max age; null when
+     * it is unknown or stale.
+     */
+    public Money freshCash(String userId) {
+        CachedBalance cached = balances.get(userId);
+        if (cached == null || cached.fetchedAtMillis() < System.currentTimeMillis() - maxAgeMillis) {
+            return null;
+        }
+        return cached.cash();
+    }
+
+    public int size() {
+        return balances.size();
+    }
+}
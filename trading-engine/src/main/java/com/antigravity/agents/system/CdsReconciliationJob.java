@@ -0,0 +1,178 @@
+package com.antigravity.agents.system;
+
+import com.antigravity.agents.trade.DecisionJournal;
+import com.antigravity.agents.trade.SandboxBrokerClient;
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.messaging.AuditTraceEvent;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.EventPublisher;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only CDS balance sync. Each sweep pages through all portfolios, fetches
+ * their broker cash balances concurrently through the non-blocking broker API,
+ * caches them for capital checks and reports balances that have drifted from
+ * Portfolio.getTotalCurrentValue() on the audit traces topic. A checked
+ * account also resolves the user's orders left unanswered by a restart in
+ * {@link DecisionJournal}.
+ */
+@Component
+public class CdsReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CdsReconciliationJob.class);
+
+    private final PortfolioRepository portfolioRepository;
+    private final SandboxBrokerClient sandboxBrokerClient;
+    private final BrokerBalanceCache balanceCache;
+    private final EventPublisher eventPublisher;
+    private final DecisionJournal decisionJournal;
+
+    private final int pageSize;
+    private final int concurrency;
+    private final BigDecimal driftTolerance;
+    private final BigDecimal driftTolerancePercentage;
+
+    private final Timer sweepTimer;
+    private final Counter reconciledCounter;
+    private final Counter driftCounter;
+    private final Counter failureCounter;
+
+    public record SweepResult(int reconciled, int drifted, int failed) {
+    }
+
+    private record Outcome(boolean fetched, boolean drifted) {
+    }
+
+    public CdsReconciliationJob(PortfolioRepository portfolioRepository,
+            SandboxBrokerClient sandboxBrokerClient,
+            BrokerBalanceCache balanceCache,
+            EventPublisher eventPublisher,
+            DecisionJournal decisionJournal,
+            MeterRegistry meterRegistry,
+            @Value("${antigravity.agent.cds.page-size:500}") int pageSize,
+            @Value("${antigravity.agent.cds.concurrency:32}") int concurrency,
+            @Value("${antigravity.agent.cds.drift-tolerance:1.00}") BigDecimal driftTolerance,
+            @Value("${antigravity.agent.cds.drift-tolerance-percentage:0.005}") BigDecimal driftTolerancePercentage) {
+        this.portfolioRepository = portfolioRepository;
+        this.sandboxBrokerClient = sandboxBrokerClient;
+        this.balanceCache = balanceCache;
+        this.eventPublisher = eventPublisher;
+        this.decisionJournal = decisionJournal;
+        this.pageSize = pageSize;
+        this.concurrency = concurrency;
+        this.driftTolerance = driftTolerance;
+        this.driftTolerancePercentage = driftTolerancePercentage;
+        this.sweepTimer = meterRegistry.timer("antigravity.cds.reconciliation.sweep");
+        this.reconciledCounter = meterRegistry.counter("antigravity.cds.reconciliation.accounts", "result", "ok");
+        this.driftCounter = meterRegistry.counter("antigravity.cds.reconciliation.accounts", "result", "drift");
+        this.failureCounter = meterRegistry.counter("antigravity.cds.reconciliation.accounts", "result", "failed");
+    }
+
+    @Scheduled(fixedRateString = "${antigravity.agent.cds.sync-rate-ms:300000}")
+    public void scheduledSweep() {
+        try {
+            reconcileAll();
+        } catch (Exception e) {
+            log.error("[CdsReconciliationJob] Reconciliation sweep failed.", e);
+        }
+    }
+
+    /**
+     * Runs one full sweep. Pages are read sequentially (bounded memory), while
+     * the balance fetches within a page run with bounded concurrency.
+     */
+    public SweepResult reconcileAll() {
+        long start = System.nanoTime();
+        int reconciled = 0;
+        int drifted = 0;
+        int failed = 0;
+
+        Pageable pageable = PageRequest.of(0, pageSize, Sort.by("id"));
+        Slice<Portfolio> page;
+        do {
+            page = portfolioRepository.findAllBy(pageable);
+            for (Outcome outcome : Flux.fromIterable(page.getContent())
+                    .flatMap(this::reconcile, concurrency)
+                    .collectList()
+                    .block()) {
+                if (!outcome.fetched()) {
+                    failed++;
+                } else if (outcome.drifted()) {
+                    drifted++;
+                } else {
+                    reconciled++;
+                }
+            }
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+
+        sweepTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("[CdsReconciliationJob] Sweep complete. reconciled={}, drifted={}, failed={}", reconciled, drifted,
+                failed);
+        return new SweepResult(reconciled, drifted, failed);
+    }
+
+    private Mono<Outcome> reconcile(Portfolio portfolio) {
+        String userId = portfolio.getUserId();
+        BigDecimal expected = portfolio.getTotalCurrentValue();
+        return sandboxBrokerClient.getAccountBalanceAsync(userId)
+                .map(balance -> {
+                    balanceCache.put(userId, balance, Instant.now());
+                    BigDecimal drift = balance.subtract(expected);
+                    boolean drifted = drift.abs().compareTo(toleranceFor(expected)) > 0;
+                    decisionJournal.resolveRecoveredOrders(userId, !drifted);
+                    if (drifted) {
+                        driftCounter.increment();
+                        publishDrift(userId, balance, expected, drift);
+                        return new Outcome(true, true);
+                    }
+                    reconciledCounter.increment();
+                    return new Outcome(true, false);
+                })
+                .onErrorResume(e -> {
+                    failureCounter.increment();
+                    log.warn("[CdsReconciliationJob] Balance fetch failed for userId={}: {}", userId, e.getMessage());
+                    return Mono.just(new Outcome(false, false));
+                });
+    }
+
+    private BigDecimal toleranceFor(BigDecimal expected) {
+        return driftTolerance.max(expected.abs().multiply(driftTolerancePercentage));
+    }
+
+    private void publishDrift(String userId, BigDecimal brokerBalance, BigDecimal expected, BigDecimal drift) {
+        log.warn("[CdsReconciliationJob] CDS balance drift for userId={}: broker={}, expected={}, drift={}", userId,
+                brokerBalance, expected, drift);
+        Map<String, String> figures = new LinkedHashMap<>();
+        figures.put("brokerBalance", brokerBalance.toPlainString());
+        figures.put("expectedValue", expected.toPlainString());
+        figures.put("drift", drift.setScale(4, RoundingMode.HALF_UP).toPlainString());
+        AuditTraceEvent event = new AuditTraceEvent("CDS_BALANCE_DRIFT", "SystemAgent", "DRIFT", userId,
+                null, figures, System.currentTimeMillis());
+        eventPublisher.publish(
+                new ProducerRecord<>(KafkaConfig.TOPIC_AUDIT_TRACES, userId, EventCodec.encode(event)));
+    }
+}
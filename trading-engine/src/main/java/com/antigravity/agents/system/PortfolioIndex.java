@@ -0,0 +1,220 @@
+package com.antigravity.agents.system;
+
+import com.antigravity.models.Money;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import com.antigravity.models.Trade;
+import com.antigravity.models.TradePosition;
+import com.antigravity.models.TradePositionRepository;
+import com.antigravity.models.TradeRepository;
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.CorrelationMatrix.Holding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of every subscribed portfolio's capital, so a market event
+ * can be sized and capital-checked for all users without a database read per
+ * user. Capital writes (deposits, withdrawals) update their entry directly; a
+ * periodic reload picks up anything else and drops deleted portfolios.
+ *
+ * Each user's open positions are reloaded with them for the portfolio-level
+ * checks against the {@link CorrelationMatrix}: the positions TradeSummaryJob
+ * has rolled up plus the trades it has not reached yet. Newly booked trades
+ * are applied as soon as they commit, so a user's next event sees them.
+ */
+@Component
+public class PortfolioIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioIndex.class);
+
+    public record Entry(String userId, Money accumulatedProfit, Money totalCurrentValue) {
+
+        static Entry of(Portfolio portfolio) {
+            return new Entry(portfolio.getUserId(), portfolio.accumulatedProfit(), portfolio.totalCurrentValue());
+        }
+    }
+
+    private final PortfolioRepository portfolioRepository;
+    private final TradePositionRepository positionRepository;
+    private final TradeRepository tradeRepository;
+    private final int pageSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Holding>> holdings = new ConcurrentHashMap<>();
+
+    private final Object holdingsLock = new Object();
+    // Trades applied while a reload reads the database; guarded by holdingsLock, null between reloads
+    private List<Trade> appliedDuringReload;
+
+    public PortfolioIndex(PortfolioRepository portfolioRepository, TradePositionRepository positionRepository,
+            TradeRepository tradeRepository,
+            @Value("${antigravity.trade.fanout.index-page-size:1000}") int pageSize) {
+        this.portfolioRepository = portfolioRepository;
+        this.positionRepository = positionRepository;
+        this.tradeRepository = tradeRepository;
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(fixedDelayString = "${antigravity.trade.fanout.index-refresh-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("[PortfolioIndex] Refresh failed; keeping the previous snapshot.", e);
+        }
+    }
+
+    /**
+     * Reloads all portfolios page by page and returns how many are indexed.
+     */
+    public int refresh() {
+        Set<String> seen = new HashSet<>();
+        Pageable pageable = PageRequest.of(0, pageSize, Sort.by("id"));
+        Slice<Portfolio> page;
+        do {
+            page = portfolioRepository.findAllBy(pageable);
+            for (Portfolio portfolio : page) {
+                entries.put(portfolio.getUserId(), Entry.of(portfolio));
+                seen.add(portfolio.getUserId());
+            }
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        entries.keySet().retainAll(seen);
+        reloadHoldings();
+        log.debug("[PortfolioIndex] Indexed {} portfolios.", seen.size());
+        return seen.size();
+    }
+
+    private void reloadHoldings() {
+        synchronized (holdingsLock) {
+            appliedDuringReload = new ArrayList<>();
+        }
+        Map<String, List<Holding>> loaded;
+        Set<UUID> pendingIds = new HashSet<>();
+        try {
+            // Unsummarized trades first: a roll-up committing between the two reads is then
+            // counted twice until the next reload rather than missed.
+            List<Trade> pending = tradeRepository.findBySummarizedAtIsNull();
+            loaded = loadPositions();
+            for (Trade trade : pending) {
+                loaded.compute(trade.getUserId(), (user, held) -> applied(held, trade));
+                pendingIds.add(trade.getId());
+            }
+        } catch (RuntimeException e) {
+            synchronized (holdingsLock) {
+                appliedDuringReload = null;
+            }
+            throw e;
+        }
+        synchronized (holdingsLock) {
+            for (Trade trade : appliedDuringReload) {
+                if (!pendingIds.contains(trade.getId())) {
+                    loaded.compute(trade.getUserId(), (user, held) -> applied(held, trade));
+                }
+            }
+            appliedDuringReload = null;
+            holdings = loaded;
+        }
+    }
+
+    private Map<String, List<Holding>> loadPositions() {
+        Map<String, List<Holding>> loaded = new ConcurrentHashMap<>();
+        Pageable pageable = PageRequest.of(0, pageSize, Sort.by("key.userId", "key.assetId"));
+        Slice<TradePosition> page;
+        do {
+            page = positionRepository.findAllBy(pageable);
+            for (TradePosition position : page) {
+                if (position.getQuantity().signum() > 0) {
+                    loaded.computeIfAbsent(position.getKey().userId(), user -> new ArrayList<>())
+                            .add(new Holding(position.getKey().assetId(), position.getQuantity().doubleValue(),
+                                    position.getCostBasis().doubleValue()));
+                }
+            }
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        return loaded;
+    }
+
+    public void update(Portfolio portfolio) {
+        entries.put(portfolio.getUserId(), Entry.of(portfolio));
+    }
+
+    /** Applies trades that have just committed to their users' holdings. */
+    public void applyTrades(List<Trade> trades) {
+        synchronized (holdingsLock) {
+            for (Trade trade : trades) {
+                holdings.compute(trade.getUserId(), (user, held) -> applied(held, trade));
+            }
+            if (appliedDuringReload != null) {
+                appliedDuringReload.addAll(trades);
+            }
+        }
+    }
+
+    /**
+     * The holdings with the trade applied the way TradePosition applies it: a
+     * buy adds its quantity at cost, a sell releases average cost on what is
+     * held. Null when nothing is left.
+     */
+    private static List<Holding> applied(List<Holding> held, Trade trade) {
+        double price = trade.getExecutionPrice().doubleValue();
+        double amount = trade.getAmountAllocated().doubleValue();
+        List<Holding> updated = held == null ? new ArrayList<>() : new ArrayList<>(held);
+        int index = 0;
+        while (index < updated.size() && !updated.get(index).assetId().equals(trade.getAssetId())) {
+            index++;
+        }
+        Holding current = index < updated.size() ? updated.get(index) : null;
+        if (!(price > 0) || (current == null && "SELL".equalsIgnoreCase(trade.getAction()))) {
+            return held;
+        }
+        double traded = amount / price;
+        Holding next;
+        if (!"SELL".equalsIgnoreCase(trade.getAction())) {
+            next = current == null ? new Holding(trade.getAssetId(), traded, amount)
+                    : new Holding(trade.getAssetId(), current.quantity() + traded, current.costBasis() + amount);
+        } else {
+            double quantity = current.quantity() - Math.min(traded, current.quantity());
+            next = quantity > 0
+                    ? new Holding(trade.getAssetId(), quantity, current.costBasis() * quantity / current.quantity())
+                    : null;
+        }
+        if (current == null) {
+            updated.add(next);
+        } else if (next == null) {
+            updated.remove(index);
+        } else {
+            updated.set(index, next);
+        }
+        return updated.isEmpty() ? null : updated;
+    }
+
+    public Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    /** The user's open positions, including trades booked since the last reload. */
+    public List<Holding> holdings(String userId) {
+        return holdings.getOrDefault(userId, List.of());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -8,6 +8,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -18,9 +20,11 @@ public class SystemAgentService {
     private static final Logger log = LoggerFactory.getLogger(SystemAgentService.class);
 
     private final PortfolioRepository portfolioRepository;
+    private final PortfolioIndex portfolioIndex;
 
-    public SystemAgentService(PortfolioRepository portfolioRepository) {
+    public SystemAgentService(PortfolioRepository portfolioRepository, PortfolioIndex portfolioIndex) {
         this.portfolioRepository = portfolioRepository;
+        this.portfolioIndex = portfolioIndex;
     }
 
     /**
@@ -38,6 +42,7 @@ public class SystemAgentService {
 
         portfolio.addDeposit(amount);
         Portfolio saved = portfolioRepository.save(portfolio);
+        updateIndexAfterCommit(saved);
 
         log.info("[SystemAgentService] CDS Deposit synced. userId={}, newBase={}", userId,
                 saved.getProtectedCapitalBase());
@@ -70,6 +75,7 @@ public class SystemAgentService {
         }
 
         portfolioRepository.save(portfolio);
+        updateIndexAfterCommit(portfolio);
         log.info(
                 "[SystemAgentService] Stock-sell withdrawal processed. User must now manually transfer from CDS to Bank.");
 
@@ -78,6 +84,23 @@ public class SystemAgentService {
         return ActionStatus.SUCCESS;
     }
 
+    /**
+     * The fan-out reads the index without locks, so it must never see capital
+     * that a rollback (e.g. a serialization failure) takes back.
+     */
+    private void updateIndexAfterCommit(Portfolio portfolio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            portfolioIndex.update(portfolio);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                portfolioIndex.update(portfolio);
+            }
+        });
+    }
+
     /**
      * Helper for UI dashboard to retrieve portfolio state.
      */
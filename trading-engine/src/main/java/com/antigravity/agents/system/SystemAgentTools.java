@@ -1,16 +1,21 @@
 package com.antigravity.agents.system;
 
+import com.antigravity.config.CorrelationRiskProperties;
 import com.antigravity.models.ActionStatus;
+import com.antigravity.models.Money;
 import com.antigravity.models.Portfolio;
 import com.antigravity.models.PortfolioRepository;
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.CorrelationMatrix.PortfolioRisk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -22,19 +27,45 @@ public class SystemAgentTools {
     private static final Logger log = LoggerFactory.getLogger(SystemAgentTools.class);
     private final PortfolioRepository portfolioRepository;
     private final SystemAgentService systemAgentService;
+    private final BrokerBalanceCache brokerBalanceCache;
+    private final TransactionTemplate primaryRead;
+    private final PortfolioIndex portfolioIndex;
+    private final CorrelationMatrix correlations;
+    private final long maxCorrelatedExposureBasisPoints;
+    private final long maxVolatilityBasisPoints;
 
     @Value("${antigravity.risk.cvar-threshold-percentage:0.10}")
     private BigDecimal cvarThresholdPercentage;
 
-    public SystemAgentTools(PortfolioRepository portfolioRepository, SystemAgentService systemAgentService) {
+    public SystemAgentTools(PortfolioRepository portfolioRepository, SystemAgentService systemAgentService,
+            BrokerBalanceCache brokerBalanceCache, PlatformTransactionManager transactionManager,
+            PortfolioIndex portfolioIndex, CorrelationMatrix correlations, CorrelationRiskProperties riskProperties) {
         this.portfolioRepository = portfolioRepository;
         this.systemAgentService = systemAgentService;
+        this.brokerBalanceCache = brokerBalanceCache;
+        // Deliberately not read-only: with a read replica configured, read-only
+        // transactions are routed to it, and capital checks must see the primary.
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.portfolioIndex = portfolioIndex;
+        this.correlations = correlations;
+        this.maxCorrelatedExposureBasisPoints = Money.basisPoints(riskProperties.maxCorrelatedExposureFraction());
+        this.maxVolatilityBasisPoints = Money.basisPoints(riskProperties.maxVolatilityFraction());
     }
 
     // --- Data Records ---
 
+    /**
+     * @param assetId the asset to buy; when given, the portfolio-level
+     *                concentration and volatility limits are checked too
+     */
     public record CapitalVerificationRequest(String userId, BigDecimal requestedAllocation,
-            BigDecimal estimatedCvarRisk) {
+            BigDecimal estimatedCvarRisk, String assetId) {
+
+        public CapitalVerificationRequest(String userId, BigDecimal requestedAllocation,
+                BigDecimal estimatedCvarRisk) {
+            this(userId, requestedAllocation, estimatedCvarRisk, null);
+        }
     }
 
     public record CapitalVerificationResponse(ActionStatus status, String message, BigDecimal maxAllowableDrawdown) {
@@ -57,46 +88,116 @@ public class SystemAgentTools {
 
     /**
      * MCP Tool: VerifyCapitalConstraint
-     * READ_COMMITTED isolation. Fully concurrent.
+     * READ_COMMITTED isolation, always against the primary database. Fully
+     * concurrent.
      */
     @Bean
-    @Description("Strictly enforces system capital preservation limits before allowing trade execution. Usage: Call this tool before any BUY action.")
-    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
+    @Description("Strictly enforces system capital preservation limits before allowing trade execution. Usage: Call this tool before any BUY action, with the assetId being bought.")
     public Function<CapitalVerificationRequest, CapitalVerificationResponse> verifyCapitalConstraint() {
+        long thresholdBasisPoints = Money.basisPoints(cvarThresholdPercentage);
         return request -> {
             log.info("[SystemAgentTools] MCP: VerifyCapitalConstraint for User: {}", request.userId());
-            Optional<Portfolio> portfolioOpt = portfolioRepository.findByUserId(request.userId());
+            Optional<Portfolio> portfolioOpt = primaryRead.execute(
+                    status -> portfolioRepository.findByUserId(request.userId()));
             if (portfolioOpt.isEmpty()) {
                 return new CapitalVerificationResponse(ActionStatus.ERROR, "Portfolio not found for user.",
                         BigDecimal.ZERO);
             }
 
             Portfolio portfolio = portfolioOpt.get();
-            BigDecimal accumulatedProfit = portfolio.getAccumulatedProfit();
-            BigDecimal maxAllowableRisk = accumulatedProfit.multiply(cvarThresholdPercentage);
+            Money allocation = Money.of(request.requestedAllocation());
+            PortfolioRisk risk = request.assetId() == null ? null
+                    : correlations.assess(portfolioIndex.holdings(request.userId()), request.assetId(),
+                            allocation.toDouble());
+            return checkCapital(allocation, Money.of(request.estimatedCvarRisk()),
+                    portfolio.accumulatedProfit(), portfolio.totalCurrentValue(),
+                    brokerBalanceCache.freshCash(request.userId()), thresholdBasisPoints, risk,
+                    maxCorrelatedExposureBasisPoints, maxVolatilityBasisPoints);
+        };
+    }
 
-            if (maxAllowableRisk.compareTo(BigDecimal.ZERO) <= 0) {
-                return new CapitalVerificationResponse(ActionStatus.DENIED,
-                        "DENIED: Cannot trade. No accumulated profits exist to absorb risk. The initial capital is strictly firewalled.",
-                        BigDecimal.ZERO);
-            }
+    public static CapitalVerificationResponse checkCapital(Money requestedAllocation, Money estimatedCvarRisk,
+            Money accumulatedProfit, Money totalCurrentValue, Money cdsCash, long cvarThresholdBasisPoints) {
+        return checkCapital(requestedAllocation, estimatedCvarRisk, accumulatedProfit, totalCurrentValue, cdsCash,
+                cvarThresholdBasisPoints, null, 0, 0);
+    }
 
-            if (request.estimatedCvarRisk().compareTo(maxAllowableRisk) > 0) {
+    /**
+     * The capital preservation rules themselves, free of any lookup, so the
+     * trade fan-out can apply them to indexed portfolios without a database
+     * read per user. All arithmetic is fixed point; only a denial builds a
+     * message.
+     *
+     * With a {@link PortfolioRisk} for a buy, two portfolio-level limits
+     * follow, both as a share of total value: the holdings moving with the
+     * asset (concentration) and the portfolio's one-session volatility.
+     *
+     * @param cdsCash reconciled CDS cash, or null when unknown or stale
+     * @param risk    the portfolio's risk with this buy added, or null to
+     *                check the allocation alone
+     */
+    public static CapitalVerificationResponse checkCapital(Money requestedAllocation, Money estimatedCvarRisk,
+            Money accumulatedProfit, Money totalCurrentValue, Money cdsCash, long cvarThresholdBasisPoints,
+            PortfolioRisk risk, long maxCorrelatedExposureBasisPoints, long maxVolatilityBasisPoints) {
+        Money maxAllowableRisk = accumulatedProfit.timesBasisPoints(cvarThresholdBasisPoints);
+
+        if (maxAllowableRisk.signum() <= 0) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Cannot trade. No accumulated profits exist to absorb risk. The initial capital is strictly firewalled.",
+                    BigDecimal.ZERO);
+        }
+
+        if (estimatedCvarRisk.isGreaterThan(maxAllowableRisk)) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Risk (" + estimatedCvarRisk + ") exceeds " + percent(cvarThresholdBasisPoints)
+                            + "% CVaR threshold of profit (" + maxAllowableRisk + ")",
+                    maxAllowableRisk.toBigDecimal());
+        }
+
+        if (requestedAllocation.isGreaterThan(totalCurrentValue)) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Insufficient total capital in portfolio.", maxAllowableRisk.toBigDecimal());
+        }
+
+        // Reconciled CDS cash, when known, is the hard ceiling for a new allocation.
+        if (cdsCash != null && requestedAllocation.isGreaterThan(cdsCash)) {
+            return new CapitalVerificationResponse(ActionStatus.DENIED,
+                    "DENIED: Allocation exceeds reconciled CDS cash balance (" + cdsCash + ").",
+                    maxAllowableRisk.toBigDecimal());
+        }
+
+        if (risk != null) {
+            Money maxExposure = totalCurrentValue.timesBasisPoints(maxCorrelatedExposureBasisPoints);
+            if (risk.correlatedExposure() > maxExposure.toDouble()) {
                 return new CapitalVerificationResponse(ActionStatus.DENIED,
-                        "DENIED: Risk (" + request.estimatedCvarRisk() + ") exceeds "
-                                + (cvarThresholdPercentage.multiply(new BigDecimal(100)))
-                                + "% CVaR threshold of profit (" + maxAllowableRisk + ")",
-                        maxAllowableRisk);
+                        "DENIED: Holdings correlated with this asset (" + amount(risk.correlatedExposure())
+                                + ") would exceed the " + percent(maxCorrelatedExposureBasisPoints)
+                                + "% concentration limit (" + maxExposure + ").",
+                        maxAllowableRisk.toBigDecimal());
             }
-
-            if (request.requestedAllocation().compareTo(portfolio.getTotalCurrentValue()) > 0) {
+            Money maxVolatility = totalCurrentValue.timesBasisPoints(maxVolatilityBasisPoints);
+            if (risk.volatility() > maxVolatility.toDouble()) {
                 return new CapitalVerificationResponse(ActionStatus.DENIED,
-                        "DENIED: Insufficient total capital in portfolio.", maxAllowableRisk);
+                        "DENIED: Portfolio volatility per session (" + amount(risk.volatility())
+                                + ") would exceed " + percent(maxVolatilityBasisPoints) + "% of total capital ("
+                                + maxVolatility + ").",
+                        maxAllowableRisk.toBigDecimal());
             }
+        }
 
-            return new CapitalVerificationResponse(ActionStatus.SUCCESS,
-                    "APPROVED: Trade allocation is within bounds. Initial capital firewalled.", maxAllowableRisk);
-        };
+        return new CapitalVerificationResponse(ActionStatus.SUCCESS,
+                "APPROVED: Trade allocation is within bounds. Initial capital firewalled.",
+                maxAllowableRisk.toBigDecimal());
+    }
+
+    private static String amount(double value) {
+        return String.format("%.2f", value);
+    }
+
+    /** Basis points as a percentage with two decimals: 1000 is "10.00". */
+    private static String percent(long basisPoints) {
+        long hundredths = basisPoints % 100;
+        return basisPoints / 100 + (hundredths < 10 ? ".0" : ".") + hundredths;
     }
 
     /**
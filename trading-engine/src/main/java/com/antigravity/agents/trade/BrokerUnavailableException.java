@@ -0,0 +1,11 @@
+package com.antigravity.agents.trade;
+
+/**
+ * Raised without a network call when the sandbox broker circuit is open.
+ */
+public class BrokerUnavailableException extends RuntimeException {
+
+    public BrokerUnavailableException(String message) {
+        super(message);
+    }
+}
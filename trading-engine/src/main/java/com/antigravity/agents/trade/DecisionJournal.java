@@ -0,0 +1,341 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.config.JournalProperties;
+import com.antigravity.journal.EventJournal;
+import com.antigravity.journal.JournalParticipant;
+import com.antigravity.journal.JournalRecord;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link TradeAgent}'s journaled progress through market health events: the
+ * decision made for each event, which events are fully handled, the next
+ * offset to consume per partition, and sandbox orders still awaiting the
+ * broker's answer.
+ *
+ * Events are keyed by where they were first published, taken from the
+ * original-topic headers on retry topic records, so a retried or redelivered
+ * event reuses its journaled decision instead of calling the model again,
+ * and an event already handled before a crash is not traded twice.
+ *
+ * Orders still unanswered at a restart stay pending, in later snapshots too,
+ * until {@link com.antigravity.agents.system.CdsReconciliationJob} has
+ * compared their user's account with the broker and resolves them.
+ */
+@Component
+public class DecisionJournal implements JournalParticipant {
+
+    private static final Logger log = LoggerFactory.getLogger(DecisionJournal.class);
+
+    record EventKey(String topic, int partition, long offset) {
+
+        static EventKey origin(ConsumerRecord<?, ?> record) {
+            Header topic = first(record, KafkaHeaders.ORIGINAL_TOPIC);
+            Header partition = first(record, KafkaHeaders.ORIGINAL_PARTITION);
+            Header offset = first(record, KafkaHeaders.ORIGINAL_OFFSET);
+            if (topic == null || partition == null || offset == null) {
+                return new EventKey(record.topic(), record.partition(), record.offset());
+            }
+            return new EventKey(new String(topic.value(), StandardCharsets.UTF_8),
+                    ByteBuffer.wrap(partition.value()).getInt(), ByteBuffer.wrap(offset.value()).getLong());
+        }
+
+        // Each retry hop may append its own original-* headers; the first names the source
+        private static Header first(ConsumerRecord<?, ?> record, String name) {
+            Iterator<Header> headers = record.headers().headers(name).iterator();
+            return headers.hasNext() ? headers.next() : null;
+        }
+
+        /** The event as topic-partition@offset. */
+        String id() {
+            return topic + "-" + partition + "@" + offset;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeUTF(topic);
+            out.writeInt(partition);
+            out.writeLong(offset);
+        }
+
+        static EventKey readFrom(DataInput in) throws IOException {
+            return new EventKey(in.readUTF(), in.readInt(), in.readLong());
+        }
+    }
+
+    private record PartitionKey(String topic, int partition) {
+    }
+
+    /** A decision made for an event; {@code trade} is null for a hold. */
+    public record Decided(TradeDecision trade) {
+    }
+
+    record PendingOrder(String userId, String symbol, String action, int quantity) {
+    }
+
+    private final EventJournal journal;
+
+    // Changed only inside journal.record, and read under their own monitor
+    private final Map<EventKey, Decided> decided = new HashMap<>();
+    private final Map<EventKey, Boolean> completed;
+    private final Map<PartitionKey, Long> nextOffsets = new HashMap<>();
+    private final Map<Long, PendingOrder> pendingOrders = new LinkedHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong();
+    // Pending orders with ids up to this were sent before the last restart
+    private long recoveredOrderIds;
+
+    public DecisionJournal(EventJournal journal, JournalProperties properties, MeterRegistry meterRegistry) {
+        this.journal = journal;
+        int retained = properties.retainedEventKeys();
+        this.completed = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EventKey, Boolean> eldest) {
+                return size() > retained;
+            }
+        };
+        Gauge.builder("antigravity.journal.orders.unacknowledged", this, DecisionJournal::unacknowledgedOrders)
+                .description("Sandbox orders sent without a broker response yet")
+                .register(meterRegistry);
+    }
+
+    public boolean isCompleted(ConsumerRecord<?, ?> record) {
+        synchronized (this) {
+            return completed.containsKey(EventKey.origin(record));
+        }
+    }
+
+    /** The journaled decision for this event, or null if none was made yet. */
+    public Decided decided(ConsumerRecord<?, ?> record) {
+        synchronized (this) {
+            return decided.get(EventKey.origin(record));
+        }
+    }
+
+    public void recordDecision(ConsumerRecord<?, ?> record, TradeDecision trade) {
+        EventKey key = EventKey.origin(record);
+        journal.record(JournalRecord.Type.DECISION, out -> {
+            key.writeTo(out);
+            writeDecision(out, trade);
+        }, () -> applyDecision(key, trade));
+    }
+
+    /** Marks the event handled and its offset consumed, on whichever topic it was read from. */
+    public void recordCompleted(ConsumerRecord<?, ?> record) {
+        EventKey key = EventKey.origin(record);
+        EventKey consumed = new EventKey(record.topic(), record.partition(), record.offset());
+        journal.record(JournalRecord.Type.EVENT_COMPLETED, out -> {
+            key.writeTo(out);
+            consumed.writeTo(out);
+        }, () -> applyCompleted(key, consumed));
+    }
+
+    public long recordOrderSubmitted(String userId, String symbol, String action, int quantity) {
+        long orderId = orderIds.incrementAndGet();
+        PendingOrder order = new PendingOrder(userId, symbol, action, quantity);
+        journal.record(JournalRecord.Type.ORDER_SUBMITTED, out -> {
+            out.writeLong(orderId);
+            out.writeUTF(userId);
+            out.writeUTF(symbol);
+            out.writeUTF(action);
+            out.writeInt(quantity);
+        }, () -> applyOrderSubmitted(orderId, order));
+        return orderId;
+    }
+
+    public void recordOrderAcknowledged(long orderId, boolean accepted) {
+        journal.record(JournalRecord.Type.ORDER_ACKNOWLEDGED, out -> {
+            out.writeLong(orderId);
+            out.writeBoolean(accepted);
+        }, () -> applyOrderAcknowledged(orderId));
+    }
+
+    /**
+     * Where to resume consuming a partition, or null if nothing from it was
+     * journaled. Kafka's committed offset can trail this after a crash.
+     */
+    public Long resumeOffset(String topic, int partition) {
+        synchronized (this) {
+            return nextOffsets.get(new PartitionKey(topic, partition));
+        }
+    }
+
+    /**
+     * Resolves the user's orders that were sent before the last restart and
+     * never answered, once their account has been checked against the broker;
+     * {@code matched} is false when the check found drift. Orders sent since
+     * the restart are left to their own acknowledgement.
+     */
+    public void resolveRecoveredOrders(String userId, boolean matched) {
+        List<Long> orderIds = new ArrayList<>();
+        synchronized (this) {
+            pendingOrders.forEach((orderId, order) -> {
+                if (orderId <= recoveredOrderIds && order.userId().equals(userId)) {
+                    orderIds.add(orderId);
+                }
+            });
+        }
+        for (long orderId : orderIds) {
+            log.info("[DecisionJournal] Order {} for {} resolved by reconciliation (account {}).", orderId, userId,
+                    matched ? "matches the broker" : "drifted");
+            recordOrderAcknowledged(orderId, matched);
+        }
+    }
+
+    int unacknowledgedOrders() {
+        synchronized (this) {
+            return pendingOrders.size();
+        }
+    }
+
+    private synchronized void applyDecision(EventKey key, TradeDecision trade) {
+        decided.put(key, new Decided(trade));
+    }
+
+    private synchronized void applyCompleted(EventKey key, EventKey consumed) {
+        decided.remove(key);
+        completed.put(key, Boolean.TRUE);
+        nextOffsets.merge(new PartitionKey(consumed.topic(), consumed.partition()), consumed.offset() + 1,
+                Math::max);
+    }
+
+    private synchronized void applyOrderSubmitted(long orderId, PendingOrder order) {
+        orderIds.accumulateAndGet(orderId, Math::max);
+        pendingOrders.put(orderId, order);
+    }
+
+    private synchronized void applyOrderAcknowledged(long orderId) {
+        pendingOrders.remove(orderId);
+    }
+
+    @Override
+    public String journalName() {
+        return "trade.decisions";
+    }
+
+    @Override
+    public synchronized void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(decided.size());
+        for (Map.Entry<EventKey, Decided> entry : decided.entrySet()) {
+            entry.getKey().writeTo(out);
+            writeDecision(out, entry.getValue().trade());
+        }
+        out.writeInt(completed.size());
+        for (EventKey key : completed.keySet()) {
+            key.writeTo(out);
+        }
+        out.writeInt(nextOffsets.size());
+        for (Map.Entry<PartitionKey, Long> entry : nextOffsets.entrySet()) {
+            out.writeUTF(entry.getKey().topic());
+            out.writeInt(entry.getKey().partition());
+            out.writeLong(entry.getValue());
+        }
+        out.writeLong(orderIds.get());
+        out.writeInt(pendingOrders.size());
+        for (Map.Entry<Long, PendingOrder> entry : pendingOrders.entrySet()) {
+            out.writeLong(entry.getKey());
+            out.writeUTF(entry.getValue().userId());
+            out.writeUTF(entry.getValue().symbol());
+            out.writeUTF(entry.getValue().action());
+            out.writeInt(entry.getValue().quantity());
+        }
+    }
+
+    @Override
+    public synchronized void readSnapshot(DataInput in) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            decided.put(EventKey.readFrom(in), new Decided(readDecision(in)));
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            completed.put(EventKey.readFrom(in), Boolean.TRUE);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            nextOffsets.put(new PartitionKey(in.readUTF(), in.readInt()), in.readLong());
+        }
+        orderIds.set(in.readLong());
+        for (int i = in.readInt(); i > 0; i--) {
+            pendingOrders.put(in.readLong(), new PendingOrder(in.readUTF(), in.readUTF(), in.readUTF(), in.readInt()));
+        }
+    }
+
+    @Override
+    public void replay(JournalRecord.Type type, DataInput payload) throws IOException {
+        switch (type) {
+            case DECISION -> applyDecision(EventKey.readFrom(payload), readDecision(payload));
+            case EVENT_COMPLETED -> applyCompleted(EventKey.readFrom(payload), EventKey.readFrom(payload));
+            case ORDER_SUBMITTED -> applyOrderSubmitted(payload.readLong(),
+                    new PendingOrder(payload.readUTF(), payload.readUTF(), payload.readUTF(), payload.readInt()));
+            case ORDER_ACKNOWLEDGED -> applyOrderAcknowledged(payload.readLong());
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public synchronized void recovered() {
+        log.info("[DecisionJournal] {} decided events awaiting execution; {} partitions with journaled offsets.",
+                decided.size(), nextOffsets.size());
+        // Orders are not idempotent on the broker, so these are kept for reconciliation, not resent
+        pendingOrders.forEach((orderId, order) -> log.warn(
+                "[DecisionJournal] Order {} ({} {} {} for {}) was sent before the restart with no broker response.",
+                orderId, order.action(), order.quantity(), order.symbol(), order.userId()));
+        recoveredOrderIds = orderIds.get();
+    }
+
+    private static void writeDecision(DataOutput out, TradeDecision trade) throws IOException {
+        out.writeBoolean(trade != null);
+        if (trade == null) {
+            return;
+        }
+        writeNullable(out, trade.assetId());
+        writeNullable(out, trade.action());
+        writeNullable(out, trade.amountAllocated() == null ? null : trade.amountAllocated().toPlainString());
+        writeNullable(out, trade.executionPrice() == null ? null : trade.executionPrice().toPlainString());
+        writeNullable(out, trade.strategyUsed());
+        writeNullable(out, trade.cvarExposure() == null ? null : trade.cvarExposure().toPlainString());
+    }
+
+    private static TradeDecision readDecision(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String assetId = readNullable(in);
+        String action = readNullable(in);
+        String amount = readNullable(in);
+        String price = readNullable(in);
+        String strategy = readNullable(in);
+        String cvar = readNullable(in);
+        return new TradeDecision(assetId, action, amount == null ? null : new BigDecimal(amount),
+                price == null ? null : new BigDecimal(price), strategy, cvar == null ? null : new BigDecimal(cvar));
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
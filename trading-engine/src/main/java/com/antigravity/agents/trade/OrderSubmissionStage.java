@@ -0,0 +1,242 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.trade.SandboxBrokerClient.OrderRequest;
+import com.antigravity.agents.trade.SandboxBrokerClient.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batches outgoing sandbox orders. Orders arriving within one batch
+ * window are netted per user and symbol, so opposing orders cancel before
+ * reaching the broker, and the survivors are sent in a single bulk request.
+ * Brokers without a bulk route fall back to concurrent single-order requests.
+ * Orders go out as market orders: TradeLedger books each order's full
+ * quantity when it is decided, so it cannot yet follow a resting or partly
+ * filled limit order.
+ */
+@Component
+public class OrderSubmissionStage {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSubmissionStage.class);
+
+    public record OrderIntent(String userId, String symbol, String action, int quantity, BigDecimal price) {
+
+        int signedQuantity() {
+            return "SELL".equalsIgnoreCase(action) ? -quantity : quantity;
+        }
+    }
+
+    private record Pending(OrderIntent intent, CompletableFuture<OrderResponse> result) {
+    }
+
+    private record NetKey(String userId, String symbol) {
+    }
+
+    private final SandboxBrokerClient client;
+    private final long batchWindowMs;
+    private final int maxBatchSize;
+    private final int fallbackConcurrency;
+    private final Scheduler scheduler = Schedulers.newSingle("order-batcher");
+    private final DistributionSummary batchSize;
+    private final Counter nettedOrders;
+    private final DistributionSummary fillRatio;
+    private final DistributionSummary slippage;
+
+    private final Object lock = new Object();
+    private List<Pending> window = new ArrayList<>();
+    private Disposable scheduledFlush;
+    private volatile boolean bulkSupported;
+
+    public OrderSubmissionStage(SandboxBrokerClient client, MeterRegistry meterRegistry,
+            @Value("${antigravity.trade.orders.batch-window-ms:5}") long batchWindowMs,
+            @Value("${antigravity.trade.orders.max-batch-size:50}") int maxBatchSize,
+            @Value("${antigravity.trade.orders.bulk-enabled:true}") boolean bulkEnabled,
+            @Value("${antigravity.trade.orders.fallback-concurrency:8}") int fallbackConcurrency) {
+        this.client = client;
+        this.batchWindowMs = batchWindowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.bulkSupported = bulkEnabled;
+        this.fallbackConcurrency = fallbackConcurrency;
+        this.batchSize = DistributionSummary.builder("antigravity.trade.orders.batch.size")
+                .description("Orders sent to the broker per flushed batch, after netting")
+                .register(meterRegistry);
+        this.nettedOrders = Counter.builder("antigravity.trade.orders.netted")
+                .description("Submitted orders absorbed by netting against opposing orders")
+                .register(meterRegistry);
+        this.fillRatio = DistributionSummary.builder("antigravity.trade.orders.fill.ratio")
+                .description("Filled share of each broker order's quantity")
+                .register(meterRegistry);
+        this.slippage = DistributionSummary.builder("antigravity.trade.orders.slippage")
+                .description("Average fill price versus the order's price; positive is worse")
+                .baseUnit("bps")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an order for the current batch window. The future completes with
+     * the broker's response for the net order this intent was folded into.
+     */
+    public CompletableFuture<OrderResponse> submit(OrderIntent intent) {
+        Pending pending = new Pending(intent, new CompletableFuture<>());
+        List<Pending> full = null;
+        synchronized (lock) {
+            window.add(pending);
+            if (window.size() >= maxBatchSize) {
+                full = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, batchWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return pending.result();
+    }
+
+    void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        dispatch(batch);
+    }
+
+    private List<Pending> drain() {
+        List<Pending> batch = window;
+        window = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<NetKey, List<Pending>> groups = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            groups.computeIfAbsent(new NetKey(pending.intent().userId(), pending.intent().symbol()),
+                    key -> new ArrayList<>()).add(pending);
+        }
+
+        List<OrderRequest> orders = new ArrayList<>();
+        List<List<Pending>> owners = new ArrayList<>();
+        for (Map.Entry<NetKey, List<Pending>> group : groups.entrySet()) {
+            OrderRequest net = net(group.getKey(), group.getValue());
+            if (net == null) {
+                OrderResponse flat = new OrderResponse(true, null, "Netted to zero against opposing orders.");
+                group.getValue().forEach(p -> p.result().complete(flat));
+                nettedOrders.increment(group.getValue().size());
+                continue;
+            }
+            nettedOrders.increment(group.getValue().size() - 1);
+            orders.add(net);
+            owners.add(group.getValue());
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+        batchSize.record(orders.size());
+        log.debug("[OrderSubmissionStage] Flushing {} submitted orders as {} broker orders", batch.size(),
+                orders.size());
+
+        send(orders).subscribe(
+                responses -> {
+                    for (int i = 0; i < owners.size(); i++) {
+                        OrderResponse response = i < responses.size() ? responses.get(i)
+                                : new OrderResponse(false, null, "Missing bulk response entry.");
+                        recordExecution(response);
+                        owners.get(i).forEach(p -> p.result().complete(response));
+                    }
+                },
+                error -> {
+                    log.error("[OrderSubmissionStage] Batch submission failed: {}", error.getMessage());
+                    owners.forEach(group -> group.forEach(p -> p.result().completeExceptionally(error)));
+                });
+    }
+
+    /**
+     * Folds a user's orders on one symbol into a single order, or null when
+     * they cancel out. The net order takes the price of the latest order on
+     * the winning side.
+     */
+    private OrderRequest net(NetKey key, List<Pending> group) {
+        int net = 0;
+        for (Pending pending : group) {
+            net += pending.intent().signedQuantity();
+        }
+        if (net == 0) {
+            return null;
+        }
+        String side = net > 0 ? "BUY" : "SELL";
+        BigDecimal price = null;
+        for (Pending pending : group) {
+            if (side.equalsIgnoreCase(pending.intent().action())) {
+                price = pending.intent().price();
+            }
+        }
+        return OrderRequest.market(key.userId(), key.symbol(), side, Math.abs(net), price);
+    }
+
+    private void recordExecution(OrderResponse response) {
+        Double ratio = response.fillRatio();
+        if (ratio != null) {
+            fillRatio.record(ratio);
+        }
+        Double bps = response.slippageBps();
+        if (bps != null) {
+            slippage.record(bps);
+        }
+    }
+
+    private Mono<List<OrderResponse>> send(List<OrderRequest> orders) {
+        if (orders.size() == 1 || !bulkSupported) {
+            return sendEach(orders);
+        }
+        return client.placeOrdersBulkAsync(orders)
+                .onErrorResume(SandboxBrokerClient::isBulkUnsupported, e -> {
+                    log.warn("[OrderSubmissionStage] Broker has no bulk order route; falling back to single orders.");
+                    bulkSupported = false;
+                    return sendEach(orders);
+                });
+    }
+
+    private Mono<List<OrderResponse>> sendEach(List<OrderRequest> orders) {
+        return Flux.fromIterable(orders)
+                .flatMapSequential(order -> client.placeOrderAsync(order)
+                        .onErrorResume(e -> Mono.just(new OrderResponse(false, null, e.getMessage()))),
+                        fallbackConcurrency)
+                .collectList();
+    }
+
+    boolean isBulkSupported() {
+        return bulkSupported;
+    }
+
+    @PreDestroy
+    void close() {
+        flush();
+        scheduler.dispose();
+    }
+}
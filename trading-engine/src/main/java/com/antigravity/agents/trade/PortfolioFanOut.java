@@ -0,0 +1,195 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.system.BrokerBalanceCache;
+import com.antigravity.agents.system.PortfolioIndex;
+import com.antigravity.agents.system.SystemAgentTools;
+import com.antigravity.agents.system.SystemAgentTools.CapitalVerificationResponse;
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.config.CorrelationRiskProperties;
+import com.antigravity.models.ActionStatus;
+import com.antigravity.models.Money;
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.CorrelationMatrix.Holding;
+import com.antigravity.risk.CorrelationMatrix.PortfolioRisk;
+import com.antigravity.risk.PositionSizer;
+import com.antigravity.risk.PositionSizer.Sizing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Turns one market decision into per-user trades. Each indexed portfolio gets
+ * its own size and its own capital check against the {@link PortfolioIndex},
+ * so no model call or database read is made per user. Buys are sized by the
+ * {@link PositionSizer} against the user's holdings; sells, and buys of an
+ * asset without enough price history, take the market allocation. Either way
+ * the size is capped by a share of the portfolio and by the user's CVaR
+ * budget.
+ * Buys are also held to the portfolio-level concentration and volatility
+ * limits, priced from the user's holdings and the {@link CorrelationMatrix}.
+ * Per-user arithmetic is fixed point ({@link Money}); large user sets are
+ * evaluated in parallel on a dedicated pool.
+ */
+@Component
+public class PortfolioFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioFanOut.class);
+
+    public record UserTrade(String userId, TradeDecision trade) {
+    }
+
+    public record Result(List<UserTrade> approved, int evaluated, long durationNanos) {
+
+        public double decisionsPerSecond() {
+            return durationNanos == 0 ? 0 : evaluated * 1e9 / durationNanos;
+        }
+    }
+
+    private final PortfolioIndex portfolioIndex;
+    private final BrokerBalanceCache brokerBalanceCache;
+    private final CorrelationMatrix correlations;
+    private final PositionSizer positionSizer;
+    private final long maxCorrelatedExposureBasisPoints;
+    private final long maxVolatilityBasisPoints;
+    private final long cvarThresholdBasisPoints;
+    private final long maxPositionBasisPoints;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    private final Timer fanOutTimer;
+    private final Counter approvedCounter;
+    private final Counter deniedCounter;
+    private volatile double lastDecisionsPerSecond;
+
+    public PortfolioFanOut(PortfolioIndex portfolioIndex, BrokerBalanceCache brokerBalanceCache,
+            CorrelationMatrix correlations, PositionSizer positionSizer, CorrelationRiskProperties riskProperties,
+            MeterRegistry meterRegistry,
+            @Value("${antigravity.risk.cvar-threshold-percentage:0.10}") BigDecimal cvarThresholdPercentage,
+            @Value("${antigravity.trade.fanout.max-position-fraction:0.05}") BigDecimal maxPositionFraction,
+            @Value("${antigravity.trade.fanout.parallelism:0}") int parallelism,
+            @Value("${antigravity.trade.fanout.parallel-threshold:256}") int parallelThreshold) {
+        this.portfolioIndex = portfolioIndex;
+        this.brokerBalanceCache = brokerBalanceCache;
+        this.correlations = correlations;
+        this.positionSizer = positionSizer;
+        this.maxCorrelatedExposureBasisPoints = Money.basisPoints(riskProperties.maxCorrelatedExposureFraction());
+        this.maxVolatilityBasisPoints = Money.basisPoints(riskProperties.maxVolatilityFraction());
+        this.cvarThresholdBasisPoints = Money.basisPoints(cvarThresholdPercentage);
+        this.maxPositionBasisPoints = Money.basisPoints(maxPositionFraction);
+        this.parallelThreshold = parallelThreshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.fanOutTimer = Timer.builder("antigravity.trade.fanout.duration")
+                .description("Time to size and capital-check one market decision for every user")
+                .register(meterRegistry);
+        this.approvedCounter = meterRegistry.counter("antigravity.trade.fanout.user.decisions", "outcome", "approved");
+        this.deniedCounter = meterRegistry.counter("antigravity.trade.fanout.user.decisions", "outcome", "denied");
+        Gauge.builder("antigravity.trade.fanout.user.decisions.rate", this, f -> f.lastDecisionsPerSecond)
+                .description("User decisions per second over the most recent fan-out")
+                .baseUnit("decisions/s")
+                .register(meterRegistry);
+    }
+
+    public Result allocate(TradeDecision market) {
+        long start = System.nanoTime();
+        MarketTerms terms = MarketTerms.of(market);
+        List<PortfolioIndex.Entry> users = List.copyOf(portfolioIndex.entries());
+        List<UserTrade> approved = users.size() < parallelThreshold
+                ? size(users.stream(), terms)
+                : pool.submit(() -> size(users.parallelStream(), terms)).join();
+        long duration = System.nanoTime() - start;
+
+        fanOutTimer.record(duration, TimeUnit.NANOSECONDS);
+        approvedCounter.increment(approved.size());
+        deniedCounter.increment(users.size() - approved.size());
+        Result result = new Result(approved, users.size(), duration);
+        lastDecisionsPerSecond = result.decisionsPerSecond();
+        log.info("[PortfolioFanOut] {} {}: {}/{} users approved in {} µs ({} user-decisions/s)",
+                market.action(), market.assetId(), approved.size(), users.size(),
+                TimeUnit.NANOSECONDS.toMicros(duration), Math.round(result.decisionsPerSecond()));
+        return result;
+    }
+
+    /**
+     * The market decision converted to fixed point once per event.
+     *
+     * @param riskBasisPoints CVaR per unit allocated, as estimated for the market
+     *                        decision; without an estimate the whole allocation
+     *                        is treated as at risk
+     */
+    private record MarketTerms(TradeDecision decision, Money allocation, Money price, long riskBasisPoints,
+            boolean buy) {
+
+        static MarketTerms of(TradeDecision decision) {
+            Money allocation = Money.of(decision.amountAllocated());
+            long risk = decision.cvarExposure() == null || allocation.signum() <= 0
+                    ? 10_000
+                    : Money.of(decision.cvarExposure()).abs().basisPointsOf(allocation);
+            return new MarketTerms(decision, allocation, Money.of(decision.executionPrice()), risk,
+                    "BUY".equalsIgnoreCase(decision.action()));
+        }
+    }
+
+    private List<UserTrade> size(Stream<PortfolioIndex.Entry> users, MarketTerms market) {
+        return users.map(user -> sizeFor(user, market)).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * The user's trade, or null when nothing can be placed for them.
+     */
+    private UserTrade sizeFor(PortfolioIndex.Entry user, MarketTerms market) {
+        String assetId = market.decision().assetId();
+        Money maxPosition = user.totalCurrentValue().timesBasisPoints(maxPositionBasisPoints);
+        Money riskBudget = user.accumulatedProfit().timesBasisPoints(cvarThresholdBasisPoints);
+        List<Holding> holdings = market.buy() ? portfolioIndex.holdings(user.userId()) : null;
+        Money allocation = market.allocation();
+        long riskBasisPoints = market.riskBasisPoints();
+        Sizing sizing = market.buy()
+                ? positionSizer.size(holdings, assetId, maxPosition.toDouble(), riskBudget.toDouble(),
+                        riskBasisPoints / 10_000.0, user.totalCurrentValue().toDouble())
+                : null;
+        if (sizing != null) {
+            allocation = Money.of(BigDecimal.valueOf(sizing.amount()));
+            riskBasisPoints = (long) Math.ceil(sizing.cvarRate() * 10_000);
+        }
+        allocation = allocation.min(maxPosition);
+        if (riskBasisPoints > 0) {
+            allocation = allocation.min(riskBudget.dividedByBasisPoints(riskBasisPoints));
+        }
+        if (allocation.isLessThan(market.price())) {
+            // Less than one unit; the capital check would pass an order the broker never sees.
+            return null;
+        }
+        Money cvarExposure = allocation.timesBasisPoints(riskBasisPoints);
+        PortfolioRisk risk = market.buy() ? correlations.assess(holdings, assetId, allocation.toDouble()) : null;
+
+        CapitalVerificationResponse verification = SystemAgentTools.checkCapital(allocation, cvarExposure,
+                user.accumulatedProfit(), user.totalCurrentValue(), brokerBalanceCache.freshCash(user.userId()),
+                cvarThresholdBasisPoints, risk, maxCorrelatedExposureBasisPoints, maxVolatilityBasisPoints);
+        if (verification.status() != ActionStatus.SUCCESS) {
+            log.debug("[PortfolioFanOut] {}: {}", user.userId(), verification.message());
+            return null;
+        }
+        TradeDecision decision = market.decision();
+        return new UserTrade(user.userId(), new TradeDecision(decision.assetId(), decision.action(),
+                allocation.toBigDecimal(), decision.executionPrice(), decision.strategyUsed(),
+                cvarExposure.toBigDecimal()));
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdown();
+    }
+}
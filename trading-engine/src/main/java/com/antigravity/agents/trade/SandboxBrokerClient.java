@@ -1,84 +1,263 @@
 package com.antigravity.agents.trade;
 
+import com.antigravity.config.SandboxBrokerProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Sandbox broker API client. Calls go through a dedicated, bounded Reactor
+ * Netty connection pool with per-operation timeouts and a circuit breaker, so
+ * a stalled broker fails callers fast instead of pinning threads. Balance
+ * reads are idempotent and are additionally hedged and retried; orders are
+ * sent exactly once.
+ */
 @Service
 public class SandboxBrokerClient {
 
     private static final Logger log = LoggerFactory.getLogger(SandboxBrokerClient.class);
     private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final SandboxBrokerProperties properties;
+    private final BrokerCircuitBreaker circuitBreaker;
 
-    @Value("${antigravity.api.sandbox.broker.url}")
-    private String sandboxBrokerUrl;
-
-    public SandboxBrokerClient(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.build();
+    public SandboxBrokerClient(WebClient.Builder webClientBuilder, SandboxBrokerProperties properties) {
+        this.properties = properties;
+        SandboxBrokerProperties.Pool pool = properties.pool();
+        this.connectionProvider = ConnectionProvider.builder("sandbox-broker")
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                .maxIdleTime(pool.maxIdleTime())
+                .evictInBackground(pool.maxIdleTime())
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.timeouts().connect().toMillis())
+                // Backstop only; each operation applies its own, tighter timeout.
+                .responseTimeout(properties.timeouts().order());
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(properties.url())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.circuitBreaker = new BrokerCircuitBreaker(properties.breaker().failureThreshold(),
+                properties.breaker().openDuration());
     }
 
+    /**
+     * @param condition {@code market}, {@code limit} (rests until filled or
+     *                  cancelled) or {@code ioc} (fills what it can at the
+     *                  limit price, cancels the rest)
+     * @param accountId CDS account the order is booked against; null leaves it
+     *                  to the sandbox's default account
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public record OrderRequest(
             String symbol,
             @JsonProperty("order_type") String orderType,
             int quantity,
             BigDecimal price,
-            String condition) {
+            String condition,
+            @JsonProperty("account_id") String accountId) {
+
+        public static final String MARKET = "market";
+        public static final String LIMIT = "limit";
+        public static final String IMMEDIATE_OR_CANCEL = "ioc";
+
+        public static OrderRequest market(String accountId, String symbol, String action, int quantity,
+                BigDecimal price) {
+            return of(MARKET, accountId, symbol, action, quantity, price);
+        }
+
+        public static OrderRequest of(String condition, String accountId, String symbol, String action,
+                int quantity, BigDecimal price) {
+            return new OrderRequest(
+                    symbol,
+                    action.toLowerCase(), // buy or sell
+                    quantity,
+                    price,
+                    condition,
+                    accountId);
+        }
     }
 
     public record OrderResponse(
             boolean success,
             Map<String, Object> order,
             String message) {
+
+        /**
+         * Whether the order was filled in full. Resting, partly filled and
+         * cancelled orders are not; a broker that reports no status is taken
+         * at its success flag.
+         */
+        public boolean filled() {
+            Object status = field("status");
+            return success && (status == null || "filled".equals(status));
+        }
+
+        /** Filled share of the order's quantity, or null when the broker reports no fills. */
+        public Double fillRatio() {
+            if (field("quantity") instanceof Number quantity && field("filled_quantity") instanceof Number filled
+                    && quantity.doubleValue() > 0) {
+                return filled.doubleValue() / quantity.doubleValue();
+            }
+            return null;
+        }
+
+        /** Average fill price against the order's price, or null when not reported; positive is worse. */
+        public Double slippageBps() {
+            return field("slippage_bps") instanceof Number slippage ? slippage.doubleValue() : null;
+        }
+
+        private Object field(String name) {
+            return order == null ? null : order.get(name);
+        }
     }
 
     public OrderResponse placeOrder(String symbol, String action, int quantity, BigDecimal price) {
         log.info("[SandboxBrokerClient] Placing {} order for {} units of {} at {} in sandbox",
                 action, quantity, symbol, price);
 
-        OrderRequest request = new OrderRequest(
-                symbol,
-                action.toLowerCase(), // buy or sell
-                quantity,
-                price,
-                "market" // Default to market for now as per v1 logic
-        );
-
-        try {
-            return webClient.post()
-                    .uri(sandboxBrokerUrl + "/orders")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(OrderResponse.class)
-                    .block();
-        } catch (Exception e) {
-            log.error("[SandboxBrokerClient] Failed to place order in sandbox: {}", e.getMessage());
-            return new OrderResponse(false, null, e.getMessage());
-        }
+        return placeOrderAsync(symbol, action, quantity, price)
+                .onErrorResume(e -> {
+                    log.error("[SandboxBrokerClient] Failed to place order in sandbox: {}", e.getMessage());
+                    return Mono.just(new OrderResponse(false, null, e.getMessage()));
+                })
+                .block();
+    }
+
+    /**
+     * Submits an order. Orders are not idempotent on the sandbox API, so they
+     * are never retried or hedged; errors are surfaced to the caller.
+     */
+    public Mono<OrderResponse> placeOrderAsync(String symbol, String action, int quantity, BigDecimal price) {
+        return placeOrderAsync(OrderRequest.market(null, symbol, action, quantity, price));
+    }
+
+    public Mono<OrderResponse> placeOrderAsync(OrderRequest request) {
+        return guarded(webClient.post()
+                .uri("/orders")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(OrderResponse.class)
+                .timeout(properties.timeouts().order()));
+    }
+
+    /**
+     * Submits several orders in one round trip via POST /orders/bulk. The
+     * response list is positionally aligned with the request list. Brokers
+     * without a bulk route answer 404/405/501; see {@link #isBulkUnsupported}.
+     */
+    public Mono<List<OrderResponse>> placeOrdersBulkAsync(List<OrderRequest> requests) {
+        return guarded(webClient.post()
+                .uri("/orders/bulk")
+                .bodyValue(requests)
+                .retrieve()
+                .bodyToFlux(OrderResponse.class)
+                .collectList()
+                .timeout(properties.timeouts().order()));
+    }
+
+    public static boolean isBulkUnsupported(Throwable error) {
+        return error instanceof WebClientResponseException response
+                && (response.getStatusCode().value() == 404
+                        || response.getStatusCode().value() == 405
+                        || response.getStatusCode().value() == 501);
     }
 
     public BigDecimal getAccountBalance(String userId) {
-        // userId is ignored for now as sandbox uses account_id from context/queries
-        // But we want to sync the CDS balance with our system.
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = webClient.get()
-                    .uri(sandboxBrokerUrl + "/account/balance")
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-
-            if (response != null && response.containsKey("balance")) {
-                return new BigDecimal(response.get("balance").toString());
+        return getAccountBalanceAsync(userId)
+                .onErrorResume(e -> {
+                    log.error("[SandboxBrokerClient] Failed to fetch account balance: {}", e.getMessage());
+                    return Mono.just(BigDecimal.ZERO);
+                })
+                .block();
+    }
+
+    /**
+     * Reads the CDS cash balance. If the first read has not answered within
+     * the hedge delay a second one is raced against it; transient failures are
+     * retried with backoff, all within the overall read deadline.
+     */
+    public Mono<BigDecimal> getAccountBalanceAsync(String userId) {
+        // The sandbox resolves the CDS account from the account_id query parameter.
+        Mono<BigDecimal> read = guarded(webClient.get()
+                .uri(uri -> uri.path("/account/balance").queryParam("account_id", userId).build())
+                .retrieve()
+                .bodyToMono(Map.class)
+                .timeout(properties.timeouts().read())
+                .map(response -> response.containsKey("balance")
+                        ? new BigDecimal(response.get("balance").toString())
+                        : BigDecimal.ZERO));
+
+        Mono<BigDecimal> hedged = properties.hedge().enabled()
+                ? Mono.firstWithValue(read, read.delaySubscription(properties.hedge().delay()))
+                : read;
+
+        return hedged
+                .retryWhen(Retry.backoff(properties.retries().maxAttempts(), properties.retries().backoff())
+                        .filter(SandboxBrokerClient::isRetryable)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .timeout(properties.timeouts().readDeadline());
+    }
+
+    BrokerCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.state();
+    }
+
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new BrokerUnavailableException("Sandbox broker circuit is open."));
             }
-        } catch (Exception e) {
-            log.error("[SandboxBrokerClient] Failed to fetch account balance: {}", e.getMessage());
+            return call
+                    .doOnSuccess(value -> circuitBreaker.onSuccess())
+                    .doOnError(this::recordFailure)
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    private void recordFailure(Throwable error) {
+        // A 4xx means the broker is up and rejected the request; that is not an outage.
+        if (error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            circuitBreaker.onSuccess();
+        } else {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error.getSuppressed().length > 0) {
+            // Mono.firstWithValue reports each failed hedge as a suppressed exception.
+            return Arrays.stream(error.getSuppressed()).anyMatch(SandboxBrokerClient::isRetryable);
+        }
+        if (error instanceof BrokerUnavailableException) {
+            return false;
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
         }
-        return BigDecimal.ZERO;
+        return true;
+    }
+
+    @PreDestroy
+    void close() {
+        connectionProvider.dispose();
     }
 }
@@ -1,102 +1,332 @@
 package com.antigravity.agents.trade;
 
+import com.antigravity.agents.AgentPrompt;
 import com.antigravity.agents.BaseAgent;
 import com.antigravity.config.KafkaConfig;
-import com.antigravity.models.Trade;
-import com.antigravity.models.TradeRepository;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.MarketHealthEvent;
+import com.antigravity.models.Money;
+import com.antigravity.tracing.LatencyTraceCollector;
+import com.antigravity.tracing.TokenUsageRecorder;
+import com.antigravity.tracing.TraceContext;
+import com.antigravity.tracing.TraceStage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Service
-public class TradeAgent extends BaseAgent {
+public class TradeAgent extends BaseAgent implements ConsumerSeekAware {
 
     private static final Logger log = LoggerFactory.getLogger(TradeAgent.class);
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final TradeRepository tradeRepository;
-    private final SandboxBrokerClient sandboxBrokerClient;
 
-    public TradeAgent(ChatClient.Builder chatClientBuilder, KafkaTemplate<String, String> kafkaTemplate,
-            TradeRepository tradeRepository, SandboxBrokerClient sandboxBrokerClient) {
+    private static final String SYSTEM_PROMPT = """
+            You are the Antigravity Trade Agent.
+            A market health event has just occurred. You represent the core strategy execution for LocalMarket assets.
+            You are strictly forbidden from placing a trade without FIRST invoking the verifyCapitalConstraint tool.
+            If the verification tool denies the allocation, you MUST output a log explaining the denial and abort.
+            If approved, decide on the appropriate trade details.
+            """;
+
+    // Building the converter derives a JSON schema by reflection, so it and the
+    // format-bearing system text are built once rather than per event.
+    private final BeanOutputConverter<TradeDecision> converter = new BeanOutputConverter<>(TradeDecision.class);
+    private final AgentPrompt prompt = AgentPrompt.of(SYSTEM_PROMPT + "\n\n" + converter.getFormat(),
+            MAX_PAYLOAD_CHARS,
+            "asset_id", "timestamp", "volatility_score", "trend", "anomaly_detected", "recommended_strategy",
+            "confidence", "last_price");
+
+    private final TradeLedger tradeLedger;
+    private final OrderSubmissionStage orderSubmissionStage;
+    private final TradeDecisionEngine decisionEngine;
+    private final PortfolioFanOut portfolioFanOut;
+    private final LatencyTraceCollector latencyTraceCollector;
+    private final DecisionJournal decisionJournal;
+
+    public TradeAgent(ChatClient.Builder chatClientBuilder, TradeLedger tradeLedger,
+            OrderSubmissionStage orderSubmissionStage, TradeDecisionEngine decisionEngine,
+            PortfolioFanOut portfolioFanOut, LatencyTraceCollector latencyTraceCollector,
+            TokenUsageRecorder tokenUsageRecorder, DecisionJournal decisionJournal) {
         // Trade Agent specifically requires function calling capabilities bound to
         // 'VerifyCapitalConstraint'
-        super(chatClientBuilder.defaultFunctions("verifyCapitalConstraint"), "TradeAgent");
-        this.kafkaTemplate = kafkaTemplate;
-        this.tradeRepository = tradeRepository;
-        this.sandboxBrokerClient = sandboxBrokerClient;
+        super(chatClientBuilder.defaultFunctions("verifyCapitalConstraint"), "TradeAgent", tokenUsageRecorder);
+        this.tradeLedger = tradeLedger;
+        this.orderSubmissionStage = orderSubmissionStage;
+        this.decisionEngine = decisionEngine;
+        this.portfolioFanOut = portfolioFanOut;
+        this.latencyTraceCollector = latencyTraceCollector;
+        this.decisionJournal = decisionJournal;
     }
 
     public record TradeDecision(String assetId, String action, BigDecimal amountAllocated, BigDecimal executionPrice,
             String strategyUsed, BigDecimal cvarExposure) {
     }
 
+    /**
+     * A failure (model or database unavailable) moves the event onto the next
+     * retry topic with exponential back-off, so the main partition keeps
+     * flowing. Undecodable payloads and rejected model calls cannot succeed on
+     * retry and go straight to market.analysis.health-dlt.
+     *
+     * Events the journal shows as handled before a restart are skipped, and
+     * an event decided before a restart or a failure is executed with its
+     * journaled decision.
+     */
+    @RetryableTopic(
+            attempts = "${antigravity.kafka.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${antigravity.kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${antigravity.kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${antigravity.kafka.retry.max-delay-ms:30000}"),
+            numPartitions = "3",
+            replicationFactor = "1",
+            retryTopicSuffix = KafkaConfig.RETRY_TOPIC_SUFFIX,
+            dltTopicSuffix = KafkaConfig.DLT_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            exclude = { IllegalArgumentException.class, NonTransientAiException.class },
+            traversingCauses = "true")
     @KafkaListener(topics = KafkaConfig.TOPIC_MARKET_HEALTH, groupId = "antigravity-agents")
+    public void onMarketEvent(ConsumerRecord<String, byte[]> record) {
+        if (decisionJournal.isCompleted(record)) {
+            log.info("[TradeAgent] Market event {}-{}@{} was handled before a restart; skipping.", record.topic(),
+                    record.partition(), record.offset());
+            decisionJournal.recordCompleted(record);
+            return;
+        }
+        TraceContext trace = TraceContext.fromHeaders(record.headers());
+        if (!EventCodec.isEncoded(record.value())) {
+            // Published before market health went binary.
+            String json = new String(record.value(), StandardCharsets.UTF_8);
+            process(json, trace, record, () -> decisionEngine.decide(json), () -> prompt.compact(json));
+            return;
+        }
+        MarketHealthEvent event = EventCodec.decodeMarketHealth(record.value());
+        process(event, trace, record, () -> decisionEngine.decide(event), () -> prompt.compact(event.toFields()));
+    }
+
+    /**
+     * Kafka's committed offset trails the journal when the engine stopped
+     * before committing; resuming from the journal avoids re-reading events
+     * that were already handled.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.forEach((partition, position) -> {
+            Long resume = decisionJournal.resumeOffset(partition.topic(), partition.partition());
+            if (resume != null && resume > position) {
+                log.info("[TradeAgent] Resuming {} at journaled offset {} (committed {}).", partition, resume,
+                        position);
+                callback.seek(partition.topic(), partition.partition(), resume);
+            }
+        });
+    }
+
+    @DltHandler
+    public void onMarketEventDeadLetter(ConsumerRecord<String, byte[]> record) {
+        Header reason = record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE);
+        log.error("[TradeAgent] Market health event for key={} dead-lettered: {}", record.key(),
+                reason == null ? "unknown" : new String(reason.value(), StandardCharsets.UTF_8));
+    }
+
     public void processMarketEvent(String marketHealthJson) {
-        log.info("[TradeAgent] Received Market Event: {}", marketHealthJson);
+        processMarketEvent(marketHealthJson, TraceContext.start());
+    }
+
+    public void processMarketEvent(String marketHealthJson, TraceContext trace) {
+        process(marketHealthJson, trace, null, () -> decisionEngine.decide(marketHealthJson),
+                () -> prompt.compact(marketHealthJson));
+    }
 
-        // Use Spring AI ChatClient to interpret the JSON event and decide to trade
-        String systemPrompt = """
-                You are the Antigravity Trade Agent.
-                A market health event has just occurred. You represent the core strategy execution for LocalMarket assets.
-                You are strictly forbidden from placing a trade without FIRST invoking the verifyCapitalConstraint tool.
-                If the verification tool denies the allocation, you MUST output a log explaining the denial and abort.
-                If approved, decide on the appropriate trade details.
-                """;
+    public void processMarketEvent(MarketHealthEvent event, TraceContext trace) {
+        process(event, trace, null, () -> decisionEngine.decide(event), () -> prompt.compact(event.toFields()));
+    }
 
-        BeanOutputConverter<TradeDecision> converter = new BeanOutputConverter<>(TradeDecision.class);
-        String formatRequired = converter.getFormat();
+    /**
+     * @param source the Kafka record the event came from, or null when it was
+     *               injected directly; only Kafka events are journaled
+     */
+    private void process(Object event, TraceContext trace, ConsumerRecord<?, ?> source,
+            Supplier<TradeDecisionEngine.Decision> rules, Supplier<String> modelInput) {
+        latencyTraceCollector.record(trace, TraceStage.MARKET_EVENT_RECEIVED);
+        log.info("[TradeAgent] Received Market Event traceId={}: {}", trace.getTraceId(), event);
 
         try {
-            String aiResponse = this.chatClient.prompt()
-                    .system(s -> s.text(systemPrompt + "\n\n{format}").param("format", formatRequired))
-                    .user("Market Event: \n" + marketHealthJson)
-                    .call()
-                    .content();
-
-            log.info("[TradeAgent] Reasoning completed. Parsing structured output if trade was approved.");
-
-            if (aiResponse != null && aiResponse.contains("assetId") && !aiResponse.contains("DENIED")) {
-                TradeDecision decision = converter.convert(aiResponse);
-
-                Trade tradeRecord = new Trade(
-                        "usr_001", // MVP: Single user system
-                        decision.assetId(),
-                        decision.action(),
-                        decision.amountAllocated(),
-                        decision.executionPrice(),
-                        decision.strategyUsed(),
-                        decision.cvarExposure());
-
-                tradeRepository.save(tradeRecord);
-
-                // Execute order in sandbox
-                int quantity = decision.amountAllocated()
-                        .divide(decision.executionPrice(), 0, RoundingMode.FLOOR)
-                        .intValue();
-
-                if (quantity > 0) {
-                    log.info("[TradeAgent] Executing sandbox order: {} {} units", decision.action(), quantity);
-                    sandboxBrokerClient.placeOrder(decision.assetId(), decision.action(), quantity,
-                            decision.executionPrice());
-                } else {
-                    log.warn("[TradeAgent] Calculated quantity is 0 for amount={}. Skipping sandbox execution.",
-                            decision.amountAllocated());
+            DecisionJournal.Decided journaled = source == null ? null : decisionJournal.decided(source);
+            TradeDecision decision;
+            String decidedBy;
+            if (journaled != null) {
+                log.info("[TradeAgent] Reusing the journaled decision for this event.");
+                decision = journaled.trade();
+                decidedBy = "journal";
+            } else {
+                TradeDecisionEngine.Decision fastPath = rules.get();
+                decision = switch (fastPath.outcome()) {
+                    case TRADE -> fastPath.trade();
+                    case HOLD -> null;
+                    case ESCALATE -> {
+                        log.info("[TradeAgent] Escalating to reasoning engine: {}", fastPath.reason());
+                        yield decideWithModel(modelInput.get());
+                    }
+                };
+                decidedBy = fastPath.outcome() == TradeDecisionEngine.Outcome.HOLD ? "rules" : "model";
+                if (source != null) {
+                    decisionJournal.recordDecision(source, decision);
                 }
+            }
+
+            latencyTraceCollector.record(trace, TraceStage.TRADE_DECIDED);
+
+            if (decision == null) {
+                log.warn("[TradeAgent] Non-trading decision reached via {}. Potentially bounded by Capital Constraint.",
+                        decidedBy);
+                completed(source);
+                return;
+            }
+            execute(decision, trace, source);
+            completed(source);
+
+        } catch (RuntimeException e) {
+            // No trade is placed; the listener's retry topics decide whether to try again.
+            log.error("[TradeAgent] Reasoning engine failed. Holding and handing the event back for retry: {}",
+                    e.getMessage());
+            throw e;
+        }
+    }
+
+    private void completed(ConsumerRecord<?, ?> source) {
+        if (source != null) {
+            decisionJournal.recordCompleted(source);
+        }
+    }
+
+    /**
+     * LLM fallback for events the rule engine will not decide. Approval is a
+     * response that parses into a complete TradeDecision; anything else (a denial
+     * explanation, partial JSON) is treated as a non-trading decision.
+     */
+    private TradeDecision decideWithModel(String compactMarketEvent) {
+        String aiResponse = reason(prompt, "Market Event: \n" + compactMarketEvent);
+        if (aiResponse == null) {
+            return null;
+        }
+        try {
+            TradeDecision decision = converter.convert(aiResponse);
+            if (decision == null || decision.assetId() == null || decision.action() == null
+                    || decision.amountAllocated() == null || decision.executionPrice() == null
+                    || decision.executionPrice().signum() <= 0) {
+                return null;
+            }
+            return decision;
+        } catch (RuntimeException e) {
+            log.debug("[TradeAgent] Model response is not a trade decision: {}", aiResponse);
+            return null;
+        }
+    }
 
-                kafkaTemplate.send(KafkaConfig.TOPIC_TRADE_LOGS, aiResponse);
-                log.info("[TradeAgent] Trade successfully persisted and broadcast to Kafka.");
+    /**
+     * The market decision is made once; every subscribed portfolio then gets
+     * its own size and capital check, and all resulting trades commit together.
+     *
+     * Trades are booked once per source event: a retried event books only the
+     * users it has not booked yet and sends orders for those alone. Nothing
+     * after the commit fails the event, since a retry could not undo it.
+     */
+    private void execute(TradeDecision decision, TraceContext trace, ConsumerRecord<?, ?> source) {
+        List<PortfolioFanOut.UserTrade> trades = new ArrayList<>();
+        for (PortfolioFanOut.UserTrade trade : portfolioFanOut.allocate(decision).approved()) {
+            if (quantityOf(trade.trade()) > Integer.MAX_VALUE) {
+                log.warn("[TradeAgent] Order for {} exceeds the broker's quantity range: amount={}, price={}. "
+                        + "Not booked.", trade.userId(), trade.trade().amountAllocated(),
+                        trade.trade().executionPrice());
             } else {
-                log.warn("[TradeAgent] Non-trading decision reached. Potentially bounded by Capital Constraint.");
+                trades.add(trade);
             }
+        }
+        if (trades.isEmpty()) {
+            log.warn("[TradeAgent] No portfolio can take {} {} within its capital constraints.",
+                    decision.action(), decision.assetId());
+            return;
+        }
+        // The trades and their trade-log events commit together; OutboxRelay publishes the events.
+        String sourceEvent = source == null ? null : DecisionJournal.EventKey.origin(source).id();
+        List<PortfolioFanOut.UserTrade> booked = tradeLedger.recordAll(trades, sourceEvent, trace);
+        if (booked.size() < trades.size()) {
+            log.info("[TradeAgent] {} of {} trades for {} were booked by an earlier delivery; not resending them.",
+                    trades.size() - booked.size(), trades.size(), sourceEvent);
+        }
+        booked.forEach(trade -> tokenUsageRecorder.recordTradeExecuted());
+        log.info("[TradeAgent] {} trades persisted; trade logs queued in outbox for broadcast.", booked.size());
 
-        } catch (Exception e) {
-            log.error("[TradeAgent] Reasoning engine failed. Defaulting to safe passive posture.", e);
+        latencyTraceCollector.record(trace, TraceStage.ORDER_SUBMITTED);
+        List<CompletableFuture<?>> acknowledgements = new ArrayList<>(booked.size());
+        for (PortfolioFanOut.UserTrade trade : booked) {
+            try {
+                CompletableFuture<?> acknowledged = submitOrder(trade.userId(), trade.trade());
+                if (acknowledged != null) {
+                    acknowledgements.add(acknowledged);
+                }
+            } catch (RuntimeException e) {
+                log.error("[TradeAgent] Sandbox order for {} could not be sent after booking: {}", trade.userId(),
+                        e.getMessage());
+            }
         }
+        // Stamped once, when the broker has answered every order; the trace is not safe to stamp concurrently
+        CompletableFuture.allOf(acknowledgements.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    if (error == null) {
+                        latencyTraceCollector.record(trace, TraceStage.ORDER_ACKNOWLEDGED);
+                    }
+                });
+    }
+
+    /** The order's acknowledgement, or null when there is nothing to send. */
+    private CompletableFuture<?> submitOrder(String userId, TradeDecision decision) {
+        // Execute order in sandbox; execute() only books quantities within int range
+        int quantity = (int) quantityOf(decision);
+
+        if (quantity > 0) {
+            log.debug("[TradeAgent] Executing sandbox order for {}: {} {} units", userId, decision.action(),
+                    quantity);
+            long orderId = decisionJournal.recordOrderSubmitted(userId, decision.assetId(), decision.action(),
+                    quantity);
+            // Orders are micro-batched; the listener thread is released while the batch window runs.
+            return orderSubmissionStage.submit(new OrderSubmissionStage.OrderIntent(userId,
+                    decision.assetId(), decision.action(), quantity, decision.executionPrice()))
+                    .whenComplete((response, error) -> {
+                        decisionJournal.recordOrderAcknowledged(orderId, error == null && response.filled());
+                        if (error != null) {
+                            log.error("[TradeAgent] Sandbox order for {} failed: {}", userId, error.getMessage());
+                        } else if (!response.filled()) {
+                            log.warn("[TradeAgent] Sandbox order for {} was booked but not filled: {}", userId,
+                                    response.message());
+                        }
+                    });
+        }
+        log.warn("[TradeAgent] Calculated quantity is 0 for amount={}. Skipping sandbox execution.",
+                decision.amountAllocated());
+        return null;
+    }
+
+    private static long quantityOf(TradeDecision decision) {
+        return Money.of(decision.amountAllocated()).wholeUnitsOf(Money.of(decision.executionPrice()));
     }
 }
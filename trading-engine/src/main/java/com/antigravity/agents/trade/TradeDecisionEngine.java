@@ -0,0 +1,159 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.messaging.MarketHealthEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Deterministic first pass over market.analysis.health events. Clear-cut events
+ * are decided here from recommended_strategy, confidence thresholds and the
+ * per-order position limit; ambiguous or anomalous events are escalated to the
+ * LLM. The decision is made once per event for the market as a whole; per-user
+ * sizing and the capital check happen in {@link PortfolioFanOut}.
+ */
+@Component
+public class TradeDecisionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeDecisionEngine.class);
+
+    public enum Outcome {
+        TRADE, HOLD, ESCALATE
+    }
+
+    /**
+     * @param trade present only when the outcome is TRADE; its allocation is the
+     *              reference size before per-user sizing
+     */
+    public record Decision(Outcome outcome, TradeDecision trade, String reason) {
+
+        static Decision trade(TradeDecision trade, String reason) {
+            return new Decision(Outcome.TRADE, trade, reason);
+        }
+
+        static Decision hold(String reason) {
+            return new Decision(Outcome.HOLD, null, reason);
+        }
+
+        static Decision escalate(String reason) {
+            return new Decision(Outcome.ESCALATE, null, reason);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    private final boolean enabled;
+    private final double minConfidence;
+    private final double holdBelowConfidence;
+    private final double maxVolatility;
+    private final BigDecimal baseAllocation;
+    private final BigDecimal maxPosition;
+
+    public TradeDecisionEngine(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${antigravity.trade.engine.enabled:true}") boolean enabled,
+            @Value("${antigravity.trade.engine.min-confidence:0.80}") double minConfidence,
+            @Value("${antigravity.trade.engine.hold-below-confidence:0.55}") double holdBelowConfidence,
+            @Value("${antigravity.trade.engine.max-volatility:0.60}") double maxVolatility,
+            @Value("${antigravity.trade.engine.base-allocation:1000}") BigDecimal baseAllocation,
+            @Value("${antigravity.trade.engine.max-position:5000}") BigDecimal maxPosition) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.minConfidence = minConfidence;
+        this.holdBelowConfidence = holdBelowConfidence;
+        this.maxVolatility = maxVolatility;
+        this.baseAllocation = baseAllocation;
+        this.maxPosition = maxPosition;
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome,
+                    meterRegistry.counter("antigravity.trade.engine.decisions", "outcome", outcome.name()));
+        }
+    }
+
+    public Decision decide(String marketHealthJson) {
+        return decide(MarketHealthEvent.parse(objectMapper, marketHealthJson));
+    }
+
+    public Decision decide(MarketHealthEvent health) {
+        Decision decision = evaluate(health);
+        outcomeCounters.get(decision.outcome()).increment();
+        log.debug("[TradeDecisionEngine] outcome={} reason={}", decision.outcome(), decision.reason());
+        return decision;
+    }
+
+    private Decision evaluate(MarketHealthEvent health) {
+        if (!enabled) {
+            return Decision.escalate("Rule engine disabled.");
+        }
+        if (health == null || health.assetId() == null || health.recommendedStrategy() == null
+                || health.confidence() == null || health.volatilityScore() == null) {
+            return Decision.escalate("Market health event is incomplete.");
+        }
+        if (Boolean.TRUE.equals(health.anomalyDetected())) {
+            return Decision.escalate("Anomaly flagged by analysis.");
+        }
+        if (health.confidence() < holdBelowConfidence) {
+            return Decision.hold("Confidence " + health.confidence() + " below floor " + holdBelowConfidence + ".");
+        }
+
+        switch (health.recommendedStrategy()) {
+            case "HOLD":
+                return Decision.hold("Analysis recommends HOLD.");
+            case "ACCUMULATE", "DISCRETE_SWING":
+                break;
+            default:
+                return Decision.escalate("Unknown strategy " + health.recommendedStrategy() + ".");
+        }
+
+        if (health.confidence() < minConfidence) {
+            return Decision.escalate("Confidence " + health.confidence() + " is in the ambiguous band.");
+        }
+        if (health.volatilityScore() > maxVolatility) {
+            return Decision.escalate("Volatility " + health.volatilityScore() + " above " + maxVolatility + ".");
+        }
+        String action = action(health.recommendedStrategy(), health.trend());
+        if (action == null) {
+            return Decision.escalate(health.recommendedStrategy() + " gives no clear side with a "
+                    + health.trend() + " trend.");
+        }
+        if (health.lastPrice() == null || health.lastPrice().signum() <= 0) {
+            return Decision.escalate("No last_price to size the order.");
+        }
+
+        BigDecimal allocation = baseAllocation.multiply(BigDecimal.valueOf(health.confidence()))
+                .min(maxPosition)
+                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal cvarExposure = allocation.multiply(BigDecimal.valueOf(health.volatilityScore()))
+                .setScale(2, RoundingMode.HALF_UP);
+
+        return Decision.trade(new TradeDecision(health.assetId(), action, allocation, health.lastPrice(),
+                health.recommendedStrategy(), cvarExposure), "Clear " + health.recommendedStrategy() + " signal.");
+    }
+
+    /**
+     * ACCUMULATE only buys, and not into a BEARISH trend; DISCRETE_SWING
+     * follows the trend either way. Null when the side is not clear.
+     */
+    private static String action(String strategy, String trend) {
+        if ("ACCUMULATE".equals(strategy)) {
+            return "BEARISH".equals(trend) ? null : "BUY";
+        }
+        return switch (trend == null ? "" : trend) {
+            case "BULLISH" -> "BUY";
+            case "BEARISH" -> "SELL";
+            default -> null;
+        };
+    }
+}
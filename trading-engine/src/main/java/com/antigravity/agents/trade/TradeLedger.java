@@ -0,0 +1,114 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.system.PortfolioIndex;
+import com.antigravity.agents.trade.PortfolioFanOut.UserTrade;
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.TradeExecutedEvent;
+import com.antigravity.models.OutboxEvent;
+import com.antigravity.models.OutboxEventRepository;
+import com.antigravity.models.Trade;
+import com.antigravity.models.TradeRepository;
+import com.antigravity.tracing.TraceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persists an executed trade together with its trade.execution.logs event in
+ * one transaction (transactional outbox). Either both rows commit or neither
+ * does; OutboxRelay takes care of getting the event onto Kafka. Committed
+ * trades are applied to the {@link PortfolioIndex} holdings.
+ */
+@Service
+public class TradeLedger {
+
+    private final TradeRepository tradeRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final PortfolioIndex portfolioIndex;
+
+    public TradeLedger(TradeRepository tradeRepository, OutboxEventRepository outboxEventRepository,
+            PortfolioIndex portfolioIndex) {
+        this.tradeRepository = tradeRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.portfolioIndex = portfolioIndex;
+    }
+
+    /**
+     * Records every user's trade for one market decision in a single
+     * transaction, rather than one commit per user. A redelivered event books
+     * only the users it has not booked yet; the unique (source_event, user_id)
+     * key turns a concurrent duplicate into a rollback.
+     *
+     * @param sourceEvent the market event the trades come from, or null when
+     *                    it has no replayable source
+     * @return the trades booked by this call
+     */
+    @Transactional
+    public List<UserTrade> recordAll(List<UserTrade> trades, String sourceEvent, TraceContext trace) {
+        Set<String> booked = sourceEvent == null ? Set.of()
+                : new HashSet<>(tradeRepository.findUserIdsBySourceEvent(sourceEvent));
+        List<UserTrade> recorded = new ArrayList<>(trades.size());
+        List<Trade> saved = new ArrayList<>(trades.size());
+        for (UserTrade trade : trades) {
+            if (!booked.contains(trade.userId())) {
+                saved.add(record(trade.userId(), trade.trade(), sourceEvent, trace));
+                recorded.add(trade);
+            }
+        }
+        applyAfterCommit(saved);
+        return recorded;
+    }
+
+    @Transactional
+    public Trade record(String userId, TradeDecision decision, TraceContext trace) {
+        Trade trade = record(userId, decision, null, trace);
+        applyAfterCommit(List.of(trade));
+        return trade;
+    }
+
+    private void applyAfterCommit(List<Trade> trades) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            portfolioIndex.applyTrades(trades);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                portfolioIndex.applyTrades(trades);
+            }
+        });
+    }
+
+    private Trade record(String userId, TradeDecision decision, String sourceEvent, TraceContext trace) {
+        Trade trade = new Trade(
+                userId,
+                decision.assetId(),
+                decision.action(),
+                decision.amountAllocated(),
+                decision.executionPrice(),
+                decision.strategyUsed(),
+                decision.cvarExposure(),
+                sourceEvent);
+        tradeRepository.save(trade);
+        byte[] payload = EventCodec.encode(new TradeExecutedEvent(
+                userId,
+                decision.assetId(),
+                decision.action(),
+                decision.amountAllocated(),
+                decision.executionPrice(),
+                decision.strategyUsed(),
+                decision.cvarExposure(),
+                System.currentTimeMillis()));
+        outboxEventRepository.save(
+                new OutboxEvent(KafkaConfig.TOPIC_TRADE_LOGS, decision.assetId(), payload, trace.encode()));
+        return trade;
+    }
+}
@@ -0,0 +1,130 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.models.DailyTradeSummary;
+import com.antigravity.models.DailyTradeSummaryRepository;
+import com.antigravity.models.Trade;
+import com.antigravity.models.TradePosition;
+import com.antigravity.models.TradePositionRepository;
+import com.antigravity.models.TradeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Folds new trades into daily_trade_summaries. Each batch claims the oldest
+ * unsummarized trades under a row lock, applies them in time order to the
+ * affected positions and daily rows (two keyed reads, whatever the batch
+ * size), and stamps them summarized in the same transaction, so every trade
+ * is counted exactly once. Trades recorded before this job existed are picked
+ * up the same way, which makes the first run the backfill.
+ *
+ * Running off the trade path keeps summary row contention out of
+ * TradeLedger's transaction; the dashboard trails by at most one interval.
+ */
+@Component
+public class TradeSummaryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeSummaryJob.class);
+
+    private final TradeRepository tradeRepository;
+    private final DailyTradeSummaryRepository summaryRepository;
+    private final TradePositionRepository positionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter rolledUp;
+
+    @Autowired
+    public TradeSummaryJob(TradeRepository tradeRepository, DailyTradeSummaryRepository summaryRepository,
+            TradePositionRepository positionRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${antigravity.trade.summary.batch-size:500}") int batchSize) {
+        this(tradeRepository, summaryRepository, positionRepository, new TransactionTemplate(transactionManager),
+                meterRegistry, batchSize);
+    }
+
+    TradeSummaryJob(TradeRepository tradeRepository, DailyTradeSummaryRepository summaryRepository,
+            TradePositionRepository positionRepository, TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry, int batchSize) {
+        this.tradeRepository = tradeRepository;
+        this.summaryRepository = summaryRepository;
+        this.positionRepository = positionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.rolledUp = meterRegistry.counter("antigravity.trade.summary.rolled-up");
+    }
+
+    @Scheduled(fixedDelayString = "${antigravity.trade.summary.interval-ms:5000}")
+    public void scheduledRollUp() {
+        try {
+            int trades = rollUp();
+            if (trades > 0) {
+                log.debug("[TradeSummaryJob] Rolled up {} trades.", trades);
+            }
+        } catch (Exception e) {
+            log.error("[TradeSummaryJob] Roll-up failed; unsummarized trades stay queued.", e);
+        }
+    }
+
+    /**
+     * Rolls up batches until no unsummarized trades remain and returns how
+     * many trades were applied.
+     */
+    public int rollUp() {
+        int total = 0;
+        int applied;
+        do {
+            applied = transactionTemplate.execute(status -> rollUpBatch());
+            total += applied;
+        } while (applied == batchSize);
+        return total;
+    }
+
+    private int rollUpBatch() {
+        List<Trade> trades = tradeRepository.findUnsummarizedForUpdate(PageRequest.of(0, batchSize));
+        if (trades.isEmpty()) {
+            return 0;
+        }
+        Set<TradePosition.Key> positionKeys = new LinkedHashSet<>();
+        Set<DailyTradeSummary.Key> summaryKeys = new LinkedHashSet<>();
+        for (Trade trade : trades) {
+            positionKeys.add(TradePosition.Key.of(trade));
+            summaryKeys.add(DailyTradeSummary.Key.of(trade));
+        }
+        Map<TradePosition.Key, TradePosition> positions = new HashMap<>(positionRepository.findAllById(positionKeys)
+                .stream().collect(Collectors.toMap(TradePosition::getKey, Function.identity())));
+        Map<DailyTradeSummary.Key, DailyTradeSummary> summaries = new HashMap<>(summaryRepository
+                .findAllById(summaryKeys).stream()
+                .collect(Collectors.toMap(DailyTradeSummary::key, Function.identity())));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Trade trade : trades) {
+            BigDecimal realized = positions.computeIfAbsent(TradePosition.Key.of(trade), TradePosition::new)
+                    .apply(trade);
+            summaries.computeIfAbsent(DailyTradeSummary.Key.of(trade), DailyTradeSummary::new).add(trade, realized);
+            trade.markSummarized(now);
+        }
+        positionRepository.saveAll(positions.values());
+        summaryRepository.saveAll(summaries.values());
+        tradeRepository.saveAll(trades);
+        rolledUp.increment(trades.size());
+        return trades.size();
+    }
+}
@@ -1,36 +1,61 @@
 package com.antigravity.agents.userfacing;
 
+import com.antigravity.agents.AgentPrompt;
 import com.antigravity.agents.BaseAgent;
 import com.antigravity.agents.system.SystemAgentService;
 import com.antigravity.models.ActionStatus;
+import com.antigravity.models.DailyTradeSummary;
+import com.antigravity.models.DailyTradeSummaryRepository;
 import com.antigravity.models.Portfolio;
 import com.antigravity.models.Trade;
 import com.antigravity.models.TradeRepository;
+import com.antigravity.tracing.TokenUsageRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+// Built on the first request rather than at startup; nothing on the trading path depends on it.
+@Lazy
 @RestController
 @RequestMapping("/api/v1")
 @CrossOrigin(origins = "*") // Allow NextJS UI to connect
 public class UserFacingAgentController extends BaseAgent {
 
     private static final Logger log = LoggerFactory.getLogger(UserFacingAgentController.class);
+
+    // Free-text user queries have no fields to trim; they are only length-bounded.
+    private static final AgentPrompt CHAT_PROMPT = AgentPrompt.of("""
+            You are the Antigravity User-Facing Trust Agent. Your role is to bridge the investor and the trading system.
+            Rules:
+            - The system utilizes a manual CDS banking flow. Deposits and Bank transfers are handled at the broker level.
+            - Translate system events into plain English. No raw DB IDs, Kafka topic names, or technical stack details.
+            - Always reassure the user that their Initial Capital and Deposits are protected by a mathematical firewall.
+            - If you are unsure, respond with "Let me verify this with the system." Never hallucinate financial data.
+            - Do NOT mention Azure, AWS, or any cloud provider other than GCP.
+            """,
+            MAX_PAYLOAD_CHARS);
+
     private final SystemAgentService systemAgentService;
     private final TradeRepository tradeRepository;
+    private final DailyTradeSummaryRepository dailyTradeSummaryRepository;
 
     public UserFacingAgentController(ChatClient.Builder chatClientBuilder, SystemAgentService systemAgentService,
-            TradeRepository tradeRepository) {
-        super(chatClientBuilder, "UserFacingAgent");
+            TradeRepository tradeRepository, DailyTradeSummaryRepository dailyTradeSummaryRepository,
+            TokenUsageRecorder tokenUsageRecorder) {
+        super(chatClientBuilder, "UserFacingAgent", tokenUsageRecorder);
         this.systemAgentService = systemAgentService;
         this.tradeRepository = tradeRepository;
+        this.dailyTradeSummaryRepository = dailyTradeSummaryRepository;
     }
 
     // --- UI Dashboard Endpoints ---
@@ -58,6 +83,23 @@ public class UserFacingAgentController extends BaseAgent {
         return ResponseEntity.ok(trades);
     }
 
+    /**
+     * Per-day, per-asset trade count, notional, realized P&L and peak CVaR
+     * exposure from the daily rollup. Defaults to the last 30 days; trades
+     * appear once TradeSummaryJob has run.
+     */
+    @GetMapping("/trades/{userId}/summary")
+    public ResponseEntity<List<DailyTradeSummary>> getTradeSummary(@PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dailyTradeSummaryRepository.findForUser(userId, start, end));
+    }
+
     // --- Capital Flow Endpoints (Manual CDS) ---
 
     @PostMapping("/portfolio/sync-deposit")
@@ -99,21 +141,7 @@ public class UserFacingAgentController extends BaseAgent {
     public ResponseEntity<String> converseSystemStatus(@RequestBody String userQuery) {
         log.info("[UserFacingAgent] Chat query received.");
 
-        String systemPrompt = """
-                You are the Antigravity User-Facing Trust Agent. Your role is to bridge the investor and the trading system.
-                Rules:
-                - The system utilizes a manual CDS banking flow. Deposits and Bank transfers are handled at the broker level.
-                - Translate system events into plain English. No raw DB IDs, Kafka topic names, or technical stack details.
-                - Always reassure the user that their Initial Capital and Deposits are protected by a mathematical firewall.
-                - If you are unsure, respond with "Let me verify this with the system." Never hallucinate financial data.
-                - Do NOT mention Azure, AWS, or any cloud provider other than GCP.
-                """;
-
-        String response = this.chatClient.prompt()
-                .system(systemPrompt)
-                .user(userQuery)
-                .call()
-                .content();
+        String response = reason(CHAT_PROMPT, CHAT_PROMPT.compact(userQuery));
 
         return ResponseEntity.ok(response);
     }
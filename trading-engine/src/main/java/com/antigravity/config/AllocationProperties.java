@@ -0,0 +1,32 @@
+package com.antigravity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for trade sizing by {@link com.antigravity.risk.PositionSizer} and
+ * {@link com.antigravity.risk.AllocationOptimizer}.
+ *
+ * @param enabled           when false, the market decision's amountAllocated
+ *                          is used as before
+ * @param kellyFraction     share of the full Kelly position taken; full Kelly
+ *                          is far too aggressive for an estimated edge
+ * @param sessionSharpe     expected return per unit of one-session volatility
+ *                          for a trade the rules or the model approved
+ * @param parallelThreshold universe size from which the solver's
+ *                          matrix-vector products run in parallel
+ * @param parallelism       solver pool size; 0 means one per core
+ * @param maxIterations     iteration cap for one solve
+ * @param tolerance         relative change in the allocation at which a solve
+ *                          has converged
+ */
+@ConfigurationProperties(prefix = "antigravity.trade.allocation")
+public record AllocationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0.25") double kellyFraction,
+        @DefaultValue("0.10") double sessionSharpe,
+        @DefaultValue("128") int parallelThreshold,
+        @DefaultValue("0") int parallelism,
+        @DefaultValue("500") int maxIterations,
+        @DefaultValue("1e-9") double tolerance) {
+}
@@ -0,0 +1,70 @@
+package com.antigravity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Settings for {@link com.antigravity.agents.analysis.AdaptiveAnalysisScheduler}.
+ *
+ * @param watchlist        symbols polled from LocalMarket
+ * @param tick             how often the scheduler checks which symbols are due
+ * @param llmCallsPerMinute analysis calls allowed per minute across all
+ *                         symbols; bursts up to this many are allowed
+ * @param workers          threads that fetch and analyse due symbols, so
+ *                         the scheduler thread never waits on them
+ */
+@ConfigurationProperties(prefix = "antigravity.agent.analysis.adaptive")
+public record AnalysisSchedulerProperties(
+        @DefaultValue("AAL") List<String> watchlist,
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("30") int llmCallsPerMinute,
+        @DefaultValue("4") int workers,
+        @DefaultValue Intervals intervals,
+        @DefaultValue Signal signal,
+        @DefaultValue Calendar calendar) {
+
+    /**
+     * Hot symbols are polled every {@code min}; quiet symbols start at
+     * {@code base} and back off by {@code backoffMultiplier} per quiet poll,
+     * up to {@code max}.
+     */
+    public record Intervals(
+            @DefaultValue("5s") Duration min,
+            @DefaultValue("30s") Duration base,
+            @DefaultValue("10m") Duration max,
+            @DefaultValue("2.0") double backoffMultiplier) {
+    }
+
+    /**
+     * @param window     polls kept per symbol for the return and volume z-scores
+     * @param minSamples polls needed before z-scores are trusted; until then a
+     *                   symbol is polled at the base interval
+     * @param hotZScore  score at or above which a symbol is polled at the
+     *                   minimum interval
+     * @param quietZScore score below which a symbol backs off
+     */
+    public record Signal(
+            @DefaultValue("30") int window,
+            @DefaultValue("5") int minSamples,
+            @DefaultValue("2.0") double hotZScore,
+            @DefaultValue("1.0") double quietZScore) {
+    }
+
+    /**
+     * Exchange session; defaults are the CSE regular session in Colombo time.
+     */
+    public record Calendar(
+            @DefaultValue("Asia/Colombo") String zone,
+            @DefaultValue("09:30") LocalTime open,
+            @DefaultValue("14:30") LocalTime close,
+            @DefaultValue({ "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY" }) Set<DayOfWeek> tradingDays,
+            @DefaultValue List<LocalDate> holidays) {
+    }
+}
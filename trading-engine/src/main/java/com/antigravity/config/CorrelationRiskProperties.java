@@ -0,0 +1,28 @@
+package com.antigravity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.antigravity.risk.CorrelationMatrix} and the
+ * portfolio-level limits the capital check applies with it.
+ *
+ * @param halfLife                      weight half-life of a return, in
+ *                                      market time (closed hours don't count)
+ * @param minSamples                    returns a symbol needs before its
+ *                                      variance and correlations are used
+ * @param maxCorrelatedExposureFraction share of a portfolio's total value
+ *                                      that may move with a bought asset
+ * @param maxVolatilityFraction         share of a portfolio's total value its
+ *                                      one-session volatility may reach
+ */
+@ConfigurationProperties(prefix = "antigravity.risk.correlation")
+public record CorrelationRiskProperties(
+        @DefaultValue("30m") Duration halfLife,
+        @DefaultValue("20") int minSamples,
+        @DefaultValue("0.25") BigDecimal maxCorrelatedExposureFraction,
+        @DefaultValue("0.05") BigDecimal maxVolatilityFraction) {
+}
@@ -1,9 +1,11 @@
 package com.antigravity.config;
 
+import com.antigravity.agents.system.PortfolioIndex;
 import com.antigravity.models.Portfolio;
 import com.antigravity.models.PortfolioRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,14 +16,25 @@ public class DataInitializer implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
     private final PortfolioRepository portfolioRepository;
+    private final PortfolioIndex portfolioIndex;
+    private final int seedUsers;
 
-    public DataInitializer(PortfolioRepository portfolioRepository) {
+    public DataInitializer(PortfolioRepository portfolioRepository, PortfolioIndex portfolioIndex,
+            @Value("${antigravity.sandbox.seed-users:1}") int seedUsers) {
         this.portfolioRepository = portfolioRepository;
+        this.portfolioIndex = portfolioIndex;
+        this.seedUsers = seedUsers;
     }
 
     @Override
     public void run(String... args) {
-        String userId = "usr_001";
+        for (int i = 1; i <= seedUsers; i++) {
+            seed(String.format("usr_%03d", i));
+        }
+        log.info("Portfolio index loaded with {} portfolios.", portfolioIndex.refresh());
+    }
+
+    private void seed(String userId) {
         if (portfolioRepository.findByUserId(userId).isEmpty()) {
             log.info("Initializing sandbox simulation data for user: {}", userId);
             // 100,000 is the protected base requested by user.
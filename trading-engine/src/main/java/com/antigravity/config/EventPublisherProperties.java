@@ -0,0 +1,42 @@
+package com.antigravity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Producer and retry-buffer settings for {@link com.antigravity.messaging.EventPublisher}, the
+ * high-throughput path for market.analysis.health and system.audit.traces.
+ */
+@ConfigurationProperties(prefix = "antigravity.kafka.high-throughput")
+public record EventPublisherProperties(
+        @DefaultValue Producer producer,
+        @DefaultValue RetryBuffer retryBuffer) {
+
+    /**
+     * @param linger   how long the producer waits to fill a batch
+     * @param maxBlock how long send() may block the caller on metadata or a
+     *                 full buffer before the record goes to the retry buffer
+     */
+    public record Producer(
+            @DefaultValue("zstd") String compressionType,
+            @DefaultValue("10ms") Duration linger,
+            @DefaultValue("64KB") DataSize batchSize,
+            @DefaultValue("32MB") DataSize bufferMemory,
+            @DefaultValue("500ms") Duration maxBlock,
+            @DefaultValue("30s") Duration deliveryTimeout) {
+    }
+
+    /**
+     * Records that failed with a retriable error wait here and are resent on
+     * the next drain. When the buffer is full, new failures are dropped and
+     * counted.
+     */
+    public record RetryBuffer(
+            @DefaultValue("10000") int capacity,
+            @DefaultValue("5") int maxAttempts,
+            @DefaultValue("1000") int drainBatchSize) {
+    }
+}
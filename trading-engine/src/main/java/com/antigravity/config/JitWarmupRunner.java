@@ -0,0 +1,162 @@
+package com.antigravity.config;
+
+import com.antigravity.agents.system.BrokerBalanceCache;
+import com.antigravity.agents.system.PortfolioIndex;
+import com.antigravity.agents.system.SystemAgentTools;
+import com.antigravity.agents.trade.PortfolioFanOut;
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.agents.trade.TradeDecisionEngine;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.MarketHealthEvent;
+import com.antigravity.models.Money;
+import com.antigravity.models.Portfolio;
+import com.antigravity.risk.AllocationOptimizer;
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.PositionSizer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the trade decision, capital check, fan-out and JSON/codec paths on
+ * synthetic data before the first real event, so it is served by compiled
+ * code rather than the interpreter. The Kafka listener containers do not
+ * start with the context (spring.kafka.listener.auto-startup=false); they are
+ * started here once warm-up ends, whether or not it ran or succeeded.
+ * Application runners finish before Spring Boot reports readiness, so
+ * /actuator/health/readiness stays OUT_OF_SERVICE until this is done.
+ *
+ * Private instances with their own meter registry are used throughout, so
+ * warm-up leaves no trace in the decision metrics, the portfolio index or the
+ * database.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class JitWarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JitWarmupRunner.class);
+
+    private static final String[] MARKET_EVENTS = {
+            """
+            {"asset_id":"WARMUP","timestamp":"2024-01-02T10:00:00Z","volatility_score":0.2,"trend":"BULLISH",
+             "anomaly_detected":false,"recommended_strategy":"ACCUMULATE","confidence":0.9,"last_price":185.5}""",
+            """
+            {"asset_id":"WARMUP","timestamp":"2024-01-02T10:00:00Z","volatility_score":0.4,"trend":"NEUTRAL",
+             "anomaly_detected":false,"recommended_strategy":"DISCRETE_SWING","confidence":0.7,"last_price":92.0}""",
+            """
+            {"asset_id":"WARMUP","timestamp":"2024-01-02T10:00:00Z","volatility_score":0.9,"trend":"BEARISH",
+             "anomaly_detected":true,"recommended_strategy":"HOLD","confidence":0.95,"last_price":40.25}""" };
+
+    private static final int FAN_OUT_USERS = 500;
+
+    private final ObjectMapper objectMapper;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final boolean enabled;
+    private final int iterations;
+
+    public JitWarmupRunner(ObjectMapper objectMapper, KafkaListenerEndpointRegistry listenerRegistry,
+            @Value("${antigravity.warmup.enabled:true}") boolean enabled,
+            @Value("${antigravity.warmup.iterations:20000}") int iterations) {
+        this.objectMapper = objectMapper;
+        this.listenerRegistry = listenerRegistry;
+        this.enabled = enabled;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (enabled) {
+                long start = System.nanoTime();
+                warmUp();
+                log.info("[JitWarmupRunner] {} iterations in {} ms; ready for traffic.", iterations,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (Exception e) {
+            // A slower first decision is better than not starting.
+            log.warn("[JitWarmupRunner] Warm-up aborted: {}", e.getMessage());
+        } finally {
+            startListeners();
+        }
+    }
+
+    /** Includes the retry-topic containers, which share the listener factory. */
+    private void startListeners() {
+        int started = 0;
+        for (MessageListenerContainer container : listenerRegistry.getAllListenerContainers()) {
+            if (!container.isRunning()) {
+                container.start();
+                started++;
+            }
+        }
+        log.info("[JitWarmupRunner] Started {} Kafka listener containers.", started);
+    }
+
+    private void warmUp() throws JsonProcessingException {
+        TradeDecisionEngine engine = new TradeDecisionEngine(objectMapper, new SimpleMeterRegistry(), true,
+                0.80, 0.55, 0.60, new BigDecimal("1000"), new BigDecimal("5000"));
+        PortfolioIndex index = new PortfolioIndex(null, null, null, FAN_OUT_USERS);
+        for (int i = 0; i < FAN_OUT_USERS; i++) {
+            Portfolio portfolio = new Portfolio("warmup_" + i, new BigDecimal(10_000 + i * 100));
+            portfolio.addProfit(new BigDecimal(i * 10));
+            index.update(portfolio);
+        }
+        CorrelationRiskProperties risk = new CorrelationRiskProperties(Duration.ofMinutes(30), 20,
+                new BigDecimal("0.25"), new BigDecimal("0.05"));
+        CorrelationMatrix correlations = new CorrelationMatrix(List.of(), risk.halfLife(), Duration.ofMinutes(10),
+                Duration.ofHours(5), risk.minSamples());
+        AllocationOptimizer optimizer = new AllocationOptimizer(Integer.MAX_VALUE, 1, 500, 1e-9);
+        PositionSizer sizer = new PositionSizer(correlations, optimizer,
+                new AllocationProperties(true, 0.25, 0.10, Integer.MAX_VALUE, 1, 500, 1e-9));
+        PortfolioFanOut fanOut = new PortfolioFanOut(index, new BrokerBalanceCache(0), correlations, sizer, risk,
+                new SimpleMeterRegistry(), new BigDecimal("0.10"), new BigDecimal("0.05"), 1, Integer.MAX_VALUE);
+        // The fan-out's empty matrix never sizes, so the solver is warmed on its own
+        AllocationOptimizer.Problem sizing = new AllocationOptimizer.Problem(new double[] { 0.01, 0 },
+                new double[] { 0.02, 0.005, 0.005, 0.03 }, new double[] { 0, 5_000 }, new double[] { 0, 5_000 },
+                new double[] { 2_000, 5_000 }, new double[] { 0.2, 0 }, 100, 2_500);
+        long threshold = Money.basisPoints(new BigDecimal("0.10"));
+        Money profit = Money.of("1000");
+        Money total = Money.of("11000");
+
+        try {
+            for (int i = 0; i < iterations; i++) {
+                String json = MARKET_EVENTS[i % MARKET_EVENTS.length];
+                MarketHealthEvent event = MarketHealthEvent.parse(objectMapper, json);
+                EventCodec.decodeMarketHealth(EventCodec.encode(event));
+                TradeDecisionEngine.Decision decision = engine.decide(json);
+
+                Money allocation = Money.ofUnits(10_000L * (i % 13_000));
+                SystemAgentTools.checkCapital(allocation, allocation.timesBasisPoints(2_000), profit, total, null,
+                        threshold);
+
+                if (i % 100 == 0) {
+                    optimizer.solve(sizing);
+                }
+                if (decision.trade() != null) {
+                    objectMapper.writeValueAsBytes(decision.trade());
+                    if (i % 1_000 == 0) {
+                        fanOut.allocate(decision.trade());
+                    }
+                }
+            }
+        } finally {
+            fanOut.close();
+            optimizer.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.antigravity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link com.antigravity.journal.EventJournal}.
+ *
+ * @param directory         where segments and snapshots live; must survive
+ *                          a restart (a volume, not the container layer)
+ * @param segmentSize       size of each memory-mapped segment file; also
+ *                          the largest record that can be written
+ * @param snapshotInterval  how often participant state is snapshotted and
+ *                          older segments deleted, which bounds replay time
+ * @param flushInterval     how often mapped pages are forced to disk. Writes
+ *                          survive a process crash immediately; this bounds
+ *                          what a host crash can lose
+ * @param retainedEventKeys how many handled market events are remembered
+ *                          for de-duplicating redeliveries
+ */
+@ConfigurationProperties(prefix = "antigravity.journal")
+public record JournalProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("data/journal") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("1m") Duration snapshotInterval,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("100000") int retainedEventKeys) {
+}
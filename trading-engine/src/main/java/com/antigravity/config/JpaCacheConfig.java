@@ -0,0 +1,59 @@
+package com.antigravity.config;
+
+import com.antigravity.models.Portfolio;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache regions for {@link Portfolio}, on Caffeine
+ * through JCache. The regions are bounded and expire after a write as a
+ * backstop for changes made outside the application; writes through JPA keep
+ * them current on their own. Hibernate owns the cache manager and closes it
+ * with the session factory.
+ */
+@Configuration
+public class JpaCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer portfolioCacheCustomizer(MeterRegistry meterRegistry,
+            @Value("${antigravity.jpa.cache.portfolio.max-entries:100000}") long maxEntries,
+            @Value("${antigravity.jpa.cache.portfolio.expire-after-write:10m}") Duration expireAfterWrite) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER,
+                portfolioCacheManager(meterRegistry, maxEntries, expireAfterWrite));
+    }
+
+    private static CacheManager portfolioCacheManager(MeterRegistry meterRegistry, long maxEntries,
+            Duration expireAfterWrite) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // One manager per application context, so test contexts do not share entries
+        CacheManager cacheManager = provider.getCacheManager(URI.create("antigravity-jpa-" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maxEntries))
+                .setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()))
+                // Hibernate caches immutable entry snapshots; copying them on every read buys nothing
+                .setStoreByValue(false)
+                .setStatisticsEnabled(true);
+        for (String region : new String[] { Portfolio.CACHE_REGION, Portfolio.NATURAL_ID_CACHE_REGION }) {
+            Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+            JCacheMetrics.monitor(meterRegistry, cache);
+        }
+        return cacheManager;
+    }
+}
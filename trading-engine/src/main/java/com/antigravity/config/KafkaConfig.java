@@ -4,6 +4,8 @@ import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 public class KafkaConfig {
@@ -12,6 +14,14 @@ public class KafkaConfig {
     public static final String TOPIC_TRADE_LOGS = "trade.execution.logs";
     public static final String TOPIC_AUDIT_TRACES = "system.audit.traces";
 
+    /**
+     * Retry and dead-letter topics for the agent listeners are derived from
+     * these (e.g. market.analysis.health-retry-0, market.analysis.health-dlt)
+     * and created on first use with the same partition count as their source.
+     */
+    public static final String RETRY_TOPIC_SUFFIX = "-retry";
+    public static final String DLT_SUFFIX = "-dlt";
+
     @Bean
     public NewTopic marketHealthTopic() {
         return TopicBuilder.name(TOPIC_MARKET_HEALTH)
@@ -35,4 +45,17 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
+
+    /**
+     * Back-off scheduler for the non-blocking retry topics. Kept separate from
+     * the @Scheduled pool so paused retry partitions resume even when agent
+     * scheduling is switched off.
+     */
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("kafka-retry-");
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
 }
@@ -0,0 +1,68 @@
+package com.antigravity.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits reads from writes when antigravity.datasource.replica.url is set.
+ * The application DataSource becomes a {@link LazyConnectionDataSourceProxy}
+ * over the primary pool: a connection is only taken when the first statement
+ * runs, by which point a {@code @Transactional(readOnly = true)} method has
+ * marked it read-only, and read-only connections come from
+ * {@link ReplicaReadDataSource}. Everything else, including the SERIALIZABLE
+ * capital writes and verifyCapitalConstraint, stays on the primary.
+ *
+ * Without a replica URL this class is skipped and Spring Boot configures the
+ * single primary pool as before.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "antigravity.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ReplicaDataSourceProperties replica, DataSourceProperties primary) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(replica.url());
+        dataSource.setUsername(StringUtils.hasText(replica.username()) ? replica.username()
+                : primary.determineUsername());
+        dataSource.setPassword(StringUtils.hasText(replica.password()) ? replica.password()
+                : primary.determinePassword());
+        dataSource.setDriverClassName(primary.determineDriverClassName());
+        dataSource.setMaximumPoolSize(replica.maximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaReadDataSource replicaReadDataSource(HikariDataSource primaryDataSource,
+            HikariDataSource replicaDataSource, ReplicaDataSourceProperties replica, MeterRegistry meterRegistry) {
+        return new ReplicaReadDataSource(primaryDataSource, replicaDataSource, replica.maxLag(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaReadDataSource replicaReadDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaReadDataSource);
+        return dataSource;
+    }
+}
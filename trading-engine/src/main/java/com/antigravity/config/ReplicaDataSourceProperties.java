@@ -0,0 +1,24 @@
+package com.antigravity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Optional PostgreSQL streaming replica for read-only transactions (see
+ * {@link ReadReplicaConfig}). Routing is off unless {@code url} is set.
+ *
+ * @param username defaults to spring.datasource.username when blank
+ * @param password defaults to spring.datasource.password when blank
+ * @param maxLag   replay lag above which read-only transactions go back to
+ *                 the primary until the replica catches up
+ */
+@ConfigurationProperties(prefix = "antigravity.datasource.replica")
+public record ReplicaDataSourceProperties(
+        String url,
+        String username,
+        String password,
+        @DefaultValue("10") int maximumPoolSize,
+        @DefaultValue("5s") Duration maxLag) {
+}
@@ -0,0 +1,112 @@
+package com.antigravity.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Where read-only transactions get their connections: the replica while its
+ * replay lag is within {@code maxLag}, otherwise the primary. The lag is
+ * polled from the replica; until the first successful check, and whenever a
+ * check fails, reads stay on the primary.
+ */
+public class ReplicaReadDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaReadDataSource.class);
+
+    /**
+     * Seconds since the last replayed transaction, or 0 when the replica has
+     * replayed everything it received (an idle primary sends no new
+     * transactions, so the timestamp alone would look like growing lag).
+     * "Everything it received" only counts while the WAL receiver is
+     * streaming and has heard from the primary within wal_receiver_timeout
+     * (keepalives arrive well inside it); a missing or stalled receiver, or a
+     * replica that has replayed nothing yet, yields NULL: unusable.
+     */
+    static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE WHEN r.status IS DISTINCT FROM 'streaming'
+                             OR pg_last_xact_replay_timestamp() IS NULL
+                             OR now() - r.last_msg_receipt_time
+                                > NULLIF(current_setting('wal_receiver_timeout')::interval, interval '0')
+                             THEN NULL
+                        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END
+            FROM (SELECT 1) AS one LEFT JOIN pg_stat_wal_receiver AS r ON true""";
+
+    private enum Target { PRIMARY, REPLICA }
+
+    private final DataSource replica;
+    private final double maxLagSeconds;
+    private final String lagQuery;
+
+    private volatile boolean replicaInUse;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaReadDataSource(DataSource primary, DataSource replica, Duration maxLag,
+            MeterRegistry meterRegistry) {
+        this(primary, replica, maxLag, meterRegistry, POSTGRES_LAG_QUERY);
+    }
+
+    ReplicaReadDataSource(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry,
+            String lagQuery) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        Gauge.builder("antigravity.datasource.replica.lag", this, r -> r.lagSeconds)
+                .description("Replay lag of the read replica; NaN when it cannot be measured")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("antigravity.datasource.replica.in-use", this, r -> r.replicaInUse ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${antigravity.datasource.replica.lag-check-interval-ms:1000}",
+            scheduler = SchedulingConfig.CRITICAL_SCHEDULER)
+    public void checkLag() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery(lagQuery)) {
+            result.next();
+            double lag = result.getDouble(1);
+            // NULL: the query cannot vouch for the replica
+            lagSeconds = result.wasNull() ? Double.NaN : lag;
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (SQLException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (replicaInUse) {
+                log.warn("[ReplicaReadDataSource] Replica lag check failed: {}", e.getMessage());
+            }
+        }
+        if (usable != replicaInUse) {
+            log.info("[ReplicaReadDataSource] Read-only transactions now use the {} (lag {} s, max {} s).",
+                    usable ? "replica" : "primary", lagSeconds, maxLagSeconds);
+            replicaInUse = usable;
+        }
+    }
+
+    public boolean isReplicaInUse() {
+        return replicaInUse;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaInUse ? Target.REPLICA : Target.PRIMARY;
+    }
+}
@@ -0,0 +1,66 @@
+package com.antigravity.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection, timeout and resilience settings for {@link com.antigravity.agents.trade.SandboxBrokerClient}.
+ *
+ * @param url base URL of the sandbox broker API
+ */
+@ConfigurationProperties(prefix = "antigravity.api.sandbox.broker")
+public record SandboxBrokerProperties(
+        String url,
+        @DefaultValue Pool pool,
+        @DefaultValue Timeouts timeouts,
+        @DefaultValue Retries retries,
+        @DefaultValue Hedge hedge,
+        @DefaultValue Breaker breaker) {
+
+    /**
+     * @param pendingAcquireTimeout how long a caller may wait for a pooled
+     *                              connection before failing
+     */
+    public record Pool(
+            @DefaultValue("50") int maxConnections,
+            @DefaultValue("200") int pendingAcquireMaxCount,
+            @DefaultValue("100ms") Duration pendingAcquireTimeout,
+            @DefaultValue("30s") Duration maxIdleTime) {
+    }
+
+    /**
+     * @param read         per-attempt timeout for balance reads
+     * @param readDeadline overall budget for a balance read, hedges and
+     *                     retries included
+     */
+    public record Timeouts(
+            @DefaultValue("250ms") Duration connect,
+            @DefaultValue("2s") Duration order,
+            @DefaultValue("300ms") Duration read,
+            @DefaultValue("1s") Duration readDeadline) {
+    }
+
+    /** Bounded retries; applied to idempotent reads only. */
+    public record Retries(
+            @DefaultValue("2") int maxAttempts,
+            @DefaultValue("50ms") Duration backoff) {
+    }
+
+    /** A second balance read is sent if the first has not answered after {@code delay}. */
+    public record Hedge(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("100ms") Duration delay) {
+    }
+
+    /**
+     * @param failureThreshold consecutive failures that open the circuit
+     * @param openDuration     how long the circuit rejects calls before a
+     *                         single trial call is let through
+     */
+    public record Breaker(
+            @DefaultValue("5") int failureThreshold,
+            @DefaultValue("5s") Duration openDuration) {
+    }
+}
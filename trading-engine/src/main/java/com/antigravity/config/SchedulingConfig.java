@@ -0,0 +1,45 @@
+package com.antigravity.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Turns on the @Scheduled agent loops (market polling, CDS reconciliation).
+ * Test contexts switch this off with antigravity.scheduling.enabled=false.
+ *
+ * Jobs run on a shared pool; the outbox relay, journal flush and replica lag
+ * check name {@link #CRITICAL_SCHEDULER} so a slow reload or reconciliation
+ * page never delays them.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "antigravity.scheduling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+
+    public static final String CRITICAL_SCHEDULER = "criticalTaskScheduler";
+
+    /** Picked by name for every @Scheduled method that does not name a scheduler. */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${antigravity.scheduling.pool-size:4}") int poolSize) {
+        return scheduler(poolSize, "agent-scheduler-");
+    }
+
+    @Bean(CRITICAL_SCHEDULER)
+    public ThreadPoolTaskScheduler criticalTaskScheduler(
+            @Value("${antigravity.scheduling.critical-pool-size:3}") int poolSize) {
+        return scheduler(poolSize, "critical-scheduler-");
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(int poolSize, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+}
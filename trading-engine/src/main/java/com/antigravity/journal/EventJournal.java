@@ -0,0 +1,424 @@
+package com.antigravity.journal;
+
+import com.antigravity.config.JournalProperties;
+import com.antigravity.config.SchedulingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the engine's in-memory state changes (market ticks,
+ * trade decisions, completed events, order acks), written to memory-mapped
+ * segment files, with periodic snapshots of every {@link JournalParticipant}.
+ *
+ * On startup, before any listener or scheduled task runs, the latest
+ * snapshot is loaded and the records after it are replayed, which takes
+ * milliseconds rather than a Kafka re-read and fresh model calls. Appends go
+ * to the page cache, so they survive a process crash as soon as they are
+ * written; mapped pages are forced to disk every {@code flush-interval} to
+ * bound what a host crash can lose.
+ *
+ * Writing resumes in a new segment after every start, so a record torn by a
+ * crash is only ever at the end of a segment that is never appended to again.
+ */
+@Component
+public class EventJournal implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOT_MAGIC = 0x4147534E;
+    private static final int RETAINED_SNAPSHOTS = 2;
+
+    /** A ByteArrayOutputStream whose buffer can be copied from without another copy. */
+    private static final class Scratch extends ByteArrayOutputStream {
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    private final JournalProperties properties;
+    private final ObjectProvider<JournalParticipant> participantProvider;
+    private final Counter recordsWritten;
+    private final Timer recoveryTimer;
+
+    private final Object lock = new Object();
+    private final Scratch scratch = new Scratch();
+    private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+    private final CRC32C crc = new CRC32C();
+    private final byte[] frame = new byte[Byte.BYTES + Long.BYTES];
+
+    private List<JournalParticipant> participants = List.of();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence = 1;
+    private long lastSnapshotSequence;
+    private boolean open;
+
+    public EventJournal(JournalProperties properties, ObjectProvider<JournalParticipant> participantProvider,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.participantProvider = participantProvider;
+        this.recordsWritten = Counter.builder("antigravity.journal.records")
+                .description("Records appended to the event journal")
+                .register(meterRegistry);
+        this.recoveryTimer = Timer.builder("antigravity.journal.recovery")
+                .description("Time to rebuild in-memory state from the latest snapshot and journal")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.enabled()) {
+            recover(participantProvider.orderedStream().toList());
+        }
+    }
+
+    /**
+     * Applies a state change and journals it, atomically with respect to
+     * snapshots. The payload is encoded first, so a payload that cannot be
+     * written leaves the state untouched; when the journal is disabled only
+     * the change is applied.
+     */
+    public <T> T record(JournalRecord.Type type, JournalRecord.Payload payload, Supplier<T> change) {
+        synchronized (lock) {
+            if (!open) {
+                return change.get();
+            }
+            scratch.reset();
+            try {
+                payload.writeTo(scratchOut);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            reserve(scratch.size());
+            T result = change.get();
+            append(type, scratch.buffer(), scratch.size());
+            return result;
+        }
+    }
+
+    public void record(JournalRecord.Type type, JournalRecord.Payload payload, Runnable change) {
+        record(type, payload, () -> {
+            change.run();
+            return null;
+        });
+    }
+
+    void recover(List<JournalParticipant> participants) {
+        long start = System.nanoTime();
+        synchronized (lock) {
+            this.participants = participants;
+            try {
+                Files.createDirectories(properties.directory());
+                long snapshotSequence = loadSnapshot();
+                long replayed = 0;
+                long lastSequence = snapshotSequence;
+                for (Path path : segments()) {
+                    long[] result = replaySegment(path, snapshotSequence);
+                    replayed += result[0];
+                    lastSequence = Math.max(lastSequence, result[1]);
+                }
+                lastSnapshotSequence = snapshotSequence;
+                nextSequence = lastSequence + 1;
+                roll();
+                open = true;
+                participants.forEach(JournalParticipant::recovered);
+                long elapsed = System.nanoTime() - start;
+                recoveryTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                log.info("[EventJournal] Restored from snapshot at sequence {} plus {} records in {} ms.",
+                        snapshotSequence, replayed, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Event journal recovery failed in " + properties.directory(), e);
+            }
+        }
+    }
+
+    /** Makes room for a record before its change is applied, so a failed roll leaves state untouched. */
+    private void reserve(int length) {
+        int size = JournalRecord.HEADER_BYTES + length;
+        if (size > properties.segmentSize().toBytes()) {
+            throw new IllegalArgumentException("Journal record of " + size + " bytes exceeds the segment size.");
+        }
+        if (segment.remaining() < size) {
+            try {
+                roll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void append(JournalRecord.Type type, byte[] payload, int length) {
+        long sequence = nextSequence++;
+        frame[0] = type.code;
+        ByteBuffer.wrap(frame, 1, Long.BYTES).putLong(sequence);
+        crc.reset();
+        crc.update(frame);
+        crc.update(payload, 0, length);
+        segment.putInt(length)
+                .putInt((int) crc.getValue())
+                .put(frame)
+                .put(payload, 0, length);
+        recordsWritten.increment();
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        Path path = properties.directory().resolve(String.format("%020d%s", nextSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        // Mapping past the end grows the file with zeros, which read back as "no more records"
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, properties.segmentSize().toBytes());
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            channel.close();
+            segment = null;
+            channel = null;
+        }
+    }
+
+    /** Returns {records replayed, highest sequence seen}. */
+    private long[] replaySegment(Path path, long afterSequence) throws IOException {
+        long replayed = 0;
+        long lastSequence = 0;
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            byte[] payload = new byte[256];
+            while (buffer.remaining() >= JournalRecord.HEADER_BYTES) {
+                int position = buffer.position();
+                int length = buffer.getInt();
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || length > buffer.remaining() - JournalRecord.HEADER_BYTES + Integer.BYTES) {
+                    log.warn("[EventJournal] Torn record at {} offset {}; stopping this segment.", path, position);
+                    break;
+                }
+                int checksum = buffer.getInt();
+                buffer.get(frame);
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                buffer.get(payload, 0, length);
+                crc.reset();
+                crc.update(frame);
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("[EventJournal] Checksum mismatch at {} offset {}; stopping this segment.", path,
+                            position);
+                    break;
+                }
+                long sequence = ByteBuffer.wrap(frame, 1, Long.BYTES).getLong();
+                lastSequence = Math.max(lastSequence, sequence);
+                JournalRecord.Type type = JournalRecord.Type.of(frame[0]);
+                if (sequence <= afterSequence || type == null) {
+                    continue;
+                }
+                for (JournalParticipant participant : participants) {
+                    participant.replay(type, new DataInputStream(new ByteArrayInputStream(payload, 0, length)));
+                }
+                replayed++;
+            }
+        }
+        return new long[] { replayed, lastSequence };
+    }
+
+    /**
+     * Loads the newest readable snapshot into the participants and returns
+     * the sequence it covers, or 0 when there is none.
+     */
+    private long loadSnapshot() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            byte[] bytes = Files.readAllBytes(snapshots.get(i));
+            if (bytes.length < Integer.BYTES) {
+                continue;
+            }
+            crc.reset();
+            crc.update(bytes, 0, bytes.length - Integer.BYTES);
+            if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+                log.warn("[EventJournal] Snapshot {} is corrupt; trying an older one.", snapshots.get(i));
+                continue;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                continue;
+            }
+            long sequence = in.readLong();
+            int sections = in.readInt();
+            for (int s = 0; s < sections; s++) {
+                String name = in.readUTF();
+                byte[] section = new byte[in.readInt()];
+                in.readFully(section);
+                for (JournalParticipant participant : participants) {
+                    if (participant.journalName().equals(name)) {
+                        participant.readSnapshot(new DataInputStream(new ByteArrayInputStream(section)));
+                    }
+                }
+            }
+            return sequence;
+        }
+        return 0;
+    }
+
+    /**
+     * Snapshots every participant and deletes the segments and snapshots no
+     * longer needed to recover. Skipped when nothing was journaled since the
+     * last snapshot.
+     */
+    @Scheduled(fixedDelayString = "${antigravity.journal.snapshot-interval:1m}",
+            initialDelayString = "${antigravity.journal.snapshot-interval:1m}")
+    public void snapshot() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("[EventJournal] Snapshot failed; recovery will replay more of the journal.", e);
+        }
+    }
+
+    void writeSnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long sequence;
+        synchronized (lock) {
+            sequence = nextSequence - 1;
+            if (!open || sequence == lastSnapshotSequence) {
+                return;
+            }
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(participants.size());
+            for (JournalParticipant participant : participants) {
+                ByteArrayOutputStream section = new ByteArrayOutputStream();
+                participant.writeSnapshot(new DataOutputStream(section));
+                out.writeUTF(participant.journalName());
+                out.writeInt(section.size());
+                section.writeTo(out);
+            }
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes.toByteArray());
+        new DataOutputStream(bytes).writeInt((int) checksum.getValue());
+
+        Path directory = properties.directory();
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(bytes.toByteArray()));
+            out.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        synchronized (lock) {
+            lastSnapshotSequence = Math.max(lastSnapshotSequence, sequence);
+        }
+        prune();
+        log.debug("[EventJournal] Snapshot written at sequence {} ({} bytes).", sequence, bytes.size());
+    }
+
+    /**
+     * Keeps the newest snapshots and deletes segments every record of which
+     * is covered by the oldest snapshot kept.
+     */
+    private void prune() throws IOException {
+        List<Path> snapshots = snapshots();
+        for (int i = 0; i < snapshots.size() - RETAINED_SNAPSHOTS; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        snapshots = snapshots();
+        long covered = sequenceOf(snapshots.get(0), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        List<Path> segments = segments();
+        // A segment is fully covered when the segment after it starts at or before covered + 1
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (sequenceOf(segments.get(i + 1), "", SEGMENT_SUFFIX) <= covered + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    /** Forces written records to disk. */
+    @Scheduled(fixedDelayString = "${antigravity.journal.flush-interval:1s}",
+            scheduler = SchedulingConfig.CRITICAL_SCHEDULER)
+    public void flush() {
+        MappedByteBuffer current;
+        synchronized (lock) {
+            current = segment;
+        }
+        // msync can take milliseconds; appends carry on meanwhile
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!open) {
+            return;
+        }
+        snapshot();
+        synchronized (lock) {
+            open = false;
+            try {
+                closeSegment();
+            } catch (IOException e) {
+                log.warn("[EventJournal] Closing the journal segment failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        return list("", SEGMENT_SUFFIX);
+    }
+
+    private List<Path> snapshots() throws IOException {
+        return list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    }
+
+    // Zero-padded sequence numbers make name order sequence order
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix)
+                        && name.length() == prefix.length() + 20 + suffix.length();
+            }).sorted().toList();
+        }
+    }
+
+    private static long sequenceOf(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.antigravity.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A component whose in-memory state is rebuilt from the {@link EventJournal}
+ * on startup: first from its section of the latest snapshot, then by
+ * replaying every record written after that snapshot. Participants change
+ * their state only inside {@link EventJournal#record}, so a snapshot never
+ * sees a change whose record is not yet in the journal, or the reverse.
+ */
+public interface JournalParticipant {
+
+    /** Names this participant's section of a snapshot; must stay stable across releases. */
+    String journalName();
+
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    void readSnapshot(DataInput in) throws IOException;
+
+    /** Applies one record written after the snapshot. Records of other participants' types are ignored. */
+    void replay(JournalRecord.Type type, DataInput payload) throws IOException;
+
+    /** Called once replay is complete, before the application starts taking traffic. */
+    default void recovered() {
+    }
+}
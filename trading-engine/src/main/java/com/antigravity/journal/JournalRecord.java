@@ -0,0 +1,51 @@
+package com.antigravity.journal;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Framing shared by the journal's writer and reader. Each record is
+ * {@code [int payload length][int crc32][byte type][long sequence][payload]};
+ * the checksum covers type, sequence and payload. A zero length marks the
+ * unwritten tail of a segment, and a checksum mismatch marks a write torn by
+ * a crash, so reading stops at either.
+ */
+public final class JournalRecord {
+
+    public static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+    public enum Type {
+        /** A market data sample observed by the analysis scheduler. */
+        TICK(1),
+        /** A trade decision, or a hold, made for a market health event. */
+        DECISION(2),
+        /** A market health event fully handled, and the offset it was consumed at. */
+        EVENT_COMPLETED(3),
+        ORDER_SUBMITTED(4),
+        ORDER_ACKNOWLEDGED(5);
+
+        final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        static Type of(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Writes a record's payload. */
+    @FunctionalInterface
+    public interface Payload {
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    private JournalRecord() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.antigravity.llm;
+
+import com.antigravity.llm.StubLlmProperties.LatencyProfile;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws simulated model latencies from a seeded generator so two load runs
+ * with the same seed see the same latency sequence.
+ */
+class LatencySampler {
+
+    private final SplittableRandom random;
+
+    LatencySampler(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    synchronized long sampleMillis(LatencyProfile profile) {
+        double mean = profile.meanMs();
+        double jitter = profile.jitterMs();
+        double sample = switch (profile.distribution()) {
+            case FIXED -> mean;
+            case UNIFORM -> mean + (random.nextDouble() * 2 - 1) * jitter;
+            case NORMAL -> mean + random.nextGaussian() * jitter;
+            case LOG_NORMAL -> mean <= 0 ? 0 : Math.exp(Math.log(mean) + random.nextGaussian() * (jitter / mean));
+        };
+        return Math.max(0, Math.round(sample));
+    }
+}
@@ -0,0 +1,33 @@
+package com.antigravity.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.model.function.FunctionCallbackResolver;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Swaps the OpenAI chat model for {@link StubChatModel} when the "llm-stub"
+ * profile is active (see application-llm-stub.properties, which also disables
+ * the OpenAI chat auto-configuration). Every agent's ChatClient.Builder then
+ * talks to the stub, so load tests and CI measure engine overhead only.
+ */
+@Configuration
+@Profile("llm-stub")
+@EnableConfigurationProperties(StubLlmProperties.class)
+public class LlmStubConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmStubConfig.class);
+
+    @Bean
+    public ChatModel stubChatModel(StubLlmProperties properties, FunctionCallbackResolver functionCallbackResolver,
+            ObjectMapper objectMapper) {
+        log.warn("[LlmStubConfig] 'llm-stub' profile active. Agents use the deterministic local model (mode={}).",
+                properties.mode());
+        return new StubChatModel(properties, functionCallbackResolver, objectMapper);
+    }
+}
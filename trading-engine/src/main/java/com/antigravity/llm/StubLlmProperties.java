@@ -0,0 +1,62 @@
+package com.antigravity.llm;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Settings for the deterministic stand-in model (profile "llm-stub").
+ *
+ * @param mode       RULES answers from per-agent rules, REPLAY cycles through
+ *                   recorded responses and falls back to rules per agent
+ * @param replayFile JSON-lines file of {"agent": "...", "response": "..."}
+ * @param seed       seed for the latency sampler, so load runs are repeatable
+ * @param userId     user whose capital the TradeAgent's capital check is
+ *                   run against when the prompt names none
+ * @param latency    per-agent latency profile keyed by agent name
+ *                   (case-insensitive), with "default" as the fallback
+ */
+@ConfigurationProperties(prefix = "antigravity.llm.stub")
+public record StubLlmProperties(
+        @DefaultValue("RULES") Mode mode,
+        String replayFile,
+        @DefaultValue("42") long seed,
+        @DefaultValue("usr_001") String userId,
+        Map<String, LatencyProfile> latency) {
+
+    public enum Mode {
+        RULES,
+        REPLAY
+    }
+
+    public enum Distribution {
+        FIXED,
+        UNIFORM,
+        NORMAL,
+        LOG_NORMAL
+    }
+
+    /**
+     * @param meanMs   mean (median for LOG_NORMAL) simulated model latency
+     * @param jitterMs half-width for UNIFORM, standard deviation for NORMAL and
+     *                 LOG_NORMAL, ignored for FIXED
+     */
+    public record LatencyProfile(
+            @DefaultValue("FIXED") Distribution distribution,
+            @DefaultValue("0") long meanMs,
+            @DefaultValue("0") long jitterMs) {
+    }
+
+    public LatencyProfile latencyFor(String agentName) {
+        if (latency == null || latency.isEmpty()) {
+            return new LatencyProfile(Distribution.FIXED, 0, 0);
+        }
+        for (Map.Entry<String, LatencyProfile> entry : latency.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(agentName)) {
+                return entry.getValue();
+            }
+        }
+        return latency.getOrDefault("default", new LatencyProfile(Distribution.FIXED, 0, 0));
+    }
+}
@@ -0,0 +1,16 @@
+package com.antigravity.messaging;
+
+import java.util.Map;
+
+/**
+ * Typed payload of an agent topic, carried on the wire by {@link EventCodec}.
+ */
+public sealed interface AgentEvent permits MarketHealthEvent, TradeExecutedEvent, AuditTraceEvent {
+
+    EventSchema schema();
+
+    /**
+     * Non-null fields under their JSON names, for prompts and logs.
+     */
+    Map<String, Object> toFields();
+}
@@ -0,0 +1,43 @@
+package com.antigravity.messaging;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * system.audit.traces: a notable agent action or system finding, e.g. a CDS
+ * balance drift. Type-specific values travel as string attributes.
+ */
+public record AuditTraceEvent(
+        String type,
+        String agent,
+        String status,
+        String userId,
+        String message,
+        Map<String, String> attributes,
+        long timestampMillis) implements AgentEvent {
+
+    public AuditTraceEvent {
+        attributes = attributes == null ? Map.of() : Map.copyOf(attributes);
+    }
+
+    @Override
+    public EventSchema schema() {
+        return EventSchema.AUDIT_TRACE;
+    }
+
+    @Override
+    public Map<String, Object> toFields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("type", type);
+        fields.put("agent", agent);
+        fields.put("status", status);
+        fields.put("userId", userId);
+        fields.put("message", message);
+        attributes.forEach(fields::putIfAbsent);
+        fields.put("timestamp", Instant.ofEpochMilli(timestampMillis).toString());
+        fields.values().removeIf(Objects::isNull);
+        return fields;
+    }
+}
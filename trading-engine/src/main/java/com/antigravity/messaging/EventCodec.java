@@ -0,0 +1,416 @@
+package com.antigravity.messaging;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact tagged binary encoding for {@link AgentEvent}s, modelled on the
+ * protobuf wire format. A payload is a three-byte header (magic, schema id,
+ * schema version) followed by fields, each a varint key (tag and wire type)
+ * and a value: varints for booleans and zig-zag longs, fixed 8 bytes for
+ * doubles, and length-prefixed UTF-8 strings, decimals (zig-zag scale plus
+ * unscaled two's-complement bytes) and map entries. Null fields are not
+ * written. Readers skip unknown tags, see {@link EventSchema} for the
+ * evolution rules.
+ */
+public final class EventCodec {
+
+    static final byte MAGIC = (byte) 0xA7;
+    private static final int HEADER_LENGTH = 3;
+
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+
+    private EventCodec() {
+    }
+
+    /**
+     * True for payloads written by this codec; anything else is treated as
+     * legacy UTF-8 JSON by consumers.
+     */
+    public static boolean isEncoded(byte[] payload) {
+        return payload != null && payload.length >= HEADER_LENGTH && payload[0] == MAGIC;
+    }
+
+    public static byte[] encode(AgentEvent event) {
+        return switch (event) {
+            case MarketHealthEvent health -> encode(health);
+            case TradeExecutedEvent trade -> encode(trade);
+            case AuditTraceEvent audit -> encode(audit);
+        };
+    }
+
+    public static byte[] encode(MarketHealthEvent event) {
+        Writer writer = new Writer(EventSchema.MARKET_HEALTH, 64);
+        writer.string(1, event.assetId());
+        writer.string(2, event.timestamp());
+        writer.float64(3, event.volatilityScore());
+        writer.string(4, event.trend());
+        writer.bool(5, event.anomalyDetected());
+        writer.string(6, event.recommendedStrategy());
+        writer.float64(7, event.confidence());
+        writer.decimal(8, event.lastPrice());
+        return writer.toByteArray();
+    }
+
+    public static byte[] encode(TradeExecutedEvent event) {
+        Writer writer = new Writer(EventSchema.TRADE_EXECUTED, 80);
+        writer.string(1, event.userId());
+        writer.string(2, event.assetId());
+        writer.string(3, event.action());
+        writer.decimal(4, event.amountAllocated());
+        writer.decimal(5, event.executionPrice());
+        writer.string(6, event.strategyUsed());
+        writer.decimal(7, event.cvarExposure());
+        writer.int64(8, event.executedAtMillis());
+        return writer.toByteArray();
+    }
+
+    public static byte[] encode(AuditTraceEvent event) {
+        Writer writer = new Writer(EventSchema.AUDIT_TRACE, 128);
+        writer.string(1, event.type());
+        writer.string(2, event.agent());
+        writer.string(3, event.status());
+        writer.string(4, event.userId());
+        writer.string(5, event.message());
+        event.attributes().forEach((key, value) -> writer.entry(6, key, value));
+        writer.int64(7, event.timestampMillis());
+        return writer.toByteArray();
+    }
+
+    public static AgentEvent decode(byte[] payload) {
+        return switch (schemaOf(payload)) {
+            case MARKET_HEALTH -> decodeMarketHealth(payload);
+            case TRADE_EXECUTED -> decodeTradeExecuted(payload);
+            case AUDIT_TRACE -> decodeAuditTrace(payload);
+        };
+    }
+
+    public static EventSchema schemaOf(byte[] payload) {
+        if (!isEncoded(payload)) {
+            throw new IllegalArgumentException("Payload is not a binary agent event");
+        }
+        return EventSchema.byId(payload[1]);
+    }
+
+    public static MarketHealthEvent decodeMarketHealth(byte[] payload) {
+        Reader reader = new Reader(payload, EventSchema.MARKET_HEALTH);
+        String assetId = null;
+        String timestamp = null;
+        Double volatilityScore = null;
+        String trend = null;
+        Boolean anomalyDetected = null;
+        String recommendedStrategy = null;
+        Double confidence = null;
+        BigDecimal lastPrice = null;
+        while (reader.hasNext()) {
+            switch (reader.nextTag()) {
+                case 1 -> assetId = reader.string();
+                case 2 -> timestamp = reader.string();
+                case 3 -> volatilityScore = reader.float64();
+                case 4 -> trend = reader.string();
+                case 5 -> anomalyDetected = reader.bool();
+                case 6 -> recommendedStrategy = reader.string();
+                case 7 -> confidence = reader.float64();
+                case 8 -> lastPrice = reader.decimal();
+                default -> reader.skip();
+            }
+        }
+        return new MarketHealthEvent(assetId, timestamp, volatilityScore, trend, anomalyDetected,
+                recommendedStrategy, confidence, lastPrice);
+    }
+
+    public static TradeExecutedEvent decodeTradeExecuted(byte[] payload) {
+        Reader reader = new Reader(payload, EventSchema.TRADE_EXECUTED);
+        String userId = null;
+        String assetId = null;
+        String action = null;
+        BigDecimal amountAllocated = null;
+        BigDecimal executionPrice = null;
+        String strategyUsed = null;
+        BigDecimal cvarExposure = null;
+        long executedAtMillis = 0L;
+        while (reader.hasNext()) {
+            switch (reader.nextTag()) {
+                case 1 -> userId = reader.string();
+                case 2 -> assetId = reader.string();
+                case 3 -> action = reader.string();
+                case 4 -> amountAllocated = reader.decimal();
+                case 5 -> executionPrice = reader.decimal();
+                case 6 -> strategyUsed = reader.string();
+                case 7 -> cvarExposure = reader.decimal();
+                case 8 -> executedAtMillis = reader.int64();
+                default -> reader.skip();
+            }
+        }
+        return new TradeExecutedEvent(userId, assetId, action, amountAllocated, executionPrice, strategyUsed,
+                cvarExposure, executedAtMillis);
+    }
+
+    public static AuditTraceEvent decodeAuditTrace(byte[] payload) {
+        Reader reader = new Reader(payload, EventSchema.AUDIT_TRACE);
+        String type = null;
+        String agent = null;
+        String status = null;
+        String userId = null;
+        String message = null;
+        Map<String, String> attributes = new LinkedHashMap<>();
+        long timestampMillis = 0L;
+        while (reader.hasNext()) {
+            switch (reader.nextTag()) {
+                case 1 -> type = reader.string();
+                case 2 -> agent = reader.string();
+                case 3 -> status = reader.string();
+                case 4 -> userId = reader.string();
+                case 5 -> message = reader.string();
+                case 6 -> reader.entry(attributes);
+                case 7 -> timestampMillis = reader.int64();
+                default -> reader.skip();
+            }
+        }
+        return new AuditTraceEvent(type, agent, status, userId, message, attributes, timestampMillis);
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int size;
+
+        Writer(EventSchema schema, int expectedSize) {
+            buffer = new byte[expectedSize];
+            buffer[size++] = MAGIC;
+            buffer[size++] = (byte) schema.id();
+            buffer[size++] = (byte) schema.version();
+        }
+
+        void string(int tag, String value) {
+            if (value != null) {
+                key(tag, LENGTH_DELIMITED);
+                bytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        void float64(int tag, Double value) {
+            if (value != null) {
+                key(tag, FIXED64);
+                long bits = Double.doubleToRawLongBits(value);
+                ensure(Long.BYTES);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    buffer[size++] = (byte) (bits >>> shift);
+                }
+            }
+        }
+
+        void bool(int tag, Boolean value) {
+            if (value != null) {
+                key(tag, VARINT);
+                varint(value ? 1 : 0);
+            }
+        }
+
+        void int64(int tag, long value) {
+            key(tag, VARINT);
+            varint(zigZag(value));
+        }
+
+        void decimal(int tag, BigDecimal value) {
+            if (value != null) {
+                byte[] unscaled = value.unscaledValue().toByteArray();
+                long scale = zigZag(value.scale());
+                key(tag, LENGTH_DELIMITED);
+                varint(varintLength(scale) + unscaled.length);
+                varint(scale);
+                raw(unscaled);
+            }
+        }
+
+        void entry(int tag, String key, String value) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            key(tag, LENGTH_DELIMITED);
+            varint(varintLength(keyBytes.length) + keyBytes.length + varintLength(valueBytes.length)
+                    + valueBytes.length);
+            bytes(keyBytes);
+            bytes(valueBytes);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void key(int tag, int wireType) {
+            varint(((long) tag << 3) | wireType);
+        }
+
+        private void bytes(byte[] value) {
+            varint(value.length);
+            raw(value);
+        }
+
+        private void raw(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, buffer, size, value.length);
+            size += value.length;
+        }
+
+        private void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        private static int varintLength(long value) {
+            int length = 1;
+            while ((value & ~0x7FL) != 0) {
+                value >>>= 7;
+                length++;
+            }
+            return length;
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+        private int wireType;
+
+        Reader(byte[] payload, EventSchema expected) {
+            EventSchema actual = schemaOf(payload);
+            if (actual != expected) {
+                throw new IllegalArgumentException("Expected " + expected + " payload but got " + actual);
+            }
+            // Newer versions only add optional tags, which the field loop skips.
+            this.buffer = payload;
+            this.position = HEADER_LENGTH;
+        }
+
+        boolean hasNext() {
+            return position < buffer.length;
+        }
+
+        int nextTag() {
+            long key = varint();
+            wireType = (int) (key & 0x7);
+            return (int) (key >>> 3);
+        }
+
+        String string() {
+            expect(LENGTH_DELIMITED);
+            return text();
+        }
+
+        Double float64() {
+            expect(FIXED64);
+            require(Long.BYTES);
+            long bits = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                bits = (bits << 8) | (buffer[position++] & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        Boolean bool() {
+            expect(VARINT);
+            return varint() != 0;
+        }
+
+        long int64() {
+            expect(VARINT);
+            return unZigZag(varint());
+        }
+
+        BigDecimal decimal() {
+            expect(LENGTH_DELIMITED);
+            int end = lengthDelimitedEnd();
+            int scale = (int) unZigZag(varint());
+            BigInteger unscaled = new BigInteger(buffer, position, end - position);
+            position = end;
+            return new BigDecimal(unscaled, scale);
+        }
+
+        void entry(Map<String, String> target) {
+            expect(LENGTH_DELIMITED);
+            int end = lengthDelimitedEnd();
+            String key = text();
+            String value = text();
+            if (position != end) {
+                throw new IllegalArgumentException("Malformed map entry");
+            }
+            target.put(key, value);
+        }
+
+        void skip() {
+            switch (wireType) {
+                case VARINT -> varint();
+                case FIXED64 -> {
+                    require(Long.BYTES);
+                    position += Long.BYTES;
+                }
+                case LENGTH_DELIMITED -> position = lengthDelimitedEnd();
+                default -> throw new IllegalArgumentException("Unsupported wire type " + wireType);
+            }
+        }
+
+        private String text() {
+            int end = lengthDelimitedEnd();
+            String value = new String(buffer, position, end - position, StandardCharsets.UTF_8);
+            position = end;
+            return value;
+        }
+
+        private int lengthDelimitedEnd() {
+            int length = (int) varint();
+            require(length);
+            return position + length;
+        }
+
+        private long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private void expect(int expectedWireType) {
+            if (wireType != expectedWireType) {
+                throw new IllegalArgumentException("Wire type " + wireType + " where " + expectedWireType
+                        + " was expected");
+            }
+        }
+
+        private void require(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
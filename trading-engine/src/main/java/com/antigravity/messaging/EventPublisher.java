@@ -0,0 +1,190 @@
+package com.antigravity.messaging;
+
+import com.antigravity.config.EventPublisherProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fire-and-forget publishing for the high-volume topics. Records go through a
+ * dedicated batching, compressing, idempotent producer. Completion callbacks
+ * feed per-topic success, failure and latency metrics. Records that fail with
+ * a retriable error (broker unreachable, delivery timeout) wait in a bounded
+ * local buffer and are resent on the next drain.
+ */
+@Component
+public class EventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(EventPublisher.class);
+
+    private record Pending(ProducerRecord<String, byte[]> record, int attempts) {
+    }
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final EventPublisherProperties.RetryBuffer retryConfig;
+    private final BlockingQueue<Pending> retryBuffer;
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> resultCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EventPublisher(KafkaProperties kafkaProperties, EventPublisherProperties properties,
+            MeterRegistry meterRegistry) {
+        this(new KafkaTemplate<>(highThroughputProducerFactory(kafkaProperties, properties.producer())),
+                properties.retryBuffer(), meterRegistry);
+    }
+
+    EventPublisher(KafkaTemplate<String, byte[]> kafkaTemplate, EventPublisherProperties.RetryBuffer retryConfig,
+            MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.retryConfig = retryConfig;
+        this.retryBuffer = new ArrayBlockingQueue<>(retryConfig.capacity());
+        meterRegistry.gaugeCollectionSize("antigravity.kafka.publish.retry.buffer", Tags.empty(), retryBuffer);
+    }
+
+    private static DefaultKafkaProducerFactory<String, byte[]> highThroughputProducerFactory(
+            KafkaProperties kafkaProperties, EventPublisherProperties.Producer producer) {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(null);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer.compressionType());
+        config.put(ProducerConfig.LINGER_MS_CONFIG, (int) producer.linger().toMillis());
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) producer.batchSize().toBytes());
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, producer.bufferMemory().toBytes());
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, producer.maxBlock().toMillis());
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, (int) producer.deliveryTimeout().toMillis());
+        // delivery.timeout.ms must cover linger.ms + request.timeout.ms.
+        config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG,
+                (int) Math.min(30_000, producer.deliveryTimeout().toMillis() - producer.linger().toMillis()));
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    /**
+     * Hands the record to the producer and returns immediately; the outcome
+     * is only visible through metrics and the retry buffer.
+     */
+    public void publish(ProducerRecord<String, byte[]> record) {
+        send(new Pending(record, 1));
+    }
+
+    private void send(Pending pending) {
+        ProducerRecord<String, byte[]> record = pending.record();
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(record).whenComplete((result, error) -> {
+                latency(record.topic()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (error == null) {
+                    count(record.topic(), "success");
+                } else {
+                    onFailure(pending, error);
+                }
+            });
+        } catch (RuntimeException e) {
+            // send() throws synchronously when max.block.ms elapses waiting on metadata or buffer space.
+            onFailure(pending, e);
+        }
+    }
+
+    private void onFailure(Pending pending, Throwable error) {
+        String topic = pending.record().topic();
+        if (!isRetriable(error)) {
+            count(topic, "failure");
+            log.error("[EventPublisher] Dropping record for topic={}: {}", topic, error.getMessage());
+            return;
+        }
+        if (pending.attempts() >= retryConfig.maxAttempts()) {
+            count(topic, "exhausted");
+            log.error("[EventPublisher] Giving up on record for topic={} after {} attempts: {}", topic,
+                    pending.attempts(), error.getMessage());
+            return;
+        }
+        if (retryBuffer.offer(new Pending(pending.record(), pending.attempts() + 1))) {
+            count(topic, "buffered");
+        } else {
+            count(topic, "overflow");
+            log.warn("[EventPublisher] Retry buffer full; dropping record for topic={}", topic);
+        }
+    }
+
+    /**
+     * Resends buffered records, oldest first, up to the configured drain batch.
+     *
+     * @return number of records resent
+     */
+    @Scheduled(fixedDelayString = "${antigravity.kafka.high-throughput.retry-buffer.drain-interval-ms:1000}")
+    public int drainRetryBuffer() {
+        int resent = 0;
+        Pending pending;
+        while (resent < retryConfig.drainBatchSize() && (pending = retryBuffer.poll()) != null) {
+            send(pending);
+            resent++;
+        }
+        if (resent > 0) {
+            log.info("[EventPublisher] Resent {} buffered records", resent);
+        }
+        return resent;
+    }
+
+    int bufferedCount() {
+        return retryBuffer.size();
+    }
+
+    private static boolean isRetriable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Timer latency(String topic) {
+        return latencyTimers.computeIfAbsent(topic, t -> Timer.builder("antigravity.kafka.publish.latency")
+                .description("Time from send to broker acknowledgement")
+                .tag("topic", t)
+                .register(meterRegistry));
+    }
+
+    private void count(String topic, String result) {
+        resultCounters.computeIfAbsent(topic + '|' + result, key -> Counter.builder("antigravity.kafka.publish")
+                .description("Publish outcomes on the high-throughput producer")
+                .tag("topic", topic)
+                .tag("result", result)
+                .register(meterRegistry)).increment();
+    }
+
+    @PreDestroy
+    void close() {
+        if (!retryBuffer.isEmpty()) {
+            log.warn("[EventPublisher] Shutting down with {} records still buffered", retryBuffer.size());
+        }
+        kafkaTemplate.flush();
+        if (kafkaTemplate.getProducerFactory() instanceof DefaultKafkaProducerFactory<?, ?> factory) {
+            factory.destroy();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.antigravity.messaging;
+
+import java.util.Arrays;
+
+/**
+ * Embedded registry of the binary event schemas. Every payload starts with
+ * the schema id and the version it was written with. Evolution rules: field
+ * tags are never reused or retyped, and new fields are optional. That way a
+ * reader skips tags it does not know, and fields an older writer did not send
+ * simply decode as null. Bump the version when fields are added and note the
+ * tags here.
+ */
+public enum EventSchema {
+
+    /** v1: 1 asset_id, 2 timestamp, 3 volatility_score, 4 trend, 5 anomaly_detected, 6 recommended_strategy, 7 confidence, 8 last_price */
+    MARKET_HEALTH(1, 1),
+    /** v1: 1 user_id, 2 asset_id, 3 action, 4 amount_allocated, 5 execution_price, 6 strategy_used, 7 cvar_exposure, 8 executed_at */
+    TRADE_EXECUTED(2, 1),
+    /** v1: 1 type, 2 agent, 3 status, 4 user_id, 5 message, 6 attributes (repeated key/value), 7 timestamp */
+    AUDIT_TRACE(3, 1);
+
+    private static final EventSchema[] BY_ID = new EventSchema[4];
+
+    static {
+        Arrays.stream(values()).forEach(schema -> BY_ID[schema.id] = schema);
+    }
+
+    private final int id;
+    private final int version;
+
+    EventSchema(int id, int version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public static EventSchema byId(int id) {
+        if (id <= 0 || id >= BY_ID.length || BY_ID[id] == null) {
+            throw new IllegalArgumentException("Unknown event schema id " + id);
+        }
+        return BY_ID[id];
+    }
+}
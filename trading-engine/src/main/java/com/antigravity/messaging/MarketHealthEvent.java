@@ -0,0 +1,87 @@
+package com.antigravity.messaging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * market.analysis.health: AnalysisAgent's verdict on one asset. Fields are
+ * nullable because they come from model output; TradeDecisionEngine decides
+ * what an incomplete event means.
+ */
+public record MarketHealthEvent(
+        String assetId,
+        String timestamp,
+        Double volatilityScore,
+        String trend,
+        Boolean anomalyDetected,
+        String recommendedStrategy,
+        Double confidence,
+        BigDecimal lastPrice) implements AgentEvent {
+
+    @Override
+    public EventSchema schema() {
+        return EventSchema.MARKET_HEALTH;
+    }
+
+    /**
+     * Reads the first JSON object in model output, tolerating surrounding
+     * prose or code fences. Returns null when there is no parseable object.
+     */
+    public static MarketHealthEvent parse(ObjectMapper objectMapper, String text) {
+        if (text == null) {
+            return null;
+        }
+        int start = text.indexOf('{');
+        int end = text.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            return null;
+        }
+        try {
+            return fromJson(objectMapper.readTree(text.substring(start, end + 1)));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static MarketHealthEvent fromJson(JsonNode root) {
+        return new MarketHealthEvent(
+                text(root, "asset_id"),
+                text(root, "timestamp"),
+                number(root, "volatility_score"),
+                text(root, "trend"),
+                root.path("anomaly_detected").isBoolean() ? root.get("anomaly_detected").asBoolean() : null,
+                text(root, "recommended_strategy"),
+                number(root, "confidence"),
+                root.path("last_price").isNumber() ? root.get("last_price").decimalValue() : null);
+    }
+
+    @Override
+    public Map<String, Object> toFields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("asset_id", assetId);
+        fields.put("timestamp", timestamp);
+        fields.put("volatility_score", volatilityScore);
+        fields.put("trend", trend);
+        fields.put("anomaly_detected", anomalyDetected);
+        fields.put("recommended_strategy", recommendedStrategy);
+        fields.put("confidence", confidence);
+        fields.put("last_price", lastPrice);
+        fields.values().removeIf(Objects::isNull);
+        return fields;
+    }
+
+    private static String text(JsonNode root, String field) {
+        JsonNode node = root.get(field);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static Double number(JsonNode root, String field) {
+        JsonNode node = root.get(field);
+        return node != null && node.isNumber() ? node.asDouble() : null;
+    }
+}
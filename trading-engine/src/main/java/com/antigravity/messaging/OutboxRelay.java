@@ -0,0 +1,189 @@
+package com.antigravity.messaging;
+
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.config.SchedulingConfig;
+import com.antigravity.models.OutboxEvent;
+import com.antigravity.models.OutboxEventRepository;
+import com.antigravity.tracing.LatencyTraceCollector;
+import com.antigravity.tracing.TraceContext;
+import com.antigravity.tracing.TraceStage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes outbox rows to Kafka. Each batch is claimed under a row lock,
+ * sent inside one Kafka transaction on an idempotent producer, and marked
+ * published in the same database transaction that claimed it. A crash between
+ * the Kafka commit and the database commit republishes the batch; consumers
+ * drop those copies by the {@link #HEADER_EVENT_ID} header.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final String HEADER_EVENT_ID = "x-antigravity-event-id";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LatencyTraceCollector latencyTraceCollector;
+    private final int batchSize;
+    private final Duration retention;
+    private final Counter published;
+    private final Counter failedBatches;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+            KafkaProperties kafkaProperties,
+            PlatformTransactionManager transactionManager,
+            LatencyTraceCollector latencyTraceCollector,
+            MeterRegistry meterRegistry,
+            @Value("${antigravity.outbox.transaction-id-prefix:antigravity-outbox-}") String transactionIdPrefix,
+            @Value("${antigravity.outbox.batch-size:200}") int batchSize,
+            @Value("${antigravity.outbox.retention-hours:24}") long retentionHours) {
+        this(outboxEventRepository, new KafkaTemplate<>(transactionalProducerFactory(kafkaProperties,
+                transactionIdPrefix)), new TransactionTemplate(transactionManager), latencyTraceCollector,
+                meterRegistry, batchSize, retentionHours);
+    }
+
+    OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, byte[]> kafkaTemplate,
+            TransactionTemplate transactionTemplate, LatencyTraceCollector latencyTraceCollector,
+            MeterRegistry meterRegistry, int batchSize, long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.latencyTraceCollector = latencyTraceCollector;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+        this.published = Counter.builder("antigravity.outbox.published")
+                .description("Outbox events committed to Kafka")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("antigravity.outbox.failed.batches")
+                .description("Relay batches rolled back after a Kafka or database failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Idempotent, transactional producer dedicated to the relay. The shared
+     * KafkaTemplate stays non-transactional so agents can keep sending
+     * outside a Kafka transaction.
+     */
+    private static DefaultKafkaProducerFactory<String, byte[]> transactionalProducerFactory(
+            KafkaProperties kafkaProperties, String transactionIdPrefix) {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(null);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(config);
+        factory.setTransactionIdPrefix(transactionIdPrefix);
+        return factory;
+    }
+
+    @Scheduled(fixedDelayString = "${antigravity.outbox.poll-interval-ms:100}",
+            scheduler = SchedulingConfig.CRITICAL_SCHEDULER)
+    public void scheduledRelay() {
+        try {
+            relayPending();
+        } catch (RuntimeException e) {
+            log.error("[OutboxRelay] Relay pass failed; pending events stay queued: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drains the outbox batch by batch until a short batch signals it is empty.
+     *
+     * @return number of events published in this pass
+     */
+    public int relayPending() {
+        int total = 0;
+        int relayed;
+        do {
+            try {
+                relayed = relayBatch();
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                throw e;
+            }
+            total += relayed;
+        } while (relayed == batchSize);
+        if (total > 0) {
+            log.debug("[OutboxRelay] Published {} outbox events", total);
+        }
+        return total;
+    }
+
+    private int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.findPendingForUpdate(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            // The Kafka commit waits for every send to be acknowledged, so one
+            // round of acks covers the whole batch.
+            kafkaTemplate.executeInTransaction(operations -> {
+                batch.forEach(event -> operations.send(toRecord(event)));
+                return null;
+            });
+            LocalDateTime now = LocalDateTime.now();
+            batch.forEach(event -> event.markPublished(now));
+            outboxEventRepository.saveAll(batch);
+            return batch.size();
+        });
+        int count = relayed == null ? 0 : relayed;
+        published.increment(count);
+        return count;
+    }
+
+    private ProducerRecord<String, byte[]> toRecord(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), event.getMessageKey(),
+                event.getPayload());
+        TraceContext trace = TraceContext.decode(event.getTraceHeaders());
+        if (KafkaConfig.TOPIC_TRADE_LOGS.equals(event.getTopic())) {
+            latencyTraceCollector.record(trace, TraceStage.TRADE_LOG_PUBLISHED);
+        }
+        trace.writeTo(record.headers());
+        record.headers().add(HEADER_EVENT_ID, event.getId().toString().getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    @Scheduled(fixedDelayString = "${antigravity.outbox.purge-interval-ms:3600000}")
+    public void purgePublished() {
+        Integer removed = transactionTemplate.execute(
+                status -> outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (removed != null && removed > 0) {
+            log.info("[OutboxRelay] Purged {} published outbox events older than {}", removed, retention);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (kafkaTemplate.getProducerFactory() instanceof DefaultKafkaProducerFactory<?, ?> factory) {
+            factory.destroy();
+        }
+    }
+}
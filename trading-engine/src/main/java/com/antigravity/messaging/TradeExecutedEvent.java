@@ -0,0 +1,42 @@
+package com.antigravity.messaging;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * trade.execution.logs: a trade TradeAgent has persisted. Field names in
+ * {@link #toFields()} match the JSON the topic carried before it went binary.
+ */
+public record TradeExecutedEvent(
+        String userId,
+        String assetId,
+        String action,
+        BigDecimal amountAllocated,
+        BigDecimal executionPrice,
+        String strategyUsed,
+        BigDecimal cvarExposure,
+        long executedAtMillis) implements AgentEvent {
+
+    @Override
+    public EventSchema schema() {
+        return EventSchema.TRADE_EXECUTED;
+    }
+
+    @Override
+    public Map<String, Object> toFields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("userId", userId);
+        fields.put("assetId", assetId);
+        fields.put("action", action);
+        fields.put("amountAllocated", amountAllocated);
+        fields.put("executionPrice", executionPrice);
+        fields.put("strategyUsed", strategyUsed);
+        fields.put("cvarExposure", cvarExposure);
+        fields.put("timestamp", Instant.ofEpochMilli(executedAtMillis).toString());
+        fields.values().removeIf(Objects::isNull);
+        return fields;
+    }
+}
@@ -1,15 +1,21 @@
 package com.antigravity.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * On PostgreSQL the table is range-partitioned by day on timestamp (see
+ * schema-postgresql.sql), so the primary key there is (id, timestamp).
+ */
 @Entity
-@Table(name = "agent_audit_logs")
+@Table(name = "agent_audit_logs",
+        indexes = @Index(name = "idx_audit_agent_ts", columnList = "agentName, timestamp DESC"))
 public class AgentAuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuid.class)
     private UUID id;
 
     @Column(nullable = false)
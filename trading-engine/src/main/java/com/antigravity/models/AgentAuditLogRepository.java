@@ -1,11 +1,41 @@
 package com.antigravity.models;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface AgentAuditLogRepository extends JpaRepository<AgentAuditLog, UUID> {
-    List<AgentAuditLog> findByAgentNameOrderByTimestampDesc(String agentName);
+
+    /**
+     * Newest first, one page at a time; served by idx_audit_agent_ts. Read-only
+     * audit queries go to the read replica when one is configured.
+     */
+    @Transactional(readOnly = true)
+    Slice<AgentAuditLog> findByAgentNameOrderByTimestampDesc(String agentName, Pageable pageable);
+
+    /**
+     * Newest first within a time window. The lower bound lets PostgreSQL
+     * prune partitions older than {@code since}.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT a FROM AgentAuditLog a WHERE a.agentName = :agentName AND a.timestamp >= :since "
+            + "ORDER BY a.timestamp DESC")
+    Slice<AgentAuditLog> findRecentByAgentName(@Param("agentName") String agentName,
+            @Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * Retention for databases without partitioning.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AgentAuditLog a WHERE a.timestamp < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
 }
@@ -0,0 +1,101 @@
+package com.antigravity.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One user's trading in one asset on one day, rolled up from trades by
+ * TradeSummaryJob so dashboard charts read O(days) rows instead of scanning
+ * trades. Realized P&L is on an average-cost basis (see
+ * {@link TradePosition}).
+ */
+@Entity
+@Table(name = "daily_trade_summaries")
+public class DailyTradeSummary {
+
+    @Embeddable
+    public record Key(
+            @Column(nullable = false) String userId,
+            @Column(nullable = false) LocalDate tradeDate,
+            @Column(nullable = false) String assetId) implements Serializable {
+
+        public static Key of(Trade trade) {
+            return new Key(trade.getUserId(), trade.getTimestamp().toLocalDate(), trade.getAssetId());
+        }
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private long tradeCount;
+
+    // Sum of amountAllocated, buys and sells alike
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal notional = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal realizedPnl = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal maxCvarExposure = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private LocalDateTime lastUpdatedAt;
+
+    public DailyTradeSummary() {
+    }
+
+    public DailyTradeSummary(Key key) {
+        this.key = key;
+    }
+
+    public void add(Trade trade, BigDecimal realized) {
+        tradeCount++;
+        notional = notional.add(trade.getAmountAllocated());
+        realizedPnl = realizedPnl.add(realized);
+        maxCvarExposure = maxCvarExposure.max(trade.getCvarExposure());
+        lastUpdatedAt = LocalDateTime.now();
+    }
+
+    // Not a bean getter, so the JSON shows the flat fields below instead
+    public Key key() {
+        return key;
+    }
+
+    public String getUserId() {
+        return key.userId();
+    }
+
+    public LocalDate getTradeDate() {
+        return key.tradeDate();
+    }
+
+    public String getAssetId() {
+        return key.assetId();
+    }
+
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public BigDecimal getNotional() {
+        return notional;
+    }
+
+    public BigDecimal getRealizedPnl() {
+        return realizedPnl;
+    }
+
+    public BigDecimal getMaxCvarExposure() {
+        return maxCvarExposure;
+    }
+
+    public LocalDateTime getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+}
@@ -0,0 +1,22 @@
+package com.antigravity.models;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyTradeSummaryRepository extends JpaRepository<DailyTradeSummary, DailyTradeSummary.Key> {
+
+    /**
+     * A user's daily rows in a date range, oldest first; served by the
+     * primary key and, when configured, the read replica.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT s FROM DailyTradeSummary s WHERE s.key.userId = :userId "
+            + "AND s.key.tradeDate BETWEEN :from AND :to ORDER BY s.key.tradeDate, s.key.assetId")
+    List<DailyTradeSummary> findForUser(@Param("userId") String userId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+}
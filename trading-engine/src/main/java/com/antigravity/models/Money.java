@@ -0,0 +1,156 @@
+package com.antigravity.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a scaled long with four decimal places, matching the
+ * precision = 19, scale = 4 capital columns. Arithmetic allocates no
+ * intermediate BigDecimals and fails with ArithmeticException rather than
+ * wrapping on overflow. One unit is 0.0001, so a rate with four decimals (a
+ * CVaR threshold of 0.10, say) is a whole number of basis points.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 4;
+    private static final long ONE = 10_000L;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long units;
+
+    private Money(long units) {
+        this.units = units;
+    }
+
+    public static Money ofUnits(long units) {
+        return units == 0 ? ZERO : new Money(units);
+    }
+
+    /**
+     * Rounds half-up to four decimal places, as the database column would.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofUnits(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    /**
+     * A four-decimal rate as basis points: 0.10 becomes 1000.
+     */
+    public static long basisPoints(BigDecimal rate) {
+        return of(rate).units;
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public Money plus(Money other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    public Money abs() {
+        return units >= 0 ? this : ofUnits(Math.negateExact(units));
+    }
+
+    /**
+     * This amount times a rate in basis points, rounded half-up.
+     */
+    public Money timesBasisPoints(long basisPoints) {
+        return ofUnits(divideHalfUp(Math.multiplyExact(units, basisPoints), ONE));
+    }
+
+    /**
+     * The fraction this amount is of {@code whole}, in basis points, rounded
+     * up so that a risk share derived from it is never understated.
+     */
+    public long basisPointsOf(Money whole) {
+        return Math.ceilDiv(Math.multiplyExact(units, ONE), whole.units);
+    }
+
+    /**
+     * The largest amount whose {@code basisPoints} share does not exceed this
+     * one: the inverse of {@link #timesBasisPoints}, rounded down.
+     */
+    public Money dividedByBasisPoints(long basisPoints) {
+        return ofUnits(Math.floorDiv(Math.multiplyExact(units, ONE), basisPoints));
+    }
+
+    /**
+     * Whole multiples of {@code price} that fit in this amount.
+     */
+    public long wholeUnitsOf(Money price) {
+        return Math.floorDiv(units, price.units);
+    }
+
+    public Money min(Money other) {
+        return units <= other.units ? this : other;
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return units > other.units;
+    }
+
+    public boolean isLessThan(Money other) {
+        return units < other.units;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Approximate value, for statistical estimates (volatility, exposure)
+     * that are never stored or added back into a balance.
+     */
+    public double toDouble() {
+        return (double) units / ONE;
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    /**
+     * Plain decimal with four places, e.g. 1500.0000 or -0.2500.
+     */
+    @Override
+    public String toString() {
+        long whole = units / ONE;
+        long fraction = Math.abs(units % ONE);
+        String sign = units < 0 && whole == 0 ? "-" : "";
+        return sign + whole + "." + (fraction + ONE + "").substring(1);
+    }
+}
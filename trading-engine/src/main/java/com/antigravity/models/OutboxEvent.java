@@ -0,0 +1,83 @@
+package com.antigravity.models;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A Kafka record written in the same transaction as the state change it
+ * announces. OutboxRelay publishes pending rows and stamps publishedAt; the
+ * row id travels as the event id so consumers can drop redeliveries.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_pending", columnList = "published_at, created_at"))
+public class OutboxEvent {
+
+    @Id
+    @UuidGenerator(algorithm = TimeOrderedUuid.class)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    private String messageKey;
+
+    // Encoded record value (EventCodec for agent topics)
+    @Column(nullable = false, length = 65_536)
+    private byte[] payload;
+
+    // TraceContext.encode() of the producing trace, restored onto the record's headers
+    @Column(length = 1024)
+    private String traceHeaders;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String topic, String messageKey, byte[] payload, String traceHeaders) {
+        this.topic = topic;
+        this.messageKey = messageKey;
+        this.payload = payload;
+        this.traceHeaders = traceHeaders;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public void markPublished(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getMessageKey() {
+        return messageKey;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public String getTraceHeaders() {
+        return traceHeaders;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+}
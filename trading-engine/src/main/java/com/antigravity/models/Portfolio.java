@@ -1,18 +1,34 @@
 package com.antigravity.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UuidGenerator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Cached in the second-level cache, keyed by id and by userId. READ_WRITE
+ * soft-locks the entry while a capital write is in flight, so reads during a
+ * deposit or withdrawal go to the database, and replaces it on commit.
+ */
 @Entity
 @Table(name = "portfolios")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Portfolio.CACHE_REGION)
+@NaturalIdCache(region = Portfolio.NATURAL_ID_CACHE_REGION)
 public class Portfolio {
 
+    public static final String CACHE_REGION = "portfolios";
+    public static final String NATURAL_ID_CACHE_REGION = "portfolios-by-user";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuid.class)
     private UUID id;
 
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String userId;
 
@@ -23,7 +39,7 @@ public class Portfolio {
      * Increases ONLY via confirmed broker deposits (SyncCdsDeposit MCP tool).
      */
     @Column(nullable = false, precision = 19, scale = 4)
-    private BigDecimal protectedCapitalBase = BigDecimal.ZERO;
+    private Money protectedCapitalBase = Money.ZERO;
 
     /**
      * Trailing profits generated by the system.
@@ -31,14 +47,14 @@ public class Portfolio {
      * Only this amount may be used for withdrawals.
      */
     @Column(nullable = false, precision = 19, scale = 4)
-    private BigDecimal accumulatedProfit = BigDecimal.ZERO;
+    private Money accumulatedProfit = Money.ZERO;
 
     /**
      * Cumulative sum of all confirmed manual withdrawals (stock sells → CDS cash).
      * Tracked for UI display only. Does not affect capital preservation constraint.
      */
     @Column(nullable = false, precision = 19, scale = 4)
-    private BigDecimal totalWithdrawals = BigDecimal.ZERO;
+    private Money totalWithdrawals = Money.ZERO;
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
@@ -51,7 +67,7 @@ public class Portfolio {
 
     public Portfolio(String userId, BigDecimal initialDeposit) {
         this.userId = userId;
-        this.protectedCapitalBase = initialDeposit;
+        this.protectedCapitalBase = Money.of(initialDeposit);
         this.createdAt = LocalDateTime.now();
         this.lastUpdatedAt = LocalDateTime.now();
     }
@@ -66,15 +82,28 @@ public class Portfolio {
     }
 
     public BigDecimal getProtectedCapitalBase() {
-        return protectedCapitalBase;
+        return protectedCapitalBase.toBigDecimal();
     }
 
     public BigDecimal getAccumulatedProfit() {
-        return accumulatedProfit;
+        return accumulatedProfit.toBigDecimal();
     }
 
     public BigDecimal getTotalWithdrawals() {
-        return totalWithdrawals;
+        return totalWithdrawals.toBigDecimal();
+    }
+
+    // --- Fixed-point views for the capital check hot path ---
+    public Money protectedCapitalBase() {
+        return protectedCapitalBase;
+    }
+
+    public Money accumulatedProfit() {
+        return accumulatedProfit;
+    }
+
+    public Money totalCurrentValue() {
+        return protectedCapitalBase.plus(accumulatedProfit);
     }
 
     public LocalDateTime getCreatedAt() {
@@ -90,7 +119,7 @@ public class Portfolio {
      * Adds to the permanent, firewalled protected capital base.
      */
     public void addDeposit(BigDecimal amount) {
-        this.protectedCapitalBase = this.protectedCapitalBase.add(amount);
+        this.protectedCapitalBase = this.protectedCapitalBase.plus(Money.of(amount));
         this.lastUpdatedAt = LocalDateTime.now();
     }
 
@@ -98,7 +127,7 @@ public class Portfolio {
      * Called by Trade Agent when a trade generates profit.
      */
     public void addProfit(BigDecimal amount) {
-        this.accumulatedProfit = this.accumulatedProfit.add(amount);
+        this.accumulatedProfit = this.accumulatedProfit.plus(Money.of(amount));
         this.lastUpdatedAt = LocalDateTime.now();
     }
 
@@ -108,7 +137,7 @@ public class Portfolio {
      * CVaR constraint.
      */
     public void deductLoss(BigDecimal amount) {
-        this.accumulatedProfit = this.accumulatedProfit.subtract(amount);
+        this.accumulatedProfit = this.accumulatedProfit.minus(Money.of(amount));
         this.lastUpdatedAt = LocalDateTime.now();
     }
 
@@ -118,11 +147,15 @@ public class Portfolio {
      * Protected capital base is NEVER reduced by this operation.
      */
     public boolean processWithdrawal(BigDecimal requestedAmount) {
-        if (requestedAmount.compareTo(accumulatedProfit) > 0) {
+        return processWithdrawal(Money.of(requestedAmount));
+    }
+
+    public boolean processWithdrawal(Money requestedAmount) {
+        if (requestedAmount.isGreaterThan(accumulatedProfit)) {
             return false;
         }
-        this.accumulatedProfit = this.accumulatedProfit.subtract(requestedAmount);
-        this.totalWithdrawals = this.totalWithdrawals.add(requestedAmount);
+        this.accumulatedProfit = this.accumulatedProfit.minus(requestedAmount);
+        this.totalWithdrawals = this.totalWithdrawals.plus(requestedAmount);
         this.lastUpdatedAt = LocalDateTime.now();
         return true;
     }
@@ -133,7 +166,7 @@ public class Portfolio {
      * positions.
      */
     public BigDecimal getTotalCurrentValue() {
-        return this.protectedCapitalBase.add(this.accumulatedProfit);
+        return totalCurrentValue().toBigDecimal();
     }
 
     @PrePersist
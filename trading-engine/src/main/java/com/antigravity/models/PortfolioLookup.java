@@ -0,0 +1,17 @@
+package com.antigravity.models;
+
+import java.util.Optional;
+
+/**
+ * Portfolio reads by userId that are served from the second-level cache.
+ */
+public interface PortfolioLookup {
+
+    /**
+     * Standard read — used by VerifyCapitalConstraint (READ_COMMITTED, no lock).
+     * Safe for high-concurrency read paths from Trade Agent. Resolved through
+     * the natural-id and entity caches, so a warm read does not touch the
+     * database.
+     */
+    Optional<Portfolio> findByUserId(String userId);
+}
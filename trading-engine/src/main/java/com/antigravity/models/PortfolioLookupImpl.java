@@ -0,0 +1,43 @@
+package com.antigravity.models;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Spring Data fragment behind {@link PortfolioRepository#findByUserId}. A
+ * derived query would always run SQL; loading by natural id lets Hibernate
+ * resolve userId to id and the entity from the cache regions on Portfolio.
+ *
+ * The caches are shared with primary-path reads such as the capital check,
+ * so only primary rows may fill them: the lookup opens a read-write
+ * transaction, which stays on the primary, and when it joins a caller's
+ * read-only one (possibly on the replica) it reads the caches without
+ * putting into them.
+ */
+class PortfolioLookupImpl implements PortfolioLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Portfolio> findByUserId(String userId) {
+        Session session = entityManager.unwrap(Session.class);
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return session.bySimpleNaturalId(Portfolio.class).loadOptional(userId);
+        }
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        try {
+            return session.bySimpleNaturalId(Portfolio.class).loadOptional(userId);
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.antigravity.models;
 
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -9,17 +11,21 @@ import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface PortfolioRepository extends JpaRepository<Portfolio, UUID> {
+/**
+ * findByUserId comes from {@link PortfolioLookup} and is cached.
+ */
+public interface PortfolioRepository extends JpaRepository<Portfolio, UUID>, PortfolioLookup {
 
     /**
-     * Standard read — used by VerifyCapitalConstraint (READ_COMMITTED, no lock).
-     * Safe for high-concurrency read paths from Trade Agent.
+     * Paged scan over all portfolios without a count query — used by the CDS
+     * reconciliation sweep.
      */
-    Optional<Portfolio> findByUserId(String userId);
+    Slice<Portfolio> findAllBy(Pageable pageable);
 
     /**
      * Pessimistic write lock — used by deposit and withdrawal write paths only.
      * Ensures serialized access during capital mutations per architecture design.
+     * Always reads the database; the following update invalidates the cached entry.
      */
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Portfolio p WHERE p.userId = :userId")
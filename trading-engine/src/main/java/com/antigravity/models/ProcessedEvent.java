@@ -0,0 +1,46 @@
+package com.antigravity.models;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event id ObserverAgent has audited, written in the same
+ * transaction as the audit row so a redelivery after a restart is still
+ * recognised. The id is assigned, so the row is always inserted: a
+ * concurrent duplicate fails on the primary key instead of being merged.
+ */
+@Entity
+@Table(name = "processed_events", indexes = @Index(name = "idx_processed_events_at", columnList = "processed_at"))
+public class ProcessedEvent implements Persistable<String> {
+
+    @Id
+    @Column(name = "event_id", length = 64)
+    private String eventId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    public ProcessedEvent() {
+    }
+
+    public ProcessedEvent(String eventId) {
+        this.eventId = eventId;
+        this.processedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String getId() {
+        return eventId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+}
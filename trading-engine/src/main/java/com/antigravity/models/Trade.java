@@ -1,16 +1,19 @@
 package com.antigravity.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UuidGenerator;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "trades")
+@Table(name = "trades", indexes = @Index(name = "idx_trades_unsummarized", columnList = "summarized_at, timestamp"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_trades_source_event_user",
+                columnNames = { "source_event", "user_id" }))
 public class Trade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuid.class)
     private UUID id;
 
     @Column(nullable = false)
@@ -38,6 +41,14 @@ public class Trade {
     @Column(nullable = false)
     private BigDecimal cvarExposure;
 
+    // Set once TradeSummaryJob has folded this trade into daily_trade_summaries
+    @Column(name = "summarized_at")
+    private LocalDateTime summarizedAt;
+
+    // The market event (topic-partition@offset) that produced this trade; null when none did
+    @Column(name = "source_event")
+    private String sourceEvent;
+
     public Trade() {
     }
 
@@ -53,6 +64,12 @@ public class Trade {
         this.timestamp = LocalDateTime.now();
     }
 
+    public Trade(String userId, String assetId, String action, BigDecimal amountAllocated, BigDecimal executionPrice,
+            String strategyUsed, BigDecimal cvarExposure, String sourceEvent) {
+        this(userId, assetId, action, amountAllocated, executionPrice, strategyUsed, cvarExposure);
+        this.sourceEvent = sourceEvent;
+    }
+
     // Getters
     public UUID getId() {
         return id;
@@ -89,4 +106,16 @@ public class Trade {
     public BigDecimal getCvarExposure() {
         return cvarExposure;
     }
+
+    public String getSourceEvent() {
+        return sourceEvent;
+    }
+
+    public LocalDateTime getSummarizedAt() {
+        return summarizedAt;
+    }
+
+    public void markSummarized(LocalDateTime at) {
+        this.summarizedAt = at;
+    }
 }
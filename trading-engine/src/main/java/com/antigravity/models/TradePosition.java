@@ -0,0 +1,82 @@
+package com.antigravity.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Running average-cost position per user and asset, kept by TradeSummaryJob
+ * to price realized P&L. A buy adds its quantity (amount / price) at cost; a
+ * sell realizes (price - average cost) on the quantity actually held. Selling
+ * more than is held realizes nothing on the excess: the engine does not
+ * short.
+ */
+@Entity
+@Table(name = "trade_positions")
+public class TradePosition {
+
+    private static final MathContext QUANTITY = MathContext.DECIMAL64;
+
+    @Embeddable
+    public record Key(
+            @Column(nullable = false) String userId,
+            @Column(nullable = false) String assetId) implements Serializable {
+
+        public static Key of(Trade trade) {
+            return new Key(trade.getUserId(), trade.getAssetId());
+        }
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false, precision = 28, scale = 10)
+    private BigDecimal quantity = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal costBasis = BigDecimal.ZERO;
+
+    public TradePosition() {
+    }
+
+    public TradePosition(Key key) {
+        this.key = key;
+    }
+
+    /**
+     * Applies the trade and returns the P&L it realized (zero for a buy).
+     */
+    public BigDecimal apply(Trade trade) {
+        BigDecimal amount = trade.getAmountAllocated();
+        BigDecimal traded = amount.divide(trade.getExecutionPrice(), QUANTITY);
+        if (!"SELL".equalsIgnoreCase(trade.getAction())) {
+            quantity = quantity.add(traded);
+            costBasis = costBasis.add(amount);
+            return BigDecimal.ZERO;
+        }
+        if (quantity.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal sold = traded.min(quantity);
+        BigDecimal releasedCost = costBasis.multiply(sold).divide(quantity, 4, RoundingMode.HALF_UP);
+        BigDecimal proceeds = sold.multiply(trade.getExecutionPrice()).setScale(4, RoundingMode.HALF_UP);
+        quantity = quantity.subtract(sold);
+        costBasis = quantity.signum() == 0 ? BigDecimal.ZERO : costBasis.subtract(releasedCost);
+        return proceeds.subtract(releasedCost);
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getCostBasis() {
+        return costBasis;
+    }
+}
@@ -0,0 +1,14 @@
+package com.antigravity.models;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TradePositionRepository extends JpaRepository<TradePosition, TradePosition.Key> {
+
+    /**
+     * Paged scan over all positions without a count query — used by the
+     * portfolio index reload.
+     */
+    Slice<TradePosition> findAllBy(Pageable pageable);
+}
@@ -2,12 +2,42 @@ package com.antigravity.models;
 
 import java.util.List;
 import java.util.UUID;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, UUID> {
     List<Trade> findByAssetId(String assetId);
 
+    /**
+     * Trade history for the dashboard; read-only, so served by the read
+     * replica when one is configured.
+     */
+    @Transactional(readOnly = true)
     List<Trade> findByUserIdOrderByTimestampDesc(String userId);
+
+    /**
+     * Oldest trades not yet rolled up, row-locked so a second summary job
+     * instance waits instead of counting them twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Trade t WHERE t.summarizedAt IS NULL ORDER BY t.timestamp, t.id")
+    List<Trade> findUnsummarizedForUpdate(Pageable pageable);
+
+    /**
+     * Trades TradeSummaryJob has not rolled into trade_positions yet; the
+     * portfolio index adds them to the positions it reloads.
+     */
+    @Transactional(readOnly = true)
+    List<Trade> findBySummarizedAtIsNull();
+
+    /** Users whose trade for this market event is already booked. */
+    @Query("SELECT t.userId FROM Trade t WHERE t.sourceEvent = :sourceEvent")
+    List<String> findUserIdsBySourceEvent(@Param("sourceEvent") String sourceEvent);
 }
@@ -0,0 +1,263 @@
+package com.antigravity.risk;
+
+import com.antigravity.config.AllocationProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Fractional-Kelly allocation under a CVaR budget. Maximizes the quadratic
+ * approximation of log growth, {@code μᵀw − wᵀΣw / (2τ)}, whose unconstrained
+ * optimum {@code τ Σ⁻¹ μ} is the Kelly position scaled by τ = fraction ×
+ * wealth, subject to per-asset bounds and to {@code cᵀ(w − w₀) ≤ B}: the
+ * CVaR added over the current positions w₀ at c per unit of money must fit
+ * the budget. CVaR is subadditive, so summing per-asset CVaR is a
+ * conservative bound on the portfolio's.
+ *
+ * Solved by accelerated projected gradient (FISTA), restarting the momentum
+ * whenever it stops pointing uphill. The projection onto the bounds and the
+ * budget is exact: the budget's multiplier is found among the sorted points
+ * where assets reach a bound. Matrix-vector products run on a dedicated pool
+ * from {@code parallel-threshold} assets; smaller universes stay on the
+ * caller's thread.
+ */
+@Component
+public class AllocationOptimizer {
+
+    /**
+     * One allocation problem over n assets, amounts in money.
+     *
+     * @param expectedReturns μ, per unit of money over the horizon
+     * @param covariance      Σ, n × n row-major, of returns over the horizon
+     * @param riskTolerance   τ, the Kelly fraction times wealth
+     * @param cvarRates       c, CVaR per unit of money bought
+     * @param cvarBudget      B, CVaR the new positions may add
+     */
+    public record Problem(double[] expectedReturns, double[] covariance, double[] current, double[] lower,
+            double[] upper, double[] cvarRates, double cvarBudget, double riskTolerance) {
+
+        int size() {
+            return expectedReturns.length;
+        }
+    }
+
+    /** The optimal positions, in money, and whether the solve converged within the iteration cap. */
+    public record Solution(double[] positions, int iterations, boolean converged) {
+    }
+
+    private final int parallelThreshold;
+    private final int maxIterations;
+    private final double tolerance;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public AllocationOptimizer(AllocationProperties properties) {
+        this(properties.parallelThreshold(), properties.parallelism(), properties.maxIterations(),
+                properties.tolerance());
+    }
+
+    public AllocationOptimizer(int parallelThreshold, int parallelism, int maxIterations, double tolerance) {
+        this.parallelThreshold = parallelThreshold;
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public Solution solve(Problem problem) {
+        int n = problem.size();
+        double[] w = new double[n];
+        double[] z = new double[n];
+        double[] next = new double[n];
+        double[] step = new double[n];
+        double[] product = new double[n];
+        double[] breakpoints = new double[2 * n];
+
+        double lipschitz = lipschitz(problem);
+        if (!(lipschitz > 0)) {
+            // No variance among the free assets: take each one with an edge as far as the bounds and budget allow
+            for (int i = 0; i < n; i++) {
+                next[i] = problem.expectedReturns()[i] > 0 ? problem.upper()[i] : problem.lower()[i];
+            }
+            project(problem, next, w, breakpoints);
+            return new Solution(w, 0, true);
+        }
+        project(problem, problem.current().clone(), w, breakpoints);
+        System.arraycopy(w, 0, z, 0, n);
+
+        double t = 1.0;
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            multiply(problem.covariance(), z, product);
+            for (int i = 0; i < n; i++) {
+                step[i] = z[i] + (problem.expectedReturns()[i] - product[i] / problem.riskTolerance()) / lipschitz;
+            }
+            project(problem, step, next, breakpoints);
+
+            double change = 0;
+            double scale = 1;
+            double uphill = 0;
+            for (int i = 0; i < n; i++) {
+                change = Math.max(change, Math.abs(next[i] - w[i]));
+                scale = Math.max(scale, Math.abs(next[i]));
+                uphill += (next[i] - z[i]) * (next[i] - w[i]);
+            }
+            if (uphill < 0) {
+                t = 1;
+            }
+            double tNext = (1 + Math.sqrt(1 + 4 * t * t)) / 2;
+            double momentum = (t - 1) / tNext;
+            for (int i = 0; i < n; i++) {
+                z[i] = next[i] + momentum * (next[i] - w[i]);
+            }
+            double[] swap = w;
+            w = next;
+            next = swap;
+            t = tNext;
+            if (change <= tolerance * scale) {
+                return new Solution(w, iteration, true);
+            }
+        }
+        return new Solution(w, maxIterations, false);
+    }
+
+    /**
+     * Σ's largest eigenvalue over τ, bounded by the largest absolute row sum
+     * over the assets that can move (Gershgorin).
+     */
+    private static double lipschitz(Problem problem) {
+        int n = problem.size();
+        double[] sigma = problem.covariance();
+        double bound = 0;
+        for (int i = 0; i < n; i++) {
+            if (problem.upper()[i] <= problem.lower()[i]) {
+                continue;
+            }
+            double row = 0;
+            for (int j = 0; j < n; j++) {
+                if (problem.upper()[j] > problem.lower()[j]) {
+                    row += Math.abs(sigma[i * n + j]);
+                }
+            }
+            bound = Math.max(bound, row);
+        }
+        return bound / problem.riskTolerance();
+    }
+
+    private void multiply(double[] matrix, double[] vector, double[] result) {
+        int n = vector.length;
+        if (n < parallelThreshold) {
+            for (int i = 0; i < n; i++) {
+                result[i] = dot(matrix, i * n, vector);
+            }
+            return;
+        }
+        // One block of rows per worker; a task per row costs more than its dot product
+        int blocks = pool.getParallelism();
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+            for (int i = n * block / blocks, end = n * (block + 1) / blocks; i < end; i++) {
+                result[i] = dot(matrix, i * n, vector);
+            }
+        })).join();
+    }
+
+    /** Four independent sums, so the additions pipeline instead of waiting on each other. */
+    private static double dot(double[] matrix, int offset, double[] vector) {
+        int n = vector.length;
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int j = 0;
+        for (; j + 3 < n; j += 4) {
+            s0 += matrix[offset + j] * vector[j];
+            s1 += matrix[offset + j + 1] * vector[j + 1];
+            s2 += matrix[offset + j + 2] * vector[j + 2];
+            s3 += matrix[offset + j + 3] * vector[j + 3];
+        }
+        for (; j < n; j++) {
+            s0 += matrix[offset + j] * vector[j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Projects y onto the bounds and the CVaR budget, into {@code result}:
+     * clamp(y − νc) for the smallest ν ≥ 0 that fits the budget. The CVaR
+     * added is piecewise linear and non-increasing in ν, with a kink wherever
+     * an asset reaches a bound, so ν lies between two sorted kinks and is
+     * interpolated there.
+     */
+    private static void project(Problem problem, double[] y, double[] result, double[] breakpoints) {
+        clamp(problem, y, 0, result);
+        double budget = problem.cvarBudget();
+        if (added(problem, result) <= budget) {
+            return;
+        }
+        int count = 0;
+        for (int i = 0; i < y.length; i++) {
+            double rate = problem.cvarRates()[i];
+            if (rate > 0) {
+                double toUpper = (y[i] - problem.upper()[i]) / rate;
+                double toLower = (y[i] - problem.lower()[i]) / rate;
+                if (toUpper > 0) {
+                    breakpoints[count++] = toUpper;
+                }
+                if (toLower > 0) {
+                    breakpoints[count++] = toLower;
+                }
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        Arrays.sort(breakpoints, 0, count);
+        // The first kink at which the budget fits; there is one, as at the last every rated asset is at its lower bound
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            clamp(problem, y, breakpoints[mid], result);
+            if (added(problem, result) > budget) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        double upperMultiplier = breakpoints[low];
+        clamp(problem, y, upperMultiplier, result);
+        double upperAdded = added(problem, result);
+        if (upperAdded >= budget) {
+            // Even at the lower bounds the budget may not fit; nothing more can be added then
+            return;
+        }
+        double lowerMultiplier = low == 0 ? 0 : breakpoints[low - 1];
+        clamp(problem, y, lowerMultiplier, result);
+        double lowerAdded = added(problem, result);
+        double multiplier = lowerMultiplier
+                + (lowerAdded - budget) / (lowerAdded - upperAdded) * (upperMultiplier - lowerMultiplier);
+        clamp(problem, y, multiplier, result);
+    }
+
+    private static void clamp(Problem problem, double[] y, double multiplier, double[] result) {
+        for (int i = 0; i < y.length; i++) {
+            double value = y[i] - multiplier * problem.cvarRates()[i];
+            result[i] = Math.max(problem.lower()[i], Math.min(problem.upper()[i], value));
+        }
+    }
+
+    private static double added(Problem problem, double[] w) {
+        double cvar = 0;
+        for (int i = 0; i < w.length; i++) {
+            cvar += problem.cvarRates()[i] * (w[i] - problem.current()[i]);
+        }
+        return cvar;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,452 @@
+package com.antigravity.risk;
+
+import com.antigravity.config.AnalysisSchedulerProperties;
+import com.antigravity.config.CorrelationRiskProperties;
+import com.antigravity.journal.JournalParticipant;
+import com.antigravity.journal.JournalRecord;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Rolling covariance and correlation of log returns across the watchlist,
+ * updated in O(n) per price sample and held in flat primitive arrays so the
+ * capital check can price a portfolio's risk in well under a microsecond.
+ *
+ * Symbols are polled at different, adaptive intervals, so their returns
+ * never line up. Co-moments are therefore accumulated Hayashi-Yoshida style:
+ * a pair of returns contributes when their intervals overlap, each pair
+ * counted once by whichever return completes second. Intraday returns are
+ * taken as zero-mean, as is usual at this frequency. Weights decay
+ * exponentially in market time, where a gap longer than the longest poll
+ * interval (a night, a halt) counts as that interval, so the estimate does
+ * not fade away overnight.
+ *
+ * Fed by {@link com.antigravity.agents.analysis.AdaptiveAnalysisScheduler}
+ * inside its journaled ticks, so the matrix is restored with them on restart.
+ */
+@Component
+public class CorrelationMatrix implements JournalParticipant {
+
+    private static final Logger log = LoggerFactory.getLogger(CorrelationMatrix.class);
+
+    // Sums are kept multiplied by a growing factor instead of decaying all n² of them per sample
+    private static final double RESCALE_ABOVE = 1e100;
+
+    /** A position valued at the last sampled price, or at cost for symbols without one. */
+    public record Holding(String assetId, double quantity, double costBasis) {
+    }
+
+    /**
+     * One portfolio's risk with a trade added, in money.
+     *
+     * @param volatility         one-session standard deviation of the
+     *                           portfolio's value
+     * @param correlatedExposure value of the holdings that move with the
+     *                           traded asset, each weighted by its positive
+     *                           correlation to it; hedges are not credited
+     */
+    public record PortfolioRisk(double volatility, double correlatedExposure) {
+    }
+
+    /**
+     * A buy's asset and the portfolio's other holdings, the bought asset
+     * first: each one's current value and their one-session covariance of
+     * returns, k × k row-major. Assets without enough returns have zero
+     * rows.
+     */
+    public record Universe(double[] values, double[] covariance) {
+    }
+
+    private final String[] symbols;
+    // Bare watchlist symbols, plus asset ids already resolved (-1 for unknown ones)
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private final int n;
+    private final double decayPerMilli;
+    private final long maxGapMillis;
+    private final double horizonMillis;
+    private final int minSamples;
+
+    private final StampedLock lock = new StampedLock();
+    // n × n, row-major; comoments is symmetric and written on both sides so reads touch one cell
+    private final double[] comoments;
+    // pending[i * n + j]: j's returns completed during i's open interval, awaiting i's return
+    private final double[] pending;
+    private final double[] lastLogPrice;
+    private final double[] lastPrice;
+    private final long[] intervalStart;
+    private final int[] samples;
+
+    private long marketMillis;
+    private long lastEpochMillis = Long.MIN_VALUE;
+    private long growthBase;
+    private double growth = 1.0;
+    private double weightedMillis;
+
+    @Autowired
+    public CorrelationMatrix(AnalysisSchedulerProperties scheduler, CorrelationRiskProperties properties,
+            MeterRegistry meterRegistry) {
+        this(scheduler.watchlist(), properties.halfLife(), scheduler.intervals().max(),
+                Duration.between(scheduler.calendar().open(), scheduler.calendar().close()),
+                properties.minSamples());
+        Gauge.builder("antigravity.risk.correlation.symbols.ready", this, CorrelationMatrix::readySymbols)
+                .description("Watched symbols with enough returns to enter portfolio risk")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param maxGap  the most market time a single gap between samples adds
+     * @param horizon the period variances are expressed over, one session
+     */
+    public CorrelationMatrix(List<String> symbols, Duration halfLife, Duration maxGap, Duration horizon,
+            int minSamples) {
+        this.symbols = symbols.toArray(String[]::new);
+        this.n = this.symbols.length;
+        for (int i = 0; i < n; i++) {
+            indexes.put(this.symbols[i], i);
+        }
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+        this.maxGapMillis = maxGap.toMillis();
+        this.horizonMillis = horizon.toMillis();
+        this.minSamples = minSamples;
+        this.comoments = new double[n * n];
+        this.pending = new double[n * n];
+        this.lastLogPrice = new double[n];
+        this.lastPrice = new double[n];
+        this.intervalStart = new long[n];
+        this.samples = new int[n];
+        Arrays.fill(lastLogPrice, Double.NaN);
+        Arrays.fill(lastPrice, Double.NaN);
+    }
+
+    /** Records a price sample; symbols outside the watchlist are ignored. */
+    public void observe(String symbol, long epochMillis, double price) {
+        int i = indexOf(symbol);
+        if (i < 0 || !(price > 0)) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            advance(epochMillis);
+            update(i, price);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void advance(long epochMillis) {
+        if (lastEpochMillis != Long.MIN_VALUE) {
+            marketMillis += Math.min(Math.max(epochMillis - lastEpochMillis, 0), maxGapMillis);
+        }
+        lastEpochMillis = Math.max(lastEpochMillis, epochMillis);
+        double next = Math.exp(decayPerMilli * (marketMillis - growthBase));
+        weightedMillis += (next - growth) / decayPerMilli;
+        growth = next;
+        if (growth > RESCALE_ABOVE) {
+            for (int k = 0; k < comoments.length; k++) {
+                comoments[k] /= growth;
+            }
+            weightedMillis /= growth;
+            growthBase = marketMillis;
+            growth = 1.0;
+        }
+    }
+
+    private void update(int i, double price) {
+        double logPrice = Math.log(price);
+        if (!Double.isNaN(lastLogPrice[i])) {
+            double r = logPrice - lastLogPrice[i];
+            double weighted = r * growth;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                if (j == i) {
+                    comoments[row + i] += weighted * r;
+                    continue;
+                }
+                double overlapping = pending[row + j];
+                if (overlapping != 0) {
+                    double c = weighted * overlapping;
+                    comoments[row + j] += c;
+                    comoments[j * n + i] += c;
+                    pending[row + j] = 0;
+                }
+                // j's open interval overlaps this one unless it started just now
+                if (!Double.isNaN(lastLogPrice[j]) && intervalStart[j] < marketMillis) {
+                    pending[j * n + i] += r;
+                }
+            }
+            samples[i]++;
+        }
+        lastLogPrice[i] = logPrice;
+        lastPrice[i] = price;
+        intervalStart[i] = marketMillis;
+    }
+
+    /** One-session covariance of two symbols' log returns, or NaN if either is unknown or not ready. */
+    public double covariance(String a, String b) {
+        long stamp = lock.readLock();
+        try {
+            int i = indexOf(a);
+            int j = indexOf(b);
+            return i < 0 || j < 0 || !ready(i) || !ready(j) ? Double.NaN : covariance(i, j);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public double correlation(String a, String b) {
+        long stamp = lock.readLock();
+        try {
+            int i = indexOf(a);
+            int j = indexOf(b);
+            return i < 0 || j < 0 || !ready(i) || !ready(j) ? Double.NaN : correlation(i, j);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The portfolio's risk once {@code tradeValue} more of {@code assetId} is
+     * held. Symbols without enough returns contribute no variance and count
+     * as uncorrelated, so the limits only tighten as data arrives; the traded
+     * asset's own holding always counts in full.
+     */
+    public PortfolioRisk assess(List<Holding> holdings, String assetId, double tradeValue) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            PortfolioRisk risk = compute(holdings, assetId, tradeValue);
+            if (lock.validate(stamp)) {
+                return risk;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return compute(holdings, assetId, tradeValue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** The universe for sizing a buy of {@code assetId}, or null while that asset has too few returns. */
+    public Universe universe(List<Holding> holdings, String assetId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Universe universe = collect(holdings, assetId);
+            if (lock.validate(stamp)) {
+                return universe;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return collect(holdings, assetId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Universe collect(List<Holding> holdings, String assetId) {
+        int traded = indexOf(assetId);
+        if (traded < 0 || !ready(traded)) {
+            return null;
+        }
+        int size = holdings.size();
+        int[] index = new int[size + 1];
+        double[] values = new double[size + 1];
+        index[0] = traded;
+        int count = 1;
+        for (int k = 0; k < size; k++) {
+            Holding holding = holdings.get(k);
+            int i = indexOf(holding.assetId());
+            if (i == traded) {
+                values[0] += value(holding, i);
+                continue;
+            }
+            index[count] = i >= 0 && ready(i) ? i : -1;
+            values[count++] = value(holding, i);
+        }
+        double[] covariance = new double[count * count];
+        for (int a = 0; a < count; a++) {
+            for (int b = 0; b < count; b++) {
+                if (index[a] >= 0 && index[b] >= 0) {
+                    covariance[a * count + b] = covariance(index[a], index[b]);
+                }
+            }
+        }
+        return new Universe(count == values.length ? values : Arrays.copyOf(values, count), covariance);
+    }
+
+    private double value(Holding holding, int i) {
+        double price = i < 0 ? Double.NaN : lastPrice[i];
+        return Double.isNaN(price) ? holding.costBasis() : holding.quantity() * price;
+    }
+
+    private PortfolioRisk compute(List<Holding> holdings, String assetId, double tradeValue) {
+        int size = holdings.size();
+        int[] index = new int[size + 1];
+        double[] value = new double[size + 1];
+        int traded = indexOf(assetId);
+        double exposure = tradeValue;
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            Holding holding = holdings.get(k);
+            int i = indexOf(holding.assetId());
+            double worth = value(holding, i);
+            if (i >= 0 ? i == traded : holding.assetId().equals(assetId)) {
+                exposure += worth;
+                tradeValue += worth;
+                continue;
+            }
+            if (i >= 0 && traded >= 0 && ready(i) && ready(traded)) {
+                exposure += worth * Math.max(correlation(i, traded), 0);
+            }
+            index[count] = i;
+            value[count++] = worth;
+        }
+        index[count] = traded;
+        value[count++] = tradeValue;
+
+        double variance = 0;
+        for (int a = 0; a < count; a++) {
+            int i = index[a];
+            if (i < 0 || !ready(i)) {
+                continue;
+            }
+            variance += value[a] * value[a] * covariance(i, i);
+            for (int b = a + 1; b < count; b++) {
+                int j = index[b];
+                if (j >= 0 && ready(j)) {
+                    variance += 2 * value[a] * value[b] * covariance(i, j);
+                }
+            }
+        }
+        return new PortfolioRisk(Math.sqrt(Math.max(variance, 0)), exposure);
+    }
+
+    private boolean ready(int i) {
+        return samples[i] >= minSamples;
+    }
+
+    private double covariance(int i, int j) {
+        return weightedMillis > 0 ? comoments[i * n + j] / weightedMillis * horizonMillis : 0;
+    }
+
+    private double correlation(int i, int j) {
+        double scale = Math.sqrt(comoments[i * n + i] * comoments[j * n + j]);
+        return scale > 0 ? Math.max(-1, Math.min(1, comoments[i * n + j] / scale)) : 0;
+    }
+
+    /** Asset ids may carry an exchange prefix (CSE:JKH); the watchlist lists bare symbols. */
+    private int indexOf(String assetId) {
+        if (assetId == null) {
+            return -1;
+        }
+        Integer index = indexes.get(assetId);
+        if (index == null) {
+            int colon = assetId.indexOf(':');
+            Integer bare = colon < 0 ? null : indexes.get(assetId.substring(colon + 1));
+            index = bare == null ? -1 : bare;
+            indexes.put(assetId, index);
+        }
+        return index;
+    }
+
+    int readySymbols() {
+        long stamp = lock.readLock();
+        try {
+            int ready = 0;
+            for (int i = 0; i < n; i++) {
+                if (ready(i)) {
+                    ready++;
+                }
+            }
+            return ready;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String journalName() {
+        return "risk.correlation";
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            out.writeInt(n);
+            for (String symbol : symbols) {
+                out.writeUTF(symbol);
+            }
+            out.writeLong(marketMillis);
+            out.writeLong(lastEpochMillis);
+            out.writeDouble(weightedMillis / growth);
+            for (int k = 0; k < n * n; k++) {
+                out.writeDouble(comoments[k] / growth);
+                out.writeDouble(pending[k]);
+            }
+            for (int i = 0; i < n; i++) {
+                out.writeDouble(lastPrice[i]);
+                out.writeLong(intervalStart[i]);
+                out.writeInt(samples[i]);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        int count = in.readInt();
+        String[] snapshotted = new String[count];
+        for (int i = 0; i < count; i++) {
+            snapshotted[i] = in.readUTF();
+        }
+        if (!Arrays.equals(snapshotted, symbols)) {
+            log.info("[CorrelationMatrix] Watchlist changed since the snapshot; covariances warm up again.");
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            marketMillis = in.readLong();
+            lastEpochMillis = in.readLong();
+            weightedMillis = in.readDouble();
+            growthBase = marketMillis;
+            growth = 1.0;
+            for (int k = 0; k < n * n; k++) {
+                comoments[k] = in.readDouble();
+                pending[k] = in.readDouble();
+            }
+            for (int i = 0; i < n; i++) {
+                lastPrice[i] = in.readDouble();
+                lastLogPrice[i] = Math.log(lastPrice[i]);
+                intervalStart[i] = in.readLong();
+                samples[i] = in.readInt();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void replay(JournalRecord.Type type, DataInput payload) throws IOException {
+        if (type == JournalRecord.Type.TICK) {
+            String symbol = payload.readUTF();
+            long epochMillis = payload.readLong();
+            observe(symbol, epochMillis, payload.readDouble());
+        }
+    }
+}
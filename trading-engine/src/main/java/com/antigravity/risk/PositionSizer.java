@@ -0,0 +1,90 @@
+package com.antigravity.risk;
+
+import com.antigravity.config.AllocationProperties;
+import com.antigravity.risk.AllocationOptimizer.Problem;
+import com.antigravity.risk.AllocationOptimizer.Solution;
+import com.antigravity.risk.CorrelationMatrix.Holding;
+import com.antigravity.risk.CorrelationMatrix.Universe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sizes one user's buy with the {@link AllocationOptimizer} instead of taking
+ * the model's amountAllocated. The universe is the bought asset plus the
+ * user's other holdings, held where they are: the buy is sized against their
+ * covariance with it. A decision carries no return forecast, so an approved
+ * buy is credited with a fixed Sharpe ratio over one session; its CVaR rate
+ * is the decision's estimate or the Gaussian 95% expected shortfall of its
+ * volatility, whichever is larger.
+ */
+@Component
+public class PositionSizer {
+
+    private static final Logger log = LoggerFactory.getLogger(PositionSizer.class);
+
+    /** Expected shortfall at 95% of a standard normal loss: φ(1.645) / 0.05. */
+    private static final double GAUSSIAN_SHORTFALL_95 = 2.0627;
+
+    /**
+     * @param amount   money to buy
+     * @param cvarRate CVaR per unit of money bought
+     */
+    public record Sizing(double amount, double cvarRate) {
+    }
+
+    private final CorrelationMatrix correlations;
+    private final AllocationOptimizer optimizer;
+    private final AllocationProperties properties;
+
+    public PositionSizer(CorrelationMatrix correlations, AllocationOptimizer optimizer,
+            AllocationProperties properties) {
+        this.correlations = correlations;
+        this.optimizer = optimizer;
+        this.properties = properties;
+    }
+
+    /**
+     * The buy for one user, or null when sizing is disabled or the asset has
+     * too few returns to size against; the caller then keeps the model's
+     * amount.
+     *
+     * @param maxAmount  the most the position may grow by
+     * @param cvarBudget CVaR the buy may add
+     * @param cvarRate   the decision's own CVaR per unit of money
+     * @param wealth     the portfolio's current value
+     */
+    public Sizing size(List<Holding> holdings, String assetId, double maxAmount, double cvarBudget,
+            double cvarRate, double wealth) {
+        if (!properties.enabled() || maxAmount <= 0 || wealth <= 0) {
+            return null;
+        }
+        Universe universe = correlations.universe(holdings, assetId);
+        if (universe == null) {
+            return null;
+        }
+        double[] values = universe.values();
+        int n = values.length;
+        double volatility = Math.sqrt(universe.covariance()[0]);
+        if (!(volatility > 0)) {
+            return null;
+        }
+        double expectedReturn = properties.sessionSharpe() * volatility;
+        double rate = Math.max(cvarRate, GAUSSIAN_SHORTFALL_95 * volatility - expectedReturn);
+
+        double[] expectedReturns = new double[n];
+        double[] upper = values.clone();
+        double[] cvarRates = new double[n];
+        expectedReturns[0] = expectedReturn;
+        upper[0] = values[0] + maxAmount;
+        cvarRates[0] = rate;
+        Solution solution = optimizer.solve(new Problem(expectedReturns, universe.covariance(), values, values,
+                upper, cvarRates, cvarBudget, properties.kellyFraction() * wealth));
+        if (!solution.converged()) {
+            log.debug("[PositionSizer] {}: no convergence in {} iterations", assetId, solution.iterations());
+        }
+        return new Sizing(Math.max(0, solution.positions()[0] - values[0]), rate);
+    }
+}
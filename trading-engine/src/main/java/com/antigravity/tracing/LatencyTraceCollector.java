@@ -0,0 +1,138 @@
+package com.antigravity.tracing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process collector for tick-to-order tracing. Every stamped stage feeds two
+ * histograms:
+ * - stage latency: time since the closest earlier stage on the same trace
+ * (e.g. MARKET_EVENT_RECEIVED measures the Kafka hop from the AnalysisAgent)
+ * - since-tick latency: time since TICK_INGESTED, i.e. end-to-end up to here
+ * Backed by Micrometer so the data is also visible under /actuator/metrics,
+ * but needs no external tracing backend.
+ */
+@Component
+public class LatencyTraceCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyTraceCollector.class);
+
+    static final String STAGE_METRIC = "antigravity.trace.stage.latency";
+    static final String SINCE_TICK_METRIC = "antigravity.trace.since-tick.latency";
+
+    private static final Duration[] BUCKETS = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+            Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(30) };
+
+    private final Map<TraceStage, Timer> stageTimers = new EnumMap<>(TraceStage.class);
+    private final Map<TraceStage, Timer> sinceTickTimers = new EnumMap<>(TraceStage.class);
+
+    // The first decision after a deploy pays for class loading and a cold JIT;
+    // kept apart so warm-up and CDS changes can be judged on it.
+    private final AtomicBoolean firstDecisionSeen = new AtomicBoolean();
+    private volatile double firstDecisionLatencyMs = Double.NaN;
+    private volatile double firstDecisionSinceStartMs = Double.NaN;
+
+    public LatencyTraceCollector(MeterRegistry meterRegistry) {
+        for (TraceStage stage : TraceStage.values()) {
+            stageTimers.put(stage, timer(STAGE_METRIC, stage, meterRegistry));
+            sinceTickTimers.put(stage, timer(SINCE_TICK_METRIC, stage, meterRegistry));
+        }
+        Gauge.builder("antigravity.startup.first-decision.latency", this, c -> c.firstDecisionLatencyMs)
+                .description("Event receipt to trade decision for the first event after startup")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("antigravity.startup.first-decision.since-start", this, c -> c.firstDecisionSinceStartMs)
+                .description("JVM start to the first trade decision")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private static Timer timer(String name, TraceStage stage, MeterRegistry registry) {
+        return Timer.builder(name)
+                .tag("stage", stage.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(BUCKETS)
+                .register(registry);
+    }
+
+    private void recordFirstDecision(TraceContext trace, long decidedMicros) {
+        Long received = trace.getStamp(TraceStage.MARKET_EVENT_RECEIVED);
+        if (received != null) {
+            firstDecisionLatencyMs = Math.max(0, decidedMicros - received) / 1000.0;
+        }
+        firstDecisionSinceStartMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        log.info("[LatencyTraceCollector] First trade decision: {} ms after receipt, {} ms after JVM start",
+                firstDecisionLatencyMs, firstDecisionSinceStartMs);
+    }
+
+    /**
+     * Stamps the stage on the trace and records its latencies.
+     */
+    public void record(TraceContext trace, TraceStage stage) {
+        long now = trace.stamp(stage);
+
+        Long previous = null;
+        for (int i = stage.ordinal() - 1; i >= 0 && previous == null; i--) {
+            previous = trace.getStamp(TraceStage.values()[i]);
+        }
+        if (previous != null) {
+            stageTimers.get(stage).record(Math.max(0, now - previous), TimeUnit.MICROSECONDS);
+        }
+        if (stage == TraceStage.TRADE_DECIDED && firstDecisionSeen.compareAndSet(false, true)) {
+            recordFirstDecision(trace, now);
+        }
+
+        Long tick = trace.getStamp(TraceStage.TICK_INGESTED);
+        if (tick != null && stage != TraceStage.TICK_INGESTED) {
+            sinceTickTimers.get(stage).record(Math.max(0, now - tick), TimeUnit.MICROSECONDS);
+        }
+
+        log.trace("[Trace] traceId={} stage={} stampMicros={}", trace.getTraceId(), stage, now);
+    }
+
+    /**
+     * Local exporter view: per-stage and since-tick histograms in milliseconds.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stages = new LinkedHashMap<>();
+        Map<String, Object> sinceTick = new LinkedHashMap<>();
+        for (TraceStage stage : TraceStage.values()) {
+            stages.put(stage.name(), describe(stageTimers.get(stage).takeSnapshot()));
+            sinceTick.put(stage.name(), describe(sinceTickTimers.get(stage).takeSnapshot()));
+        }
+        return Map.of("stageLatency", stages, "sinceTickLatency", sinceTick);
+    }
+
+    private static Map<String, Object> describe(HistogramSnapshot snapshot) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("count", snapshot.count());
+        view.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        view.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile p : snapshot.percentileValues()) {
+            view.put("p" + Math.round(p.percentile() * 100) + "Ms", p.value(TimeUnit.MILLISECONDS));
+        }
+        Map<String, Double> buckets = new LinkedHashMap<>();
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            buckets.put("le_" + (long) bucket.bucket(TimeUnit.MILLISECONDS) + "ms", bucket.count());
+        }
+        view.put("histogram", buckets);
+        return view;
+    }
+}
@@ -0,0 +1,30 @@
+package com.antigravity.tracing;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/telemetry")
+@CrossOrigin(origins = "*")
+public class TelemetryController {
+
+    private final LatencyTraceCollector latencyTraceCollector;
+    private final TokenUsageRecorder tokenUsageRecorder;
+
+    public TelemetryController(LatencyTraceCollector latencyTraceCollector, TokenUsageRecorder tokenUsageRecorder) {
+        this.latencyTraceCollector = latencyTraceCollector;
+        this.tokenUsageRecorder = tokenUsageRecorder;
+    }
+
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatencyHistograms() {
+        return ResponseEntity.ok(latencyTraceCollector.snapshot());
+    }
+
+    @GetMapping("/tokens")
+    public ResponseEntity<Map<String, Object>> getTokenUsage() {
+        return ResponseEntity.ok(tokenUsageRecorder.snapshot());
+    }
+}
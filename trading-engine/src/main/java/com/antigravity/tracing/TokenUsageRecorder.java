@@ -0,0 +1,106 @@
+package com.antigravity.tracing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-agent LLM accounting from ChatResponse usage metadata: calls, prompt and
+ * completion tokens, and model latency. Combined with the configured token
+ * prices this gives cost per call, cost per executed trade and latency per
+ * completion token.
+ */
+@Component
+public class TokenUsageRecorder {
+
+    static final String CALLS_METRIC = "antigravity.llm.calls";
+    static final String TOKENS_METRIC = "antigravity.llm.tokens";
+    static final String LATENCY_METRIC = "antigravity.llm.latency";
+
+    private final MeterRegistry meterRegistry;
+    private final double promptCostPer1k;
+    private final double completionCostPer1k;
+    private final Map<String, AgentMeters> meters = new ConcurrentHashMap<>();
+    private final Counter tradesExecuted;
+
+    public TokenUsageRecorder(MeterRegistry meterRegistry,
+            @Value("${antigravity.llm.cost.prompt-per-1k:0.00015}") double promptCostPer1k,
+            @Value("${antigravity.llm.cost.completion-per-1k:0.0006}") double completionCostPer1k) {
+        this.meterRegistry = meterRegistry;
+        this.promptCostPer1k = promptCostPer1k;
+        this.completionCostPer1k = completionCostPer1k;
+        this.tradesExecuted = meterRegistry.counter("antigravity.trades.executed");
+    }
+
+    private record AgentMeters(Counter calls, Counter promptTokens, Counter completionTokens, Timer latency) {
+    }
+
+    private AgentMeters metersFor(String agentName) {
+        return meters.computeIfAbsent(agentName, agent -> new AgentMeters(
+                meterRegistry.counter(CALLS_METRIC, "agent", agent),
+                meterRegistry.counter(TOKENS_METRIC, "agent", agent, "type", "prompt"),
+                meterRegistry.counter(TOKENS_METRIC, "agent", agent, "type", "completion"),
+                Timer.builder(LATENCY_METRIC).tag("agent", agent).register(meterRegistry)));
+    }
+
+    public void record(String agentName, ChatResponse response, long elapsedNanos) {
+        AgentMeters agent = metersFor(agentName);
+        agent.calls().increment();
+        agent.latency().record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        Usage usage = response == null || response.getMetadata() == null ? null : response.getMetadata().getUsage();
+        if (usage != null) {
+            agent.promptTokens().increment(orZero(usage.getPromptTokens()));
+            agent.completionTokens().increment(orZero(usage.getCompletionTokens()));
+        }
+    }
+
+    public void recordTradeExecuted() {
+        tradesExecuted.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> agents = new LinkedHashMap<>();
+        double totalCost = 0;
+        for (Map.Entry<String, AgentMeters> entry : meters.entrySet()) {
+            AgentMeters agent = entry.getValue();
+            double calls = agent.calls().count();
+            double prompt = agent.promptTokens().count();
+            double completion = agent.completionTokens().count();
+            double cost = prompt / 1000 * promptCostPer1k + completion / 1000 * completionCostPer1k;
+            double latencyMs = agent.latency().totalTime(TimeUnit.MILLISECONDS);
+            totalCost += cost;
+
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("calls", calls);
+            view.put("promptTokens", prompt);
+            view.put("completionTokens", completion);
+            view.put("avgPromptTokens", calls == 0 ? 0 : prompt / calls);
+            view.put("costUsd", cost);
+            view.put("costPerCallUsd", calls == 0 ? 0 : cost / calls);
+            view.put("meanLatencyMs", agent.latency().mean(TimeUnit.MILLISECONDS));
+            view.put("msPerCompletionToken", completion == 0 ? 0 : latencyMs / completion);
+            agents.put(entry.getKey(), view);
+        }
+        double trades = tradesExecuted.count();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("agents", agents);
+        snapshot.put("totalCostUsd", totalCost);
+        snapshot.put("tradesExecuted", trades);
+        snapshot.put("costPerTradeUsd", trades == 0 ? 0 : totalCost / trades);
+        return snapshot;
+    }
+
+    private static double orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
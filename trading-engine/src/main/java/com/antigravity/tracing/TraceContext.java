@@ -0,0 +1,126 @@
+package com.antigravity.tracing;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Correlation ID plus the wall-clock timestamp (epoch micros) of every stage a
+ * tick has passed so far. Travels between agents as Kafka record headers so a
+ * downstream consumer can compute latency for hops it did not observe itself.
+ */
+public final class TraceContext {
+
+    public static final String HEADER_TRACE_ID = "x-antigravity-trace-id";
+    static final String HEADER_STAGE_PREFIX = "x-antigravity-ts-";
+
+    private final String traceId;
+    private final EnumMap<TraceStage, Long> stamps = new EnumMap<>(TraceStage.class);
+
+    private TraceContext(String traceId) {
+        this.traceId = traceId;
+    }
+
+    /**
+     * Opens a new trace at tick ingestion.
+     */
+    public static TraceContext start() {
+        TraceContext context = new TraceContext(UUID.randomUUID().toString());
+        context.stamp(TraceStage.TICK_INGESTED);
+        return context;
+    }
+
+    /**
+     * Restores the trace carried by a consumed record. Records published before
+     * tracing existed have no trace header; they get a fresh trace instead.
+     */
+    public static TraceContext fromHeaders(Headers headers) {
+        Header idHeader = headers == null ? null : headers.lastHeader(HEADER_TRACE_ID);
+        if (idHeader == null || idHeader.value() == null) {
+            return start();
+        }
+        TraceContext context = new TraceContext(new String(idHeader.value(), StandardCharsets.UTF_8));
+        for (TraceStage stage : TraceStage.values()) {
+            Header stamp = headers.lastHeader(stage.headerName());
+            if (stamp != null && stamp.value() != null && stamp.value().length == Long.BYTES) {
+                context.stamps.put(stage, ByteBuffer.wrap(stamp.value()).getLong());
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Writes the trace ID and all stage timestamps onto an outgoing record,
+     * replacing whatever trace headers it already had.
+     */
+    public void writeTo(Headers headers) {
+        headers.remove(HEADER_TRACE_ID);
+        headers.add(HEADER_TRACE_ID, traceId.getBytes(StandardCharsets.UTF_8));
+        stamps.forEach((stage, micros) -> {
+            headers.remove(stage.headerName());
+            headers.add(stage.headerName(), ByteBuffer.allocate(Long.BYTES).putLong(micros).array());
+        });
+    }
+
+    /**
+     * Compact text form ("traceId|STAGE=micros|...") for traces that outlive
+     * the record they came in on, e.g. events parked in the outbox.
+     */
+    public String encode() {
+        StringBuilder encoded = new StringBuilder(traceId);
+        stamps.forEach((stage, micros) -> encoded.append('|').append(stage.name()).append('=').append(micros));
+        return encoded.toString();
+    }
+
+    /**
+     * Inverse of {@link #encode()}. A missing value starts a fresh trace and
+     * unknown stages are skipped.
+     */
+    public static TraceContext decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return start();
+        }
+        String[] parts = encoded.split("\\|");
+        TraceContext context = new TraceContext(parts[0]);
+        for (int i = 1; i < parts.length; i++) {
+            int eq = parts[i].indexOf('=');
+            try {
+                context.stamps.put(TraceStage.valueOf(parts[i].substring(0, eq)),
+                        Long.parseLong(parts[i].substring(eq + 1)));
+            } catch (RuntimeException e) {
+                // Written by a build with a different stage set; drop the stamp.
+            }
+        }
+        return context;
+    }
+
+    long stamp(TraceStage stage) {
+        long now = nowMicros();
+        stamps.put(stage, now);
+        return now;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public Long getStamp(TraceStage stage) {
+        return stamps.get(stage);
+    }
+
+    public Map<TraceStage, Long> getStamps() {
+        return Collections.unmodifiableMap(stamps);
+    }
+
+    static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000L;
+    }
+}
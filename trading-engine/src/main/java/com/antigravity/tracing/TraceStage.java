@@ -0,0 +1,24 @@
+package com.antigravity.tracing;
+
+/**
+ * Ordered hops a market tick crosses on its way to an order and its audit.
+ * Declaration order matters: per-stage latency is measured from the closest
+ * earlier stage that was stamped on the same trace.
+ */
+public enum TraceStage {
+    TICK_INGESTED,          // AnalysisAgent received raw LocalMarket data
+    ANALYSIS_COMPLETED,     // AnalysisAgent derived market health, about to publish
+    MARKET_EVENT_RECEIVED,  // TradeAgent consumed market.analysis.health
+    TRADE_DECIDED,          // TradeAgent reasoning finished
+    ORDER_SUBMITTED,        // Order handed to the broker
+    ORDER_ACKNOWLEDGED,     // Broker responded
+    TRADE_LOG_PUBLISHED,    // TradeAgent about to publish trade.execution.logs
+    OBSERVER_RECEIVED,      // ObserverAgent consumed the trade log / audit trace
+    OBSERVER_EVALUATED;     // ObserverAgent finished its audit
+
+    private final String headerName = TraceContext.HEADER_STAGE_PREFIX + name().toLowerCase();
+
+    public String headerName() {
+        return headerName;
+    }
+}
@@ -0,0 +1,58 @@
+-- ===================================================
+-- agent_audit_logs: daily range partitions on "timestamp"
+-- Runs before Hibernate (spring.sql.init.platform=postgresql); every statement is
+-- idempotent. Statements are separated by @@ because the DO blocks contain semicolons.
+-- Upcoming partitions are created and expired ones detached by AuditLogRetentionJob.
+-- ===================================================
+
+-- An existing unpartitioned table becomes the DEFAULT partition, so its rows stay
+-- queryable and age out through the retention job.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'agent_audit_logs' AND relkind = 'r') THEN
+        ALTER TABLE agent_audit_logs RENAME TO agent_audit_logs_default;
+    END IF;
+END $$
+@@
+
+CREATE TABLE IF NOT EXISTS agent_audit_logs (
+    id               uuid             NOT NULL,
+    agent_name       varchar(255)     NOT NULL,
+    action_type      varchar(255)     NOT NULL,
+    reasoning_body   text             NOT NULL,
+    confidence_score double precision NOT NULL,
+    "timestamp"      timestamp(6)     NOT NULL,
+    CONSTRAINT agent_audit_logs_part_pkey PRIMARY KEY (id, "timestamp")
+) PARTITION BY RANGE ("timestamp")
+@@
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_class WHERE relname = 'agent_audit_logs_default') THEN
+        CREATE TABLE agent_audit_logs_default PARTITION OF agent_audit_logs DEFAULT;
+    ELSIF NOT (SELECT relispartition FROM pg_class WHERE relname = 'agent_audit_logs_default') THEN
+        ALTER TABLE agent_audit_logs ATTACH PARTITION agent_audit_logs_default DEFAULT;
+    END IF;
+END $$
+@@
+
+CREATE INDEX IF NOT EXISTS idx_audit_agent_ts ON agent_audit_logs (agent_name, "timestamp" DESC)
+@@
+
+-- Today and the next seven days, so inserts land in a dated partition from the start.
+DO $$
+DECLARE
+    day date;
+BEGIN
+    FOR i IN 0..7 LOOP
+        day := current_date + i;
+        BEGIN
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF agent_audit_logs FOR VALUES FROM (%L) TO (%L)',
+                    'agent_audit_logs_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+        EXCEPTION WHEN check_violation THEN
+            -- The default partition already holds rows for this day; they stay there.
+            RAISE NOTICE 'Partition for % not created: default partition has rows for it', day;
+        END;
+    END LOOP;
+END $$
+@@
@@ -0,0 +1,60 @@
+package com.antigravity.agents;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgentPromptTest {
+
+    private final AgentPrompt prompt = AgentPrompt.of("  system text  ", 200, "asset_id", "price", "volume_24h");
+
+    @Test
+    void should_KeepOnlyWhitelistedFields_InSortedOrder() {
+        String compacted = prompt.compact("""
+                {
+                  "volume_24h": 4000000,
+                  "exchange_notes": "long free text the agent never reads",
+                  "price": 185.5,
+                  "asset_id": "CSE:JKH",
+                  "ignored": null
+                }
+                """);
+
+        assertThat(compacted).isEqualTo("{\"asset_id\":\"CSE:JKH\",\"price\":185.5,\"volume_24h\":4000000}");
+        assertThat(prompt.systemText()).isEqualTo("system text");
+    }
+
+    @Test
+    void should_ProduceSameCanonicalForm_ForMapAndJsonInput() {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("price", 185.5);
+        raw.put("asset_id", "CSE:JKH");
+
+        assertThat(prompt.compact(raw)).isEqualTo(prompt.compact("{\"asset_id\":\"CSE:JKH\",\"price\":185.5}"));
+    }
+
+    @Test
+    void should_KeepAllFields_WhenNoneAreWhitelisted() {
+        assertThat(prompt.compact("{\"b\":2,\"a\":1}")).isEqualTo("{\"a\":1,\"b\":2}");
+    }
+
+    @Test
+    void should_DropLargestFields_WhenJsonExceedsLimit() throws Exception {
+        String compacted = prompt.compact("{\"asset_id\":\"CSE:JKH\",\"price\":185.5,\"volume_24h\":\""
+                + "9".repeat(300) + "\"}");
+
+        assertThat(compacted).isEqualTo("{\"asset_id\":\"CSE:JKH\",\"price\":185.5}");
+        assertThat(new ObjectMapper().readTree(compacted).size()).isEqualTo(2);
+    }
+
+    @Test
+    void should_CollapseAndTruncate_NonJsonPayload() {
+        String compacted = prompt.compact("DENIED:   capital\n\n constraint " + "x".repeat(500));
+
+        assertThat(compacted).startsWith("DENIED: capital constraint x").hasSize(200);
+    }
+}
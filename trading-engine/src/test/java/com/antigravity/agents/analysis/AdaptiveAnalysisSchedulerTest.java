@@ -0,0 +1,165 @@
+package com.antigravity.agents.analysis;
+
+import com.antigravity.config.AnalysisSchedulerProperties;
+import com.antigravity.config.JournalProperties;
+import com.antigravity.journal.EventJournal;
+import com.antigravity.risk.CorrelationMatrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AdaptiveAnalysisSchedulerTest {
+
+    // Tuesday 2024-01-02 10:00 in Colombo (UTC+05:30): inside the CSE session.
+    private static final Instant SESSION = Instant.parse("2024-01-02T04:30:00Z");
+
+    @Mock
+    private LocalMarketApiClient localMarketApiClient;
+
+    @Mock
+    private AnalysisAgent analysisAgent;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private EventJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clock = new MutableClock(SESSION);
+        meterRegistry = new SimpleMeterRegistry();
+        journal = new EventJournal(new JournalProperties(false, Path.of("unused"), DataSize.ofMegabytes(1),
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 1000), null, meterRegistry);
+    }
+
+    @Test
+    void should_NotPoll_WhenExchangeClosed() {
+        AdaptiveAnalysisScheduler scheduler = scheduler(List.of("AAL"), 30);
+        clock.set(Instant.parse("2024-01-06T04:30:00Z")); // Saturday
+
+        scheduler.tick();
+        clock.set(Instant.parse("2024-01-02T10:00:00Z")); // Tuesday 15:30 Colombo, after the close
+        scheduler.tick();
+
+        verifyNoInteractions(localMarketApiClient, analysisAgent);
+    }
+
+    @Test
+    void should_PollHotSymbolFast_AndBackOffQuietSymbol() {
+        AdaptiveAnalysisScheduler scheduler = scheduler(List.of("HOT", "QUIET"), 1_000);
+        // Warm up both symbols on identical, steady samples.
+        when(localMarketApiClient.fetchLatestMarketData(anyString())).thenReturn(sample(100.0, 1_000));
+        for (int i = 0; i < 3; i++) {
+            scheduler.tick();
+            clock.advance(Duration.ofSeconds(30));
+        }
+        assertThat(interval("HOT")).isEqualTo(30.0);
+
+        // HOT trades at ten times its usual volume; QUIET stays flat.
+        when(localMarketApiClient.fetchLatestMarketData("HOT")).thenReturn(sample(100.0, 10_000));
+        scheduler.tick();
+
+        assertThat(interval("HOT")).isEqualTo(5.0);
+        assertThat(interval("QUIET")).isEqualTo(60.0);
+
+        clock.advance(Duration.ofSeconds(60));
+        scheduler.tick();
+        assertThat(interval("QUIET")).isEqualTo(120.0);
+    }
+
+    @Test
+    void should_SpendBudgetOnMostActiveSymbol_WhenBudgetIsShort() {
+        AdaptiveAnalysisScheduler scheduler = scheduler(List.of("CALM", "BUSY"), 1, 1);
+        when(localMarketApiClient.fetchLatestMarketData(anyString())).thenReturn(sample(100.0, 1_000));
+        scheduler.tick(); // one call allowed: CALM is analysed, BUSY deferred
+
+        clock.advance(Duration.ofMinutes(1)); // refills a single call
+        clearInvocations(analysisAgent);
+        when(localMarketApiClient.fetchLatestMarketData("BUSY")).thenReturn(sample(100.0, 10_000));
+        scheduler.tick();
+
+        verify(analysisAgent).evaluateMarket(eq("BUSY"), anyMap());
+        verify(analysisAgent, never()).evaluateMarket(eq("CALM"), anyMap());
+        assertThat(meterRegistry.get("antigravity.analysis.polls").tag("outcome", "budget_deferred").counter()
+                .count()).isEqualTo(2.0);
+    }
+
+    private AdaptiveAnalysisScheduler scheduler(List<String> watchlist, int llmCallsPerMinute) {
+        return scheduler(watchlist, llmCallsPerMinute, 3);
+    }
+
+    private AdaptiveAnalysisScheduler scheduler(List<String> watchlist, int llmCallsPerMinute, int minSamples) {
+        AnalysisSchedulerProperties properties = new AnalysisSchedulerProperties(watchlist, Duration.ofSeconds(1),
+                llmCallsPerMinute, 1,
+                new AnalysisSchedulerProperties.Intervals(Duration.ofSeconds(5), Duration.ofSeconds(30),
+                        Duration.ofMinutes(10), 2.0),
+                new AnalysisSchedulerProperties.Signal(30, minSamples, 2.0, 1.0),
+                new AnalysisSchedulerProperties.Calendar("Asia/Colombo", LocalTime.of(9, 30), LocalTime.of(14, 30),
+                        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), List.of()));
+        return new AdaptiveAnalysisScheduler(localMarketApiClient, analysisAgent, properties, meterRegistry,
+                journal, new CorrelationMatrix(watchlist, Duration.ofMinutes(30), Duration.ofMinutes(10),
+                        Duration.ofHours(5), 20),
+                clock, Runnable::run);
+    }
+
+    private double interval(String symbol) {
+        return meterRegistry.get("antigravity.analysis.poll.interval").tag("symbol", symbol).gauge().value();
+    }
+
+    private static Map<String, Object> sample(double price, long volume) {
+        return Map.of("price", price, "volume_24h", volume);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.antigravity.agents.observer;
+
+import com.antigravity.models.AgentAuditLogRepository;
+import com.antigravity.models.ProcessedEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuditLogRetentionJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 31);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AgentAuditLogRepository auditRepository;
+
+    @Mock
+    private ProcessedEventRepository processedEvents;
+
+    private AuditLogRetentionJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        job = new AuditLogRetentionJob(jdbcTemplate, auditRepository, processedEvents, new ObjectMapper(), 30, 7, "");
+    }
+
+    @Test
+    void should_DeleteExpiredRows_WhenTableIsNotPartitioned() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(false);
+        when(auditRepository.deleteOlderThan(any())).thenReturn(12);
+
+        AuditLogRetentionJob.Result result = job.maintain(TODAY);
+
+        verify(auditRepository).deleteOlderThan(LocalDateTime.of(2024, 3, 1, 0, 0));
+        verify(jdbcTemplate, never()).execute(anyString());
+        assertThat(result.deletedRows()).isEqualTo(12);
+    }
+
+    @Test
+    void should_DropExpiredPartitions_AndCreateUpcomingOnes_WhenPartitioned() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("agent_audit_logs"))).thenReturn(List.of(
+                "agent_audit_logs_default",
+                "agent_audit_logs_p20240228",
+                "agent_audit_logs_p20240229",
+                "agent_audit_logs_p20240301"));
+        when(jdbcTemplate.update(anyString(), any(Timestamp.class))).thenReturn(3);
+
+        AuditLogRetentionJob.Result result = job.maintain(TODAY);
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(ddl.capture());
+        assertThat(ddl.getAllValues())
+                .filteredOn(sql -> sql.startsWith("CREATE TABLE"))
+                .hasSize(8)
+                .first().asString()
+                .contains("\"agent_audit_logs_p20240331\"", "FROM ('2024-03-31') TO ('2024-04-01')");
+        assertThat(ddl.getAllValues())
+                .filteredOn(sql -> !sql.startsWith("CREATE TABLE"))
+                .containsExactly(
+                        "ALTER TABLE agent_audit_logs DETACH PARTITION \"agent_audit_logs_p20240228\"",
+                        "DROP TABLE \"agent_audit_logs_p20240228\"",
+                        "ALTER TABLE agent_audit_logs DETACH PARTITION \"agent_audit_logs_p20240229\"",
+                        "DROP TABLE \"agent_audit_logs_p20240229\"");
+        verify(jdbcTemplate).update(contains("agent_audit_logs_default"),
+                eq(Timestamp.valueOf(LocalDateTime.of(2024, 3, 1, 0, 0))));
+        verifyNoInteractions(auditRepository);
+        assertThat(result).isEqualTo(new AuditLogRetentionJob.Result(8, 2, 0, 3));
+    }
+}
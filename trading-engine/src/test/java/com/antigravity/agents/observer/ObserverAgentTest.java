@@ -1,19 +1,47 @@
 package com.antigravity.agents.observer;
 
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.OutboxRelay;
+import com.antigravity.messaging.TradeExecutedEvent;
 import com.antigravity.models.AgentAuditLog;
 import com.antigravity.models.AgentAuditLogRepository;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import com.antigravity.models.ProcessedEvent;
+import com.antigravity.models.ProcessedEventRepository;
+import com.antigravity.tracing.LatencyTraceCollector;
+import com.antigravity.tracing.TokenUsageRecorder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.ChatClient.ChatClientRequestSpec;
 import org.springframework.ai.chat.client.ChatClient.CallResponseSpec;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.*;
 
 class ObserverAgentTest {
@@ -33,6 +61,17 @@ class ObserverAgentTest {
     @Mock
     private CallResponseSpec responseSpec;
 
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private ProcessedEventRepository processedEvents;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Set<String> processedIds = new HashSet<>();
+
     private ObserverAgent observerAgent;
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -40,19 +79,31 @@ class ObserverAgentTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         when(chatClientBuilder.build()).thenReturn(chatClient);
-        // Mocking the chain: chatClient.prompt().system().user().call().content()
+        // Mocking the chain: chatClient.prompt().system().user().call().chatResponse()
         when(chatClient.prompt()).thenReturn(requestSpec);
         when(requestSpec.system(anyString())).thenReturn(requestSpec);
         when(requestSpec.user(anyString())).thenReturn(requestSpec);
         when(requestSpec.call()).thenReturn(responseSpec);
-
-        observerAgent = new ObserverAgent(chatClientBuilder, auditRepository, objectMapper);
+        when(processedEvents.existsById(anyString()))
+                .thenAnswer(invocation -> processedIds.contains(invocation.<String>getArgument(0)));
+        when(processedEvents.saveAndFlush(any(ProcessedEvent.class))).thenAnswer(invocation -> {
+            ProcessedEvent event = invocation.getArgument(0);
+            processedIds.add(event.getId());
+            return event;
+        });
+
+        observerAgent = new ObserverAgent(chatClientBuilder, auditRepository, objectMapper,
+                new LatencyTraceCollector(new SimpleMeterRegistry()),
+                new ObserverRuleStage(portfolioRepository, new SimpleMeterRegistry(), List.of("azure", "aws"), 0.0,
+                        new BigDecimal("0.10"), () -> 1.0),
+                new TokenUsageRecorder(new SimpleMeterRegistry(), 0.00015, 0.0006),
+                processedEvents, transactionManager);
     }
 
     @Test
     void should_LogAudit_WhenPayloadIsValid() {
         String mockAiResponse = "{\"confidence_score\": 0.95, \"hallucination_detected\": false, \"reasoning\": \"Clean\", \"origin_agent\": \"TradeAgent\"}";
-        when(responseSpec.content()).thenReturn(mockAiResponse);
+        when(responseSpec.chatResponse()).thenReturn(chatResponse(mockAiResponse));
 
         observerAgent.monitorAgentActivities("test payload");
 
@@ -65,9 +116,88 @@ class ObserverAgentTest {
         assertThat(savedLog.getActionType()).isEqualTo("KafkaEventTrace");
     }
 
+    @Test
+    void should_AuditOnce_WhenOutboxEventIsRedelivered() {
+        String mockAiResponse = "{\"confidence_score\": 0.95, \"hallucination_detected\": false, \"reasoning\": \"Clean\", \"origin_agent\": \"TradeAgent\"}";
+        when(responseSpec.chatResponse()).thenReturn(chatResponse(mockAiResponse));
+
+        byte[] payload = EventCodec.encode(new TradeExecutedEvent("usr_001", "CSE:JKH", "BUY",
+                new BigDecimal("900.00"), new BigDecimal("150.0"), "ACCUMULATE", new BigDecimal("180.00"), 0L));
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(KafkaConfig.TOPIC_TRADE_LOGS, 0, 0L, "CSE:JKH",
+                payload);
+        record.headers().add(OutboxRelay.HEADER_EVENT_ID, "evt-1".getBytes(StandardCharsets.UTF_8));
+        ConsumerRecord<String, byte[]> redelivered = new ConsumerRecord<>(KafkaConfig.TOPIC_TRADE_LOGS, 0, 1L,
+                "CSE:JKH", payload);
+        redelivered.headers().add(OutboxRelay.HEADER_EVENT_ID, "evt-1".getBytes(StandardCharsets.UTF_8));
+
+        observerAgent.onAgentEvent(record);
+        observerAgent.onAgentEvent(redelivered);
+
+        verify(auditRepository, times(1)).save(any(AgentAuditLog.class));
+        verify(chatClient, times(1)).prompt();
+        verify(requestSpec).user(contains("\"assetId\":\"CSE:JKH\""));
+        // The model answers before the audit transaction opens
+        InOrder order = inOrder(responseSpec, transactionManager);
+        order.verify(responseSpec).chatResponse();
+        order.verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void should_DropEvent_WhenConcurrentCopyWasAuditedFirst() {
+        String mockAiResponse = "{\"confidence_score\": 0.95, \"hallucination_detected\": false, \"reasoning\": \"Clean\", \"origin_agent\": \"TradeAgent\"}";
+        when(responseSpec.chatResponse()).thenReturn(chatResponse(mockAiResponse));
+        when(processedEvents.saveAndFlush(any(ProcessedEvent.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key processed_events_pkey"));
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(KafkaConfig.TOPIC_TRADE_LOGS, 0, 0L, "CSE:JKH",
+                "{\"assetId\":\"CSE:JKH\"}".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(OutboxRelay.HEADER_EVENT_ID, "evt-3".getBytes(StandardCharsets.UTF_8));
+
+        observerAgent.onAgentEvent(record);
+
+        verify(auditRepository, never()).save(any(AgentAuditLog.class));
+    }
+
+    @Test
+    void should_AuditWithoutModel_WhenTradePassesRules() {
+        Portfolio portfolio = new Portfolio("usr_001", new BigDecimal("10000"));
+        portfolio.addProfit(new BigDecimal("5000"));
+        when(portfolioRepository.findByUserId("usr_001")).thenReturn(Optional.of(portfolio));
+        byte[] payload = EventCodec.encode(new TradeExecutedEvent("usr_001", "CSE:JKH", "BUY",
+                new BigDecimal("900.00"), new BigDecimal("150.0"), "ACCUMULATE", new BigDecimal("180.00"), 0L));
+
+        observerAgent.onAgentEvent(new ConsumerRecord<>(KafkaConfig.TOPIC_TRADE_LOGS, 0, 0L, "CSE:JKH", payload));
+
+        ArgumentCaptor<AgentAuditLog> captor = ArgumentCaptor.forClass(AgentAuditLog.class);
+        verify(auditRepository).save(captor.capture());
+        assertThat(captor.getValue().getActionType()).isEqualTo("RuleCheck");
+        assertThat(captor.getValue().getAgentName()).isEqualTo("TradeAgent");
+        verify(chatClient, never()).prompt();
+    }
+
+    @Test
+    void should_RethrowAndAcceptRetriedCopy_WhenModelCallFails() {
+        String mockAiResponse = "{\"confidence_score\": 0.95, \"hallucination_detected\": false, \"reasoning\": \"Clean\", \"origin_agent\": \"TradeAgent\"}";
+        when(responseSpec.chatResponse())
+                .thenThrow(new RuntimeException("model unavailable"))
+                .thenReturn(chatResponse(mockAiResponse));
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(KafkaConfig.TOPIC_TRADE_LOGS, 0, 0L, "CSE:JKH",
+                "{\"assetId\":\"CSE:JKH\"}".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(OutboxRelay.HEADER_EVENT_ID, "evt-2".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> observerAgent.onAgentEvent(record)).hasMessage("model unavailable");
+        verify(auditRepository, never()).save(any(AgentAuditLog.class));
+
+        // Same record, as redelivered from the retry topic.
+        observerAgent.onAgentEvent(record);
+
+        ArgumentCaptor<AgentAuditLog> captor = ArgumentCaptor.forClass(AgentAuditLog.class);
+        verify(auditRepository).save(captor.capture());
+        assertThat(captor.getValue().getActionType()).isEqualTo("KafkaEventTrace");
+    }
+
     @Test
     void should_HandleParseFailure_Gracefully() {
-        when(responseSpec.content()).thenReturn("invalid json");
+        when(responseSpec.chatResponse()).thenReturn(chatResponse("invalid json"));
 
         observerAgent.monitorAgentActivities("test payload");
 
@@ -83,10 +213,14 @@ class ObserverAgentTest {
     @Test
     void should_LogAlert_WhenConfidenceIsLow() {
         String mockAiResponse = "{\"confidence_score\": 0.5, \"hallucination_detected\": true, \"reasoning\": \"Azure found\", \"origin_agent\": \"TradeAgent\"}";
-        when(responseSpec.content()).thenReturn(mockAiResponse);
+        when(responseSpec.chatResponse()).thenReturn(chatResponse(mockAiResponse));
 
         observerAgent.monitorAgentActivities("test payload with azure");
 
         verify(auditRepository).save(any(AgentAuditLog.class));
     }
+
+    private static ChatResponse chatResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
 }
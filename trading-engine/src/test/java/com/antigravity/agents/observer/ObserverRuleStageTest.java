@@ -0,0 +1,97 @@
+package com.antigravity.agents.observer;
+
+import com.antigravity.agents.observer.ObserverRuleStage.Escalation;
+import com.antigravity.messaging.AuditTraceEvent;
+import com.antigravity.messaging.TradeExecutedEvent;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class ObserverRuleStageTest {
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        Portfolio portfolio = new Portfolio("usr_001", new BigDecimal("10000"));
+        portfolio.addProfit(new BigDecimal("1000"));
+        when(portfolioRepository.findByUserId("usr_001")).thenReturn(Optional.of(portfolio));
+    }
+
+    private ObserverRuleStage stage(double sampleRate, double draw) {
+        return new ObserverRuleStage(portfolioRepository, meterRegistry,
+                List.of("azure", "aws", "amazon web services"), sampleRate, new BigDecimal("0.10"), () -> draw);
+    }
+
+    @Test
+    void should_FlagWholeWordKeywords_Only() {
+        ObserverRuleStage stage = stage(0.0, 1.0);
+
+        ObserverRuleStage.Verdict clean = stage.evaluate(audit("Withdrawal laws reviewed; draws settled."));
+        ObserverRuleStage.Verdict flagged = stage.evaluate(audit("Deployed on Amazon Web Services (AWS) and Azure."));
+
+        assertThat(clean.escalation()).isEqualTo(Escalation.NONE);
+        assertThat(flagged.escalation()).isEqualTo(Escalation.FLAGGED);
+        assertThat(flagged.findings()).containsExactly("Prohibited reference: amazon web services",
+                "Prohibited reference: aws", "Prohibited reference: azure");
+        assertThat(flagged.originAgent()).isEqualTo("SystemAgent");
+    }
+
+    @Test
+    void should_FlagTrade_WhenOutsidePortfolioBoundsOrMissingCvar() {
+        ObserverRuleStage stage = stage(0.0, 1.0);
+
+        ObserverRuleStage.Verdict withinBounds = stage.evaluate(trade(new BigDecimal("900"), new BigDecimal("-90")));
+        ObserverRuleStage.Verdict overRisk = stage.evaluate(trade(new BigDecimal("900"), new BigDecimal("150")));
+        ObserverRuleStage.Verdict oversized = stage.evaluate(trade(new BigDecimal("20000"), null));
+
+        assertThat(withinBounds.findings()).isEmpty();
+        assertThat(overRisk.findings()).containsExactly(
+                "CVaR exposure exceeds the threshold share of accumulated profit.");
+        assertThat(oversized.findings()).containsExactly(
+                "No CVaR exposure; capital constraint check not evidenced.",
+                "Allocation exceeds total portfolio value.");
+        assertThat(meterRegistry.get("antigravity.observer.rules.records").tag("outcome", "flagged").counter()
+                .count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void should_SampleCleanRecords_AndCountModelOutcomes() {
+        ObserverRuleStage stage = stage(0.05, 0.01);
+
+        ObserverRuleStage.Verdict verdict = stage.evaluate(audit("Balance reconciled."));
+        stage.recordModelVerdict(verdict, true, 1_000_000L);
+
+        assertThat(verdict.escalation()).isEqualTo(Escalation.SAMPLED);
+        assertThat(meterRegistry.get("antigravity.observer.llm.records").tag("source", "sampled")
+                .tag("outcome", "confirmed").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("antigravity.observer.tier.duration").tag("tier", "llm").timer().count())
+                .isEqualTo(1);
+    }
+
+    private static AuditTraceEvent audit(String message) {
+        return new AuditTraceEvent("CDS_BALANCE_DRIFT", "SystemAgent", "DRIFT", "usr_001", message, Map.of(), 0L);
+    }
+
+    private static TradeExecutedEvent trade(BigDecimal amount, BigDecimal cvar) {
+        return new TradeExecutedEvent("usr_001", "CSE:JKH", "BUY", amount, new BigDecimal("150.0"), "ACCUMULATE",
+                cvar, 0L);
+    }
+}
@@ -0,0 +1,88 @@
+package com.antigravity.agents.simulation;
+
+import com.antigravity.agents.simulation.OrderBook.OrderType;
+import com.antigravity.agents.simulation.OrderBookSimulator.Execution;
+import com.antigravity.agents.simulation.OrderBookSimulator.Status;
+import com.antigravity.agents.simulation.TickReplay.TimedOrder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OrderBookSimulatorTest {
+
+    private static final Instant OPEN = Instant.parse("2024-01-02T04:00:00Z");
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderBookSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        simulator = new OrderBookSimulator(meterRegistry, 20, 100, 1_000);
+    }
+
+    @Test
+    void should_PayTheSpreadOnMarketOrders_AndWalkTheBookWhenLarge() {
+        simulator.onTick(tick(0, "99.90", 100, "100.10", 100));
+
+        Execution small = simulator.submit("CSE:JKH", true, OrderType.MARKET, 50, new BigDecimal("100.00"));
+        Execution large = simulator.submit("CSE:JKH", true, OrderType.MARKET, 80, new BigDecimal("100.00"));
+
+        assertThat(small.status()).isEqualTo(Status.FILLED);
+        assertThat(small.averagePrice()).isEqualByComparingTo("100.10");
+        assertThat(small.slippageBps()).isCloseTo(10.0, within(1e-9));
+        // Only 50 left at the quote; the market order cannot fill the rest
+        assertThat(large.status()).isEqualTo(Status.CANCELLED);
+        assertThat(large.filled()).isEqualTo(50);
+        assertThat(meterRegistry.get("antigravity.sandbox.book.fill.ratio").summary().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_FillRestingLimitOrder_WhenALaterTickCrossesIt() {
+        simulator.onTick(tick(0, "99.90", 100, "100.10", 100));
+        Execution bid = simulator.submit("CSE:JKH", true, OrderType.LIMIT, 30, new BigDecimal("99.95"));
+        assertThat(bid.status()).isEqualTo(Status.OPEN);
+
+        simulator.onTick(tick(1, "99.80", 100, "99.95", 20));
+
+        Execution partial = simulator.execution(bid.orderId());
+        assertThat(partial.status()).isEqualTo(Status.PARTIALLY_FILLED);
+        assertThat(partial.filled()).isEqualTo(20);
+        assertThat(partial.averagePrice()).isEqualByComparingTo("99.95");
+        assertThat(simulator.cancel(bid.orderId()).status()).isEqualTo(Status.CANCELLED);
+    }
+
+    @Test
+    void should_ShowLatencyAsSlippage_WhenReplayingARisingMarket() {
+        List<MarketTick> ticks = List.of(
+                tick(0, "99.90", 1_000, "100.10", 1_000),
+                tick(5, "100.40", 1_000, "100.60", 1_000),
+                tick(10, "100.90", 1_000, "101.10", 1_000));
+        List<TimedOrder> orders = List.of(
+                new TimedOrder(OPEN.plusMillis(1), "CSE:JKH", true, OrderType.IOC, 100, new BigDecimal("100.20")));
+
+        TickReplay.Report fast = new TickReplay(simulator, Duration.ofMillis(1)).run(ticks, orders);
+        TickReplay.Report slow = new TickReplay(new OrderBookSimulator(new SimpleMeterRegistry(), 20, 100, 1_000),
+                Duration.ofMillis(6)).run(ticks, orders);
+
+        assertThat(fast.fillRate()).isEqualTo(1.0);
+        assertThat(fast.slippageBps()).isNegative();
+        // By the time the slow order lands the ask has moved past its limit
+        assertThat(slow.fillRate()).isZero();
+        assertThat(slow.executions()).singleElement()
+                .extracting(Execution::status).isEqualTo(Status.CANCELLED);
+    }
+
+    private static MarketTick tick(long millis, String bid, long bidSize, String ask, long askSize) {
+        return new MarketTick("CSE:JKH", OPEN.plusMillis(millis), new BigDecimal(bid), bidSize,
+                new BigDecimal(ask), askSize);
+    }
+}
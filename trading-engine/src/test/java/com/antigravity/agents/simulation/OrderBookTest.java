@@ -0,0 +1,72 @@
+package com.antigravity.agents.simulation;
+
+import com.antigravity.agents.simulation.OrderBook.OrderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderBookTest {
+
+    private record Fill(long taker, long maker, long price, long quantity) {
+    }
+
+    private final List<Fill> fills = new ArrayList<>();
+    private final OrderBook.FillListener listener = (taker, maker, price, quantity) ->
+            fills.add(new Fill(taker, maker, price, quantity));
+    private OrderBook book;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook("CSE:JKH");
+    }
+
+    @Test
+    void should_FillBestPriceFirst_ThenEarliestOrderAtThatPrice() {
+        book.submit(1, false, OrderType.LIMIT, 101, 5, listener);
+        book.submit(2, false, OrderType.LIMIT, 100, 5, listener);
+        book.submit(3, false, OrderType.LIMIT, 100, 5, listener);
+
+        long filled = book.submit(10, true, OrderType.LIMIT, 101, 12, listener);
+
+        assertThat(filled).isEqualTo(12);
+        assertThat(fills).containsExactly(new Fill(10, 2, 100, 5), new Fill(10, 3, 100, 5), new Fill(10, 1, 101, 2));
+        assertThat(book.bestAsk()).isEqualTo(101);
+        assertThat(book.askQuantity(0)).isEqualTo(3);
+        assertThat(book.bidLevels()).isZero();
+    }
+
+    @Test
+    void should_RestLimitRemainder_ButCancelMarketAndIocRemainders() {
+        book.submit(1, false, OrderType.LIMIT, 100, 5, listener);
+        book.submit(2, false, OrderType.LIMIT, 105, 5, listener);
+
+        assertThat(book.submit(10, true, OrderType.IOC, 100, 8, listener)).isEqualTo(5);
+        assertThat(book.isResting(10)).isFalse();
+        assertThat(book.submit(11, true, OrderType.MARKET, 0, 8, listener)).isEqualTo(5);
+        assertThat(book.isResting(11)).isFalse();
+        assertThat(book.askLevels()).isZero();
+
+        assertThat(book.submit(12, true, OrderType.LIMIT, 99, 8, listener)).isZero();
+        assertThat(book.bestBid()).isEqualTo(99);
+        assertThat(book.bidQuantity(0)).isEqualTo(8);
+    }
+
+    @Test
+    void should_RemoveCancelledOrderFromItsQueue_AndDropEmptyLevels() {
+        book.submit(1, true, OrderType.LIMIT, 100, 5, listener);
+        book.submit(2, true, OrderType.LIMIT, 100, 7, listener);
+        book.submit(3, true, OrderType.LIMIT, 98, 4, listener);
+
+        assertThat(book.cancel(1)).isEqualTo(5);
+        assertThat(book.cancel(1)).isZero();
+        assertThat(book.bidQuantity(0)).isEqualTo(7);
+        assertThat(book.cancel(2)).isEqualTo(7);
+
+        assertThat(book.bestBid()).isEqualTo(98);
+        assertThat(book.bidLevels()).isEqualTo(1);
+    }
+}
@@ -1,16 +1,24 @@
 package com.antigravity.agents.system;
 
+import com.antigravity.config.CorrelationRiskProperties;
 import com.antigravity.models.ActionStatus;
 import com.antigravity.models.Portfolio;
 import com.antigravity.models.PortfolioRepository;
+import com.antigravity.risk.CorrelationMatrix;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,13 +38,26 @@ class CapitalConstraintTest {
         @Mock
         private SystemAgentService systemAgentService;
 
+        @Mock
+        private PlatformTransactionManager transactionManager;
+
+        @Mock
+        private PortfolioIndex holdingsIndex;
+
         private SystemAgentTools systemAgentTools;
+        private BrokerBalanceCache brokerBalanceCache;
 
         @BeforeEach
         void setUp() {
                 MockitoAnnotations.openMocks(this);
                 // Inject with manual threshold for testing (e.g., 0.10)
-                systemAgentTools = new SystemAgentTools(portfolioRepository, systemAgentService);
+                brokerBalanceCache = new BrokerBalanceCache(600_000);
+                systemAgentTools = new SystemAgentTools(portfolioRepository, systemAgentService, brokerBalanceCache,
+                                transactionManager, holdingsIndex,
+                                new CorrelationMatrix(List.of(), Duration.ofMinutes(30), Duration.ofMinutes(10),
+                                                Duration.ofHours(5), 20),
+                                new CorrelationRiskProperties(Duration.ofMinutes(30), 20, new BigDecimal("0.25"),
+                                                new BigDecimal("0.05")));
                 try {
                         var field = SystemAgentTools.class.getDeclaredField("cvarThresholdPercentage");
                         field.setAccessible(true);
@@ -132,6 +153,50 @@ class CapitalConstraintTest {
 
                         assertThat(res.status()).isEqualTo(ActionStatus.SUCCESS);
                 }
+
+                @Test
+                void should_Deny_WhenAllocationExceedsReconciledCdsCash() {
+                        Portfolio p = new Portfolio(userId, new BigDecimal("10000"));
+                        p.addProfit(new BigDecimal("1000")); // Total = 11000. Max risk = 100.
+                        when(portfolioRepository.findByUserId(userId)).thenReturn(Optional.of(p));
+                        brokerBalanceCache.put(userId, new BigDecimal("1500"), Instant.now());
+
+                        req = new SystemAgentTools.CapitalVerificationRequest(userId, new BigDecimal("2000"),
+                                        new BigDecimal("50"));
+                        res = systemAgentTools.verifyCapitalConstraint().apply(req);
+
+                        assertThat(res.status()).isEqualTo(ActionStatus.DENIED);
+                        assertThat(res.message()).containsSequence("CDS cash balance");
+
+                        // A stale balance is ignored rather than blocking trading.
+                        brokerBalanceCache.put(userId, new BigDecimal("1500"), Instant.now().minusSeconds(3600));
+                        res = systemAgentTools.verifyCapitalConstraint().apply(req);
+
+                        assertThat(res.status()).isEqualTo(ActionStatus.SUCCESS);
+                }
+
+                @Test
+                void should_Deny_WhenBuyWouldConcentrateTheAsset() {
+                        Portfolio p = new Portfolio(userId, new BigDecimal("10000"));
+                        p.addProfit(new BigDecimal("1000")); // Total = 11000. Concentration limit = 2750.
+                        when(portfolioRepository.findByUserId(userId)).thenReturn(Optional.of(p));
+                        when(holdingsIndex.holdings(userId)).thenReturn(List.of(
+                                        new CorrelationMatrix.Holding("CSE:JKH", 10, 2000)));
+
+                        req = new SystemAgentTools.CapitalVerificationRequest(userId, new BigDecimal("1000"),
+                                        new BigDecimal("50"), "CSE:JKH");
+                        res = systemAgentTools.verifyCapitalConstraint().apply(req);
+
+                        assertThat(res.status()).isEqualTo(ActionStatus.DENIED);
+                        assertThat(res.message()).contains("25.00% concentration limit");
+
+                        // Another asset, uncorrelated for all the matrix knows, stays within the limit.
+                        req = new SystemAgentTools.CapitalVerificationRequest(userId, new BigDecimal("1000"),
+                                        new BigDecimal("50"), "CSE:COMB");
+                        res = systemAgentTools.verifyCapitalConstraint().apply(req);
+
+                        assertThat(res.status()).isEqualTo(ActionStatus.SUCCESS);
+                }
         }
 
         @Nested
@@ -191,6 +256,9 @@ class CapitalConstraintTest {
                 @Mock
                 private PortfolioRepository localRepo;
 
+                @Mock
+                private PortfolioIndex portfolioIndex;
+
                 @InjectMocks
                 private SystemAgentService service;
 
@@ -222,6 +290,23 @@ class CapitalConstraintTest {
                         verify(localRepo).save(existing);
                 }
 
+                @Test
+                void syncCdsDeposit_ShouldUpdateIndexOnlyAfterCommit() {
+                        when(localRepo.findByUserIdForUpdate("u99")).thenReturn(Optional.empty());
+                        when(localRepo.save(any(Portfolio.class))).thenAnswer(i -> i.getArguments()[0]);
+                        TransactionSynchronizationManager.initSynchronization();
+                        try {
+                                Portfolio p = service.syncCdsDeposit("u99", new BigDecimal("500"));
+
+                                verify(portfolioIndex, never()).update(any(Portfolio.class));
+                                TransactionSynchronizationManager.getSynchronizations()
+                                                .forEach(TransactionSynchronization::afterCommit);
+                                verify(portfolioIndex).update(p);
+                        } finally {
+                                TransactionSynchronizationManager.clearSynchronization();
+                        }
+                }
+
                 @Test
                 void processWithdrawal_ShouldDenyIfNotFound() {
                         when(localRepo.findByUserIdForUpdate("u99")).thenReturn(Optional.empty());
@@ -0,0 +1,118 @@
+package com.antigravity.agents.system;
+
+import com.antigravity.agents.system.CdsReconciliationJob.SweepResult;
+import com.antigravity.agents.trade.BrokerUnavailableException;
+import com.antigravity.agents.trade.DecisionJournal;
+import com.antigravity.agents.trade.SandboxBrokerClient;
+import com.antigravity.config.JournalProperties;
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.journal.EventJournal;
+import com.antigravity.messaging.AuditTraceEvent;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.EventPublisher;
+import com.antigravity.models.Money;
+import com.antigravity.models.Portfolio;
+import com.antigravity.models.PortfolioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CdsReconciliationJobTest {
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private SandboxBrokerClient sandboxBrokerClient;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BrokerBalanceCache balanceCache;
+    private DecisionJournal decisionJournal;
+    private CdsReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        balanceCache = new BrokerBalanceCache(600_000);
+        // A disabled journal still tracks orders in memory; it just writes nothing
+        JournalProperties properties = new JournalProperties(false, Path.of("unused"), DataSize.ofMegabytes(1),
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 1000);
+        decisionJournal = new DecisionJournal(new EventJournal(properties, null, meterRegistry), properties,
+                meterRegistry);
+        job = new CdsReconciliationJob(portfolioRepository, sandboxBrokerClient, balanceCache, eventPublisher,
+                decisionJournal, meterRegistry, 2, 4, new BigDecimal("1.00"), new BigDecimal("0.005"));
+    }
+
+    private static Portfolio portfolio(String userId, String base) {
+        return new Portfolio(userId, new BigDecimal(base));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_CacheBalancesAndReportDrift_AcrossAllPages() {
+        Pageable first = PageRequest.of(0, 2);
+        when(portfolioRepository.findAllBy(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(portfolio("usr_001", "10000"), portfolio("usr_002", "5000")),
+                        first, true))
+                .thenReturn(new SliceImpl<>(List.of(portfolio("usr_003", "2000")), first.next(), false));
+        when(sandboxBrokerClient.getAccountBalanceAsync("usr_001")).thenReturn(Mono.just(new BigDecimal("10020")));
+        when(sandboxBrokerClient.getAccountBalanceAsync("usr_002")).thenReturn(Mono.just(new BigDecimal("4000")));
+        when(sandboxBrokerClient.getAccountBalanceAsync("usr_003"))
+                .thenReturn(Mono.error(new BrokerUnavailableException("open")));
+
+        SweepResult result = job.reconcileAll();
+
+        // usr_001 is within 0.5% of 10000; usr_002 is 1000 short; usr_003 failed.
+        assertThat(result).isEqualTo(new SweepResult(1, 1, 1));
+        assertThat(balanceCache.freshCash("usr_001")).isEqualTo(Money.of("10020"));
+        assertThat(balanceCache.freshCash("usr_003")).isNull();
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(eventPublisher, times(1)).publish(captor.capture());
+        ProducerRecord<String, byte[]> record = captor.getValue();
+        assertThat(record.topic()).isEqualTo(KafkaConfig.TOPIC_AUDIT_TRACES);
+        assertThat(record.key()).isEqualTo("usr_002");
+        AuditTraceEvent drift = EventCodec.decodeAuditTrace(record.value());
+        assertThat(drift.type()).isEqualTo("CDS_BALANCE_DRIFT");
+        assertThat(drift.attributes()).containsEntry("drift", "-1000.0000");
+    }
+
+    @Test
+    void should_ResolveOrdersLeftByRestart_OnlyWhenTheirAccountIsChecked() {
+        decisionJournal.recordOrderSubmitted("usr_001", "CSE:JKH", "BUY", 10);
+        decisionJournal.recordOrderSubmitted("usr_002", "CSE:JKH", "BUY", 5);
+        decisionJournal.recovered();
+        decisionJournal.recordOrderSubmitted("usr_001", "CSE:COMB", "SELL", 3);
+        when(portfolioRepository.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<>(
+                List.of(portfolio("usr_001", "10000"), portfolio("usr_002", "5000")), PageRequest.of(0, 2), false));
+        when(sandboxBrokerClient.getAccountBalanceAsync("usr_001")).thenReturn(Mono.just(new BigDecimal("10000")));
+        when(sandboxBrokerClient.getAccountBalanceAsync("usr_002"))
+                .thenReturn(Mono.error(new BrokerUnavailableException("open")));
+
+        job.reconcileAll();
+
+        // usr_002 could not be checked, and usr_001's order after the restart awaits its own response
+        assertThat(meterRegistry.get("antigravity.journal.orders.unacknowledged").gauge().value()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.antigravity.agents.system;
+
+import com.antigravity.models.PortfolioRepository;
+import com.antigravity.models.Trade;
+import com.antigravity.models.TradePosition;
+import com.antigravity.models.TradePositionRepository;
+import com.antigravity.models.TradeRepository;
+import com.antigravity.risk.CorrelationMatrix.Holding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.SliceImpl;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PortfolioIndexTest {
+
+    @Mock
+    private PortfolioRepository portfolioRepository;
+
+    @Mock
+    private TradePositionRepository positionRepository;
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    private PortfolioIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(portfolioRepository.findAllBy(any())).thenReturn(new SliceImpl<>(List.of()));
+        when(positionRepository.findAllBy(any())).thenReturn(new SliceImpl<>(List.of()));
+        index = new PortfolioIndex(portfolioRepository, positionRepository, tradeRepository, 100);
+    }
+
+    @Test
+    void should_UpdateHoldings_WhenTradesCommit() {
+        index.applyTrades(List.of(trade("BUY", "CSE:JKH", "1500", "150")));
+        assertThat(index.holdings("usr_001")).containsExactly(new Holding("CSE:JKH", 10, 1500));
+
+        index.applyTrades(List.of(trade("SELL", "CSE:JKH", "600", "150")));
+        assertThat(index.holdings("usr_001")).containsExactly(new Holding("CSE:JKH", 6, 900));
+
+        index.applyTrades(List.of(trade("SELL", "CSE:JKH", "1200", "150")));
+        assertThat(index.holdings("usr_001")).isEmpty();
+    }
+
+    @Test
+    void should_KeepUnsummarizedTrades_WhenIndexReloads() {
+        TradePosition position = new TradePosition(new TradePosition.Key("usr_001", "CSE:JKH"));
+        position.apply(trade("BUY", "CSE:JKH", "1500", "150"));
+        when(positionRepository.findAllBy(any())).thenReturn(new SliceImpl<>(List.of(position)));
+        when(tradeRepository.findBySummarizedAtIsNull()).thenReturn(List.of(trade("BUY", "CSE:COMB", "900", "90")));
+
+        index.refresh();
+
+        assertThat(index.holdings("usr_001")).containsExactlyInAnyOrder(
+                new Holding("CSE:JKH", 10, 1500), new Holding("CSE:COMB", 10, 900));
+    }
+
+    private static Trade trade(String action, String assetId, String amount, String price) {
+        return new Trade("usr_001", assetId, action, new BigDecimal(amount), new BigDecimal(price), "ACCUMULATE",
+                BigDecimal.ZERO);
+    }
+}
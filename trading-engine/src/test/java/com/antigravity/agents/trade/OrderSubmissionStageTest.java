@@ -0,0 +1,115 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.trade.OrderSubmissionStage.OrderIntent;
+import com.antigravity.agents.trade.SandboxBrokerClient.OrderRequest;
+import com.antigravity.agents.trade.SandboxBrokerClient.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OrderSubmissionStageTest {
+
+    @Mock
+    private SandboxBrokerClient client;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderSubmissionStage stage;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // A long window keeps every submission in one batch; tests flush explicitly.
+        stage = new OrderSubmissionStage(client, meterRegistry, 60_000, 50, true, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stage.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_NetOpposingOrdersAndSendOneBulkRequest_WhenSubmittedInSameWindow() throws Exception {
+        when(client.placeOrdersBulkAsync(anyList())).thenReturn(Mono.just(List.of(
+                new OrderResponse(true, null, "jkh"), new OrderResponse(true, null, "comb"))));
+
+        CompletableFuture<OrderResponse> buy = stage.submit(intent("usr_001", "CSE:JKH", "BUY", 10, "150"));
+        CompletableFuture<OrderResponse> sell = stage.submit(intent("usr_001", "CSE:JKH", "SELL", 4, "151"));
+        CompletableFuture<OrderResponse> other = stage.submit(intent("usr_001", "CSE:COMB", "SELL", 3, "90"));
+        stage.flush();
+
+        ArgumentCaptor<List<OrderRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(client).placeOrdersBulkAsync(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+                new OrderRequest("CSE:JKH", "buy", 6, new BigDecimal("150"), "market", "usr_001"),
+                new OrderRequest("CSE:COMB", "sell", 3, new BigDecimal("90"), "market", "usr_001"));
+        assertThat(buy.get(1, TimeUnit.SECONDS).message()).isEqualTo("jkh");
+        assertThat(sell.get(1, TimeUnit.SECONDS).message()).isEqualTo("jkh");
+        assertThat(other.get(1, TimeUnit.SECONDS).message()).isEqualTo("comb");
+        verify(client, never()).placeOrderAsync(any(OrderRequest.class));
+    }
+
+    @Test
+    void should_FallBackToSingleOrders_WhenBulkRouteIsMissing() throws Exception {
+        when(client.placeOrdersBulkAsync(anyList())).thenReturn(Mono.error(
+                WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null)));
+        when(client.placeOrderAsync(any(OrderRequest.class)))
+                .thenAnswer(inv -> Mono.just(new OrderResponse(true, null, inv.<OrderRequest>getArgument(0).symbol())));
+
+        CompletableFuture<OrderResponse> jkh = stage.submit(intent("usr_001", "CSE:JKH", "BUY", 5, "150"));
+        CompletableFuture<OrderResponse> comb = stage.submit(intent("usr_002", "CSE:COMB", "BUY", 2, "90"));
+        stage.flush();
+
+        assertThat(jkh.get(1, TimeUnit.SECONDS).message()).isEqualTo("CSE:JKH");
+        assertThat(comb.get(1, TimeUnit.SECONDS).message()).isEqualTo("CSE:COMB");
+        assertThat(stage.isBulkSupported()).isFalse();
+        verify(client, times(2)).placeOrderAsync(any(OrderRequest.class));
+    }
+
+    @Test
+    void should_SkipBroker_WhenOrdersNetToZero() throws Exception {
+        CompletableFuture<OrderResponse> buy = stage.submit(intent("usr_001", "CSE:JKH", "BUY", 5, "150"));
+        CompletableFuture<OrderResponse> sell = stage.submit(intent("usr_001", "CSE:JKH", "SELL", 5, "151"));
+        stage.flush();
+
+        assertThat(buy.get(1, TimeUnit.SECONDS).success()).isTrue();
+        assertThat(sell.get(1, TimeUnit.SECONDS).message()).startsWith("Netted to zero");
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    void should_RecordFillRatioAndSlippage_WhenBrokerReportsAPartialFill() throws Exception {
+        when(client.placeOrderAsync(any(OrderRequest.class))).thenReturn(Mono.just(new OrderResponse(true,
+                Map.of("quantity", 10, "filled_quantity", 4, "slippage_bps", 12.5, "status", "partially_filled"),
+                "Order partially filled; remainder resting.")));
+
+        CompletableFuture<OrderResponse> buy = stage.submit(intent("usr_001", "CSE:JKH", "BUY", 10, "150"));
+        stage.flush();
+
+        assertThat(buy.get(1, TimeUnit.SECONDS).filled()).isFalse();
+        assertThat(meterRegistry.get("antigravity.trade.orders.fill.ratio").summary().mean()).isEqualTo(0.4);
+        assertThat(meterRegistry.get("antigravity.trade.orders.slippage").summary().mean()).isEqualTo(12.5);
+    }
+
+    private static OrderIntent intent(String userId, String symbol, String action, int quantity, String price) {
+        return new OrderIntent(userId, symbol, action, quantity, new BigDecimal(price));
+    }
+}
@@ -0,0 +1,152 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.system.BrokerBalanceCache;
+import com.antigravity.agents.system.PortfolioIndex;
+import com.antigravity.agents.trade.PortfolioFanOut.UserTrade;
+import com.antigravity.agents.trade.TradeAgent.TradeDecision;
+import com.antigravity.config.AllocationProperties;
+import com.antigravity.config.CorrelationRiskProperties;
+import com.antigravity.models.Money;
+import com.antigravity.risk.AllocationOptimizer;
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.CorrelationMatrix.Holding;
+import com.antigravity.risk.PositionSizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class PortfolioFanOutTest {
+
+    // 1000 allocated with 20% of it at risk, at 100 per unit.
+    private static final TradeDecision MARKET = new TradeDecision("CSE:JKH", "BUY", new BigDecimal("1000.00"),
+            new BigDecimal("100"), "ACCUMULATE", new BigDecimal("200.00"));
+
+    @Mock
+    private PortfolioIndex portfolioIndex;
+
+    private BrokerBalanceCache balanceCache;
+    private CorrelationMatrix correlations;
+    private AllocationOptimizer optimizer;
+    private SimpleMeterRegistry meterRegistry;
+    private PortfolioFanOut fanOut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        balanceCache = new BrokerBalanceCache(600_000);
+        meterRegistry = new SimpleMeterRegistry();
+        correlations = new CorrelationMatrix(List.of("JKH", "COMB"), Duration.ofMinutes(30), Duration.ofMinutes(10),
+                Duration.ofHours(5), 5);
+        optimizer = new AllocationOptimizer(Integer.MAX_VALUE, 1, 500, 1e-9);
+        fanOut = new PortfolioFanOut(portfolioIndex, balanceCache, correlations,
+                new PositionSizer(correlations, optimizer,
+                        new AllocationProperties(true, 0.25, 0.10, Integer.MAX_VALUE, 1, 500, 1e-9)),
+                new CorrelationRiskProperties(Duration.ofMinutes(30), 5, new BigDecimal("0.25"),
+                        new BigDecimal("0.05")),
+                meterRegistry, new BigDecimal("0.10"),
+                new BigDecimal("0.05"), 4, 256);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanOut.close();
+        optimizer.close();
+    }
+
+    @Test
+    void should_SizeEachUserWithinTheirOwnCapital() {
+        when(portfolioIndex.entries()).thenReturn(List.of(
+                entry("rich", "5000", "105000"),
+                entry("small", "1000", "11000"),
+                entry("no_profit", "0", "100000"),
+                entry("cash_short", "5000", "105000")));
+        balanceCache.put("cash_short", new BigDecimal("300"), Instant.now());
+
+        PortfolioFanOut.Result result = fanOut.allocate(MARKET);
+
+        assertThat(result.evaluated()).isEqualTo(4);
+        assertThat(result.approved()).extracting(UserTrade::userId).containsExactly("rich", "small");
+        TradeDecision rich = result.approved().get(0).trade();
+        assertThat(rich.amountAllocated()).isEqualByComparingTo("1000.00");
+        assertThat(rich.cvarExposure()).isEqualByComparingTo("200.00");
+        // 5% of 11000 is 550, but a 100 CVaR budget at 20% risk caps it at 500.
+        TradeDecision small = result.approved().get(1).trade();
+        assertThat(small.amountAllocated()).isEqualByComparingTo("500.00");
+        assertThat(small.cvarExposure()).isEqualByComparingTo("100.00");
+        assertThat(meterRegistry.get("antigravity.trade.fanout.user.decisions").tag("outcome", "denied")
+                .counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void should_EvaluateEveryUserInParallel_AndReportDecisionRate() {
+        List<PortfolioIndex.Entry> users = IntStream.range(0, 1_000)
+                .mapToObj(i -> entry(String.format("usr_%04d", i), "5000", "105000"))
+                .toList();
+        when(portfolioIndex.entries()).thenReturn(users);
+
+        PortfolioFanOut.Result result = fanOut.allocate(MARKET);
+
+        assertThat(result.approved()).extracting(UserTrade::userId)
+                .containsExactlyElementsOf(users.stream().map(PortfolioIndex.Entry::userId).toList());
+        assertThat(result.decisionsPerSecond()).isPositive();
+        assertThat(meterRegistry.get("antigravity.trade.fanout.user.decisions.rate").gauge().value())
+                .isEqualTo(result.decisionsPerSecond());
+    }
+
+    @Test
+    void should_DenyBuy_WhenCorrelatedHoldingsBreachConcentrationLimit() {
+        // JKH and COMB move together; 600 COMB at about 50 is over a quarter of 105000 with the buy added
+        Random random = new Random(7);
+        double logReturn = 0;
+        for (int second = 0; second < 30; second++) {
+            logReturn += random.nextGaussian() * 0.0001;
+            correlations.observe("JKH", second * 1000L, 100 * Math.exp(logReturn));
+            correlations.observe("COMB", second * 1000L, 50 * Math.exp(logReturn));
+        }
+        when(portfolioIndex.entries()).thenReturn(List.of(
+                entry("concentrated", "5000", "105000"),
+                entry("diversified", "5000", "105000")));
+        when(portfolioIndex.holdings("concentrated")).thenReturn(List.of(new Holding("CSE:COMB", 600, 30_000)));
+
+        PortfolioFanOut.Result result = fanOut.allocate(MARKET);
+
+        assertThat(result.approved()).extracting(UserTrade::userId).containsExactly("diversified");
+    }
+
+    @Test
+    void should_SizeBuyFromVolatility_WhenAssetHasPriceHistory() {
+        // About 40% volatility over a session: the CVaR rate is well above the decision's 20%,
+        // so the 500 budget buys less than the 1000 the decision asked for
+        Random random = new Random(13);
+        double logReturn = 0;
+        for (int second = 0; second < 30; second++) {
+            logReturn += random.nextGaussian() * 0.003;
+            correlations.observe("JKH", second * 1000L, 100 * Math.exp(logReturn));
+        }
+        when(portfolioIndex.entries()).thenReturn(List.of(entry("rich", "5000", "105000")));
+        when(portfolioIndex.holdings("rich")).thenReturn(List.of());
+
+        PortfolioFanOut.Result result = fanOut.allocate(MARKET);
+
+        TradeDecision trade = result.approved().get(0).trade();
+        assertThat(trade.amountAllocated()).isBetween(new BigDecimal("100"), new BigDecimal("1000"));
+        assertThat(trade.cvarExposure()).isBetween(new BigDecimal("499"), new BigDecimal("500"));
+    }
+
+    private static PortfolioIndex.Entry entry(String userId, String profit, String total) {
+        return new PortfolioIndex.Entry(userId, Money.of(profit), Money.of(total));
+    }
+}
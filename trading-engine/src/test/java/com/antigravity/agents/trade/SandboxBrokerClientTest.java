@@ -0,0 +1,111 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.config.SandboxBrokerProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SandboxBrokerClientTest {
+
+    private DisposableServer server;
+    private SandboxBrokerClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    // Read timeouts are generous because the first request in a JVM pays for codec
+    // and transport initialization; only the stalled first read should time out.
+    private SandboxBrokerClient clientFor(DisposableServer server, int failureThreshold) {
+        SandboxBrokerProperties properties = new SandboxBrokerProperties(
+                "http://127.0.0.1:" + server.port(),
+                new SandboxBrokerProperties.Pool(4, 16, Duration.ofSeconds(1), Duration.ofSeconds(30)),
+                new SandboxBrokerProperties.Timeouts(Duration.ofMillis(250), Duration.ofMillis(200),
+                        Duration.ofSeconds(3), Duration.ofSeconds(8)),
+                new SandboxBrokerProperties.Retries(1, Duration.ofMillis(10)),
+                new SandboxBrokerProperties.Hedge(true, Duration.ofMillis(50)),
+                new SandboxBrokerProperties.Breaker(failureThreshold, Duration.ofSeconds(30)));
+        return new SandboxBrokerClient(WebClient.builder(), properties);
+    }
+
+    @Test
+    void should_ReturnHedgedRead_WhenFirstReadStalls() {
+        AtomicInteger calls = new AtomicInteger();
+        server = HttpServer.create().host("127.0.0.1").port(0)
+                .route(routes -> routes.get("/account/balance", (request, response) -> calls.getAndIncrement() == 0
+                        ? Mono.never()
+                        : response.header("Content-Type", "application/json").sendString(Mono.just("{\"balance\":1250.50}"))))
+                .bindNow();
+        client = clientFor(server, 5);
+
+        BigDecimal balance = client.getAccountBalanceAsync("usr_001").block(Duration.ofSeconds(10));
+
+        assertThat(balance).isEqualByComparingTo("1250.50");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void should_OpenCircuitAndFailFast_WhenBrokerStalls() {
+        server = HttpServer.create().host("127.0.0.1").port(0)
+                .route(routes -> routes.post("/orders", (request, response) -> Mono.never()))
+                .bindNow();
+        client = clientFor(server, 2);
+
+        for (int i = 0; i < 2; i++) {
+            SandboxBrokerClient.OrderResponse failed = client.placeOrder("CSE:JKH", "BUY", 5, new BigDecimal("150"));
+            assertThat(failed.success()).isFalse();
+        }
+        assertThat(client.getCircuitState()).isEqualTo(BrokerCircuitBreaker.State.OPEN);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.placeOrderAsync("CSE:JKH", "BUY", 5, new BigDecimal("150")).block())
+                .isInstanceOf(BrokerUnavailableException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(50));
+    }
+
+    @Test
+    void should_FallBackToZero_WhenBalanceReadsFail() {
+        server = HttpServer.create().host("127.0.0.1").port(0)
+                .route(routes -> routes.get("/account/balance", (request, response) -> response.status(503).send()))
+                .bindNow();
+        client = clientFor(server, 10);
+
+        assertThat(client.getAccountBalance("usr_001")).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void should_AllowSingleTrialCall_AfterOpenDuration() {
+        AtomicLong now = new AtomicLong();
+        BrokerCircuitBreaker breaker = new BrokerCircuitBreaker(2, Duration.ofSeconds(5), now::get);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.state()).isEqualTo(BrokerCircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(BrokerCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
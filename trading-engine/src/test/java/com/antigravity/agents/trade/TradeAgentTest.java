@@ -1,7 +1,29 @@
 package com.antigravity.agents.trade;
 
+import com.antigravity.agents.system.BrokerBalanceCache;
+import com.antigravity.agents.system.PortfolioIndex;
+import com.antigravity.config.AllocationProperties;
+import com.antigravity.config.CorrelationRiskProperties;
+import com.antigravity.config.JournalProperties;
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.journal.EventJournal;
+import com.antigravity.messaging.EventCodec;
+import com.antigravity.messaging.TradeExecutedEvent;
+import com.antigravity.models.OutboxEvent;
+import com.antigravity.models.Money;
+import com.antigravity.models.OutboxEventRepository;
 import com.antigravity.models.Trade;
 import com.antigravity.models.TradeRepository;
+import com.antigravity.risk.AllocationOptimizer;
+import com.antigravity.risk.CorrelationMatrix;
+import com.antigravity.risk.PositionSizer;
+import com.antigravity.tracing.LatencyTraceCollector;
+import com.antigravity.tracing.TokenUsageRecorder;
+import com.antigravity.tracing.TraceContext;
+import com.antigravity.tracing.TraceStage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -10,12 +32,23 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.ChatClient.ChatClientRequestSpec;
 import org.springframework.ai.chat.client.ChatClient.CallResponseSpec;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.util.unit.DataSize;
 
 import java.math.BigDecimal;
-import java.util.function.Consumer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -26,7 +59,13 @@ class TradeAgentTest {
     private TradeRepository tradeRepository;
 
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OrderSubmissionStage orderSubmissionStage;
+
+    @Mock
+    private PortfolioIndex portfolioIndex;
 
     @Mock
     private ChatClient.Builder chatClientBuilder;
@@ -40,7 +79,13 @@ class TradeAgentTest {
     @Mock
     private CallResponseSpec responseSpec;
 
+    private static final byte[] RULES_EVENT = ("{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\", "
+            + "\"volatility_score\":0.2, \"anomaly_detected\":false, \"recommended_strategy\":\"ACCUMULATE\", "
+            + "\"confidence\":0.9, \"last_price\":150.0}").getBytes(StandardCharsets.UTF_8);
+
     private TradeAgent tradeAgent;
+    private final SimpleMeterRegistry traceRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
@@ -49,18 +94,38 @@ class TradeAgentTest {
         when(chatClientBuilder.build()).thenReturn(chatClient);
 
         when(chatClient.prompt()).thenReturn(requestSpec);
-        when(requestSpec.system(any(Consumer.class))).thenReturn(requestSpec);
+        when(requestSpec.system(anyString())).thenReturn(requestSpec);
         when(requestSpec.user(anyString())).thenReturn(requestSpec);
         when(requestSpec.call()).thenReturn(responseSpec);
 
-        tradeAgent = new TradeAgent(chatClientBuilder, kafkaTemplate, tradeRepository, mock(SandboxBrokerClient.class));
+        TradeDecisionEngine decisionEngine = new TradeDecisionEngine(objectMapper, new SimpleMeterRegistry(),
+                true, 0.80, 0.55, 0.60, new BigDecimal("1000"), new BigDecimal("5000"));
+        when(portfolioIndex.entries()).thenReturn(List.of(
+                new PortfolioIndex.Entry("usr_001", Money.of("5000"), Money.of("105000"))));
+        CorrelationRiskProperties risk = new CorrelationRiskProperties(Duration.ofMinutes(30), 20,
+                new BigDecimal("0.25"), new BigDecimal("0.05"));
+        CorrelationMatrix correlations = new CorrelationMatrix(List.of(), risk.halfLife(), Duration.ofMinutes(10),
+                Duration.ofHours(5), risk.minSamples());
+        PortfolioFanOut fanOut = new PortfolioFanOut(portfolioIndex, new BrokerBalanceCache(600_000), correlations,
+                new PositionSizer(correlations, new AllocationOptimizer(Integer.MAX_VALUE, 1, 500, 1e-9),
+                        new AllocationProperties(true, 0.25, 0.10, Integer.MAX_VALUE, 1, 500, 1e-9)),
+                risk, new SimpleMeterRegistry(), new BigDecimal("0.10"), new BigDecimal("0.05"), 1, 256);
+
+        when(orderSubmissionStage.submit(any())).thenReturn(CompletableFuture.completedFuture(
+                new SandboxBrokerClient.OrderResponse(true, null, "filled")));
+
+        tradeAgent = new TradeAgent(chatClientBuilder,
+                new TradeLedger(tradeRepository, outboxEventRepository, portfolioIndex), orderSubmissionStage,
+                decisionEngine, fanOut,
+                new LatencyTraceCollector(traceRegistry),
+                new TokenUsageRecorder(new SimpleMeterRegistry(), 0.00015, 0.0006), decisionJournal());
     }
 
     @Test
     void should_SaveTrade_WhenModelApproves() {
         // Build a JSON that matches TradeDecision fields
         String mockAiResponse = "{\"assetId\":\"CSE:JKH\", \"action\":\"BUY\", \"amountAllocated\":1000.0, \"executionPrice\":150.0, \"strategyUsed\":\"TREND_FOLLOWER\", \"cvarExposure\":10.0}";
-        when(responseSpec.content()).thenReturn(mockAiResponse);
+        when(responseSpec.chatResponse()).thenReturn(chatResponse(mockAiResponse));
 
         tradeAgent.processMarketEvent("{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\"}");
 
@@ -73,26 +138,128 @@ class TradeAgentTest {
         assertThat(saved.getAction()).isEqualTo("BUY");
         assertThat(saved.getAmountAllocated()).isEqualByComparingTo("1000.0");
 
-        verify(kafkaTemplate).send(anyString(), eq(mockAiResponse));
+        ArgumentCaptor<OutboxEvent> eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getTopic()).isEqualTo(KafkaConfig.TOPIC_TRADE_LOGS);
+        TradeExecutedEvent published = EventCodec.decodeTradeExecuted(eventCaptor.getValue().getPayload());
+        assertThat(published.assetId()).isEqualTo("CSE:JKH");
+        assertThat(published.userId()).isEqualTo("usr_001");
+        assertThat(TraceContext.decode(eventCaptor.getValue().getTraceHeaders()).getStamp(TraceStage.TRADE_DECIDED))
+                .isNotNull();
     }
 
     @Test
     void should_NotSaveTrade_WhenModelDenies() {
         String mockAiResponse = "DENIED: Risk threshold exceeded.";
-        when(responseSpec.content()).thenReturn(mockAiResponse);
+        when(responseSpec.chatResponse()).thenReturn(chatResponse(mockAiResponse));
 
         tradeAgent.processMarketEvent("{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\"}");
 
         verify(tradeRepository, never()).save(any(Trade.class));
-        verify(kafkaTemplate, never()).send(anyString(), anyString());
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void should_TradeWithoutModel_WhenRulesDecide() {
+        tradeAgent.processMarketEvent("{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\", \"volatility_score\":0.2, "
+                + "\"anomaly_detected\":false, \"recommended_strategy\":\"ACCUMULATE\", \"confidence\":0.9, "
+                + "\"last_price\":150.0}");
+
+        ArgumentCaptor<Trade> tradeCaptor = ArgumentCaptor.forClass(Trade.class);
+        verify(tradeRepository).save(tradeCaptor.capture());
+        assertThat(tradeCaptor.getValue().getAmountAllocated()).isEqualByComparingTo("900.00");
+        verify(orderSubmissionStage).submit(new OrderSubmissionStage.OrderIntent("usr_001", "CSE:JKH", "BUY", 6,
+                new BigDecimal("150.0")));
+        verify(chatClient, never()).prompt();
     }
 
     @Test
-    void should_HandleException_Gracefully() {
+    void should_StampAcknowledgementOnce_WhenEveryUsersOrderIsAnswered() {
+        when(portfolioIndex.entries()).thenReturn(List.of(
+                new PortfolioIndex.Entry("usr_001", Money.of("5000"), Money.of("105000")),
+                new PortfolioIndex.Entry("usr_002", Money.of("5000"), Money.of("105000"))));
+
+        tradeAgent.processMarketEvent("{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\", \"volatility_score\":0.2, "
+                + "\"anomaly_detected\":false, \"recommended_strategy\":\"ACCUMULATE\", \"confidence\":0.9, "
+                + "\"last_price\":150.0}");
+
+        verify(orderSubmissionStage, times(2)).submit(any());
+        assertThat(traceRegistry.get("antigravity.trace.stage.latency").tag("stage", "ORDER_ACKNOWLEDGED")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_NotTradeAndRethrowForRetry_WhenModelFails() {
         when(chatClient.prompt()).thenThrow(new RuntimeException("AI Down"));
 
-        tradeAgent.processMarketEvent("{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\"}");
+        assertThatThrownBy(() -> tradeAgent.processMarketEvent("{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\"}"))
+                .hasMessage("AI Down");
+
+        verify(tradeRepository, never()).save(any(Trade.class));
+    }
+
+    @Test
+    void should_ReuseJournaledDecision_WhenRetriedEventFailedAfterModelDecided() {
+        String mockAiResponse = "{\"assetId\":\"CSE:JKH\", \"action\":\"BUY\", \"amountAllocated\":1000.0, \"executionPrice\":150.0, \"strategyUsed\":\"TREND_FOLLOWER\", \"cvarExposure\":10.0}";
+        when(responseSpec.chatResponse()).thenReturn(chatResponse(mockAiResponse));
+        when(tradeRepository.save(any(Trade.class))).thenThrow(new RuntimeException("DB Down")).thenReturn(null);
+        byte[] json = "{\"asset_id\":\"CSE:JKH\", \"trend\":\"BULLISH\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> tradeAgent.onMarketEvent(
+                new ConsumerRecord<>(KafkaConfig.TOPIC_MARKET_HEALTH, 0, 42L, null, json))).hasMessage("DB Down");
+        tradeAgent.onMarketEvent(retried(json, 7L));
+        tradeAgent.onMarketEvent(retried(json, 8L));
+
+        verify(chatClient, times(1)).prompt();
+        verify(tradeRepository, times(2)).save(any(Trade.class));
+        verify(orderSubmissionStage, times(1)).submit(any());
+    }
+
+    @Test
+    void should_BookOnceAndNotRethrow_WhenOrderCannotBeSentAfterCommit() {
+        when(orderSubmissionStage.submit(any())).thenThrow(new IllegalStateException("stage closed"));
+
+        assertThatCode(() -> tradeAgent.onMarketEvent(
+                new ConsumerRecord<>(KafkaConfig.TOPIC_MARKET_HEALTH, 0, 42L, null, RULES_EVENT)))
+                .doesNotThrowAnyException();
+
+        ArgumentCaptor<Trade> tradeCaptor = ArgumentCaptor.forClass(Trade.class);
+        verify(tradeRepository).save(tradeCaptor.capture());
+        assertThat(tradeCaptor.getValue().getSourceEvent()).isEqualTo(KafkaConfig.TOPIC_MARKET_HEALTH + "-0@42");
+    }
+
+    @Test
+    void should_SkipBookedUsers_WhenEventIsRedelivered() {
+        when(tradeRepository.findUserIdsBySourceEvent(KafkaConfig.TOPIC_MARKET_HEALTH + "-0@42"))
+                .thenReturn(List.of("usr_001"));
+
+        tradeAgent.onMarketEvent(retried(RULES_EVENT, 7L));
 
         verify(tradeRepository, never()).save(any(Trade.class));
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+        verify(orderSubmissionStage, never()).submit(any());
+    }
+
+    /** The event at market health offset 42 as re-read from the first retry topic. */
+    private static ConsumerRecord<String, byte[]> retried(byte[] payload, long offset) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(KafkaConfig.TOPIC_MARKET_HEALTH + "-retry-0", 0,
+                offset, null, payload);
+        record.headers().add(KafkaHeaders.ORIGINAL_TOPIC,
+                KafkaConfig.TOPIC_MARKET_HEALTH.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(0).array());
+        record.headers().add(KafkaHeaders.ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(42L).array());
+        return record;
+    }
+
+    private static DecisionJournal decisionJournal() {
+        // A disabled journal still tracks decisions in memory; it just writes nothing
+        JournalProperties properties = new JournalProperties(false, Path.of("unused"), DataSize.ofMegabytes(1),
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 1000);
+        return new DecisionJournal(new EventJournal(properties, null, new SimpleMeterRegistry()), properties,
+                new SimpleMeterRegistry());
+    }
+
+    private static ChatResponse chatResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
     }
 }
@@ -0,0 +1,79 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.agents.trade.TradeDecisionEngine.Decision;
+import com.antigravity.agents.trade.TradeDecisionEngine.Outcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeDecisionEngineTest {
+
+    private TradeDecisionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new TradeDecisionEngine(new ObjectMapper(), new SimpleMeterRegistry(),
+                true, 0.80, 0.55, 0.60, new BigDecimal("1000"), new BigDecimal("800"));
+    }
+
+    private static String event(String strategy, double confidence, double volatility, boolean anomaly) {
+        return event(strategy, "BULLISH", confidence, volatility, anomaly);
+    }
+
+    private static String event(String strategy, String trend, double confidence, double volatility,
+            boolean anomaly) {
+        return "{\"asset_id\":\"CSE:JKH\",\"trend\":\"" + trend + "\",\"volatility_score\":" + volatility
+                + ",\"anomaly_detected\":" + anomaly + ",\"recommended_strategy\":\"" + strategy
+                + "\",\"confidence\":" + confidence + ",\"last_price\":150.0}";
+    }
+
+    @Test
+    void should_Trade_WhenSignalIsClear() {
+        Decision decision = engine.decide(event("ACCUMULATE", 0.9, 0.2, false));
+
+        assertThat(decision.outcome()).isEqualTo(Outcome.TRADE);
+        assertThat(decision.trade().action()).isEqualTo("BUY");
+        // 1000 * 0.9 = 900, capped by the 800 position limit
+        assertThat(decision.trade().amountAllocated()).isEqualByComparingTo("800.00");
+        assertThat(decision.trade().executionPrice()).isEqualByComparingTo("150.0");
+        assertThat(decision.trade().cvarExposure()).isEqualByComparingTo("160.00");
+    }
+
+    @Test
+    void should_FollowTheTrend_WhenStrategyIsDiscreteSwing() {
+        Decision sell = engine.decide(event("DISCRETE_SWING", "BEARISH", 0.9, 0.2, false));
+
+        assertThat(sell.outcome()).isEqualTo(Outcome.TRADE);
+        assertThat(sell.trade().action()).isEqualTo("SELL");
+        assertThat(engine.decide(event("DISCRETE_SWING", "BULLISH", 0.9, 0.2, false)).trade().action())
+                .isEqualTo("BUY");
+        assertThat(engine.decide(event("DISCRETE_SWING", "NEUTRAL", 0.9, 0.2, false)).outcome())
+                .isEqualTo(Outcome.ESCALATE);
+        assertThat(engine.decide(event("ACCUMULATE", "BEARISH", 0.9, 0.2, false)).outcome())
+                .isEqualTo(Outcome.ESCALATE);
+    }
+
+    @Test
+    void should_Hold_WhenStrategyIsHoldOrConfidenceIsLow() {
+        Decision hold = engine.decide(event("HOLD", 0.9, 0.2, false));
+
+        assertThat(hold.outcome()).isEqualTo(Outcome.HOLD);
+        assertThat(hold.trade()).isNull();
+        assertThat(engine.decide(event("ACCUMULATE", 0.3, 0.2, false)).outcome()).isEqualTo(Outcome.HOLD);
+    }
+
+    @Test
+    void should_Escalate_WhenEventIsAmbiguousOrAnomalous() {
+        assertThat(engine.decide(event("ACCUMULATE", 0.7, 0.2, false)).outcome()).isEqualTo(Outcome.ESCALATE);
+        assertThat(engine.decide(event("ACCUMULATE", 0.9, 0.9, false)).outcome()).isEqualTo(Outcome.ESCALATE);
+        assertThat(engine.decide(event("HOLD", 0.9, 0.2, true)).outcome()).isEqualTo(Outcome.ESCALATE);
+        assertThat(engine.decide("{\"asset_id\":\"CSE:JKH\",\"trend\":\"BULLISH\"}").outcome())
+                .isEqualTo(Outcome.ESCALATE);
+        assertThat(engine.decide("not json").outcome()).isEqualTo(Outcome.ESCALATE);
+    }
+}
@@ -0,0 +1,109 @@
+package com.antigravity.agents.trade;
+
+import com.antigravity.models.DailyTradeSummary;
+import com.antigravity.models.DailyTradeSummaryRepository;
+import com.antigravity.models.Trade;
+import com.antigravity.models.TradePosition;
+import com.antigravity.models.TradePositionRepository;
+import com.antigravity.models.TradeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class TradeSummaryJobTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private DailyTradeSummaryRepository summaryRepository;
+
+    @Mock
+    private TradePositionRepository positionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeSummaryJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        job = new TradeSummaryJob(tradeRepository, summaryRepository, positionRepository,
+                new TransactionTemplate(transactionManager), meterRegistry, 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_RollUpCountNotionalAndAverageCostPnl_AndMarkTradesSummarized() {
+        // 10 @ 100 and 10 @ 110 average 105; selling 10 @ 120 realizes 150
+        List<Trade> batch = List.of(
+                trade("BUY", "1000", "100", "200"),
+                trade("BUY", "1100", "110", "300"),
+                trade("SELL", "1200", "120", "100"));
+        when(tradeRepository.findUnsummarizedForUpdate(any())).thenReturn(batch).thenReturn(List.of());
+        when(positionRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(summaryRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        int rolledUp = job.rollUp();
+
+        assertThat(rolledUp).isEqualTo(3);
+        ArgumentCaptor<Iterable<DailyTradeSummary>> summaries = ArgumentCaptor.forClass(Iterable.class);
+        verify(summaryRepository).saveAll(summaries.capture());
+        List<DailyTradeSummary> saved = new ArrayList<>();
+        summaries.getValue().forEach(saved::add);
+        assertThat(saved).singleElement().satisfies(summary -> {
+            assertThat(summary.getTradeDate()).isEqualTo(LocalDate.now());
+            assertThat(summary.getTradeCount()).isEqualTo(3);
+            assertThat(summary.getNotional()).isEqualByComparingTo("3300");
+            assertThat(summary.getRealizedPnl()).isEqualByComparingTo("150");
+            assertThat(summary.getMaxCvarExposure()).isEqualByComparingTo("300");
+        });
+        assertThat(batch).allSatisfy(trade -> assertThat(trade.getSummarizedAt()).isNotNull());
+        verify(tradeRepository).saveAll(batch);
+        verify(tradeRepository, times(2)).findUnsummarizedForUpdate(any());
+        assertThat(meterRegistry.get("antigravity.trade.summary.rolled-up").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void should_RealizeAgainstExistingPosition_AndIgnoreSellsBeyondHoldings() {
+        TradePosition position = new TradePosition(new TradePosition.Key("usr_001", "CSE:JKH"));
+        position.apply(trade("BUY", "1000", "100", "0"));
+        DailyTradeSummary today = new DailyTradeSummary(
+                new DailyTradeSummary.Key("usr_001", LocalDate.now(), "CSE:JKH"));
+        today.add(trade("BUY", "1000", "100", "50"), BigDecimal.ZERO);
+        when(tradeRepository.findUnsummarizedForUpdate(any())).thenReturn(List.of(trade("SELL", "1800", "90", "0")));
+        when(positionRepository.findAllById(anyIterable())).thenReturn(List.of(position));
+        when(summaryRepository.findAllById(anyIterable())).thenReturn(List.of(today));
+
+        job.rollUp();
+
+        // 20 units offered, 10 held at 100: only the 10 held realize, at a loss of 100
+        assertThat(today.getTradeCount()).isEqualTo(2);
+        assertThat(today.getRealizedPnl()).isEqualByComparingTo("-100");
+        assertThat(position.getQuantity()).isZero();
+        assertThat(position.getCostBasis()).isZero();
+    }
+
+    private static Trade trade(String action, String amount, String price, String cvar) {
+        return new Trade("usr_001", "CSE:JKH", action, new BigDecimal(amount), new BigDecimal(price), "ACCUMULATE",
+                new BigDecimal(cvar));
+    }
+}
@@ -0,0 +1,48 @@
+package com.antigravity.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class JitWarmupRunnerTest {
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private MessageListenerContainer stopped;
+
+    @Mock
+    private MessageListenerContainer running;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(running.isRunning()).thenReturn(true);
+        when(listenerRegistry.getAllListenerContainers()).thenReturn(List.of(stopped, running));
+    }
+
+    @Test
+    void should_StartStoppedListeners_WhenWarmUpFinishes() {
+        new JitWarmupRunner(new ObjectMapper(), listenerRegistry, true, 10).run(new DefaultApplicationArguments());
+
+        verify(stopped).start();
+        verify(running, never()).start();
+    }
+
+    @Test
+    void should_StartListeners_WhenWarmUpIsDisabled() {
+        new JitWarmupRunner(new ObjectMapper(), listenerRegistry, false, 10).run(new DefaultApplicationArguments());
+
+        verify(stopped).start();
+    }
+}
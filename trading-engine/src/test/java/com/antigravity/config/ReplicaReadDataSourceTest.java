@@ -0,0 +1,108 @@
+package com.antigravity.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaReadDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        // The lag "query" reads a value the test controls
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS lag (seconds DOUBLE)");
+        setLag(0.0);
+    }
+
+    private ReplicaReadDataSource route(String lagQuery) {
+        ReplicaReadDataSource reads = new ReplicaReadDataSource(primary, replica, Duration.ofSeconds(5),
+                new SimpleMeterRegistry(), lagQuery);
+        reads.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(reads);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return reads;
+    }
+
+    @Test
+    void should_SendReadOnlyTransactionsToReplica_AndWritesToPrimary() {
+        ReplicaReadDataSource reads = route("SELECT seconds FROM lag");
+        reads.checkLag();
+
+        assertThat(inReadOnly()).isEqualTo("replica");
+        assertThat(inReadWrite()).isEqualTo("primary");
+        assertThat(whoAmI()).isEqualTo("primary");
+    }
+
+    @Test
+    void should_FallBackToPrimary_WhileReplicaIsBehindOrUnchecked() {
+        ReplicaReadDataSource reads = route("SELECT seconds FROM lag");
+        assertThat(inReadOnly()).isEqualTo("primary");
+
+        setLag(30.0);
+        reads.checkLag();
+        assertThat(reads.isReplicaInUse()).isFalse();
+        assertThat(inReadOnly()).isEqualTo("primary");
+
+        setLag(1.0);
+        reads.checkLag();
+        assertThat(inReadOnly()).isEqualTo("replica");
+
+        // No streaming WAL receiver
+        setLag(null);
+        reads.checkLag();
+        assertThat(inReadOnly()).isEqualTo("primary");
+
+        ReplicaReadDataSource broken = route("SELECT no_such_column FROM lag");
+        broken.checkLag();
+        assertThat(inReadOnly()).isEqualTo("primary");
+    }
+
+    private String inReadOnly() {
+        return readOnly.execute(status -> whoAmI());
+    }
+
+    private String inReadWrite() {
+        return readWrite.execute(status -> whoAmI());
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private void setLag(Double seconds) {
+        new JdbcTemplate(replica).update("DELETE FROM lag");
+        new JdbcTemplate(replica).update("INSERT INTO lag VALUES (?)", seconds);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(16))");
+        jdbc.update("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,40 @@
+package com.antigravity.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulingConfigTest {
+
+    static class Jobs {
+
+        final CompletableFuture<String> critical = new CompletableFuture<>();
+        final CompletableFuture<String> shared = new CompletableFuture<>();
+
+        @Scheduled(fixedDelay = 10, scheduler = SchedulingConfig.CRITICAL_SCHEDULER)
+        public void criticalJob() {
+            critical.complete(Thread.currentThread().getName());
+        }
+
+        @Scheduled(fixedDelay = 10)
+        public void sharedJob() {
+            shared.complete(Thread.currentThread().getName());
+        }
+    }
+
+    @Test
+    void should_RunCriticalJobsOnTheirOwnPool_WhenTheyNameIt() throws Exception {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                SchedulingConfig.class, Jobs.class)) {
+            Jobs jobs = context.getBean(Jobs.class);
+
+            assertThat(jobs.critical.get(5, TimeUnit.SECONDS)).startsWith("critical-scheduler-");
+            assertThat(jobs.shared.get(5, TimeUnit.SECONDS)).startsWith("agent-scheduler-");
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.antigravity.journal;
+
+import com.antigravity.config.JournalProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_RestoreStateByReplay_WhenRestartedWithoutSnapshot() {
+        EventJournal journal = journal(DataSize.ofMegabytes(1));
+        Ticks ticks = new Ticks();
+        journal.recover(List.of(ticks));
+        for (long tick = 1; tick <= 3; tick++) {
+            ticks.add(journal, tick);
+        }
+        crash(journal);
+
+        Ticks restored = new Ticks();
+        journal(DataSize.ofMegabytes(1)).recover(List.of(restored));
+
+        assertThat(restored.seen).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void should_RestoreFromSnapshotAndDropCoveredSegments_WhenSnapshotted() throws IOException {
+        // Room for three records per segment
+        EventJournal journal = journal(DataSize.ofBytes(3 * (JournalRecord.HEADER_BYTES + Long.BYTES)));
+        Ticks ticks = new Ticks();
+        journal.recover(List.of(ticks));
+        for (long tick = 1; tick <= 7; tick++) {
+            ticks.add(journal, tick);
+        }
+        journal.writeSnapshot();
+        ticks.add(journal, 8);
+        crash(journal);
+
+        Ticks restored = new Ticks();
+        journal(DataSize.ofBytes(3 * (JournalRecord.HEADER_BYTES + Long.BYTES))).recover(List.of(restored));
+
+        assertThat(restored.seen).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(restored.replayed).isEqualTo(1);
+        assertThat(files(".journal")).doesNotContain("00000000000000000001.journal",
+                "00000000000000000004.journal");
+    }
+
+    @Test
+    void should_IgnoreTornTail_WhenLastRecordWasCutShort() throws IOException {
+        EventJournal journal = journal(DataSize.ofMegabytes(1));
+        Ticks ticks = new Ticks();
+        journal.recover(List.of(ticks));
+        ticks.add(journal, 1);
+        ticks.add(journal, 2);
+        crash(journal);
+        // Flip a payload byte of the second record, as a write cut off by the crash would leave it
+        try (RandomAccessFile segment = new RandomAccessFile(
+                directory.resolve("00000000000000000001.journal").toFile(), "rw")) {
+            long position = 2L * JournalRecord.HEADER_BYTES + Long.BYTES + 3;
+            segment.seek(position);
+            segment.write(0x7F);
+        }
+
+        Ticks restored = new Ticks();
+        EventJournal restarted = journal(DataSize.ofMegabytes(1));
+        restarted.recover(List.of(restored));
+        restored.add(restarted, 3);
+
+        assertThat(restored.seen).containsExactly(1L, 3L);
+    }
+
+    private EventJournal journal(DataSize segmentSize) {
+        return new EventJournal(new JournalProperties(true, directory, segmentSize, Duration.ofMinutes(1),
+                Duration.ofSeconds(1), 1000), null, new SimpleMeterRegistry());
+    }
+
+    /** Stops without the final snapshot that a clean shutdown writes. */
+    private static void crash(EventJournal journal) {
+        journal.flush();
+    }
+
+    private List<String> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(suffix)).toList();
+        }
+    }
+
+    private static final class Ticks implements JournalParticipant {
+
+        private final List<Long> seen = new ArrayList<>();
+        private int replayed;
+
+        void add(EventJournal journal, long tick) {
+            journal.record(JournalRecord.Type.TICK, out -> out.writeLong(tick), () -> seen.add(tick));
+        }
+
+        @Override
+        public String journalName() {
+            return "ticks";
+        }
+
+        @Override
+        public void writeSnapshot(DataOutput out) throws IOException {
+            out.writeInt(seen.size());
+            for (long tick : seen) {
+                out.writeLong(tick);
+            }
+        }
+
+        @Override
+        public void readSnapshot(DataInput in) throws IOException {
+            for (int i = in.readInt(); i > 0; i--) {
+                seen.add(in.readLong());
+            }
+        }
+
+        @Override
+        public void replay(JournalRecord.Type type, DataInput payload) throws IOException {
+            if (type == JournalRecord.Type.TICK) {
+                seen.add(payload.readLong());
+                replayed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.antigravity.llm;
+
+import com.antigravity.llm.StubLlmProperties.Distribution;
+import com.antigravity.llm.StubLlmProperties.LatencyProfile;
+import com.antigravity.llm.StubLlmProperties.Mode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallbackResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class StubChatModelTest {
+
+    private static final String TRADE_SYSTEM = "You are the Antigravity Trade Agent.";
+    private static final String BULLISH_EVENT = "Market Event: \n{\"asset_id\":\"CSE:JKH\",\"trend\":\"BULLISH\","
+            + "\"recommended_strategy\":\"ACCUMULATE\",\"volatility_score\":0.02,\"last_price\":150.0,"
+            + "\"anomaly_detected\":false}";
+
+    @Mock
+    private FunctionCallbackResolver functionCallbackResolver;
+
+    @Mock
+    private FunctionCallback capitalCallback;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StubChatModel stubChatModel;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(functionCallbackResolver.resolve(StubChatModel.CAPITAL_FUNCTION)).thenReturn(capitalCallback);
+        stubChatModel = new StubChatModel(new StubLlmProperties(Mode.RULES, null, 42, "usr_007", Map.of()),
+                functionCallbackResolver, objectMapper);
+    }
+
+    @Test
+    void should_RoundTripCapitalCheck_BeforeApprovingTrade() throws Exception {
+        when(capitalCallback.call(anyString())).thenReturn("{\"status\":\"SUCCESS\",\"message\":\"APPROVED\"}");
+
+        String content = ChatClient.builder(stubChatModel).defaultFunctions(StubChatModel.CAPITAL_FUNCTION).build()
+                .prompt().system(TRADE_SYSTEM).user(BULLISH_EVENT).call().content();
+
+        ArgumentCaptor<String> arguments = ArgumentCaptor.forClass(String.class);
+        verify(capitalCallback).call(arguments.capture());
+        assertThat(objectMapper.readTree(arguments.getValue()).path("userId").asText()).isEqualTo("usr_007");
+
+        JsonNode decision = objectMapper.readTree(content);
+        assertThat(decision.path("assetId").asText()).isEqualTo("CSE:JKH");
+        assertThat(decision.path("action").asText()).isEqualTo("BUY");
+        assertThat(decision.path("executionPrice").asDouble()).isEqualTo(150.0);
+    }
+
+    @Test
+    void should_CheckThePromptsUser_WhenPromptNamesOne() throws Exception {
+        when(capitalCallback.call(anyString())).thenReturn("{\"status\":\"SUCCESS\",\"message\":\"APPROVED\"}");
+
+        ChatClient.builder(stubChatModel).defaultFunctions(StubChatModel.CAPITAL_FUNCTION).build()
+                .prompt().system(TRADE_SYSTEM).user(BULLISH_EVENT.replace("{", "{\"user_id\":\"usr_042\","))
+                .call().content();
+
+        ArgumentCaptor<String> arguments = ArgumentCaptor.forClass(String.class);
+        verify(capitalCallback).call(arguments.capture());
+        assertThat(objectMapper.readTree(arguments.getValue()).path("userId").asText()).isEqualTo("usr_042");
+    }
+
+    @Test
+    void should_Deny_WhenCapitalCheckDenies() {
+        when(capitalCallback.call(anyString()))
+                .thenReturn("{\"status\":\"DENIED\",\"message\":\"DENIED: No accumulated profits exist\"}");
+
+        String content = ChatClient.builder(stubChatModel).defaultFunctions(StubChatModel.CAPITAL_FUNCTION).build()
+                .prompt().system(TRADE_SYSTEM).user(BULLISH_EVENT).call().content();
+
+        assertThat(content).startsWith("DENIED").doesNotContain("assetId");
+    }
+
+    @Test
+    void should_DeriveMarketHealth_FromRawFields() throws Exception {
+        String content = ChatClient.builder(stubChatModel).build().prompt()
+                .system("You are the Antigravity Analysis Agent.")
+                .user("Raw LocalMarket Data: {symbol=AAL, price=185.5, change_percent=2.5, volume_24h=4000000, "
+                        + "avg_volume_30d=1000000}")
+                .call().content();
+
+        JsonNode event = objectMapper.readTree(content);
+        assertThat(event.path("asset_id").asText()).isEqualTo("AAL");
+        assertThat(event.path("anomaly_detected").asBoolean()).isTrue();
+        assertThat(event.path("recommended_strategy").asText()).isEqualTo("HOLD");
+    }
+
+    @Test
+    void should_ReportTokenUsage() {
+        var response = ChatClient.builder(stubChatModel).build().prompt()
+                .system("You are the Antigravity Observer Agent.").user("payload mentioning azure")
+                .call().chatResponse();
+
+        assertThat(response.getMetadata().getUsage().getPromptTokens()).isPositive();
+        assertThat(response.getResult().getOutput().getText()).contains("\"hallucination_detected\":true");
+    }
+
+    @Test
+    void should_SampleSameLatencies_ForSameSeed() {
+        LatencyProfile profile = new LatencyProfile(Distribution.LOG_NORMAL, 800, 300);
+        LatencySampler first = new LatencySampler(7);
+        LatencySampler second = new LatencySampler(7);
+
+        List<Long> a = new ArrayList<>();
+        List<Long> b = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            a.add(first.sampleMillis(profile));
+            b.add(second.sampleMillis(profile));
+        }
+
+        assertThat(a).isEqualTo(b).allMatch(ms -> ms >= 0);
+    }
+}
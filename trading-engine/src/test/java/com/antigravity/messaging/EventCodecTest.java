@@ -0,0 +1,62 @@
+package com.antigravity.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecTest {
+
+    private static final MarketHealthEvent HEALTH = new MarketHealthEvent("CSE:JKH", "2024-01-01T10:00:00Z", 0.2,
+            "BULLISH", false, "ACCUMULATE", 0.9, new BigDecimal("185.50"));
+
+    @Test
+    void should_RoundTripEverySchema() {
+        TradeExecutedEvent trade = new TradeExecutedEvent("usr_001", "CSE:JKH", "BUY", new BigDecimal("900.00"),
+                new BigDecimal("150.0"), "ACCUMULATE", new BigDecimal("-180.00"), 1_704_103_200_000L);
+        AuditTraceEvent audit = new AuditTraceEvent("CDS_BALANCE_DRIFT", "SystemAgent", "DRIFT", "usr_002", null,
+                Map.of("drift", "-1000.0000"), 1_704_103_200_000L);
+
+        assertThat(EventCodec.decode(EventCodec.encode(HEALTH))).isEqualTo(HEALTH);
+        assertThat(EventCodec.decode(EventCodec.encode(trade))).isEqualTo(trade);
+        assertThat(EventCodec.decode(EventCodec.encode(audit))).isEqualTo(audit);
+    }
+
+    @Test
+    void should_SkipUnknownFields_WhenWrittenByNewerSchemaVersion() {
+        byte[] current = EventCodec.encode(HEALTH);
+        // Tag 15, length-delimited, carrying "x": a field this reader does not know.
+        byte[] newer = Arrays.copyOf(current, current.length + 3);
+        newer[current.length] = (byte) (15 << 3 | 2);
+        newer[current.length + 1] = 1;
+        newer[current.length + 2] = 'x';
+        newer[2] = (byte) (EventSchema.MARKET_HEALTH.version() + 1);
+
+        assertThat(EventCodec.decodeMarketHealth(newer)).isEqualTo(HEALTH);
+    }
+
+    @Test
+    void should_EncodeSmallerThanJson() throws Exception {
+        byte[] json = new ObjectMapper().writeValueAsBytes(HEALTH.toFields());
+
+        assertThat(EventCodec.encode(HEALTH).length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    void should_RejectPayload_WhenNotBinaryOrWrongSchema() {
+        byte[] legacyJson = "{\"asset_id\":\"CSE:JKH\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(EventCodec.isEncoded(legacyJson)).isFalse();
+        assertThatThrownBy(() -> EventCodec.decodeTradeExecuted(EventCodec.encode(HEALTH)))
+                .isInstanceOf(IllegalArgumentException.class);
+        byte[] truncated = Arrays.copyOf(EventCodec.encode(HEALTH), 8);
+        assertThatThrownBy(() -> EventCodec.decodeMarketHealth(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.antigravity.messaging;
+
+import com.antigravity.config.EventPublisherProperties;
+import com.antigravity.config.KafkaConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new EventPublisher(kafkaTemplate, new EventPublisherProperties.RetryBuffer(1, 3, 10),
+                meterRegistry);
+    }
+
+    @Test
+    void should_RecordSuccessAndLatency_WhenBrokerAcknowledges() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        publisher.publish(record("CSE:JKH"));
+
+        assertThat(meterRegistry.get("antigravity.kafka.publish")
+                .tag("topic", KafkaConfig.TOPIC_MARKET_HEALTH).tag("result", "success").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("antigravity.kafka.publish.latency").timer().count()).isEqualTo(1);
+        assertThat(publisher.bufferedCount()).isZero();
+    }
+
+    @Test
+    void should_BufferAndResend_WhenFailureIsRetriable() {
+        ProducerRecord<String, byte[]> record = record("CSE:JKH");
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new KafkaException("send failed", new TimeoutException("expired"))))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        publisher.publish(record);
+        assertThat(publisher.bufferedCount()).isEqualTo(1);
+
+        assertThat(publisher.drainRetryBuffer()).isEqualTo(1);
+
+        verify(kafkaTemplate, times(2)).send(record);
+        assertThat(publisher.bufferedCount()).isZero();
+        assertThat(meterRegistry.get("antigravity.kafka.publish").tag("result", "success").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void should_DropAndCount_WhenBufferFullOrFailureNotRetriable() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("expired")))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("expired")))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+
+        publisher.publish(record("CSE:JKH"));
+        publisher.publish(record("CSE:COMB"));
+        publisher.publish(record("CSE:HNB"));
+
+        assertThat(publisher.bufferedCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("antigravity.kafka.publish").tag("result", "overflow").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("antigravity.kafka.publish").tag("result", "failure").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private static ProducerRecord<String, byte[]> record(String key) {
+        return new ProducerRecord<>(KafkaConfig.TOPIC_MARKET_HEALTH, key, new byte[] {1, 2, 3});
+    }
+}
@@ -0,0 +1,100 @@
+package com.antigravity.messaging;
+
+import com.antigravity.config.KafkaConfig;
+import com.antigravity.models.OutboxEvent;
+import com.antigravity.models.OutboxEventRepository;
+import com.antigravity.tracing.LatencyTraceCollector;
+import com.antigravity.tracing.TraceContext;
+import com.antigravity.tracing.TraceStage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(kafkaTemplate.executeInTransaction(any())).thenAnswer(
+                inv -> inv.<KafkaOperations.OperationsCallback<String, byte[], Object>>getArgument(0)
+                        .doInOperations(kafkaTemplate));
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, new TransactionTemplate(transactionManager),
+                new LatencyTraceCollector(new SimpleMeterRegistry()), new SimpleMeterRegistry(), 2, 24);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_PublishBatchInOneKafkaTransactionAndMarkPublished_WhenEventsPending() {
+        OutboxEvent first = event("CSE:JKH");
+        OutboxEvent second = event("CSE:COMB");
+        when(outboxEventRepository.findPendingForUpdate(any()))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+
+        int published = relay.relayPending();
+
+        assertThat(published).isEqualTo(2);
+        verify(kafkaTemplate, times(1)).executeInTransaction(any());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(captor.capture());
+        ProducerRecord<String, byte[]> record = captor.getAllValues().get(0);
+        assertThat(record.key()).isEqualTo("CSE:JKH");
+        assertThat(new String(record.headers().lastHeader(OutboxRelay.HEADER_EVENT_ID).value(),
+                StandardCharsets.UTF_8)).isEqualTo(first.getId().toString());
+        assertThat(TraceContext.fromHeaders(record.headers()).getStamp(TraceStage.TRADE_LOG_PUBLISHED)).isNotNull();
+        assertThat(first.getPublishedAt()).isNotNull();
+        assertThat(second.getPublishedAt()).isNotNull();
+        verify(outboxEventRepository).saveAll(List.of(first, second));
+    }
+
+    @Test
+    void should_LeaveEventsPendingAndRollBack_WhenKafkaTransactionFails() {
+        OutboxEvent pending = event("CSE:JKH");
+        when(outboxEventRepository.findPendingForUpdate(any())).thenReturn(List.of(pending));
+        doThrow(new KafkaException("broker down")).when(kafkaTemplate).executeInTransaction(any());
+
+        assertThatThrownBy(relay::relayPending).isInstanceOf(KafkaException.class);
+
+        assertThat(pending.getPublishedAt()).isNull();
+        verify(outboxEventRepository, never()).saveAll(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static OutboxEvent event(String key) {
+        OutboxEvent event = new OutboxEvent(KafkaConfig.TOPIC_TRADE_LOGS, key,
+                ("{\"assetId\":\"" + key + "\"}").getBytes(StandardCharsets.UTF_8), TraceContext.start().encode());
+        ReflectionTestUtils.setField(event, "id", UUID.randomUUID());
+        return event;
+    }
+}
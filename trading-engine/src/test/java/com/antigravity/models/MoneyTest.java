@@ -0,0 +1,44 @@
+package com.antigravity.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void should_RoundTripColumnValues_AtFourDecimals() {
+        MoneyConverter converter = new MoneyConverter();
+
+        Money money = converter.convertToEntityAttribute(new BigDecimal("105000.12345"));
+
+        assertThat(money.units()).isEqualTo(1_050_001_235L);
+        assertThat(money.toString()).isEqualTo("105000.1235");
+        assertThat(converter.convertToDatabaseColumn(money)).isEqualByComparingTo("105000.1235");
+        assertThat(Money.of("-0.25").toString()).isEqualTo("-0.2500");
+    }
+
+    @Test
+    void should_ApplyRatesInBasisPoints() {
+        Money profit = Money.of("5000");
+        long threshold = Money.basisPoints(new BigDecimal("0.10"));
+
+        assertThat(threshold).isEqualTo(1_000);
+        assertThat(profit.timesBasisPoints(threshold)).isEqualTo(Money.of("500"));
+        assertThat(Money.of("180").basisPointsOf(Money.of("900"))).isEqualTo(2_000);
+        assertThat(Money.of("500").dividedByBasisPoints(2_000)).isEqualTo(Money.of("2500"));
+        assertThat(Money.of("900").wholeUnitsOf(Money.of("150.0"))).isEqualTo(6);
+    }
+
+    @Test
+    void should_FailInsteadOfWrapping_OnOverflow() {
+        Money max = Money.ofUnits(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> max.plus(Money.of("0.0001"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.timesBasisPoints(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e16"))).isInstanceOf(ArithmeticException.class);
+    }
+}
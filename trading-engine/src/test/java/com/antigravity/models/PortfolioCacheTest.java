@@ -0,0 +1,73 @@
+package com.antigravity.models;
+
+import com.antigravity.agents.system.SystemAgentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class PortfolioCacheTest {
+
+    @Autowired
+    private SystemAgentService systemAgentService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // The locking write paths use FOR NO KEY UPDATE, which H2 rejects (see
+    // SystemAgentConcurrencyTest), so the write here is a plain JPA update.
+    @Test
+    void should_ServeReadsFromCache_AndSeeCapitalWritesImmediately() {
+        Portfolio created = portfolioRepository.save(new Portfolio("cache_user", new BigDecimal("1000.00")));
+        assertThat(created.getId().version()).isEqualTo(7);
+
+        Portfolio read = portfolioRepository.findByUserId("cache_user").orElseThrow();
+        assertThat(entityManagerFactory.getCache().contains(Portfolio.class, read.getId())).isTrue();
+
+        read.addDeposit(new BigDecimal("500.00"));
+        portfolioRepository.save(read);
+
+        assertThat(systemAgentService.getPortfolio("cache_user").orElseThrow().getProtectedCapitalBase())
+                .isEqualByComparingTo("1500.00");
+        assertThat(portfolioRepository.findByUserId("nobody")).isEmpty();
+    }
+
+    @Test
+    void should_NotFillCache_WhenReadJoinsReadOnlyTransaction() {
+        Portfolio created = portfolioRepository.save(new Portfolio("replica_user", new BigDecimal("1000.00")));
+        entityManagerFactory.getCache().evict(Portfolio.class);
+
+        // Read-only transactions may be routed to the replica
+        assertThat(systemAgentService.getPortfolio("replica_user")).isPresent();
+        assertThat(entityManagerFactory.getCache().contains(Portfolio.class, created.getId())).isFalse();
+
+        portfolioRepository.findByUserId("replica_user").orElseThrow();
+        assertThat(entityManagerFactory.getCache().contains(Portfolio.class, created.getId())).isTrue();
+    }
+
+    @Test
+    void should_AssignTimeOrderedIds_OnInsert() {
+        Trade first = tradeRepository.save(new Trade("trade_user", "CSE:JKH", "BUY", new BigDecimal("100"),
+                new BigDecimal("10"), "ACCUMULATE", new BigDecimal("20")));
+        Trade second = tradeRepository.save(new Trade("trade_user", "CSE:JKH", "BUY", new BigDecimal("100"),
+                new BigDecimal("10"), "ACCUMULATE", new BigDecimal("20")));
+
+        assertThat(first.getId().version()).isEqualTo(7);
+        assertThat(second.getId().toString()).isGreaterThan(first.getId().toString());
+    }
+}
@@ -0,0 +1,26 @@
+package com.antigravity.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    void should_BeVersion7AndStrictlyIncreasing_WithinOneMillisecond() {
+        long before = System.currentTimeMillis();
+        List<UUID> ids = IntStream.range(0, 10_000).mapToObj(i -> TimeOrderedUuid.next()).toList();
+
+        assertThat(ids).allSatisfy(id -> {
+            assertThat(id.version()).isEqualTo(7);
+            assertThat(id.variant()).isEqualTo(2);
+        });
+        // Postgres orders uuid values by their bytes, i.e. by the hex string
+        assertThat(ids).extracting(UUID::toString).isSorted().doesNotHaveDuplicates();
+        assertThat(TimeOrderedUuid.timestampOf(ids.get(0))).isGreaterThanOrEqualTo(before);
+    }
+}
@@ -0,0 +1,99 @@
+package com.antigravity.risk;
+
+import com.antigravity.risk.AllocationOptimizer.Problem;
+import com.antigravity.risk.AllocationOptimizer.Solution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AllocationOptimizerTest {
+
+    // Σ⁻¹μ is (0.2, 0.2)
+    private static final double[] MU = { 0.01, 0.02 };
+    private static final double[] SIGMA = { 0.04, 0.01, 0.01, 0.09 };
+
+    private final AllocationOptimizer optimizer = new AllocationOptimizer(Integer.MAX_VALUE, 1, 5_000, 1e-12);
+
+    @AfterEach
+    void tearDown() {
+        optimizer.close();
+    }
+
+    @Test
+    void should_TakeScaledKellyPosition_WhenNothingBinds() {
+        Solution solution = optimizer.solve(new Problem(new double[] { 0.01 }, new double[] { 0.04 },
+                new double[] { 0 }, new double[] { 0 }, new double[] { 10_000 }, new double[] { 0.1 }, 1_000, 1_000));
+
+        assertThat(solution.converged()).isTrue();
+        assertThat(solution.positions()[0]).isCloseTo(250, within(1e-6));
+    }
+
+    @Test
+    void should_MatchInverseCovariance_WhenTwoAssetsAreInterior() {
+        Solution solution = optimizer.solve(new Problem(MU, SIGMA, new double[2], new double[2],
+                new double[] { 10_000, 10_000 }, new double[] { 0.1, 0.1 }, 1_000, 1_000));
+
+        assertThat(solution.positions()[0]).isCloseTo(200, within(1e-6));
+        assertThat(solution.positions()[1]).isCloseTo(200, within(1e-6));
+    }
+
+    @Test
+    void should_SpendExactlyTheCvarBudget_WhenItBinds() {
+        double[] current = { 20, 0 };
+        double[] rates = { 0.5, 0.5 };
+        Solution solution = optimizer.solve(new Problem(MU, SIGMA, current, current,
+                new double[] { 10_000, 10_000 }, rates, 100, 1_000));
+
+        double[] w = solution.positions();
+        assertThat(rates[0] * (w[0] - current[0]) + rates[1] * (w[1] - current[1])).isCloseTo(100, within(1e-6));
+        assertThat(w[0] + w[1]).isLessThan(400);
+        assertThat(w[0]).isGreaterThanOrEqualTo(current[0]);
+    }
+
+    @Test
+    void should_KeepWithinBounds_WhenHoldingsAreFixed() {
+        // The second asset is held at 300, which already uses up the first one's tolerance for risk
+        Solution solution = optimizer.solve(new Problem(new double[] { 0.01, 0 }, new double[] { 0.04, 0.03, 0.03, 0.04 },
+                new double[] { 0, 300 }, new double[] { 0, 300 }, new double[] { 50, 300 }, new double[] { 0.1, 0 },
+                1_000, 1_000));
+
+        assertThat(solution.positions()[1]).isEqualTo(300);
+        assertThat(solution.positions()[0]).isCloseTo(25, within(1e-6));
+
+        Solution capped = optimizer.solve(new Problem(MU, SIGMA, new double[2], new double[2],
+                new double[] { 50, 10_000 }, new double[] { 0.1, 0.1 }, 1_000, 1_000));
+        assertThat(capped.positions()[0]).isEqualTo(50);
+    }
+
+    @Test
+    void should_MatchSequentialSolve_WhenProductsRunInParallel() {
+        int n = 200;
+        Random random = new Random(17);
+        double[] loadings = random.doubles(n, 0.5, 1.5).toArray();
+        double[] sigma = new double[n * n];
+        double[] mu = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                sigma[i * n + j] = 0.01 * loadings[i] * loadings[j] + (i == j ? 0.02 : 0);
+            }
+            mu[i] = random.nextDouble() * 0.02 - 0.005;
+        }
+        double[] upper = new double[n];
+        Arrays.fill(upper, 1_000);
+        double[] rates = new double[n];
+        Arrays.fill(rates, 0.2);
+        Problem problem = new Problem(mu, sigma, new double[n], new double[n], upper, rates, 500, 10_000);
+
+        AllocationOptimizer parallel = new AllocationOptimizer(0, 4, 5_000, 1e-12);
+        try {
+            assertThat(parallel.solve(problem).positions()).containsExactly(optimizer.solve(problem).positions());
+        } finally {
+            parallel.close();
+        }
+    }
+}
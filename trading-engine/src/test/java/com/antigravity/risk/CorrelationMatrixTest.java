@@ -0,0 +1,115 @@
+package com.antigravity.risk;
+
+import com.antigravity.risk.CorrelationMatrix.Holding;
+import com.antigravity.risk.CorrelationMatrix.PortfolioRisk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CorrelationMatrixTest {
+
+    private CorrelationMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        matrix = matrix();
+    }
+
+    @Test
+    void should_TrackCoMovement_WhenSymbolsSampledTogether() {
+        Random random = new Random(11);
+        double factor = 0;
+        double noise = 0;
+        for (int second = 0; second < 500; second++) {
+            factor += random.nextGaussian() * 0.001;
+            noise += random.nextGaussian() * 0.001;
+            matrix.observe("JKH", second * 1000L, 100 * Math.exp(factor));
+            matrix.observe("COMB", second * 1000L, 50 * Math.exp(-factor));
+            matrix.observe("HNB", second * 1000L, 200 * Math.exp(noise));
+        }
+
+        assertThat(matrix.correlation("JKH", "COMB")).isCloseTo(-1.0, within(1e-9));
+        assertThat(matrix.correlation("CSE:JKH", "HNB")).isBetween(-0.2, 0.2);
+        assertThat(matrix.covariance("JKH", "JKH")).isPositive();
+    }
+
+    @Test
+    void should_PairOverlappingReturns_WhenSymbolsSampledAtDifferentRates() {
+        // One price path, JKH sampled every second and COMB every third
+        Random random = new Random(3);
+        double path = 0;
+        for (int second = 0; second < 3_000; second++) {
+            path += random.nextGaussian() * 0.001;
+            matrix.observe("JKH", second * 1000L, 100 * Math.exp(path));
+            if (second % 3 == 0) {
+                matrix.observe("COMB", second * 1000L, 100 * Math.exp(path));
+            }
+        }
+
+        assertThat(matrix.correlation("JKH", "COMB")).isGreaterThan(0.9);
+        assertThat(matrix.covariance("COMB", "COMB") / matrix.covariance("JKH", "JKH")).isBetween(0.8, 1.25);
+    }
+
+    @Test
+    void should_CountOnlyCorrelatedHoldings_WhenAssessingExposure() {
+        Random random = new Random(5);
+        double factor = 0;
+        double noise = 0;
+        for (int second = 0; second < 500; second++) {
+            factor += random.nextGaussian() * 0.001;
+            noise += random.nextGaussian() * 0.001;
+            matrix.observe("JKH", second * 1000L, 100 * Math.exp(factor));
+            matrix.observe("COMB", second * 1000L, 50 * Math.exp(factor));
+            matrix.observe("HNB", second * 1000L, 200 * Math.exp(noise));
+        }
+        List<Holding> holdings = List.of(
+                new Holding("CSE:COMB", 100, 4_000),
+                new Holding("CSE:HNB", 10, 1_500),
+                new Holding("CSE:XYZ", 5, 700));
+
+        PortfolioRisk risk = matrix.assess(holdings, "CSE:JKH", 1_000);
+        PortfolioRisk alone = matrix.assess(List.of(), "CSE:JKH", 1_000);
+
+        double comb = 100 * 50 * Math.exp(factor);
+        assertThat(risk.correlatedExposure()).isBetween(1_000 + comb * 0.99, 1_000 + comb + 500);
+        assertThat(alone.correlatedExposure()).isEqualTo(1_000);
+        assertThat(risk.volatility()).isGreaterThan(alone.volatility());
+    }
+
+    @Test
+    void should_RestoreSameEstimates_WhenReadFromSnapshot() throws IOException {
+        Random random = new Random(9);
+        double path = 0;
+        for (int second = 0; second < 200; second++) {
+            path += random.nextGaussian() * 0.001;
+            matrix.observe("JKH", second * 1000L, 100 * Math.exp(path));
+            matrix.observe("HNB", second * 1000L, 100 * Math.exp(path + random.nextGaussian() * 0.001));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        matrix.writeSnapshot(new DataOutputStream(bytes));
+
+        CorrelationMatrix restored = matrix();
+        restored.readSnapshot(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        matrix.observe("JKH", 200_000L, 101);
+        restored.observe("JKH", 200_000L, 101);
+
+        assertThat(restored.correlation("JKH", "HNB")).isCloseTo(matrix.correlation("JKH", "HNB"), within(1e-12));
+        assertThat(restored.covariance("JKH", "JKH")).isCloseTo(matrix.covariance("JKH", "JKH"), within(1e-12));
+    }
+
+    private static CorrelationMatrix matrix() {
+        return new CorrelationMatrix(List.of("JKH", "COMB", "HNB"), Duration.ofMinutes(30), Duration.ofMinutes(10),
+                Duration.ofHours(5), 20);
+    }
+}
@@ -0,0 +1,83 @@
+package com.antigravity.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyTraceCollectorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LatencyTraceCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        collector = new LatencyTraceCollector(meterRegistry);
+    }
+
+    @Test
+    void should_CarryTraceIdAndStamps_AcrossKafkaHeaders() {
+        TraceContext origin = TraceContext.start();
+        collector.record(origin, TraceStage.ANALYSIS_COMPLETED);
+
+        RecordHeaders headers = new RecordHeaders();
+        origin.writeTo(headers);
+        TraceContext downstream = TraceContext.fromHeaders(headers);
+
+        assertThat(downstream.getTraceId()).isEqualTo(origin.getTraceId());
+        assertThat(downstream.getStamps()).isEqualTo(origin.getStamps());
+    }
+
+    @Test
+    void should_StartFreshTrace_WhenHeadersAreMissing() {
+        TraceContext trace = TraceContext.fromHeaders(new RecordHeaders());
+
+        assertThat(trace.getTraceId()).isNotBlank();
+        assertThat(trace.getStamp(TraceStage.TICK_INGESTED)).isNotNull();
+    }
+
+    @Test
+    void should_RecordStageAndSinceTickLatency() {
+        TraceContext trace = TraceContext.start();
+        collector.record(trace, TraceStage.MARKET_EVENT_RECEIVED);
+        collector.record(trace, TraceStage.ORDER_ACKNOWLEDGED);
+
+        assertThat(meterRegistry.get(LatencyTraceCollector.STAGE_METRIC)
+                .tag("stage", "ORDER_ACKNOWLEDGED").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(LatencyTraceCollector.SINCE_TICK_METRIC)
+                .tag("stage", "ORDER_ACKNOWLEDGED").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(LatencyTraceCollector.STAGE_METRIC)
+                .tag("stage", "TRADE_DECIDED").timer().count()).isZero();
+    }
+
+    @Test
+    void should_KeepOnlyTheFirstDecisionAfterStartup() {
+        assertThat(meterRegistry.get("antigravity.startup.first-decision.latency").gauge().value()).isNaN();
+
+        TraceContext first = TraceContext.start();
+        collector.record(first, TraceStage.MARKET_EVENT_RECEIVED);
+        collector.record(first, TraceStage.TRADE_DECIDED);
+        double firstLatency = meterRegistry.get("antigravity.startup.first-decision.latency").gauge().value();
+        double sinceStart = meterRegistry.get("antigravity.startup.first-decision.since-start").gauge().value();
+
+        TraceContext second = TraceContext.start();
+        collector.record(second, TraceStage.MARKET_EVENT_RECEIVED);
+        collector.record(second, TraceStage.TRADE_DECIDED);
+
+        assertThat(firstLatency).isNotNaN().isNotNegative();
+        assertThat(sinceStart).isPositive();
+        assertThat(meterRegistry.get("antigravity.startup.first-decision.since-start").gauge().value())
+                .isEqualTo(sinceStart);
+    }
+
+    @Test
+    void should_ExposeHistogramsInSnapshot() {
+        TraceContext trace = TraceContext.start();
+        collector.record(trace, TraceStage.ANALYSIS_COMPLETED);
+
+        assertThat(collector.snapshot()).containsKeys("stageLatency", "sinceTickLatency");
+    }
+}
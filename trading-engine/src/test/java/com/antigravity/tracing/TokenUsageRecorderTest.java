@@ -0,0 +1,56 @@
+package com.antigravity.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenUsageRecorderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TokenUsageRecorder recorder = new TokenUsageRecorder(registry, 0.001, 0.002);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_AccumulateTokensAndCost_PerAgent() {
+        recorder.record("TradeAgent", response(1000, 500), 1_000_000_000L);
+        recorder.record("TradeAgent", response(1000, 500), 1_000_000_000L);
+        recorder.recordTradeExecuted();
+
+        Map<String, Object> snapshot = recorder.snapshot();
+        Map<String, Object> trade = (Map<String, Object>) ((Map<String, Object>) snapshot.get("agents")).get("TradeAgent");
+
+        assertThat(trade.get("calls")).isEqualTo(2.0);
+        assertThat(trade.get("promptTokens")).isEqualTo(2000.0);
+        assertThat(trade.get("completionTokens")).isEqualTo(1000.0);
+        // 2k prompt * 0.001 + 1k completion * 0.002
+        assertThat((double) trade.get("costUsd")).isCloseTo(0.004, within(1e-9));
+        assertThat((double) trade.get("msPerCompletionToken")).isCloseTo(2.0, within(1e-6));
+        assertThat((double) snapshot.get("costPerTradeUsd")).isCloseTo(0.004, within(1e-9));
+        assertThat(registry.get(TokenUsageRecorder.TOKENS_METRIC).tag("type", "prompt").counter().count())
+                .isEqualTo(2000.0);
+    }
+
+    @Test
+    void should_CountCall_WhenResponseHasNoUsage() {
+        recorder.record("ObserverAgent", new ChatResponse(List.of(new Generation(new AssistantMessage("{}")))), 1L);
+
+        assertThat(registry.get(TokenUsageRecorder.CALLS_METRIC).tag("agent", "ObserverAgent").counter().count())
+                .isEqualTo(1.0);
+        assertThat(recorder.snapshot().get("costPerTradeUsd")).isEqualTo(0.0);
+    }
+
+    private static ChatResponse response(int promptTokens, int completionTokens) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(promptTokens, completionTokens)).build());
+    }
+}